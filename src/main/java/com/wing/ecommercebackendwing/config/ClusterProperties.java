@@ -0,0 +1,34 @@
+package com.wing.ecommercebackendwing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Shared state across replicas (token blacklist, user status cache, rate limit budgets, status streams) using the application's Postgres.
+ * Disabled by default: a single instance keeps everything in memory.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cluster")
+@Data
+public class ClusterProperties {
+
+    private boolean enabled = false;
+
+    /** How often queued revocations and rate limit deltas are written in one batch. */
+    private long flushIntervalMs = 250;
+
+    /** Safety-net poll for revocations whose NOTIFY was missed (e.g. listener reconnect). */
+    private long catchUpIntervalMs = 5000;
+
+    /** How often expired revocations and rate limit windows are deleted. */
+    private long cleanupIntervalMs = 300000;
+
+    private String revocationChannel = "wing_token_revoked";
+
+    /** Carries user status cache invalidations (revocation, lockout, password change). */
+    private String userStatusChannel = "wing_user_status";
+
+    /** Carries status stream events to the replica holding the user's connection. */
+    private String statusStreamChannel = "wing_status_events";
+}
@@ -0,0 +1,37 @@
+package com.wing.ecommercebackendwing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * In-process facet counts for the product listing.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.facets")
+@Data
+public class FacetProperties {
+
+    /** When off, or until the first build finishes, listings are returned without facets. */
+    private boolean enabled = true;
+
+    /** Full rebuild from the database; picks up writes made on other replicas. */
+    private long rebuildIntervalMs = 3600000;
+
+    /** Products read per query while rebuilding. */
+    private int rebuildPageSize = 5000;
+
+    /**
+     * Upper bounds of the price buckets, ascending. The last bucket is open-ended, so
+     * {@code 10,50} gives under 10, 10 to 50 and 50 and up.
+     */
+    private List<BigDecimal> priceBuckets = List.of(
+            new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50"),
+            new BigDecimal("100"), new BigDecimal("250"));
+
+    /** Category and merchant values returned per listing, the largest counts first. */
+    private int maxValues = 20;
+}
@@ -0,0 +1,36 @@
+package com.wing.ecommercebackendwing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Delivery of order, payment and points side effects through the transactional outbox.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.outbox")
+@Data
+public class OutboxProperties {
+
+    /** Threads running handlers after commit. */
+    private int workerThreads = 4;
+
+    /** Events waiting for a worker; overflow is left to the poller. */
+    private int queueCapacity = 1000;
+
+    /** Failed deliveries before an event is parked. */
+    private int maxAttempts = 8;
+
+    private long initialBackoffMs = 1000;
+    private long maxBackoffMs = 300000;
+
+    /** Safety-net poll for events whose after-commit dispatch never ran (crash, full queue, retry). */
+    private long pollIntervalMs = 5000;
+    private int pollBatchSize = 100;
+
+    /** How long a claimed event is hidden from other pollers before it can be retried. */
+    private long leaseSeconds = 60;
+
+    private long retentionHours = 72;
+    private long cleanupIntervalMs = 3600000;
+}
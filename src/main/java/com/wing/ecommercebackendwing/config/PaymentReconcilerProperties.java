@@ -0,0 +1,28 @@
+package com.wing.ecommercebackendwing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Background confirmation of PENDING KHQR payments against the Bakong md5 list endpoint.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.payment-reconciler")
+@Data
+public class PaymentReconcilerProperties {
+
+    private boolean enabled = true;
+
+    /** Delay between the end of one pass and the start of the next. */
+    private long intervalMs = 5000;
+
+    /** Payments read per keyset page. */
+    private int batchSize = 200;
+
+    /** Hashes per gateway request, capped at the Bakong limit of 50. */
+    private int gatewayChunkSize = 50;
+
+    /** Gateway requests in flight at once. */
+    private int parallelism = 4;
+}
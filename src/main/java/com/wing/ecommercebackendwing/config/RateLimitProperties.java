@@ -0,0 +1,76 @@
+package com.wing.ecommercebackendwing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting configuration.
+ *
+ * Policies are matched in declaration order; the first match wins. When no policies are declared,
+ * the legacy {@code auth}, {@code payment-verify} and {@code product-export} limits are turned into
+ * the three built-in policies.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "security.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private Store store = new Store();
+    private List<Policy> policies = new ArrayList<>();
+
+    // Legacy single-purpose limits, still honoured for existing deployments.
+    private Limit auth = new Limit(5, 60);
+    private Limit paymentVerify = new Limit(15, 60);
+    private Limit productExport = new Limit(10, 60);
+
+    public enum Algorithm {
+        TOKEN_BUCKET,
+        SLIDING_WINDOW
+    }
+
+    public enum KeyType {
+        IP,
+        USER,
+        IP_AND_USER
+    }
+
+    @Data
+    public static class Store {
+        /** Upper bound on tracked keys across all policies. */
+        private long maxKeys = 100_000;
+        /** Keys untouched for this long are evicted. */
+        private long idleSeconds = 600;
+    }
+
+    @Data
+    public static class Limit {
+        private int maxRequests;
+        private long windowSeconds;
+
+        public Limit() {
+        }
+
+        public Limit(int maxRequests, long windowSeconds) {
+            this.maxRequests = maxRequests;
+            this.windowSeconds = windowSeconds;
+        }
+    }
+
+    @Data
+    public static class Policy {
+        private String name;
+        /** HTTP methods this policy applies to; empty means any method. */
+        private List<String> methods = new ArrayList<>();
+        /** Ant-style path patterns, e.g. {@code /api/payments/verify/**}. */
+        private List<String> paths = new ArrayList<>();
+        private Algorithm algorithm = Algorithm.TOKEN_BUCKET;
+        private KeyType key = KeyType.IP;
+        private int maxRequests = 60;
+        private long windowSeconds = 60;
+    }
+}
@@ -0,0 +1,50 @@
+package com.wing.ecommercebackendwing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-process product search index.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.search")
+@Data
+public class SearchProperties {
+
+    /** When off, or until the first build finishes, search falls back to the SQL LIKE query. */
+    private boolean enabled = true;
+
+    /**
+     * Full rebuild from the database. Picks up writes made on other replicas and refreshes
+     * sold count and rating, which change without going through the product write paths.
+     */
+    private long rebuildIntervalMs = 3600000;
+
+    /** Products read per query while rebuilding. */
+    private int rebuildPageSize = 2000;
+
+    /** Terms a prefix (the last query word) may expand to; the most common are kept. */
+    private int maxPrefixExpansions = 50;
+
+    /**
+     * Ranked matches handed to the product listing query when a search is combined with other
+     * filters. Deeper results than this are not reachable by paging.
+     */
+    private int maxFilterMatches = 10000;
+
+    /** Prefix matches score below whole-word matches by this factor. */
+    private double prefixMatchWeight = 0.7;
+
+    /** Field weights inside BM25. */
+    private double nameWeight = 3.0;
+    private double categoryWeight = 2.0;
+    private double descriptionWeight = 1.0;
+
+    private double bm25K1 = 1.2;
+    private double bm25B = 0.75;
+
+    /** Added to the text score: popularityWeight * ln(1 + soldCount) + ratingWeight * rating. */
+    private double popularityWeight = 0.3;
+    private double ratingWeight = 0.2;
+}
@@ -0,0 +1,37 @@
+package com.wing.ecommercebackendwing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Server-Sent Events stream of payment and order status changes.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.status-stream")
+@Data
+public class StatusStreamProperties {
+
+    /** Open streams per user; the oldest is closed when another one connects. */
+    private int maxSubscribersPerUser = 5;
+
+    /** Open streams on this node; further clients are told to retry later. */
+    private int maxSubscribers = 10000;
+
+    /** Comment lines sent on idle streams so proxies do not drop them. */
+    private long heartbeatIntervalMs = 15000;
+
+    /** Streams are closed after this long; EventSource reconnects with Last-Event-ID. */
+    private long emitterTimeoutMs = 1800000;
+
+    /** Recent events kept per user for Last-Event-ID resume. */
+    private int replaySize = 20;
+    private long replayTtlSeconds = 600;
+
+    /** Reconnect delay suggested to clients turned away at capacity. */
+    private long retryAfterMs = 30000;
+
+    /** Threads writing to client connections, so slow clients never block the outbox. */
+    private int senderThreads = 2;
+    private int senderQueueCapacity = 10000;
+}
@@ -0,0 +1,36 @@
+package com.wing.ecommercebackendwing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Type-ahead suggestions (GET /api/products/suggest).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.suggest")
+@Data
+public class SuggestProperties {
+
+    /** When off, or until the first build finishes, the endpoint returns no suggestions. */
+    private boolean enabled = true;
+
+    /** Full rebuild from the database; refreshes sold and view counts and category names. */
+    private long rebuildIntervalMs = 3600000;
+
+    /** Products read per query while rebuilding. */
+    private int rebuildPageSize = 5000;
+
+    /**
+     * Product writes held beside the compact index before it is rebuilt in memory to include
+     * them. Queries scan these linearly, so keep it small.
+     */
+    private int maxPendingWrites = 1000;
+
+    /** Words of a name a prefix may start at: "wireless noise cancelling headphones" matches "noi". */
+    private int maxWordStarts = 4;
+
+    /** Ranking: soldWeight * ln(1 + soldCount) + viewWeight * ln(1 + viewCount). */
+    private double soldWeight = 1.0;
+    private double viewWeight = 0.25;
+}
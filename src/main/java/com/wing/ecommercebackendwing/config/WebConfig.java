@@ -1,12 +1,21 @@
 package com.wing.ecommercebackendwing.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    /**
+     * Longest a streamed response body (the catalog export) may run. SSE emitters set their own
+     * timeout, so this only covers StreamingResponseBody.
+     */
+    @Value("${app.product-export.timeout-ms:600000}")
+    private long streamingTimeoutMs;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -15,4 +24,9 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(streamingTimeoutMs);
+    }
 }
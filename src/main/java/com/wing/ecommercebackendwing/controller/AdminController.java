@@ -3,6 +3,8 @@ package com.wing.ecommercebackendwing.controller;
 import com.wing.ecommercebackendwing.dto.response.common.MessageResponse;
 import com.wing.ecommercebackendwing.dto.response.order.OrderResponse;
 import com.wing.ecommercebackendwing.service.AdminService;
+import com.wing.ecommercebackendwing.service.product.ProductCacheStats;
+import com.wing.ecommercebackendwing.service.search.ProductSearchIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -16,6 +18,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin")
 @RequiredArgsConstructor
@@ -33,6 +37,24 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getDashboardStats());
     }
 
+    @GetMapping("/caches/products")
+    @Operation(summary = "Get product cache hit, miss and eviction counters")
+    public ResponseEntity<ProductCacheStats> getProductCacheStats() {
+        return ResponseEntity.ok(adminService.getProductCacheStats());
+    }
+
+    @PostMapping("/search/rebuild")
+    @Operation(summary = "Rebuild the product search index from the database")
+    public ResponseEntity<ProductSearchIndex.Stats> rebuildSearchIndex() {
+        return ResponseEntity.ok(adminService.rebuildSearchIndex());
+    }
+
+    @PostMapping("/ratings/repair")
+    @Operation(summary = "Recount product ratings and review counts from the reviews")
+    public ResponseEntity<Map<String, Integer>> repairProductRatings() {
+        return ResponseEntity.ok(Map.of("repaired", adminService.repairProductRatings()));
+    }
+
     @GetMapping("/orders")
     @Operation(summary = "Get all orders for admin")
     public ResponseEntity<Page<OrderResponse>> getAllOrders(
@@ -244,13 +244,10 @@ public class AuthController {
             @RequestHeader(value = "Authorization", required = false) String authHeader,
             HttpServletResponse httpResponse) {
         
-        // Blacklist access token if present
+        // Blacklist access token if present (until its own expiry)
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String accessToken = authHeader.substring(7);
-            String jti = jwtTokenProvider.getJtiFromToken(accessToken);
-            if (jti != null) {
-                tokenBlacklistService.blacklist(jti);
-            }
+            jwtTokenProvider.parseAccessToken(accessToken).ifPresent(tokenBlacklistService::blacklist);
         }
         
         // Revoke refresh tokens in database
@@ -279,10 +276,7 @@ public class AuthController {
         // Blacklist current access token to force immediate re-auth on next request
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String accessToken = authHeader.substring(7);
-            String jti = jwtTokenProvider.getJtiFromToken(accessToken);
-            if (jti != null) {
-                tokenBlacklistService.blacklist(jti);
-            }
+            jwtTokenProvider.parseAccessToken(accessToken).ifPresent(tokenBlacklistService::blacklist);
         }
         
         return ResponseEntity.ok(MessageResponse.builder()
@@ -0,0 +1,104 @@
+package com.wing.ecommercebackendwing.controller;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Offline stand-in for the Bakong Open API md5 endpoints, active only with the
+ * {@code bakong-stub} profile. Point {@code KHQR_API_BASE_URL} at {@code http://localhost:8080/stub/bakong/}
+ * and mark a generated QR as paid with {@code POST /stub/bakong/payments/{md5}?amount=..}.
+ * {@code khqr.stub.latency-ms} delays every lookup to mimic a slow gateway under load.
+ */
+@RestController
+@RequestMapping("/stub/bakong")
+@Profile("bakong-stub")
+@Hidden
+@Slf4j
+public class BakongStubController {
+
+    private final Map<String, Map<String, Object>> paid = new ConcurrentHashMap<>();
+
+    @Value("${khqr.stub.latency-ms:0}")
+    private long latencyMs;
+
+    @PostMapping("/payments/{md5}")
+    public ResponseEntity<Map<String, Object>> markPaid(
+            @PathVariable(name = "md5") String md5,
+            @RequestParam(name = "amount") BigDecimal amount,
+            @RequestParam(name = "currency", defaultValue = "USD") String currency) {
+        String normalizedMd5 = md5.trim().toLowerCase();
+        Map<String, Object> transaction = new LinkedHashMap<>();
+        transaction.put("hash", UUID.randomUUID().toString().replace("-", ""));
+        transaction.put("externalRef", "STUB-" + normalizedMd5.substring(0, Math.min(8, normalizedMd5.length())));
+        transaction.put("amount", amount);
+        transaction.put("currency", currency);
+        transaction.put("acknowledgedDateMs", System.currentTimeMillis());
+        paid.put(normalizedMd5, transaction);
+        log.info("Bakong stub: marked {} as paid ({} {})", normalizedMd5, amount, currency);
+        return ResponseEntity.ok(transaction);
+    }
+
+    @DeleteMapping("/payments")
+    public ResponseEntity<Void> reset() {
+        paid.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/v1/check_transaction_by_md5")
+    public Map<String, Object> checkByMd5(@RequestBody Map<String, String> request) throws InterruptedException {
+        simulateLatency();
+        Map<String, Object> transaction = paid.get(String.valueOf(request.get("md5")).trim().toLowerCase());
+        if (transaction == null) {
+            return envelope(1, "Transaction could not be found. Please check and try again.", null);
+        }
+        return envelope(0, "Getting transaction successfully.", transaction);
+    }
+
+    @PostMapping("/v1/check_transaction_by_md5_list")
+    public Map<String, Object> checkByMd5List(@RequestBody List<String> md5s) throws InterruptedException {
+        simulateLatency();
+        List<Map<String, Object>> results = new ArrayList<>();
+        boolean anyFound = false;
+        for (String md5 : md5s) {
+            String normalizedMd5 = md5.trim().toLowerCase();
+            Map<String, Object> transaction = paid.get(normalizedMd5);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("md5", normalizedMd5);
+            result.put("status", transaction != null ? "SUCCESS" : "FAILED");
+            result.put("message", transaction != null ? "Getting transaction successfully." : "Transaction could not be found.");
+            result.put("data", transaction);
+            results.add(result);
+            anyFound |= transaction != null;
+        }
+        return anyFound
+                ? envelope(0, "Getting transaction successfully.", results)
+                : envelope(1, "Transaction could not be found. Please check and try again.", results);
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+    }
+
+    private Map<String, Object> envelope(int responseCode, String message, Object data) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("responseCode", responseCode);
+        body.put("responseMessage", message);
+        body.put("errorCode", responseCode == 0 ? null : 1);
+        body.put("data", data);
+        return body;
+    }
+}
@@ -1,11 +1,13 @@
 package com.wing.ecommercebackendwing.controller;
 
 import com.wing.ecommercebackendwing.dto.request.cart.AddToCartRequest;
+import com.wing.ecommercebackendwing.dto.request.cart.CartBatchRequest;
 import com.wing.ecommercebackendwing.dto.request.cart.UpdateCartItemRequest;
 import com.wing.ecommercebackendwing.dto.response.cart.CartResponse;
 import com.wing.ecommercebackendwing.dto.response.common.ValidationErrorResponse;
 import com.wing.ecommercebackendwing.security.CustomUserDetails;
 import com.wing.ecommercebackendwing.service.CartService;
+import com.wing.ecommercebackendwing.service.cart.CartSummary;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -42,6 +44,16 @@ public class CartController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/summary")
+    @Operation(summary = "Get item count and subtotal of user's cart")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cart summary retrieved successfully"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<CartSummary> getCartSummary(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(cartService.getCartSummary(userDetails.getUserId()));
+    }
+
     @PostMapping("/add")
     @Operation(summary = "Add item to cart")
     @ApiResponses(value = {
@@ -56,6 +68,22 @@ public class CartController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Apply several add, update and remove operations to the cart at once",
+            description = "Operations run in order in one transaction; if any of them fails, none is applied.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cart operations applied successfully"),
+        @ApiResponse(responseCode = "400", description = "Validation error or insufficient stock",
+            content = @Content(schema = @Schema(implementation = ValidationErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "404", description = "Product or cart item not found")
+    })
+    public ResponseEntity<CartResponse> applyBatch(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                                   @Valid @RequestBody CartBatchRequest request) {
+        CartResponse response = cartService.applyBatch(userDetails.getUserId(), request);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/items")
     @Operation(summary = "Update cart item quantity")
     @ApiResponses(value = {
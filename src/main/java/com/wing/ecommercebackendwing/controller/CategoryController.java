@@ -3,10 +3,12 @@ package com.wing.ecommercebackendwing.controller;
 import com.wing.ecommercebackendwing.dto.response.product.CategoryResponse;
 import com.wing.ecommercebackendwing.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -26,4 +28,13 @@ public class CategoryController {
         List<CategoryResponse> response = categoryService.getCategories();
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/{slug}")
+    @Operation(summary = "Get a category by slug, with its path from the root and product count")
+    public ResponseEntity<CategoryResponse> getCategoryBySlug(
+            @Parameter(description = "Category slug", example = "electronics", required = true)
+            @PathVariable(name = "slug") String slug) {
+        CategoryResponse response = categoryService.getCategoryBySlug(slug);
+        return ResponseEntity.ok(response);
+    }
 }
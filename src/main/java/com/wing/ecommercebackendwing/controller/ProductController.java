@@ -4,8 +4,12 @@ import com.wing.ecommercebackendwing.dto.request.product.CreateProductRequest;
 import com.wing.ecommercebackendwing.dto.request.product.ProductFilterRequest;
 import com.wing.ecommercebackendwing.dto.request.product.UpdateProductRequest;
 import com.wing.ecommercebackendwing.dto.response.common.ValidationErrorResponse;
+import com.wing.ecommercebackendwing.dto.response.product.ProductListResponse;
+import com.wing.ecommercebackendwing.dto.response.product.ProductRatingSummaryResponse;
 import com.wing.ecommercebackendwing.dto.response.product.ProductResponse;
+import com.wing.ecommercebackendwing.dto.response.product.ProductSuggestionResponse;
 import com.wing.ecommercebackendwing.service.ProductService;
+import com.wing.ecommercebackendwing.service.product.ProductExporter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,12 +19,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -32,26 +41,55 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductExporter productExporter;
 
     @GetMapping
-    @Operation(summary = "Get products with filtering and pagination")
+    @Operation(summary = "Get products with filtering and cursor pagination",
+            description = "Filters combine. Pass nextCursor from the previous page as cursor to get the next one.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid filter parameters",
             content = @Content(schema = @Schema(implementation = ValidationErrorResponse.class)))
     })
-    public ResponseEntity<Page<ProductResponse>> getProducts(@ModelAttribute ProductFilterRequest filter) {
-        Page<ProductResponse> response = productService.getProducts(filter);
+    public ResponseEntity<ProductListResponse> getProducts(@Valid @ModelAttribute ProductFilterRequest filter) {
+        ProductListResponse response = productService.getProducts(filter);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/all")
-    @Operation(summary = "Get all products without pagination")
+    @Operation(summary = "Get all products without pagination",
+            description = "Streamed as it is read. Returns a JSON array, or one product per line with "
+                    + "format=ndjson or Accept: application/x-ndjson.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "All products retrieved successfully")
     })
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> response = productService.getAllProducts();
+    public ResponseEntity<StreamingResponseBody> getAllProducts(
+            @Parameter(description = "json (default) or ndjson")
+            @RequestParam(name = "format", required = false) String format,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format)
+                || (format == null && accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE));
+        ProductExporter.Format exportFormat = ndjson ? ProductExporter.Format.NDJSON : ProductExporter.Format.JSON;
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(out -> productExporter.export(exportFormat, out));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Type-ahead suggestions",
+            description = "Products and categories with a word starting with q, best sellers first.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters",
+            content = @Content(schema = @Schema(implementation = ValidationErrorResponse.class)))
+    })
+    public ResponseEntity<List<ProductSuggestionResponse>> suggest(
+            @Parameter(description = "What has been typed so far", example = "wirel", required = true)
+            @RequestParam(name = "q") @Size(max = 100, message = "Query must not exceed 100 characters") String q,
+            @RequestParam(name = "limit", defaultValue = "8")
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 20, message = "Limit cannot exceed 20") int limit) {
+        List<ProductSuggestionResponse> response = productService.suggest(q, limit);
         return ResponseEntity.ok(response);
     }
 
@@ -68,6 +106,19 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{slug}/ratings")
+    @Operation(summary = "Get a product's rating and how many reviews gave each star rating")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rating summary found"),
+        @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    public ResponseEntity<ProductRatingSummaryResponse> getRatingSummary(
+            @Parameter(description = "Product slug (URL-friendly identifier)", example = "wireless-headphones", required = true)
+            @PathVariable(name = "slug") String slug) {
+        ProductRatingSummaryResponse response = productService.getRatingSummary(slug);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @SecurityRequirement(name = "Bearer Authentication")
@@ -1,6 +1,7 @@
 package com.wing.ecommercebackendwing.controller;
 
 import com.wing.ecommercebackendwing.dto.request.review.CreateReviewRequest;
+import com.wing.ecommercebackendwing.dto.request.review.UpdateReviewRequest;
 import com.wing.ecommercebackendwing.dto.response.review.ReviewResponse;
 import com.wing.ecommercebackendwing.security.CustomUserDetails;
 import com.wing.ecommercebackendwing.service.ReviewService;
@@ -33,6 +34,23 @@ public class ReviewController {
         return ResponseEntity.ok(response);
     }
 
+    @PutMapping("/{id}")
+    @Operation(summary = "Update own product review")
+    public ResponseEntity<ReviewResponse> updateReview(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                                        @PathVariable(name = "id") UUID id,
+                                                        @Valid @RequestBody UpdateReviewRequest request) {
+        ReviewResponse response = reviewService.updateReview(userDetails.getUserId(), id, request);
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete own product review")
+    public ResponseEntity<Void> deleteReview(@AuthenticationPrincipal CustomUserDetails userDetails,
+                                             @PathVariable(name = "id") UUID id) {
+        reviewService.deleteReview(userDetails.getUserId(), id);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/products/{productId}")
     @Operation(summary = "Get reviews for a product")
     public ResponseEntity<List<ReviewResponse>> getProductReviews(@PathVariable(name = "productId") UUID productId) {
@@ -0,0 +1,41 @@
+package com.wing.ecommercebackendwing.controller;
+
+import com.wing.ecommercebackendwing.security.CustomUserDetails;
+import com.wing.ecommercebackendwing.service.stream.StatusStreamHub;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+@Tag(name = "Status Stream", description = "Server-Sent Events for payment and order status")
+@SecurityRequirement(name = "Bearer Authentication")
+public class StatusStreamController {
+
+    private final StatusStreamHub statusStreamHub;
+
+    @GetMapping(value = "/status", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the current user's payment and order status changes",
+            description = "Events: order.placed, order.status, payment.completed, payment.expired. "
+                    + "Reconnect with Last-Event-ID to resume; a resync event means reload the current state.")
+    public SseEmitter streamStatus(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            HttpServletResponse response) {
+        // Keeps nginx from buffering the stream.
+        response.setHeader("X-Accel-Buffering", "no");
+        return statusStreamHub.subscribe(userDetails.getUserId(), lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+}
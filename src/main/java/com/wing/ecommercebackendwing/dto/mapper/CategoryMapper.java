@@ -2,6 +2,7 @@ package com.wing.ecommercebackendwing.dto.mapper;
 
 import com.wing.ecommercebackendwing.dto.response.product.CategoryResponse;
 import com.wing.ecommercebackendwing.model.entity.Category;
+import com.wing.ecommercebackendwing.service.category.CategoryNode;
 
 public class CategoryMapper {
 
@@ -14,4 +15,21 @@ public class CategoryMapper {
                 .image(category.getImage())
                 .build();
     }
+
+    /**
+     * With the node's place in the tree; productCount covers the whole subtree.
+     */
+    public static CategoryResponse toResponse(CategoryNode node) {
+        return CategoryResponse.builder()
+                .id(node.id())
+                .name(node.name())
+                .slug(node.slug())
+                .icon(node.icon())
+                .image(node.image())
+                .parentId(node.parentId())
+                .depth(node.depth())
+                .path(node.slugPath())
+                .productCount(node.subtreeProductCount())
+                .build();
+    }
 }
@@ -5,6 +5,7 @@ import com.wing.ecommercebackendwing.dto.response.common.Pagination;
 import com.wing.ecommercebackendwing.dto.response.product.ProductListResponse;
 import com.wing.ecommercebackendwing.dto.response.product.ProductResponse;
 import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.service.product.ProductSummary;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,6 +23,29 @@ public class ProductMapper {
                 .stock(product.getStockQuantity())
                 .images(product.getImages())
                 .rating(product.getRating() != null ? product.getRating().doubleValue() : 0.0)
+                .reviewCount(product.getReviewCount() != null ? product.getReviewCount() : 0)
+                .soldCount(product.getSoldCount() != null ? product.getSoldCount() : 0)
+                .viewCount(product.getViewCount() != null ? product.getViewCount() : 0)
+                .build();
+    }
+
+    /**
+     * The same response as {@link #toResponse(Product)}, from the listing projection.
+     */
+    public static ProductResponse toResponse(ProductSummary product) {
+        return ProductResponse.builder()
+                .id(product.id())
+                .merchantId(product.merchantId())
+                .name(product.name())
+                .slug(product.slug())
+                .price(product.price())
+                .comparePrice(product.comparePrice())
+                .stock(product.stock())
+                .images(product.images())
+                .rating(product.rating() != null ? product.rating().doubleValue() : 0.0)
+                .reviewCount(product.reviewCount() != null ? product.reviewCount() : 0)
+                .soldCount(product.soldCount() != null ? product.soldCount() : 0)
+                .viewCount(product.viewCount() != null ? product.viewCount() : 0)
                 .build();
     }
 
@@ -0,0 +1,24 @@
+package com.wing.ecommercebackendwing.dto.request.cart;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequest {
+    @Schema(description = "Operations to apply in order; if any fails, none is applied")
+    @NotEmpty
+    @Size(max = 100)
+    @Valid
+    private List<CartOperationRequest> operations;
+}
@@ -0,0 +1,42 @@
+package com.wing.ecommercebackendwing.dto.request.cart;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationRequest {
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+
+    @Schema(description = "ADD adds to the line for the product and variant, UPDATE sets a line's quantity, REMOVE deletes a line",
+            example = "ADD")
+    @NotNull
+    private Type type;
+
+    @Schema(description = "Cart item to update or remove (optional); without it the line for productId and variantId is used")
+    private UUID cartItemId;
+
+    @Schema(description = "Product to add, or whose line to update or remove")
+    private UUID productId;
+
+    @Schema(description = "Product variant ID (optional)", example = "null")
+    private UUID variantId;
+
+    @Schema(description = "Quantity to add, or the line's new quantity; not used by REMOVE", example = "1", minimum = "1")
+    @Min(1)
+    private Integer quantity;
+}
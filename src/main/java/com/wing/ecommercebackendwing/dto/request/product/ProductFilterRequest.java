@@ -10,14 +10,16 @@ import java.util.UUID;
 
 @Data
 public class ProductFilterRequest {
-    @Min(value = 0, message = "Page number must be 0 or greater")
-    private Integer page = 0;
+    /** Opaque position returned as {@code nextCursor} by the previous page; absent for the first page. */
+    private String cursor;
     
     @Min(value = 1, message = "Page size must be at least 1")
     @Max(value = 100, message = "Page size must not exceed 100")
     private Integer size = 20;
     
+    /** Matches products in this category and all of its subcategories. */
     private UUID categoryId;
+    private UUID merchantId;
     private String searchQuery;
     
     @Min(value = 0, message = "Minimum price must be 0 or greater")
@@ -25,4 +27,20 @@ public class ProductFilterRequest {
     
     @Min(value = 0, message = "Maximum price must be 0 or greater")
     private BigDecimal maxPrice;
+
+    @Min(value = 0, message = "Minimum rating must be 0 or greater")
+    @Max(value = 5, message = "Minimum rating must not exceed 5")
+    private BigDecimal minRating;
+
+    private Boolean inStock;
+    private Boolean featured;
+
+    /**
+     * Comma-separated sort keys, a leading minus for descending: relevance, price, rating, sold,
+     * created, name. Defaults to relevance with a search query and -created otherwise.
+     */
+    private String sort;
+
+    /** Facet counts in the response. Defaults to the first page only. */
+    private Boolean facets;
 }
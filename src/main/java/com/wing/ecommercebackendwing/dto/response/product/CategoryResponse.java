@@ -3,6 +3,7 @@ package com.wing.ecommercebackendwing.dto.response.product;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -13,4 +14,8 @@ public class CategoryResponse {
     private String slug;
     private String icon;
     private String image;
+    private UUID parentId;
+    private Integer depth;
+    private List<String> path;
+    private Integer productCount;
 }
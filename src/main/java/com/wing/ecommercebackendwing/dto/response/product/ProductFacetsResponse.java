@@ -0,0 +1,50 @@
+package com.wing.ecommercebackendwing.dto.response.product;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Counts next to a product listing. Each facet is counted with every filter applied except its
+ * own, so picking one category still shows how many products the other categories have.
+ */
+@Data
+@Builder
+public class ProductFacetsResponse {
+    /** Products matching every filter. */
+    private long total;
+    private long inStock;
+    /** A category's count includes its subcategories. */
+    private List<ValueCount> categories;
+    private List<ValueCount> merchants;
+    private List<PriceRangeCount> priceRanges;
+    /** Cumulative: products rated {@code minRating} and up. */
+    private List<RatingCount> ratings;
+
+    @Data
+    @Builder
+    public static class ValueCount {
+        private UUID id;
+        private String name;
+        private long count;
+    }
+
+    @Data
+    @Builder
+    public static class PriceRangeCount {
+        private BigDecimal min;
+        /** Exclusive; null for the last bucket. */
+        private BigDecimal max;
+        private long count;
+    }
+
+    @Data
+    @Builder
+    public static class RatingCount {
+        private int minRating;
+        private long count;
+    }
+}
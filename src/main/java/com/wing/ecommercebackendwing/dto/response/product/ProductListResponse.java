@@ -11,4 +11,8 @@ import java.util.List;
 public class ProductListResponse {
     private List<ProductResponse> products;
     private Pagination pagination;
+    /** Pass back as {@code cursor} for the next page; null on the last page. */
+    private String nextCursor;
+    /** Facet counts; only on the first page unless requested, and absent while they are being built. */
+    private ProductFacetsResponse facets;
 }
@@ -0,0 +1,27 @@
+package com.wing.ecommercebackendwing.dto.response.product;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A product's average rating with how many reviews gave each star rating.
+ */
+@Data
+@Builder
+public class ProductRatingSummaryResponse {
+    private UUID productId;
+    private Double rating;
+    private Integer reviewCount;
+    /** Five stars first. */
+    private List<StarCount> stars;
+
+    @Data
+    @Builder
+    public static class StarCount {
+        private int stars;
+        private int count;
+    }
+}
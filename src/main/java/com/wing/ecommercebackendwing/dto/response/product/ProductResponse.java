@@ -7,7 +7,7 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ProductResponse {
     private UUID id;
     private UUID merchantId;
@@ -18,4 +18,7 @@ public class ProductResponse {
     private Integer stock;
     private String images;
     private Double rating;
+    private Integer reviewCount;
+    private Integer soldCount;
+    private Integer viewCount;
 }
@@ -0,0 +1,19 @@
+package com.wing.ecommercebackendwing.dto.response.product;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * One type-ahead suggestion: a product to open or a category to browse.
+ */
+@Data
+@Builder
+public class ProductSuggestionResponse {
+    /** "product" or "category". */
+    private String type;
+    private UUID id;
+    private String name;
+    private String slug;
+}
@@ -0,0 +1,33 @@
+package com.wing.ecommercebackendwing.exception.custom;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Raised when a checkout cannot be reserved. Carries every short line, not just the first one,
+ * so the client can fix the whole cart in one round trip.
+ */
+public class InsufficientStockException extends BadRequestException {
+
+    private final List<Shortage> shortages;
+
+    public InsufficientStockException(List<Shortage> shortages) {
+        super("Insufficient stock for " + shortages.stream()
+                .map(Shortage::label)
+                .collect(Collectors.joining(", ")));
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<Shortage> getShortages() {
+        return shortages;
+    }
+
+    public record Shortage(UUID productId, UUID variantId, String sku, String name, int requested, int available) {
+
+        public String label() {
+            String base = name != null ? name : (variantId != null ? "selected variant" : "selected product");
+            return sku != null && !sku.isBlank() ? base + " (" + sku + ")" : base;
+        }
+    }
+}
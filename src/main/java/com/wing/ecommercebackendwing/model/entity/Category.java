@@ -10,6 +10,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name="categories")
+@EntityListeners(CategoryChangeListener.class)
 @Data
 public class Category {
     @Id
@@ -0,0 +1,29 @@
+package com.wing.ecommercebackendwing.model.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a {@link CategoryChangedEvent} whenever a category is inserted, updated or deleted,
+ * whichever code path made the write. The event is published synchronously, inside the
+ * transaction that made the change.
+ */
+@Component
+public class CategoryChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CategoryChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void categoryChanged(Category category) {
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
+    }
+}
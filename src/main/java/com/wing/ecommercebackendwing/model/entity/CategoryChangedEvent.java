@@ -0,0 +1,9 @@
+package com.wing.ecommercebackendwing.model.entity;
+
+import java.util.UUID;
+
+/**
+ * Published when a category is inserted, updated or deleted, so views built over categories can refresh.
+ */
+public record CategoryChangedEvent(UUID categoryId) {
+}
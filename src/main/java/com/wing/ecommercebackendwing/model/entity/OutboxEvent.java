@@ -0,0 +1,58 @@
+package com.wing.ecommercebackendwing.model.entity;
+
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
+import com.wing.ecommercebackendwing.model.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A domain event written in the same transaction as the state change it describes.
+ * Delivered to handlers after commit by OutboxDispatcher; PARKED events need manual attention.
+ */
+@Entity
+@Table(
+        name = "outbox_events",
+        indexes = {
+                @Index(name = "idx_outbox_events_status_next_attempt", columnList = "status, next_attempt_at"),
+                @Index(name = "idx_outbox_events_processed_at", columnList = "processed_at")
+        }
+)
+@Data
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private OutboxEventType type;
+
+    @Column(name = "aggregate_id")
+    private UUID aggregateId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+}
@@ -0,0 +1,41 @@
+package com.wing.ecommercebackendwing.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Marks that one handler has applied one outbox event. Inserted in the same transaction as the
+ * handler's side effect, so a redelivered event is skipped instead of applied twice.
+ */
+@Entity
+@Table(
+        name = "outbox_handled_events",
+        indexes = {
+                @Index(name = "idx_outbox_handled_events_handled_at", columnList = "handled_at")
+        }
+)
+@IdClass(OutboxHandledEvent.Key.class)
+@Data
+public class OutboxHandledEvent {
+
+    @Id
+    @Column(name = "event_id")
+    private UUID eventId;
+
+    @Id
+    @Column(name = "handler", length = 100)
+    private String handler;
+
+    @Column(name = "handled_at", nullable = false)
+    private Instant handledAt;
+
+    @Data
+    public static class Key implements Serializable {
+        private UUID eventId;
+        private String handler;
+    }
+}
@@ -14,7 +14,16 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(
+        name = "products",
+        indexes = {
+                // Listing filters and keyset sorts; see ProductQueryEngine.
+                @Index(name = "idx_products_category_price", columnList = "category_id, price, id"),
+                @Index(name = "idx_products_merchant_id", columnList = "merchant_id"),
+                @Index(name = "idx_products_price_id", columnList = "price, id"),
+                @Index(name = "idx_products_created_at_id", columnList = "created_at, id")
+        }
+)
 @Data
 @Builder
 @NoArgsConstructor
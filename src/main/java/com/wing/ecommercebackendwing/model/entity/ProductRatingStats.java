@@ -0,0 +1,40 @@
+package com.wing.ecommercebackendwing.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * How many reviews of one product gave each star rating. Products carry the average and total
+ * derived from these; both are written only through ProductRatingStatsRepository, in the same
+ * statement, whenever a review is created, changed or deleted.
+ */
+@Entity
+@Table(name = "product_rating_stats")
+@Data
+public class ProductRatingStats {
+
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Column(name = "star1", nullable = false)
+    private Integer star1 = 0;
+
+    @Column(name = "star2", nullable = false)
+    private Integer star2 = 0;
+
+    @Column(name = "star3", nullable = false)
+    private Integer star3 = 0;
+
+    @Column(name = "star4", nullable = false)
+    private Integer star4 = 0;
+
+    @Column(name = "star5", nullable = false)
+    private Integer star5 = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
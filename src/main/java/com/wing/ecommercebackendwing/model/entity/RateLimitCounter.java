@@ -0,0 +1,43 @@
+package com.wing.ecommercebackendwing.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Cluster-wide hit count for one rate limit key in one fixed window.
+ * Written only through batched upserts from ClusterRateLimitCoordinator.
+ */
+@Entity
+@Table(
+        name = "rate_limit_counters",
+        indexes = {
+                @Index(name = "idx_rate_limit_counters_expires_at", columnList = "expires_at")
+        }
+)
+@IdClass(RateLimitCounter.Key.class)
+@Data
+public class RateLimitCounter {
+
+    @Id
+    @Column(name = "limit_key", length = 255)
+    private String limitKey;
+
+    @Id
+    @Column(name = "window_start")
+    private Long windowStart;
+
+    @Column(name = "hits", nullable = false)
+    private Long hits;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Data
+    public static class Key implements Serializable {
+        private String limitKey;
+        private Long windowStart;
+    }
+}
@@ -0,0 +1,32 @@
+package com.wing.ecommercebackendwing.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Shared record of an explicitly revoked access token (logout, password change).
+ * Rows are only needed until the token would have expired anyway.
+ */
+@Entity
+@Table(
+        name = "revoked_tokens",
+        indexes = {
+                @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+                @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+        }
+)
+@Data
+public class RevokedToken {
+
+    @Id
+    @Column(name = "jti", length = 64)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
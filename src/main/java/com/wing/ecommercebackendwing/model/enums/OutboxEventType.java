@@ -0,0 +1,8 @@
+package com.wing.ecommercebackendwing.model.enums;
+
+public enum OutboxEventType {
+    ORDER_PLACED,
+    ORDER_STATUS_CHANGED,
+    PAYMENT_COMPLETED,
+    PAYMENT_FAILED
+}
@@ -0,0 +1,7 @@
+package com.wing.ecommercebackendwing.model.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    PROCESSED,
+    PARKED
+}
@@ -1,14 +1,51 @@
 package com.wing.ecommercebackendwing.repository;
 
 import com.wing.ecommercebackendwing.model.entity.CartItem;
+import com.wing.ecommercebackendwing.service.cart.CartSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, UUID> {
     List<CartItem> findByCartId(UUID cartId);
     void deleteByCartIdAndProductId(UUID cartId, UUID productId);
+
+    /**
+     * Ids of the lines in a cart whose product belongs to the given merchant, without loading
+     * the products.
+     */
+    @Query("SELECT i.id FROM CartItem i WHERE i.cart.id = :cartId AND i.product.merchant.id = :merchantId")
+    Set<UUID> findIdsByCartIdAndMerchantId(@Param("cartId") UUID cartId, @Param("merchantId") UUID merchantId);
+
+    /**
+     * Unit count and subtotal of a user's cart at current product and variant prices, the same
+     * prices a full cart read would show.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.cart.CartSummary(" +
+            "SUM(i.quantity), SUM(COALESCE(v.price, p.price) * i.quantity)) " +
+            "FROM CartItem i JOIN i.product p LEFT JOIN i.variant v WHERE i.cart.user.id = :userId")
+    CartSummary summarizeByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Sets the price of the given lines of one cart, skipping lines already at that price, and
+     * touches the cart if any changed. Clears the persistence context, so entities loaded before
+     * the call are detached.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "WITH repriced AS (UPDATE cart_items ci SET price = r.price, updated_at = :now " +
+            "FROM unnest(CAST(:itemIds AS uuid[]), CAST(:prices AS numeric[])) AS r(id, price) " +
+            "WHERE ci.id = r.id AND ci.cart_id = :cartId AND ci.price <> r.price RETURNING ci.id) " +
+            "UPDATE carts c SET updated_at = :now WHERE c.id = :cartId AND EXISTS (SELECT 1 FROM repriced)",
+            nativeQuery = true)
+    int repriceItems(@Param("cartId") UUID cartId, @Param("itemIds") UUID[] itemIds,
+                     @Param("prices") BigDecimal[] prices, @Param("now") Instant now);
 }
@@ -2,6 +2,8 @@ package com.wing.ecommercebackendwing.repository;
 
 import com.wing.ecommercebackendwing.model.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +12,13 @@ import java.util.UUID;
 @Repository
 public interface CartRepository extends JpaRepository<Cart, UUID> {
     Optional<Cart> findByUserId(UUID userId);
+
+    /**
+     * A user's cart with its items and each item's product and variant: everything CartMapper
+     * and repricing read, in one query.
+     */
+    @Query("SELECT DISTINCT c FROM Cart c " +
+            "LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.product LEFT JOIN FETCH i.variant " +
+            "WHERE c.user.id = :userId")
+    Optional<Cart> findWithItemsByUserId(@Param("userId") UUID userId);
 }
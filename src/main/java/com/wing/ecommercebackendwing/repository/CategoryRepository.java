@@ -1,7 +1,10 @@
 package com.wing.ecommercebackendwing.repository;
 
 import com.wing.ecommercebackendwing.model.entity.Category;
+import com.wing.ecommercebackendwing.service.category.CategoryRow;
+import com.wing.ecommercebackendwing.service.product.FacetLabel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +15,17 @@ import org.springframework.stereotype.Repository;
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
     Optional<Category> findBySlug(String slug);
     List<Category> findByParentId(UUID parentId);
+    List<Category> findByIsActiveTrue();
+
+    @Query("SELECT new com.wing.ecommercebackendwing.service.product.FacetLabel(c.id, parent.id, c.name) " +
+            "FROM Category c LEFT JOIN c.parent parent")
+    List<FacetLabel> findFacetLabels();
+
+    /**
+     * Every category's own columns, without loading entities, for building the category tree.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.category.CategoryRow(" +
+            "c.id, parent.id, c.name, c.slug, c.description, c.icon, c.image, c.sortOrder, c.isActive) " +
+            "FROM Category c LEFT JOIN c.parent parent")
+    List<CategoryRow> findTreeRows();
 }
@@ -1,11 +1,17 @@
 package com.wing.ecommercebackendwing.repository;
 
 import com.wing.ecommercebackendwing.model.entity.Merchant;
+import com.wing.ecommercebackendwing.service.product.FacetLabel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.stereotype.Repository;
 @Repository
 public interface MerchantRepository extends JpaRepository<Merchant, UUID> {
     Optional<Merchant> findByUserId(UUID userId);
+
+    @Query("SELECT new com.wing.ecommercebackendwing.service.product.FacetLabel(m.id, m.storeName) FROM Merchant m")
+    List<FacetLabel> findFacetLabels();
 }
@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,11 +19,46 @@ import java.util.UUID;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByUserId(UUID userId);
-    Page<Order> findByUserId(UUID userId, Pageable pageable);
-    Optional<Order> findByOrderNumber(String orderNumber);
     long countByUserId(UUID userId);
     Optional<Order> findFirstByOrderNumberStartingWithOrderByOrderNumberDesc(String prefix);
-    Page<Order> findByMerchantId(UUID merchantId, Pageable pageable);
+
+    /**
+     * A page of order ids, which listings then load with {@link #findWithDetailsByIdIn}. Fetching
+     * the items collection in the paged query itself would make Hibernate page in memory over
+     * the whole result.
+     */
+    @Query(value = "SELECT o.id FROM Order o",
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<UUID> findPageIds(Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.user.id = :userId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
+    Page<UUID> findPageIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.merchant.id = :merchantId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.merchant.id = :merchantId")
+    Page<UUID> findPageIdsByMerchantId(@Param("merchantId") UUID merchantId, Pageable pageable);
+
+    /**
+     * Orders with their items, each item's product, the payment, the delivery and the delivery
+     * address. Payment and delivery are the inverse side of their one-to-ones, which Hibernate
+     * would otherwise select separately for every order even though they are marked lazy.
+     */
+    @Query("SELECT DISTINCT o FROM Order o " +
+            "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product " +
+            "LEFT JOIN FETCH o.payment LEFT JOIN FETCH o.delivery LEFT JOIN FETCH o.deliveryAddress " +
+            "WHERE o.id IN :orderIds")
+    List<Order> findWithDetailsByIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    /**
+     * One order with the same details as {@link #findWithDetailsByIdIn}, plus the merchant its
+     * access check reads.
+     */
+    @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.merchant " +
+            "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product " +
+            "LEFT JOIN FETCH o.payment LEFT JOIN FETCH o.delivery LEFT JOIN FETCH o.deliveryAddress " +
+            "WHERE o.orderNumber = :orderNumber")
+    Optional<Order> findWithDetailsByOrderNumber(@Param("orderNumber") String orderNumber);
 
     boolean existsByDeliveryAddressId(UUID deliveryAddressId);
 
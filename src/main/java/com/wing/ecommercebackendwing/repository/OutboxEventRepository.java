@@ -0,0 +1,19 @@
+package com.wing.ecommercebackendwing.repository;
+
+import com.wing.ecommercebackendwing.model.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.wing.ecommercebackendwing.model.enums.OutboxStatus.PROCESSED AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,13 +1,16 @@
 package com.wing.ecommercebackendwing.repository;
 
 import com.wing.ecommercebackendwing.model.entity.Payment;
+import com.wing.ecommercebackendwing.service.payment.PendingKhqrPayment;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,4 +27,17 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Payment p WHERE p.order.id = :orderId")
     Optional<Payment> findByOrderIdForUpdate(@Param("orderId") UUID orderId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Keyset page of PENDING KHQR payments ordered by id; pass the last id of the previous page.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.payment.PendingKhqrPayment(p.id, p.md5, p.expiresAt, p.order.user.id) " +
+            "FROM Payment p WHERE p.status = com.wing.ecommercebackendwing.model.enums.PaymentStatus.PENDING " +
+            "AND p.method = com.wing.ecommercebackendwing.model.enums.PaymentMethod.KHQR " +
+            "AND p.md5 IS NOT NULL AND p.id > :afterId ORDER BY p.id")
+    List<PendingKhqrPayment> findPendingKhqrAfter(@Param("afterId") UUID afterId, Pageable pageable);
 }
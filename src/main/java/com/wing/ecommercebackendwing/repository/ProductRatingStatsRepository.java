@@ -0,0 +1,75 @@
+package com.wing.ecommercebackendwing.repository;
+
+import com.wing.ecommercebackendwing.model.entity.ProductRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ProductRatingStatsRepository extends JpaRepository<ProductRatingStats, UUID> {
+
+    /**
+     * Creates an all-zero stats row for the product unless it already has one. Returns 1 if this
+     * call created it. The new row stays locked until the caller commits, so a concurrent review
+     * of the same product waits here and then applies its delta to the committed row.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_stats (product_id, star1, star2, star3, star4, star5, updated_at) " +
+            "VALUES (:productId, 0, 0, 0, 0, 0, now()) ON CONFLICT (product_id) DO NOTHING", nativeQuery = true)
+    int createIfMissing(@Param("productId") UUID productId);
+
+    /**
+     * Adds the deltas to a product's star counts and, in the same statement, sets the product's
+     * rating and review count from the result. Returns 0 without changing anything when the
+     * product has no stats row or a count would go negative; the caller then rebuilds the row
+     * from the reviews instead.
+     */
+    @Modifying
+    @Query(value = "WITH stats AS (" +
+            "UPDATE product_rating_stats SET star1 = star1 + :d1, star2 = star2 + :d2, star3 = star3 + :d3, " +
+            "star4 = star4 + :d4, star5 = star5 + :d5, updated_at = now() " +
+            "WHERE product_id = :productId AND star1 + :d1 >= 0 AND star2 + :d2 >= 0 AND star3 + :d3 >= 0 " +
+            "AND star4 + :d4 >= 0 AND star5 + :d5 >= 0 " +
+            "RETURNING product_id, star1 + star2 + star3 + star4 + star5 AS total, " +
+            "star1 + 2 * star2 + 3 * star3 + 4 * star4 + 5 * star5 AS points) " +
+            "UPDATE products p SET review_count = s.total, " +
+            "rating = COALESCE(ROUND(CAST(s.points AS numeric) / NULLIF(s.total, 0), 2), 0) " +
+            "FROM stats s WHERE p.id = s.product_id", nativeQuery = true)
+    int applyDelta(@Param("productId") UUID productId,
+                   @Param("d1") int d1, @Param("d2") int d2, @Param("d3") int d3,
+                   @Param("d4") int d4, @Param("d5") int d5);
+
+    /**
+     * Recounts the given products' reviews into their stats rows and product columns, writing
+     * only rows that differ. Returns how many products had a rating or review count that did not
+     * match their reviews.
+     */
+    @Modifying
+    @Query(value = "WITH counts AS (" +
+            "SELECT p.id AS product_id, " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 1) AS star1, COUNT(r.id) FILTER (WHERE r.rating = 2) AS star2, " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 3) AS star3, COUNT(r.id) FILTER (WHERE r.rating = 4) AS star4, " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 5) AS star5 " +
+            "FROM products p LEFT JOIN reviews r ON r.product_id = p.id " +
+            "WHERE p.id = ANY(CAST(:productIds AS uuid[])) GROUP BY p.id), " +
+            "totals AS (" +
+            "SELECT product_id, star1 + star2 + star3 + star4 + star5 AS total, " +
+            "COALESCE(ROUND(CAST(star1 + 2 * star2 + 3 * star3 + 4 * star4 + 5 * star5 AS numeric) " +
+            "/ NULLIF(star1 + star2 + star3 + star4 + star5, 0), 2), 0) AS average FROM counts), " +
+            "stats AS (" +
+            "INSERT INTO product_rating_stats (product_id, star1, star2, star3, star4, star5, updated_at) " +
+            "SELECT product_id, star1, star2, star3, star4, star5, now() FROM counts " +
+            "ON CONFLICT (product_id) DO UPDATE SET star1 = EXCLUDED.star1, star2 = EXCLUDED.star2, " +
+            "star3 = EXCLUDED.star3, star4 = EXCLUDED.star4, star5 = EXCLUDED.star5, updated_at = EXCLUDED.updated_at " +
+            "WHERE (product_rating_stats.star1, product_rating_stats.star2, product_rating_stats.star3, " +
+            "product_rating_stats.star4, product_rating_stats.star5) IS DISTINCT FROM " +
+            "(EXCLUDED.star1, EXCLUDED.star2, EXCLUDED.star3, EXCLUDED.star4, EXCLUDED.star5)) " +
+            "UPDATE products p SET review_count = t.total, rating = t.average FROM totals t " +
+            "WHERE p.id = t.product_id AND (p.review_count IS DISTINCT FROM t.total OR p.rating IS DISTINCT FROM t.average)",
+            nativeQuery = true)
+    int rebuildFromReviews(@Param("productIds") UUID[] productIds);
+}
@@ -1,7 +1,11 @@
 package com.wing.ecommercebackendwing.repository;
 
 import com.wing.ecommercebackendwing.model.entity.Product;
-import org.springframework.data.domain.Page;
+import com.wing.ecommercebackendwing.service.category.CategoryProductCount;
+import com.wing.ecommercebackendwing.service.product.ProductFacetDocument;
+import com.wing.ecommercebackendwing.service.product.ProductSummary;
+import com.wing.ecommercebackendwing.service.search.ProductSearchDocument;
+import com.wing.ecommercebackendwing.service.search.ProductSuggestDocument;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
@@ -12,27 +16,114 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
+
+    /** Constructor arguments of {@link ProductSummary}, for {@code p} joined to merchant {@code m}. */
+    String SUMMARY_COLUMNS = "p.id, m.id, p.name, p.slug, p.price, p.comparePrice, p.stockQuantity, p.images, " +
+            "p.rating, p.reviewCount, p.soldCount, p.viewCount";
+
     Optional<Product> findBySlug(String slug);
     boolean existsBySlug(String slug);
-    Page<Product> findByCategoryId(UUID categoryId, Pageable pageable);
-    
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))")
-    Page<Product> searchByNameOrDescription(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Keyset page of the columns the search index needs, without loading entities.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.search.ProductSearchDocument(" +
+            "p.id, p.name, p.description, c.name, p.soldCount, p.rating) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSearchDocument> findSearchDocumentsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Keyset page of every product's listing columns, for exporting the whole catalog.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.product.ProductSummary(" + SUMMARY_COLUMNS + ") " +
+            "FROM Product p LEFT JOIN p.merchant m WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Listing columns of the given products, in no particular order; ids that no longer exist
+     * are left out.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.product.ProductSummary(" + SUMMARY_COLUMNS + ") " +
+            "FROM Product p LEFT JOIN p.merchant m WHERE p.id IN :productIds")
+    List<ProductSummary> findSummariesByIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    /**
+     * Keyset page of the columns the suggestion index needs, without loading entities.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.search.ProductSuggestDocument(" +
+            "p.id, p.name, p.slug, c.id, p.soldCount, p.viewCount) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSuggestDocument> findSuggestDocumentsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Keyset page of the columns the facet index needs, without loading entities.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.product.ProductFacetDocument(" +
+            "p.id, c.id, m.id, p.price, p.rating, p.stockQuantity, p.isFeatured) " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN p.merchant m WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductFacetDocument> findFacetDocumentsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Keyset page of product ids, for jobs that walk the whole catalog in batches.
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<UUID> findIdsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Active products per category, counting only the category each product is filed under.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.category.CategoryProductCount(c.id, COUNT(p)) " +
+            "FROM Product p JOIN p.category c WHERE p.isActive = true GROUP BY c.id")
+    List<CategoryProductCount> countActiveByCategory();
+
+    @Query("SELECT p.rating FROM Product p WHERE p.id = :productId")
+    Optional<BigDecimal> findRatingById(@Param("productId") UUID productId);
+
+    /**
+     * Products with all their variants, for a request that references several of each.
+     */
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.variants WHERE p.id IN :productIds")
+    List<Product> findWithVariantsByIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    /**
+     * Locks every requested row in a single statement. Rows are locked in primary key order so two
+     * checkouts with overlapping carts always queue on the same first row instead of deadlocking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :productIds ORDER BY p.id")
+    List<Product> findAllByIdInForUpdate(@Param("productIds") Collection<UUID> productIds);
 
     @Modifying
-    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity WHERE p.id = :productId AND p.stockQuantity >= :quantity")
-    int decrementStockIfAvailable(@Param("productId") UUID productId, @Param("quantity") int quantity);
+    @Query(value = "UPDATE products p SET stock = p.stock - r.quantity " +
+            "FROM unnest(CAST(:productIds AS uuid[]), CAST(:quantities AS integer[])) AS r(id, quantity) " +
+            "WHERE p.id = r.id AND p.stock >= r.quantity", nativeQuery = true)
+    int decrementStockBatch(@Param("productIds") UUID[] productIds, @Param("quantities") Integer[] quantities);
 
     @Modifying
-    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity WHERE p.id = :productId")
-    int incrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
+    @Query(value = "UPDATE products p SET stock = p.stock + r.quantity " +
+            "FROM unnest(CAST(:productIds AS uuid[]), CAST(:quantities AS integer[])) AS r(id, quantity) " +
+            "WHERE p.id = r.id", nativeQuery = true)
+    int incrementStockBatch(@Param("productIds") UUID[] productIds, @Param("quantities") Integer[] quantities);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT p FROM Product p WHERE p.id = :productId")
-    Optional<Product> findByIdForUpdate(@Param("productId") UUID productId);
+    /**
+     * Adds view and sold deltas to each product, skipping rows another transaction holds locked
+     * instead of waiting for them. Returns the ids that were updated.
+     */
+    @Query(value = "UPDATE products p SET view_count = GREATEST(0, COALESCE(p.view_count, 0) + c.views), " +
+            "sold_count = GREATEST(0, COALESCE(p.sold_count, 0) + c.sold) " +
+            "FROM (SELECT d.id, d.views, d.sold " +
+            "FROM unnest(CAST(:productIds AS uuid[]), CAST(:views AS integer[]), CAST(:sold AS integer[])) AS d(id, views, sold) " +
+            "JOIN products l ON l.id = d.id ORDER BY l.id FOR UPDATE OF l SKIP LOCKED) c " +
+            "WHERE p.id = c.id RETURNING p.id", nativeQuery = true)
+    List<UUID> addCounts(@Param("productIds") UUID[] productIds,
+                         @Param("views") Integer[] views,
+                         @Param("sold") Integer[] sold);
 }
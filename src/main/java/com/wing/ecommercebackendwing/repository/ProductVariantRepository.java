@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,15 +17,22 @@ import java.util.UUID;
 public interface ProductVariantRepository extends JpaRepository<ProductVariant, UUID> {
     List<ProductVariant> findByProductId(UUID productId);
 
-    @Modifying
-    @Query("UPDATE ProductVariant pv SET pv.stock = pv.stock - :quantity WHERE pv.id = :variantId AND pv.stock >= :quantity")
-    int decrementStockIfAvailable(@Param("variantId") UUID variantId, @Param("quantity") int quantity);
+    /**
+     * Variant counterpart of {@link ProductRepository#findAllByIdInForUpdate(Collection)}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pv FROM ProductVariant pv WHERE pv.id IN :variantIds ORDER BY pv.id")
+    List<ProductVariant> findAllByIdInForUpdate(@Param("variantIds") Collection<UUID> variantIds);
 
     @Modifying
-    @Query("UPDATE ProductVariant pv SET pv.stock = pv.stock + :quantity WHERE pv.id = :variantId")
-    int incrementStock(@Param("variantId") UUID variantId, @Param("quantity") int quantity);
+    @Query(value = "UPDATE product_variants pv SET stock = pv.stock - r.quantity " +
+            "FROM unnest(CAST(:variantIds AS uuid[]), CAST(:quantities AS integer[])) AS r(id, quantity) " +
+            "WHERE pv.id = r.id AND pv.stock >= r.quantity", nativeQuery = true)
+    int decrementStockBatch(@Param("variantIds") UUID[] variantIds, @Param("quantities") Integer[] quantities);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT pv FROM ProductVariant pv WHERE pv.id = :variantId")
-    java.util.Optional<ProductVariant> findByIdForUpdate(@Param("variantId") UUID variantId);
+    @Modifying
+    @Query(value = "UPDATE product_variants pv SET stock = pv.stock + r.quantity " +
+            "FROM unnest(CAST(:variantIds AS uuid[]), CAST(:quantities AS integer[])) AS r(id, quantity) " +
+            "WHERE pv.id = r.id", nativeQuery = true)
+    int incrementStockBatch(@Param("variantIds") UUID[] variantIds, @Param("quantities") Integer[] quantities);
 }
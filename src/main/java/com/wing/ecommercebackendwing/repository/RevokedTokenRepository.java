@@ -0,0 +1,17 @@
+package com.wing.ecommercebackendwing.repository;
+
+import com.wing.ecommercebackendwing.model.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Query("SELECT rt FROM RevokedToken rt WHERE rt.revokedAt > :since AND rt.expiresAt > :now ORDER BY rt.revokedAt")
+    List<RevokedToken> findActiveRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+}
@@ -1,7 +1,10 @@
 package com.wing.ecommercebackendwing.repository;
 
 import com.wing.ecommercebackendwing.model.entity.User;
+import com.wing.ecommercebackendwing.security.UserAccountStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +17,20 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByPhone(String phone);
     Optional<User> findByEmailVerificationToken(String token);
     Optional<User> findByPasswordResetToken(String token);
+
+    @Query("SELECT new com.wing.ecommercebackendwing.security.UserAccountStatus(u.isActive, u.accountLocked, u.lockedUntil) FROM User u WHERE u.id = :userId")
+    Optional<UserAccountStatus> findAccountStatusById(@Param("userId") UUID userId);
+
+    /**
+     * A user with the addresses and saved payment methods the profile response lists. They are
+     * two bags, which Hibernate will not fetch in one query, so the payment methods come from
+     * {@link #fetchSavedPaymentMethods} in the same transaction. The inverse one-to-ones are
+     * fetched here because Hibernate would otherwise select each of them separately.
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.addresses " +
+            "LEFT JOIN FETCH u.merchant LEFT JOIN FETCH u.wingPoints WHERE u.id = :userId")
+    Optional<User> findWithAddressesById(@Param("userId") UUID userId);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.savedPaymentMethods WHERE u.id = :userId")
+    Optional<User> fetchSavedPaymentMethods(@Param("userId") UUID userId);
 }
@@ -1,7 +1,10 @@
 package com.wing.ecommercebackendwing.repository;
 
 import com.wing.ecommercebackendwing.model.entity.Wishlist;
+import com.wing.ecommercebackendwing.service.product.ProductSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +15,12 @@ public interface WishlistRepository extends JpaRepository<Wishlist, UUID> {
     List<Wishlist> findByUserId(UUID userId);
     boolean existsByUserIdAndProductId(UUID userId, UUID productId);
     long countByUserId(UUID userId);
+
+    /**
+     * Listing columns of the products on a user's wishlist, read in one query without loading
+     * the wishlist rows or the products as entities.
+     */
+    @Query("SELECT new com.wing.ecommercebackendwing.service.product.ProductSummary(" + ProductRepository.SUMMARY_COLUMNS + ") " +
+            "FROM Wishlist w JOIN w.product p LEFT JOIN p.merchant m WHERE w.user.id = :userId")
+    List<ProductSummary> findProductSummariesByUserId(@Param("userId") UUID userId);
 }
@@ -2,6 +2,7 @@ package com.wing.ecommercebackendwing.security;
 
 import com.wing.ecommercebackendwing.model.entity.User;
 import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.security.jwt.JwtClaims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -20,6 +21,7 @@ import java.util.UUID;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserStatusCache userStatusCache;
 
     @Override
     @Transactional
@@ -30,6 +32,27 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new CustomUserDetailsImpl(user);
     }
 
+    /**
+     * Build the principal from verified access-token claims instead of the users table.
+     * Only lock/active status is consulted, through {@link UserStatusCache}. Tokens minted
+     * without {@code id}/{@code role} claims fall back to the email lookup.
+     */
+    public CustomUserDetails loadUserFromClaims(JwtClaims claims) throws UsernameNotFoundException {
+        if (claims.userId() == null || claims.role() == null || claims.role().isBlank()) {
+            return loadUserByUsername(claims.subject());
+        }
+
+        UserAccountStatus status = userStatusCache.get(claims.userId());
+        return new CustomUserDetailsImpl(
+                claims.userId(),
+                claims.subject(),
+                null,
+                claims.role(),
+                !status.isLockedAt(Instant.now()),
+                status.isEnabled()
+        );
+    }
+
     /**
      * Custom UserDetails implementation that includes user ID and account status
      */
@@ -42,21 +65,25 @@ public class CustomUserDetailsService implements UserDetailsService {
         private final boolean enabled;
 
         public CustomUserDetailsImpl(User user) {
-            this.userId = user.getId();
-            this.username = user.getEmail();
-            this.password = user.getPassword();
-            this.authorities = Collections.singletonList(
-                    new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
+            this(
+                    user.getId(),
+                    user.getEmail(),
+                    user.getPassword(),
+                    user.getRole().name(),
+                    !new UserAccountStatus(user.getIsActive(), user.getAccountLocked(), user.getLockedUntil())
+                            .isLockedAt(Instant.now()),
+                    Boolean.TRUE.equals(user.getIsActive())
             );
+        }
 
-            // Check if account is locked
-            boolean isLocked = Boolean.TRUE.equals(user.getAccountLocked());
-            if (isLocked && user.getLockedUntil() != null) {
-                // Auto-unlock if lock period has expired
-                isLocked = Instant.now().isBefore(user.getLockedUntil());
-            }
-            this.accountNonLocked = !isLocked;
-            this.enabled = Boolean.TRUE.equals(user.getIsActive());
+        private CustomUserDetailsImpl(UUID userId, String username, String password, String role,
+                                      boolean accountNonLocked, boolean enabled) {
+            this.userId = userId;
+            this.username = username;
+            this.password = password;
+            this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+            this.accountNonLocked = accountNonLocked;
+            this.enabled = enabled;
         }
 
         @Override
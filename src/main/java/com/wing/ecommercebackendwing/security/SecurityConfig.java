@@ -2,9 +2,13 @@ package com.wing.ecommercebackendwing.security;
 
 import com.wing.ecommercebackendwing.security.jwt.JwtAuthenticationEntryPoint;
 import com.wing.ecommercebackendwing.security.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -57,6 +61,8 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Re-dispatch of an already authorized async response (SSE status stream)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public endpoints
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/products/**").permitAll()
@@ -83,8 +89,26 @@ public class SecurityConfig {
                 .anyRequest().authenticated()
             );
 
-        http.addFilterBefore(rateLimitingFilter, UsernamePasswordAuthenticationFilter.class);
-        http.addFilterAfter(jwtAuthenticationFilter, RateLimitingFilter.class);
+        // JWT first so user-keyed rate limit policies can see the principal; token parsing is in-memory.
+        http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitingFilter, JwtAuthenticationFilter.class);
+
+        return http.build();
+    }
+
+    /**
+     * Opens the local Bakong stub, which is only mapped under the same profile.
+     */
+    @Bean
+    @Profile("bakong-stub")
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityFilterChain bakongStubFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/stub/bakong/**")
+            .csrf(AbstractHttpConfigurer::disable)
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(authz -> authz.anyRequest().permitAll());
 
         return http.build();
     }
@@ -104,7 +128,8 @@ public class SecurityConfig {
 
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setExposedHeaders(Arrays.asList(
-                "Authorization","X-Refresh-Token","Set-Cookie"
+                "Authorization","X-Refresh-Token","Set-Cookie",
+                "Retry-After","X-RateLimit-Limit","X-RateLimit-Remaining","X-RateLimit-Reset"
         ));
         configuration.setAllowCredentials(true);
 
@@ -0,0 +1,24 @@
+package com.wing.ecommercebackendwing.security;
+
+import java.time.Instant;
+
+/**
+ * Minimal account state needed to authorize a request: active flag and lock window.
+ * Loaded by projection so authentication never hydrates the full User entity.
+ */
+public record UserAccountStatus(Boolean active, Boolean accountLocked, Instant lockedUntil) {
+
+    static final UserAccountStatus MISSING = new UserAccountStatus(false, false, null);
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(active);
+    }
+
+    public boolean isLockedAt(Instant now) {
+        if (!Boolean.TRUE.equals(accountLocked)) {
+            return false;
+        }
+        // Auto-unlock if lock period has expired
+        return lockedUntil == null || now.isBefore(lockedUntil);
+    }
+}
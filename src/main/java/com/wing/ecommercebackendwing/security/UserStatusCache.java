@@ -0,0 +1,84 @@
+package com.wing.ecommercebackendwing.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wing.ecommercebackendwing.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Bounded cache of per-user lock/active status used by claims-based authentication.
+ *
+ * Entries expire on their own, but every write that changes account status
+ * (revocation, lockout, unlock, password change) must call {@link #invalidate(UUID)}
+ * so the next request reloads from the database. Each invalidation is also published as a
+ * {@link UserStatusChangedEvent}; with clustering enabled, other replicas evict the user too.
+ */
+@Component
+@Slf4j
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<UUID, UserAccountStatus> cache;
+
+    public UserStatusCache(UserRepository userRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${security.user-status-cache.max-size:50000}") long maxSize,
+                           @Value("${security.user-status-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxSize))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, ttlSeconds)))
+                .build();
+    }
+
+    public UserAccountStatus get(UUID userId) {
+        return cache.get(userId, id -> userRepository.findAccountStatusById(id)
+                .orElse(UserAccountStatus.MISSING));
+    }
+
+    /**
+     * Drop the cached status for a user. Inside a transaction the entry is evicted again once the
+     * transaction completes, so a concurrent request cannot re-cache the pre-commit state.
+     */
+    public void invalidate(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+        cache.invalidate(userId);
+        eventPublisher.publishEvent(new UserStatusChangedEvent(userId));
+        log.debug("User status cache invalidated for user: {}", userId);
+    }
+
+    /**
+     * Drop the cached status for a user whose status was changed on another node, without
+     * publishing it again.
+     */
+    public void invalidateLocally(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Drop every cached status, e.g. after changes from other nodes may have been missed.
+     */
+    public void invalidateAllLocally() {
+        cache.invalidateAll();
+    }
+}
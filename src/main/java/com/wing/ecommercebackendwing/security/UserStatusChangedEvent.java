@@ -0,0 +1,10 @@
+package com.wing.ecommercebackendwing.security;
+
+import java.util.UUID;
+
+/**
+ * Published when this node changes a user's lock or active status, so other replicas can drop
+ * their cached copy.
+ */
+public record UserStatusChangedEvent(UUID userId) {
+}
@@ -0,0 +1,165 @@
+package com.wing.ecommercebackendwing.security.cluster;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wing.ecommercebackendwing.config.RateLimitProperties;
+import com.wing.ecommercebackendwing.security.ratelimit.RateLimitDecision;
+import com.wing.ecommercebackendwing.security.ratelimit.SharedRateLimitBudget;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cluster-wide fixed-window budgets backed by the rate_limit_counters table.
+ *
+ * Requests never touch the database: each node counts locally in a {@link LongAdder} and decides
+ * against {@code lastKnownClusterHits + inFlight + localPending}. Every flush upserts all local
+ * deltas in one statement and reads back the cluster totals, so other replicas' traffic is
+ * reflected within one flush interval. Over-admission is bounded by what peers can grant in that
+ * interval.
+ *
+ * A delta being upserted stays counted in {@code inFlight} until the returned total replaces
+ * {@code clusterHits}, so a burst gains no permits during the round trip; for that moment it is
+ * counted twice, which errs on the side of refusing. Windows that have ended are still flushed
+ * once more, so hits from their last interval reach the cluster.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled", havingValue = "true")
+@Slf4j
+public class ClusterRateLimitCoordinator implements SharedRateLimitBudget {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO rate_limit_counters (limit_key, window_start, hits, expires_at)
+            SELECT k, w, h, to_timestamp(e)
+            FROM unnest(?::text[], ?::bigint[], ?::bigint[], ?::bigint[]) AS t(k, w, h, e)
+            ON CONFLICT (limit_key, window_start)
+            DO UPDATE SET hits = rate_limit_counters.hits + EXCLUDED.hits
+            RETURNING limit_key, window_start, hits
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, WindowCounter> counters;
+
+    public ClusterRateLimitCoordinator(JdbcTemplate jdbcTemplate, RateLimitProperties rateLimitProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, rateLimitProperties.getStore().getMaxKeys()))
+                .expireAfterAccess(Duration.ofSeconds(Math.max(1, rateLimitProperties.getStore().getIdleSeconds())))
+                .build();
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, int limit, long windowSeconds) {
+        long nowMillis = System.currentTimeMillis();
+        long windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        long windowStart = nowMillis - Math.floorMod(nowMillis, windowMillis);
+        long resetNanos = TimeUnit.MILLISECONDS.toNanos(windowStart + windowMillis - nowMillis);
+
+        WindowCounter counter = counters.get(key + "@" + windowStart,
+                ignored -> new WindowCounter(key, windowStart, windowStart + windowMillis));
+
+        long used = counter.clusterHits + counter.inFlight + counter.pending.sum();
+        if (used >= limit) {
+            return new RateLimitDecision(false, limit, 0, resetNanos, resetNanos);
+        }
+        counter.pending.increment();
+        return new RateLimitDecision(true, limit, limit - used - 1, resetNanos, 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.flush-interval-ms:250}")
+    public synchronized void flush() {
+        List<WindowCounter> batch = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        for (WindowCounter counter : counters.asMap().values()) {
+            // Ended windows are included: their last interval's hits are still owed to the cluster.
+            long delta = counter.pending.sumThenReset();
+            if (delta == 0) {
+                continue;
+            }
+            counter.inFlight += delta;
+            batch.add(counter);
+            deltas.add(delta);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int size = batch.size();
+        String[] keys = new String[size];
+        Long[] windows = new Long[size];
+        Long[] hits = new Long[size];
+        Long[] expiries = new Long[size];
+        Map<String, WindowCounter> byRow = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            WindowCounter counter = batch.get(i);
+            keys[i] = counter.key;
+            windows[i] = counter.windowStart;
+            hits[i] = deltas.get(i);
+            expiries[i] = TimeUnit.MILLISECONDS.toSeconds(counter.windowEndMillis) + 1;
+            byRow.put(counter.key + "@" + counter.windowStart, counter);
+        }
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+                ps.setArray(1, connection.createArrayOf("text", keys));
+                ps.setArray(2, connection.createArrayOf("bigint", windows));
+                ps.setArray(3, connection.createArrayOf("bigint", hits));
+                ps.setArray(4, connection.createArrayOf("bigint", expiries));
+                return ps;
+            }, rs -> {
+                WindowCounter counter = byRow.get(rs.getString(1) + "@" + rs.getLong(2));
+                if (counter != null) {
+                    counter.clusterHits = rs.getLong(3);
+                }
+            });
+        } catch (RuntimeException ex) {
+            // Keep the deltas so the next flush reports them; local limits still apply meanwhile.
+            for (int i = 0; i < size; i++) {
+                batch.get(i).pending.add(deltas.get(i));
+            }
+            log.warn("Failed to sync {} rate limit counters: {}", size, ex.getMessage());
+        } finally {
+            // Only once the delta is in clusterHits or back in pending.
+            for (int i = 0; i < size; i++) {
+                batch.get(i).inFlight -= deltas.get(i);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.cleanup-interval-ms:300000}")
+    public void deleteExpired() {
+        try {
+            jdbcTemplate.update("DELETE FROM rate_limit_counters WHERE expires_at < now()");
+        } catch (RuntimeException ex) {
+            log.warn("Failed to delete expired rate limit counters: {}", ex.getMessage());
+        }
+    }
+
+    private static final class WindowCounter {
+        private final String key;
+        private final long windowStart;
+        private final long windowEndMillis;
+        private final LongAdder pending = new LongAdder();
+        private volatile long clusterHits;
+        // Written only by flush, which is synchronized.
+        private volatile long inFlight;
+
+        private WindowCounter(String key, long windowStart, long windowEndMillis) {
+            this.key = key;
+            this.windowStart = windowStart;
+            this.windowEndMillis = windowEndMillis;
+        }
+    }
+}
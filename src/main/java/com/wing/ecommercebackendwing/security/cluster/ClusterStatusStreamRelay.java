@@ -0,0 +1,68 @@
+package com.wing.ecommercebackendwing.security.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wing.ecommercebackendwing.config.ClusterProperties;
+import com.wing.ecommercebackendwing.service.stream.StatusStreamEvent;
+import com.wing.ecommercebackendwing.service.stream.StatusStreamHub;
+import com.wing.ecommercebackendwing.service.stream.StatusStreamRelay;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Fans status stream events out to every replica with a NOTIFY.
+ *
+ * The outbox event is handled on whichever node claimed it, while the user's stream may be open on
+ * another. Each node delivers what it receives to its own hub and skips its own notifications.
+ * A notification lost during a listener reconnect is not replayed; the client catches up with a
+ * resync or its next poll.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterStatusStreamRelay implements StatusStreamRelay {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StatusStreamHub hub;
+    private final JdbcTemplate jdbcTemplate;
+    private final PostgresNotificationListener notificationListener;
+    private final ClusterProperties clusterProperties;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    void register() {
+        notificationListener.subscribe(clusterProperties.getStatusStreamChannel(), this::onNotification);
+    }
+
+    @Override
+    public void forward(UUID userId, StatusStreamEvent event) {
+        try {
+            String payload = objectMapper.writeValueAsString(new Relayed(nodeId, userId, event));
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, clusterProperties.getStatusStreamChannel(), payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize status event", e);
+        }
+    }
+
+    void onNotification(String payload) {
+        try {
+            Relayed relayed = objectMapper.readValue(payload, Relayed.class);
+            if (!nodeId.equals(relayed.node()) && relayed.userId() != null && relayed.event() != null) {
+                hub.publish(relayed.userId(), relayed.event());
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed status stream notification: {}", e.getMessage());
+        }
+    }
+
+    record Relayed(String node, UUID userId, StatusStreamEvent event) {
+    }
+}
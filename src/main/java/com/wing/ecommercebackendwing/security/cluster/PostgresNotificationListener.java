@@ -0,0 +1,138 @@
+package com.wing.ecommercebackendwing.security.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Single background thread holding a dedicated (non-pooled) Postgres connection that LISTENs on
+ * the subscribed channels and dispatches NOTIFY payloads to handlers.
+ *
+ * Reconnect hooks run after every (re)connect so subscribers can catch up on anything they missed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled", havingValue = "true")
+@Slf4j
+public class PostgresNotificationListener implements SmartLifecycle {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final int POLL_TIMEOUT_MS = 5000;
+    private static final long MAX_BACKOFF_MS = 30000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> reconnectHooks = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PostgresNotificationListener(@Value("${spring.datasource.url}") String url,
+                                        @Value("${spring.datasource.username:}") String username,
+                                        @Value("${spring.datasource.password:}") String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Register a handler; must be called before the application context starts.
+     */
+    public void subscribe(String channel, Consumer<String> handler) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        handlers.put(channel, handler);
+    }
+
+    public void onReconnect(Runnable hook) {
+        reconnectHooks.add(hook);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::listenLoop, "pg-notify-listener");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        long backoffMs = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : handlers.keySet()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+                log.info("Listening for Postgres notifications on {}", handlers.keySet());
+                backoffMs = 1000;
+                reconnectHooks.forEach(this::runSafely);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        Consumer<String> handler = handlers.get(notification.getName());
+                        if (handler != null) {
+                            runSafely(() -> handler.accept(notification.getParameter()));
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Postgres notification listener disconnected, retrying in {}ms: {}", backoffMs, ex.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException ex) {
+            log.error("Postgres notification handler failed: {}", ex.getMessage(), ex);
+        }
+    }
+}
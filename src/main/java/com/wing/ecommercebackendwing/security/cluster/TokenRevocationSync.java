@@ -0,0 +1,163 @@
+package com.wing.ecommercebackendwing.security.cluster;
+
+import com.wing.ecommercebackendwing.config.ClusterProperties;
+import com.wing.ecommercebackendwing.model.entity.RevokedToken;
+import com.wing.ecommercebackendwing.repository.RevokedTokenRepository;
+import com.wing.ecommercebackendwing.security.jwt.TokenBlacklistService;
+import com.wing.ecommercebackendwing.security.jwt.TokenRevokedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Shares token revocations across replicas through Postgres.
+ *
+ * Write path: local revocations are queued and written in one batch per flush, followed by a
+ * NOTIFY carrying the JTIs so other nodes update their in-memory blacklist immediately.
+ * Read path: nothing per request. NOTIFY payloads feed {@link TokenBlacklistService} directly, and a
+ * periodic catch-up query covers notifications lost while the listener was reconnecting.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationSync {
+
+    private static final int MAX_QUEUED = 50_000;
+    private static final int MAX_BATCH = 500;
+    // NOTIFY payloads must stay under 8000 bytes.
+    private static final int MAX_PAYLOAD_CHARS = 7000;
+    private static final long CATCH_UP_OVERLAP_SECONDS = 5;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?) ON CONFLICT (jti) DO NOTHING";
+
+    private final TokenBlacklistService tokenBlacklistService;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PostgresNotificationListener notificationListener;
+    private final ClusterProperties clusterProperties;
+
+    private final BlockingQueue<TokenRevokedEvent> pending = new LinkedBlockingQueue<>(MAX_QUEUED);
+    private volatile Instant lastSeenRevokedAt = Instant.EPOCH;
+
+    @PostConstruct
+    void register() {
+        notificationListener.subscribe(clusterProperties.getRevocationChannel(), this::onNotification);
+        notificationListener.onReconnect(this::catchUp);
+    }
+
+    @EventListener
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        if (!pending.offer(event)) {
+            log.warn("Revocation queue full; token {} is revoked on this node only until it expires", event.jti());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.flush-interval-ms:250}")
+    public void flush() {
+        List<TokenRevokedEvent> batch = new ArrayList<>();
+        pending.drainTo(batch, MAX_BATCH);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Timestamp revokedAt = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                ps.setString(1, event.jti());
+                ps.setTimestamp(2, Timestamp.from(event.expiresAt()));
+                ps.setTimestamp(3, revokedAt);
+            });
+            notifyPeers(batch);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to persist {} token revocations, will retry: {}", batch.size(), ex.getMessage());
+            batch.forEach(pending::offer);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        Instant now = Instant.now();
+        Instant since = lastSeenRevokedAt.equals(Instant.EPOCH)
+                ? Instant.EPOCH
+                : lastSeenRevokedAt.minusSeconds(CATCH_UP_OVERLAP_SECONDS);
+        try {
+            Instant newest = lastSeenRevokedAt;
+            for (RevokedToken token : revokedTokenRepository.findActiveRevokedSince(since, now)) {
+                tokenBlacklistService.applyRemoteRevocation(token.getJti(), token.getExpiresAt());
+                if (token.getRevokedAt().isAfter(newest)) {
+                    newest = token.getRevokedAt();
+                }
+            }
+            lastSeenRevokedAt = newest;
+        } catch (RuntimeException ex) {
+            log.warn("Token revocation catch-up failed: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.cleanup-interval-ms:300000}")
+    public void deleteExpired() {
+        try {
+            int deleted = jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < now()");
+            if (deleted > 0) {
+                log.debug("Deleted {} expired token revocations", deleted);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to delete expired token revocations: {}", ex.getMessage());
+        }
+    }
+
+    void onNotification(String payload) {
+        if (payload == null || payload.isBlank()) {
+            return;
+        }
+        for (String entry : payload.split(",")) {
+            int separator = entry.indexOf(';');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                String jti = entry.substring(0, separator);
+                Instant expiresAt = Instant.ofEpochMilli(Long.parseLong(entry.substring(separator + 1)));
+                tokenBlacklistService.applyRemoteRevocation(jti, expiresAt);
+            } catch (NumberFormatException ex) {
+                log.warn("Ignoring malformed revocation notification entry: {}", entry);
+            }
+        }
+    }
+
+    private void notifyPeers(List<TokenRevokedEvent> batch) {
+        StringBuilder payload = new StringBuilder();
+        for (TokenRevokedEvent event : batch) {
+            String entry = event.jti() + ";" + event.expiresAt().toEpochMilli();
+            if (payload.length() + entry.length() + 1 > MAX_PAYLOAD_CHARS) {
+                sendNotify(payload.toString());
+                payload.setLength(0);
+            }
+            if (!payload.isEmpty()) {
+                payload.append(',');
+            }
+            payload.append(entry);
+        }
+        if (!payload.isEmpty()) {
+            sendNotify(payload.toString());
+        }
+    }
+
+    private void sendNotify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, clusterProperties.getRevocationChannel(), payload);
+    }
+}
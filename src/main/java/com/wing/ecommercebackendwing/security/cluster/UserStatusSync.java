@@ -0,0 +1,57 @@
+package com.wing.ecommercebackendwing.security.cluster;
+
+import com.wing.ecommercebackendwing.config.ClusterProperties;
+import com.wing.ecommercebackendwing.security.UserStatusCache;
+import com.wing.ecommercebackendwing.security.UserStatusChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Evicts a user's cached status on every replica when any of them changes it.
+ *
+ * The NOTIFY is sent on the connection of the transaction that changed the status, so Postgres
+ * delivers it only if that transaction commits, and only after it has: peers that reload on
+ * receipt see the new status. After a listener reconnect, when notifications may have been
+ * missed, the whole local cache is dropped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatusSync {
+
+    private final UserStatusCache userStatusCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final PostgresNotificationListener notificationListener;
+    private final ClusterProperties clusterProperties;
+
+    @PostConstruct
+    void register() {
+        notificationListener.subscribe(clusterProperties.getUserStatusChannel(), this::onNotification);
+        notificationListener.onReconnect(userStatusCache::invalidateAllLocally);
+    }
+
+    @EventListener
+    public void onUserStatusChanged(UserStatusChangedEvent event) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null,
+                clusterProperties.getUserStatusChannel(), event.userId().toString());
+    }
+
+    void onNotification(String payload) {
+        if (payload == null || payload.isBlank()) {
+            return;
+        }
+        try {
+            userStatusCache.invalidateLocally(UUID.fromString(payload));
+        } catch (IllegalArgumentException ex) {
+            log.warn("Ignoring malformed user status notification: {}", payload);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.wing.ecommercebackendwing.security.jwt;
 
+import com.wing.ecommercebackendwing.security.CustomUserDetails;
+import com.wing.ecommercebackendwing.security.CustomUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,8 +10,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -23,7 +23,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
 
     @Override
@@ -32,49 +32,55 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
         try {
-            String jwt = getJwtFromRequest(request);
-
-            if (StringUtils.hasText(jwt)
-                    && tokenProvider.validateToken(jwt)
-                    && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-
-                String jti = tokenProvider.getJtiFromToken(jwt);
-                if (jti != null && !jti.isBlank()) {
-                    // Security: Blacklist check is a secondary, best-effort layer for explicit revocations.
-                    // This check is non-blocking to core functionality in case of cache loss.
-                    if (tokenBlacklistService.isBlacklisted(jti)) {
-                        log.debug("Rejected blacklisted token: {}", jti);
-                        filterChain.doFilter(request, response);
-                        return;
-                    }
-                }
+            authenticate(request);
+        } catch (Exception ex) {
+            log.warn("JWT authentication failed: {}", ex.getMessage());
+        }
 
-                String username = tokenProvider.getUsernameFromToken(jwt);
+        filterChain.doFilter(request, response);
+    }
 
-                UserDetails userDetails =
-                        userDetailsService.loadUserByUsername(username);
+    private void authenticate(HttpServletRequest request) {
+        String jwt = getJwtFromRequest(request);
+        if (!StringUtils.hasText(jwt)
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
+            return;
+        }
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+        // Parse and verify once; every downstream check reads from the same claims.
+        JwtClaims claims = tokenProvider.parseAccessToken(jwt).orElse(null);
+        if (claims == null) {
+            return;
+        }
 
-                authentication.setDetails(
-                        new WebAuthenticationDetailsSource()
-                                .buildDetails(request)
-                );
+        // Security: Blacklist check is a secondary, best-effort layer for explicit revocations.
+        // This check is non-blocking to core functionality in case of cache loss.
+        if (tokenBlacklistService.isBlacklisted(claims)) {
+            log.debug("Rejected blacklisted token: {}", claims.jti());
+            return;
+        }
 
-                SecurityContextHolder.getContext()
-                        .setAuthentication(authentication);
-            }
-        } catch (Exception ex) {
-            log.warn("JWT authentication failed: {}", ex.getMessage());
+        // Principal comes from the token's id/role claims; only cached lock/active status is checked.
+        CustomUserDetails userDetails = userDetailsService.loadUserFromClaims(claims);
+        if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked()) {
+            log.debug("Rejected token for inactive or locked user: {}", userDetails.getUserId());
+            return;
         }
 
-        filterChain.doFilter(request, response);
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+
+        authentication.setDetails(
+                new WebAuthenticationDetailsSource()
+                        .buildDetails(request)
+        );
+
+        SecurityContextHolder.getContext()
+                .setAuthentication(authentication);
     }
 
     private String getJwtFromRequest(HttpServletRequest request) {
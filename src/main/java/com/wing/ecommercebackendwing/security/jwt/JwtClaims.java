@@ -0,0 +1,52 @@
+package com.wing.ecommercebackendwing.security.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Immutable view of a verified access token.
+ * Produced once per request by {@link JwtTokenProvider#parseAccessToken(String)} and shared by
+ * the authentication filter and the blacklist check so the token is never parsed twice.
+ */
+public record JwtClaims(
+        String jti,
+        String subject,
+        UUID userId,
+        String role,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    static JwtClaims from(Claims claims) {
+        return new JwtClaims(
+                claims.getId(),
+                claims.getSubject(),
+                parseUuid(claims.get("id")),
+                claims.get("role", String.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration())
+        );
+    }
+
+    public boolean hasJti() {
+        return jti != null && !jti.isBlank();
+    }
+
+    private static UUID parseUuid(Object raw) {
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(String.valueOf(raw));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
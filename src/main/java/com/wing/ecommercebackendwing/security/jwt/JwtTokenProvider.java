@@ -2,6 +2,7 @@ package com.wing.ecommercebackendwing.security.jwt;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -13,14 +14,24 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import com.wing.ecommercebackendwing.model.entity.User;
+import java.util.Optional;
 import java.util.UUID;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
+    private static final String ISSUER = "wing-api";
+    private static final String AUDIENCE = "wing-client";
+    private static final long CLOCK_SKEW_SECONDS = 60;
+
     private final JwtProperties jwtProperties;
 
+    // Derived once: Base64-decoding the secret and building parsers is pure overhead per request.
+    private volatile SecretKey signingKey;
+    private volatile JwtParser accessTokenParser;
+    private volatile JwtParser signatureOnlyParser;
+
     public JwtTokenProvider(JwtProperties jwtProperties) {
         this.jwtProperties = jwtProperties;
     }
@@ -32,12 +43,43 @@ public class JwtTokenProvider {
             log.error("JWT Secret is missing or too short for HS256 algorithm. Minimum 32 characters required.");
             throw new IllegalStateException("Invalid JWT configuration");
         }
+        initKeyMaterial();
         log.info("JWT Signing Key successfully initialized from configuration.");
     }
 
+    private void initKeyMaterial() {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret()));
+        this.accessTokenParser = Jwts.parser()
+                .verifyWith(key)
+                .requireIssuer(ISSUER)
+                .requireAudience(AUDIENCE)
+                .clockSkewSeconds(CLOCK_SKEW_SECONDS)
+                .build();
+        this.signatureOnlyParser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.signingKey = key;
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
-        return Keys.hmacShaKeyFor(keyBytes);
+        if (signingKey == null) {
+            initKeyMaterial();
+        }
+        return signingKey;
+    }
+
+    private JwtParser getAccessTokenParser() {
+        if (accessTokenParser == null) {
+            initKeyMaterial();
+        }
+        return accessTokenParser;
+    }
+
+    private JwtParser getSignatureOnlyParser() {
+        if (signatureOnlyParser == null) {
+            initKeyMaterial();
+        }
+        return signatureOnlyParser;
     }
 
     /**
@@ -56,8 +98,8 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .setIssuer("wing-api")
-                .setAudience("wing-client")
+                .setIssuer(ISSUER)
+                .setAudience(AUDIENCE)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
                 .signWith(getSigningKey(), Jwts.SIG.HS256)
@@ -79,8 +121,8 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .setId(UUID.randomUUID().toString())
                 .setSubject(user.getEmail())
-                .setIssuer("wing-api")
-                .setAudience("wing-client")
+                .setIssuer(ISSUER)
+                .setAudience(AUDIENCE)
                 .claim("role", user.getRole().name())
                 .claim("name", user.getFirstName() + " " + user.getLastName())
                 .claim("avatar", user.getAvatar())
@@ -91,35 +133,34 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Parse and verify an access token exactly once.
+     * Returns empty for any invalid, expired or tampered token so callers never need to re-parse.
+     */
+    public Optional<JwtClaims> parseAccessToken(String token) {
+        try {
+            Claims claims = getAccessTokenParser()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            return Optional.of(JwtClaims.from(claims));
+        } catch (io.jsonwebtoken.ExpiredJwtException ex) {
+            // Expired access tokens are expected in normal refresh flow; keep logs low-noise.
+            log.debug("JWT expired: {}", ex.getMessage());
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.warn("JWT validation error: {}", ex.getMessage());
+        }
+        return Optional.empty();
+    }
+
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .requireIssuer("wing-api")
-                .requireAudience("wing-client")
-                .clockSkewSeconds(60)
-                .build()
+        return getAccessTokenParser()
                 .parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .requireIssuer("wing-api")
-                    .requireAudience("wing-client")
-                    .clockSkewSeconds(60)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (io.jsonwebtoken.ExpiredJwtException ex) {
-            // Expired access tokens are expected in normal refresh flow; keep logs low-noise.
-            log.debug("JWT expired: {}", ex.getMessage());
-        } catch (JwtException ex) {
-            log.warn("JWT validation error: {}", ex.getMessage());
-        }
-        return false;
+        return parseAccessToken(token).isPresent();
     }
 
     /**
@@ -127,9 +168,7 @@ public class JwtTokenProvider {
      */
     public String getJtiFromToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
+            return getSignatureOnlyParser()
                     .parseSignedClaims(token)
                     .getPayload()
                     .getId();
@@ -167,9 +206,7 @@ public class JwtTokenProvider {
      */
     public UUID getUserIdFromTempToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
+            Claims claims = getSignatureOnlyParser()
                     .parseSignedClaims(token)
                     .getPayload();
             
@@ -2,11 +2,16 @@ package com.wing.ecommercebackendwing.security.jwt;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import com.wing.ecommercebackendwing.config.JwtProperties;
 
 import java.time.Duration;
+import java.time.Instant;
 
 /**
  * In-memory cache for blacklisted JWT token IDs (JTIs).
@@ -18,9 +23,12 @@ import java.time.Duration;
  *    - User Logout
  *    - Password Change (current token)
  *    - Administrative Account Revocation (current token if possible)
- * 3. NON-PERSISTENT: Data is lost on backend restart. This is intentional to avoid 
- *    overhead and complexity. Tokens naturally expire via TTL.
- * 4. UX FOCUS: This service should NEVER block core application functionality. If the 
+ * 3. LOCAL FAST PATH: Lookups never leave the process. A Bloom filter answers "not revoked"
+ *    for almost every request; only filter hits consult the Caffeine cache.
+ * 4. OPTIONAL SHARING: Local revocations are published as {@link TokenRevokedEvent}. With
+ *    app.cluster.enabled=true, TokenRevocationSync persists them to Postgres and feeds
+ *    revocations from other replicas back in through {@link #applyRemoteRevocation}.
+ * 5. UX FOCUS: This service should NEVER block core application functionality. If the 
  *    cache is lost or the token is missing from the local instance, natural JWT expiry
  *    remains the fallback.
  */
@@ -28,14 +36,42 @@ import java.time.Duration;
 @Slf4j
 public class TokenBlacklistService {
 
-    private final Cache<String, Boolean> blacklist;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
 
-    public TokenBlacklistService(JwtProperties jwtProperties) {
-        long jwtExpirationMs = jwtProperties.getAccessToken().getExpiration();
+    private final Cache<String, Instant> blacklist;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long jwtExpirationMs;
+    private final long expectedRevocations;
+
+    private volatile JtiBloomFilter bloomFilter;
+    private volatile JtiBloomFilter rebuildingFilter;
+
+    public TokenBlacklistService(JwtProperties jwtProperties,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${security.token-blacklist.max-size:100000}") long maxSize) {
+        this.jwtExpirationMs = jwtProperties.getAccessToken().getExpiration();
+        this.eventPublisher = eventPublisher;
+        this.expectedRevocations = Math.max(1_000, maxSize);
         this.blacklist = Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
-                .maximumSize(10_000)
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String jti, Instant expiresAt, long currentTime) {
+                        return remainingNanos(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String jti, Instant expiresAt, long currentTime, long currentDuration) {
+                        return remainingNanos(expiresAt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String jti, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(expectedRevocations)
                 .build();
+        this.bloomFilter = new JtiBloomFilter(expectedRevocations, BLOOM_FALSE_POSITIVE_RATE);
         log.info("Token blacklist initialized with TTL: {}ms", jwtExpirationMs);
     }
 
@@ -43,12 +79,36 @@ public class TokenBlacklistService {
      * Add a token JTI to the blacklist.
      */
     public void blacklist(String jti) {
-        if (jti != null && !jti.isBlank()) {
-            blacklist.put(jti, true);
+        blacklist(jti, Instant.now().plusMillis(jwtExpirationMs));
+    }
+
+    /**
+     * Blacklist a verified token until its own expiry.
+     */
+    public void blacklist(JwtClaims claims) {
+        if (claims != null) {
+            blacklist(claims.jti(), claims.expiresAt() != null
+                    ? claims.expiresAt()
+                    : Instant.now().plusMillis(jwtExpirationMs));
+        }
+    }
+
+    private void blacklist(String jti, Instant expiresAt) {
+        if (store(jti, expiresAt)) {
+            eventPublisher.publishEvent(new TokenRevokedEvent(jti, expiresAt));
             log.debug("Token blacklisted: {}", jti);
         }
     }
 
+    /**
+     * Record a revocation learned from another replica. Does not re-publish.
+     */
+    public void applyRemoteRevocation(String jti, Instant expiresAt) {
+        if (store(jti, expiresAt)) {
+            log.debug("Remote token revocation applied: {}", jti);
+        }
+    }
+
     /**
      * Check if a token JTI is blacklisted.
      */
@@ -56,6 +116,46 @@ public class TokenBlacklistService {
         if (jti == null || jti.isBlank()) {
             return false;
         }
+        if (!bloomFilter.mightContain(jti)) {
+            return false;
+        }
         return blacklist.getIfPresent(jti) != null;
     }
+
+    /**
+     * Check already-verified claims against the blacklist without re-parsing the token.
+     */
+    public boolean isBlacklisted(JwtClaims claims) {
+        return claims != null && isBlacklisted(claims.jti());
+    }
+
+    /**
+     * Bloom filters cannot forget, so periodically rebuild from the live cache to shed expired JTIs.
+     */
+    @Scheduled(fixedDelayString = "${security.token-blacklist.bloom-rebuild-ms:600000}")
+    public void rebuildBloomFilter() {
+        JtiBloomFilter fresh = new JtiBloomFilter(expectedRevocations, BLOOM_FALSE_POSITIVE_RATE);
+        // Writers also add to the filter under construction, so nothing revoked mid-rebuild is lost.
+        rebuildingFilter = fresh;
+        blacklist.asMap().keySet().forEach(fresh::put);
+        bloomFilter = fresh;
+        rebuildingFilter = null;
+    }
+
+    private boolean store(String jti, Instant expiresAt) {
+        if (jti == null || jti.isBlank() || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return false;
+        }
+        blacklist.put(jti, expiresAt);
+        bloomFilter.put(jti);
+        JtiBloomFilter rebuilding = rebuildingFilter;
+        if (rebuilding != null) {
+            rebuilding.put(jti);
+        }
+        return true;
+    }
+
+    private static long remainingNanos(Instant expiresAt) {
+        return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+    }
 }
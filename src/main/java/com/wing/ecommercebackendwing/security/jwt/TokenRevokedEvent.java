@@ -0,0 +1,9 @@
+package com.wing.ecommercebackendwing.security.jwt;
+
+import java.time.Instant;
+
+/**
+ * Published when this node revokes an access token, so shared-state backends can propagate it.
+ */
+public record TokenRevokedEvent(String jti, Instant expiresAt) {
+}
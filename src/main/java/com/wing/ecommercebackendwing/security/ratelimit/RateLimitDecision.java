@@ -0,0 +1,29 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a single permit request, carrying everything needed for the
+ * {@code Retry-After} and {@code X-RateLimit-*} response headers.
+ *
+ * @param resetNanos      time until the limiter is fully replenished
+ * @param retryAfterNanos time until the next permit is available (0 when allowed)
+ */
+public record RateLimitDecision(boolean allowed, int limit, long remaining, long resetNanos, long retryAfterNanos) {
+
+    public long resetSeconds() {
+        return ceilSeconds(resetNanos);
+    }
+
+    public long retryAfterSeconds() {
+        return Math.max(1, ceilSeconds(retryAfterNanos));
+    }
+
+    private static long ceilSeconds(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        long oneSecond = TimeUnit.SECONDS.toNanos(1);
+        return (nanos + oneSecond - 1) / oneSecond;
+    }
+}
@@ -0,0 +1,37 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Size- and idle-bounded map of limiter state.
+ *
+ * A flood of distinct keys (e.g. credential stuffing from rotating IPs) evicts the least valuable
+ * entries instead of growing the heap. An evicted key simply starts again with a full budget.
+ */
+public class RateLimitKeyStore {
+
+    private final Cache<String, RateLimiter> limiters;
+
+    public RateLimitKeyStore(long maxKeys, Duration idleTimeout) {
+        this.limiters = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxKeys))
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    public RateLimiter get(String key, Function<String, RateLimiter> factory) {
+        return limiters.get(key, factory);
+    }
+
+    public long estimatedSize() {
+        return limiters.estimatedSize();
+    }
+
+    public void cleanUp() {
+        limiters.cleanUp();
+    }
+}
@@ -0,0 +1,78 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+import com.wing.ecommercebackendwing.config.RateLimitProperties;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolved, immutable form of a configured {@link RateLimitProperties.Policy}.
+ */
+public final class RateLimitPolicy {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final String name;
+    private final List<String> methods;
+    private final List<String> paths;
+    private final RateLimitProperties.Algorithm algorithm;
+    private final RateLimitProperties.KeyType keyType;
+    private final int maxRequests;
+    private final long windowSeconds;
+    private final long windowNanos;
+
+    public RateLimitPolicy(String name, List<String> methods, List<String> paths,
+                           RateLimitProperties.Algorithm algorithm, RateLimitProperties.KeyType keyType,
+                           int maxRequests, long windowSeconds) {
+        this.name = name;
+        this.methods = methods.stream().map(m -> m.trim().toUpperCase(Locale.ROOT)).toList();
+        this.paths = List.copyOf(paths);
+        this.algorithm = algorithm != null ? algorithm : RateLimitProperties.Algorithm.TOKEN_BUCKET;
+        this.keyType = keyType != null ? keyType : RateLimitProperties.KeyType.IP;
+        this.maxRequests = Math.max(1, maxRequests);
+        this.windowSeconds = Math.max(1, windowSeconds);
+        this.windowNanos = TimeUnit.SECONDS.toNanos(this.windowSeconds);
+    }
+
+    public static RateLimitPolicy from(RateLimitProperties.Policy policy) {
+        return new RateLimitPolicy(policy.getName(), policy.getMethods(), policy.getPaths(),
+                policy.getAlgorithm(), policy.getKey(), policy.getMaxRequests(), policy.getWindowSeconds());
+    }
+
+    public boolean matches(String method, String path) {
+        if (!methods.isEmpty() && !methods.contains(method)) {
+            return false;
+        }
+        for (String pattern : paths) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public RateLimiter newLimiter() {
+        return switch (algorithm) {
+            case TOKEN_BUCKET -> new TokenBucketRateLimiter(maxRequests, windowNanos);
+            case SLIDING_WINDOW -> new SlidingWindowRateLimiter(maxRequests, windowNanos);
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimitProperties.KeyType getKeyType() {
+        return keyType;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+/**
+ * Per-key limiter state. Implementations must be lock-free and safe for concurrent callers.
+ */
+public interface RateLimiter {
+
+    /**
+     * Try to take one permit at the given monotonic time.
+     */
+    RateLimitDecision tryAcquire(long nowNanos);
+}
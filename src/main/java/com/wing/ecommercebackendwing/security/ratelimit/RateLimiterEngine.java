@@ -0,0 +1,127 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+import com.wing.ecommercebackendwing.config.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves the policy for a request, derives its key (IP, user or both) and takes a permit
+ * from the matching limiter. Servlet-agnostic so it can be exercised directly by tests and benchmarks.
+ */
+@Component
+@Slf4j
+public class RateLimiterEngine {
+
+    private final List<RateLimitPolicy> policies;
+    private final RateLimitKeyStore keyStore;
+    private final LongSupplier clock;
+    private final boolean enabled;
+    private final SharedRateLimitBudget sharedBudget;
+
+    @Autowired
+    public RateLimiterEngine(RateLimitProperties properties, ObjectProvider<SharedRateLimitBudget> sharedBudget) {
+        this(properties, System::nanoTime, sharedBudget.getIfAvailable());
+    }
+
+    public RateLimiterEngine(RateLimitProperties properties, LongSupplier clock) {
+        this(properties, clock, null);
+    }
+
+    public RateLimiterEngine(RateLimitProperties properties, LongSupplier clock, SharedRateLimitBudget sharedBudget) {
+        this.enabled = properties.isEnabled();
+        this.sharedBudget = sharedBudget;
+        this.policies = resolvePolicies(properties);
+        this.keyStore = new RateLimitKeyStore(
+                properties.getStore().getMaxKeys(),
+                Duration.ofSeconds(Math.max(1, properties.getStore().getIdleSeconds())));
+        this.clock = clock;
+        log.info("Rate limiter initialized with {} policies: {} (cluster-wide budgets: {})", policies.size(),
+                policies.stream().map(RateLimitPolicy::getName).toList(), sharedBudget != null);
+    }
+
+    /**
+     * @return the decision, or {@code null} when no policy applies to the request
+     */
+    public RateLimitDecision check(String method, String path, String clientIp, UUID userId) {
+        if (!enabled) {
+            return null;
+        }
+        RateLimitPolicy policy = resolvePolicy(method, path);
+        if (policy == null) {
+            return null;
+        }
+        String key = policy.getName() + ":" + resolveKey(policy, clientIp, userId);
+        RateLimitDecision local = keyStore.get(key, ignored -> policy.newLimiter()).tryAcquire(clock.getAsLong());
+        if (!local.allowed() || sharedBudget == null) {
+            return local;
+        }
+
+        // Local state is the fast path; the shared budget stops N replicas granting N budgets.
+        RateLimitDecision shared = sharedBudget.tryAcquire(key, policy.getMaxRequests(), policy.getWindowSeconds());
+        if (!shared.allowed()) {
+            return shared;
+        }
+        return new RateLimitDecision(true, local.limit(), Math.min(local.remaining(), shared.remaining()),
+                Math.max(local.resetNanos(), shared.resetNanos()), 0);
+    }
+
+    public RateLimitKeyStore getKeyStore() {
+        return keyStore;
+    }
+
+    private RateLimitPolicy resolvePolicy(String method, String path) {
+        for (RateLimitPolicy policy : policies) {
+            if (policy.matches(method, path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private String resolveKey(RateLimitPolicy policy, String clientIp, UUID userId) {
+        // Anonymous requests always fall back to the client IP.
+        return switch (policy.getKeyType()) {
+            case IP -> "ip=" + clientIp;
+            case USER -> userId != null ? "user=" + userId : "ip=" + clientIp;
+            case IP_AND_USER -> "ip=" + clientIp + (userId != null ? ",user=" + userId : "");
+        };
+    }
+
+    private static List<RateLimitPolicy> resolvePolicies(RateLimitProperties properties) {
+        List<RateLimitPolicy> resolved = new ArrayList<>();
+        if (properties.getPolicies() != null && !properties.getPolicies().isEmpty()) {
+            for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+                resolved.add(RateLimitPolicy.from(policy));
+            }
+            return List.copyOf(resolved);
+        }
+
+        RateLimitProperties.Limit auth = properties.getAuth();
+        resolved.add(new RateLimitPolicy("AUTH", List.of("POST"),
+                List.of("/api/auth/login", "/api/auth/register", "/api/auth/forgot-password"),
+                RateLimitProperties.Algorithm.TOKEN_BUCKET, RateLimitProperties.KeyType.IP,
+                auth.getMaxRequests(), auth.getWindowSeconds()));
+
+        RateLimitProperties.Limit paymentVerify = properties.getPaymentVerify();
+        resolved.add(new RateLimitPolicy("PAYMENT_VERIFY", List.of("POST"),
+                List.of("/api/payments/verify/**"),
+                RateLimitProperties.Algorithm.TOKEN_BUCKET, RateLimitProperties.KeyType.IP,
+                paymentVerify.getMaxRequests(), paymentVerify.getWindowSeconds()));
+
+        // The full catalog export is public and the most expensive read there is.
+        RateLimitProperties.Limit productExport = properties.getProductExport();
+        resolved.add(new RateLimitPolicy("PRODUCT_EXPORT", List.of("GET"),
+                List.of("/api/products/all"),
+                RateLimitProperties.Algorithm.TOKEN_BUCKET, RateLimitProperties.KeyType.IP,
+                productExport.getMaxRequests(), productExport.getWindowSeconds()));
+        return List.copyOf(resolved);
+    }
+}
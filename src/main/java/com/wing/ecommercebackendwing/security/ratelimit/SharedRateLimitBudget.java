@@ -0,0 +1,13 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+/**
+ * Cluster-wide budget consulted after the local limiter allows a request,
+ * so N replicas together grant one policy budget instead of N.
+ */
+public interface SharedRateLimitBudget {
+
+    /**
+     * Take one permit from the shared fixed window for {@code key}.
+     */
+    RateLimitDecision tryAcquire(String key, int limit, long windowSeconds);
+}
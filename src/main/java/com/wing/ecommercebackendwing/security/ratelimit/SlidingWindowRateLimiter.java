@@ -0,0 +1,72 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding-window counter: the previous window's count is weighted by how much of it still
+ * overlaps the sliding window, plus the current window's count.
+ *
+ * State is packed into one {@code long} so updates are a single CAS:
+ * bits 63..32 window index, bits 31..16 current count, bits 15..0 previous count.
+ * Counts are therefore capped at 65535 per window.
+ */
+public final class SlidingWindowRateLimiter implements RateLimiter {
+
+    static final int MAX_LIMIT = 0xFFFF;
+
+    private final int limit;
+    private final long windowNanos;
+    private final AtomicLong state = new AtomicLong();
+
+    public SlidingWindowRateLimiter(int limit, long windowNanos) {
+        this.limit = Math.min(MAX_LIMIT, Math.max(1, limit));
+        this.windowNanos = Math.max(1, windowNanos);
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(long nowNanos) {
+        int nowIndex = (int) Math.floorDiv(nowNanos, windowNanos);
+        long elapsed = Math.floorMod(nowNanos, windowNanos);
+        long untilRoll = windowNanos - elapsed;
+
+        while (true) {
+            long packed = state.get();
+            int index = (int) (packed >>> 32);
+            int current = (int) ((packed >>> 16) & 0xFFFF);
+            int previous = (int) (packed & 0xFFFF);
+
+            if (index != nowIndex) {
+                previous = index + 1 == nowIndex ? current : 0;
+                current = 0;
+            }
+
+            double previousWeight = 1.0d - (double) elapsed / windowNanos;
+            double estimate = previous * previousWeight + current;
+
+            if (estimate + 1 > limit) {
+                return new RateLimitDecision(false, limit, 0, untilRoll, retryAfter(previous, current, elapsed));
+            }
+
+            long next = ((long) nowIndex << 32) | ((long) (current + 1) << 16) | previous;
+            if (state.compareAndSet(packed, next)) {
+                long remaining = (long) Math.floor(limit - estimate - 1);
+                return new RateLimitDecision(true, limit, Math.max(0, remaining), untilRoll, 0);
+            }
+        }
+    }
+
+    /**
+     * Time until the weighted estimate leaves room for one more request.
+     */
+    private long retryAfter(int previous, int current, long elapsed) {
+        int headroom = limit - 1 - current;
+        if (headroom >= 0 && previous > 0) {
+            // Still in this window: wait for enough of the previous window to slide out.
+            double neededFraction = 1.0d - (double) headroom / previous;
+            return Math.max(1, (long) Math.ceil(neededFraction * windowNanos) - elapsed);
+        }
+        // Current window is full: wait for the roll, then for its count to decay as "previous".
+        double neededFraction = current > 0 ? Math.max(0, 1.0d - (double) (limit - 1) / current) : 0;
+        return (windowNanos - elapsed) + (long) Math.ceil(neededFraction * windowNanos);
+    }
+}
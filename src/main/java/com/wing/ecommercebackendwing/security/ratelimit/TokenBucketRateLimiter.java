@@ -0,0 +1,45 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket expressed as GCRA (generic cell rate algorithm).
+ *
+ * The whole bucket is one {@code long}: the theoretical arrival time (TAT) of the next permit.
+ * A bucket of {@code capacity} permits refilled over {@code window} is equivalent to spacing
+ * permits {@code window / capacity} apart with a burst tolerance of the full window, so one CAS
+ * replaces the lock and the separate token/timestamp fields.
+ */
+public final class TokenBucketRateLimiter implements RateLimiter {
+
+    private final int capacity;
+    private final long windowNanos;
+    private final long emissionIntervalNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucketRateLimiter(int capacity, long windowNanos) {
+        this.capacity = Math.max(1, capacity);
+        this.windowNanos = Math.max(1, windowNanos);
+        this.emissionIntervalNanos = Math.max(1, this.windowNanos / this.capacity);
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, nowNanos);
+            long nextTat = base + emissionIntervalNanos;
+            long backlog = nextTat - nowNanos;
+
+            if (backlog > windowNanos) {
+                long retryAfter = backlog - windowNanos;
+                return new RateLimitDecision(false, capacity, 0, tat - nowNanos, retryAfter);
+            }
+
+            if (theoreticalArrival.compareAndSet(tat, nextTat)) {
+                long remaining = (windowNanos - backlog) / emissionIntervalNanos;
+                return new RateLimitDecision(true, capacity, remaining, backlog, 0);
+            }
+        }
+    }
+}
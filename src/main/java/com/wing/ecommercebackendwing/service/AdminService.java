@@ -6,6 +6,11 @@ import com.wing.ecommercebackendwing.repository.AddressRepository;
 import com.wing.ecommercebackendwing.repository.OrderRepository;
 import com.wing.ecommercebackendwing.repository.ProductRepository;
 import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.security.UserStatusCache;
+import com.wing.ecommercebackendwing.service.product.ProductCache;
+import com.wing.ecommercebackendwing.service.product.ProductCacheStats;
+import com.wing.ecommercebackendwing.service.product.ProductRatingAggregator;
+import com.wing.ecommercebackendwing.service.search.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
@@ -27,6 +32,10 @@ public class AdminService {
     private final ProductRepository productRepository;
     private final OrderService orderService;
     private final RefreshTokenService refreshTokenService;
+    private final UserStatusCache userStatusCache;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRatingAggregator productRatingAggregator;
 
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
@@ -38,6 +47,23 @@ public class AdminService {
         return stats;
     }
 
+    public ProductCacheStats getProductCacheStats() {
+        return productCache.stats();
+    }
+
+    public ProductSearchIndex.Stats rebuildSearchIndex() {
+        productSearchIndex.rebuild();
+        return productSearchIndex.stats();
+    }
+
+    /**
+     * Recounts every product's reviews and returns how many ratings had drifted, or -1 if the
+     * scheduled repair was already running.
+     */
+    public int repairProductRatings() {
+        return productRatingAggregator.repairAll();
+    }
+
     public Page<OrderResponse> getAllOrders(int page, int size) {
         return orderService.getAllOrders(page, size);
     }
@@ -48,6 +74,7 @@ public class AdminService {
         
         user.setIsActive(false);
         userRepository.save(user);
+        userStatusCache.invalidate(userId);
         
         // Security: Revoke all refresh tokens
         refreshTokenService.revokeAllUserTokens(userId);
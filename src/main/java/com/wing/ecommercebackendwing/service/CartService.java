@@ -2,17 +2,25 @@ package com.wing.ecommercebackendwing.service;
 
 import com.wing.ecommercebackendwing.dto.mapper.CartMapper;
 import com.wing.ecommercebackendwing.dto.request.cart.AddToCartRequest;
+import com.wing.ecommercebackendwing.dto.request.cart.CartBatchRequest;
+import com.wing.ecommercebackendwing.dto.request.cart.CartOperationRequest;
 import com.wing.ecommercebackendwing.dto.request.cart.UpdateCartItemRequest;
 import com.wing.ecommercebackendwing.dto.response.cart.CartResponse;
+import com.wing.ecommercebackendwing.exception.custom.BadRequestException;
+import com.wing.ecommercebackendwing.exception.custom.InsufficientStockException;
+import com.wing.ecommercebackendwing.exception.custom.ResourceNotFoundException;
 import com.wing.ecommercebackendwing.model.entity.Cart;
 import com.wing.ecommercebackendwing.model.entity.CartItem;
 import com.wing.ecommercebackendwing.model.entity.Product;
 import com.wing.ecommercebackendwing.model.entity.ProductVariant;
 import com.wing.ecommercebackendwing.model.entity.User;
+import com.wing.ecommercebackendwing.repository.CartItemRepository;
 import com.wing.ecommercebackendwing.repository.CartRepository;
 import com.wing.ecommercebackendwing.repository.ProductRepository;
 import com.wing.ecommercebackendwing.repository.ProductVariantRepository;
 import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.service.cart.CartSummary;
+import com.wing.ecommercebackendwing.service.cart.CartSummaryCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,9 +29,16 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,9 +46,11 @@ import java.util.UUID;
 public class CartService {
 
     private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final ProductVariantRepository productVariantRepository;
     private final UserRepository userRepository;
+    private final CartSummaryCache cartSummaryCache;
 
     @Transactional
     public CartResponse getCart(UUID userId) {
@@ -42,6 +59,13 @@ public class CartService {
         return CartMapper.toResponse(cart);
     }
 
+    /**
+     * Item count and subtotal for the mini-cart, without loading the cart.
+     */
+    public CartSummary getCartSummary(UUID userId) {
+        return cartSummaryCache.get(userId);
+    }
+
     @Transactional
     public CartResponse addToCart(UUID userId, AddToCartRequest request) {
         int quantityToAdd = request.getQuantity() != null ? request.getQuantity() : 0;
@@ -89,7 +113,8 @@ public class CartService {
 
         cart.setUpdatedAt(Instant.now());
         Cart savedCart = cartRepository.save(cart);
-        
+        cartSummaryCache.invalidate(userId);
+
         log.info("Added product {} to cart for user {}", product.getId(), userId);
         return CartMapper.toResponse(savedCart);
     }
@@ -101,7 +126,7 @@ public class CartService {
             throw new IllegalArgumentException("Quantity must be greater than 0");
         }
 
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
         CartItem cartItem = cart.getItems().stream()
@@ -128,13 +153,14 @@ public class CartService {
         cart.setUpdatedAt(Instant.now());
         
         Cart savedCart = cartRepository.save(cart);
+        cartSummaryCache.invalidate(userId);
         log.info("Updated cart item {} for user {}", request.getCartItemId(), userId);
         return CartMapper.toResponse(savedCart);
     }
 
     @Transactional
     public CartResponse removeItem(UUID userId, UUID itemId) {
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
         // Verify ownership
@@ -149,14 +175,15 @@ public class CartService {
 
         cart.setUpdatedAt(Instant.now());
         Cart savedCart = cartRepository.save(cart);
-        
+        cartSummaryCache.invalidate(userId);
+
         log.info("Removed item {} from cart for user {}", itemId, userId);
         return CartMapper.toResponse(savedCart);
     }
 
     @Transactional
     public void clearCart(UUID userId) {
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
         // Verify ownership
@@ -167,12 +194,113 @@ public class CartService {
         cart.getItems().clear();
         cart.setUpdatedAt(Instant.now());
         cartRepository.save(cart);
-        
+        cartSummaryCache.invalidate(userId);
+
         log.info("Cleared cart for user {}", userId);
     }
 
+    /**
+     * Applies add, update and remove operations in order, in one transaction. Products for every
+     * add are loaded with their variants in one query, and stock is checked once against the
+     * final quantity of each line touched; if any operation is invalid or any line is short,
+     * nothing is applied and every short line is reported.
+     */
+    @Transactional
+    public CartResponse applyBatch(UUID userId, CartBatchRequest request) {
+        List<CartOperationRequest> operations = request.getOperations() != null ? request.getOperations() : List.of();
+        if (operations.isEmpty()) {
+            throw new BadRequestException("At least one cart operation is required");
+        }
+
+        Cart cart = getOrCreateCart(userId);
+        Map<UUID, Product> products = productRepository.findWithVariantsByIdIn(operations.stream()
+                        .filter(operation -> operation.getType() == CartOperationRequest.Type.ADD)
+                        .map(CartOperationRequest::getProductId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Entities compare by value, so lines are tracked by identity.
+        Set<CartItem> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        Instant now = Instant.now();
+        for (int index = 0; index < operations.size(); index++) {
+            CartOperationRequest operation = operations.get(index);
+            String at = "Operation " + index + ": ";
+            if (operation.getType() == null) {
+                throw new BadRequestException(at + "type is required");
+            }
+            switch (operation.getType()) {
+                case ADD -> {
+                    int quantity = requirePositiveQuantity(operation, at);
+                    if (operation.getProductId() == null) {
+                        throw new BadRequestException(at + "productId is required");
+                    }
+                    Product product = products.get(operation.getProductId());
+                    if (product == null) {
+                        throw new ResourceNotFoundException(at + "Product not found with id: " + operation.getProductId());
+                    }
+                    ProductVariant variant = findVariant(product, operation.getVariantId(), at);
+                    CartItem item = findMatchingCartItem(cart, product.getId(), operation.getVariantId()).orElse(null);
+                    if (item == null) {
+                        item = new CartItem();
+                        item.setCart(cart);
+                        item.setProduct(product);
+                        item.setVariant(variant);
+                        item.setQuantity(0);
+                        item.setCreatedAt(now);
+                        cart.getItems().add(item);
+                    }
+                    item.setQuantity(item.getQuantity() + quantity);
+                    item.setPrice(resolveCurrentPrice(product, variant));
+                    item.setUpdatedAt(now);
+                    touched.add(item);
+                }
+                case UPDATE -> {
+                    int quantity = requirePositiveQuantity(operation, at);
+                    CartItem item = findTargetCartItem(cart, operation, at);
+                    item.setQuantity(quantity);
+                    item.setPrice(resolveCurrentPrice(item.getProduct(), item.getVariant()));
+                    item.setUpdatedAt(now);
+                    touched.add(item);
+                }
+                case REMOVE -> {
+                    CartItem item = findTargetCartItem(cart, operation, at);
+                    cart.getItems().removeIf(line -> line == item);
+                    touched.remove(item);
+                }
+            }
+        }
+
+        List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+        for (CartItem item : touched) {
+            int availableStock = resolveAvailableStock(item.getProduct(), item.getVariant());
+            if (availableStock < item.getQuantity()) {
+                ProductVariant variant = item.getVariant();
+                shortages.add(new InsufficientStockException.Shortage(
+                        item.getProduct().getId(),
+                        variant != null ? variant.getId() : null,
+                        variant != null ? variant.getSku() : item.getProduct().getSku(),
+                        variant != null ? StockReservationService.variantLabel(variant) : item.getProduct().getName(),
+                        item.getQuantity(),
+                        availableStock
+                ));
+            }
+        }
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException(shortages);
+        }
+
+        cart.setUpdatedAt(now);
+        Cart savedCart = cartRepository.save(cart);
+        cartSummaryCache.invalidate(userId);
+
+        log.info("Applied {} cart operations for user {}", operations.size(), userId);
+        return CartMapper.toResponse(savedCart);
+    }
+
     private Cart getOrCreateCart(UUID userId) {
-        return cartRepository.findByUserId(userId)
+        return cartRepository.findWithItemsByUserId(userId)
                 .orElseGet(() -> {
                     User user = userRepository.findById(userId)
                             .orElseThrow(() -> new RuntimeException("User not found"));
@@ -199,6 +327,38 @@ public class CartService {
         return variant;
     }
 
+    private ProductVariant findVariant(Product product, UUID variantId, String at) {
+        if (variantId == null) {
+            return null;
+        }
+        List<ProductVariant> variants = product.getVariants() != null ? product.getVariants() : List.of();
+        return variants.stream()
+                .filter(variant -> variant.getId().equals(variantId))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException(at + "Variant " + variantId + " does not belong to product " + product.getId()));
+    }
+
+    private CartItem findTargetCartItem(Cart cart, CartOperationRequest operation, String at) {
+        Optional<CartItem> item;
+        if (operation.getCartItemId() != null) {
+            item = cart.getItems().stream()
+                    .filter(line -> operation.getCartItemId().equals(line.getId()))
+                    .findFirst();
+        } else if (operation.getProductId() != null) {
+            item = findMatchingCartItem(cart, operation.getProductId(), operation.getVariantId());
+        } else {
+            throw new BadRequestException(at + "cartItemId or productId is required");
+        }
+        return item.orElseThrow(() -> new ResourceNotFoundException(at + "Cart item not found"));
+    }
+
+    private static int requirePositiveQuantity(CartOperationRequest operation, String at) {
+        if (operation.getQuantity() == null || operation.getQuantity() <= 0) {
+            throw new BadRequestException(at + "Quantity must be greater than 0");
+        }
+        return operation.getQuantity();
+    }
+
     private Optional<CartItem> findMatchingCartItem(Cart cart, UUID productId, UUID variantId) {
         return cart.getItems().stream()
                 .filter(item -> item.getProduct().getId().equals(productId))
@@ -223,22 +383,36 @@ public class CartService {
         return product.getPrice();
     }
 
+    /**
+     * Brings stored line prices up to the current product and variant prices with one statement
+     * covering only the lines that changed. The statement detaches the cart, so the new prices
+     * set here go into the response without being written a second time.
+     */
     private void refreshCartPricing(Cart cart) {
-        boolean changed = false;
-        Instant now = Instant.now();
-
+        List<CartItem> changedItems = new ArrayList<>();
+        List<BigDecimal> currentPrices = new ArrayList<>();
         for (CartItem item : cart.getItems()) {
             BigDecimal currentPrice = resolveCurrentPrice(item.getProduct(), item.getVariant());
             if (item.getPrice() == null || item.getPrice().compareTo(currentPrice) != 0) {
-                item.setPrice(currentPrice);
-                item.setUpdatedAt(now);
-                changed = true;
+                changedItems.add(item);
+                currentPrices.add(currentPrice);
             }
         }
+        if (changedItems.isEmpty()) {
+            return;
+        }
 
-        if (changed) {
-            cart.setUpdatedAt(now);
-            cartRepository.save(cart);
+        Instant now = Instant.now();
+        cartItemRepository.repriceItems(
+                cart.getId(),
+                changedItems.stream().map(CartItem::getId).toArray(UUID[]::new),
+                currentPrices.toArray(BigDecimal[]::new),
+                now
+        );
+        for (int i = 0; i < changedItems.size(); i++) {
+            changedItems.get(i).setPrice(currentPrices.get(i));
+            changedItems.get(i).setUpdatedAt(now);
         }
+        cart.setUpdatedAt(now);
     }
 }
@@ -2,8 +2,9 @@ package com.wing.ecommercebackendwing.service;
 
 import com.wing.ecommercebackendwing.dto.mapper.CategoryMapper;
 import com.wing.ecommercebackendwing.dto.response.product.CategoryResponse;
-import com.wing.ecommercebackendwing.model.entity.Category;
-import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.exception.custom.ResourceNotFoundException;
+import com.wing.ecommercebackendwing.service.category.CategoryNode;
+import com.wing.ecommercebackendwing.service.category.CategoryTree;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -14,17 +15,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CategoryService {
 
-    private final CategoryRepository categoryRepository;
+    private final CategoryTree categoryTree;
 
+    /**
+     * Every category in tree order: each parent before its children, siblings by sort order.
+     */
     public List<CategoryResponse> getCategories() {
-        return categoryRepository.findAll().stream()
+        return categoryTree.all().stream()
                 .map(CategoryMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
     public CategoryResponse getCategoryBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
-                .orElseThrow(() -> new RuntimeException("Category not found with slug: " + slug));
+        CategoryNode category = categoryTree.bySlug(slug)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with slug: " + slug));
         return CategoryMapper.toResponse(category);
     }
 }
@@ -8,6 +8,7 @@ import com.wing.ecommercebackendwing.exception.custom.TokenRefreshException;
 import com.wing.ecommercebackendwing.model.entity.RefreshToken;
 import com.wing.ecommercebackendwing.model.entity.User;
 import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.security.UserStatusCache;
 import com.wing.ecommercebackendwing.security.jwt.JwtTokenProvider;
 import com.wing.ecommercebackendwing.util.PasswordValidator;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +38,7 @@ public class EnhancedAuthService {
     private final LoginAttemptService loginAttemptService;
     private final TwoFactorAuthService twoFactorAuthService;
     private final PhoneNumberService phoneNumberService;
+    private final UserStatusCache userStatusCache;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -365,6 +367,7 @@ public class EnhancedAuthService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userStatusCache.invalidate(userId);
 
         // Security: Revoke all refresh tokens
         refreshTokenService.revokeAllUserTokens(userId);
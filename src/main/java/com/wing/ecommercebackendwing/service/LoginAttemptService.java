@@ -2,6 +2,7 @@ package com.wing.ecommercebackendwing.service;
 
 import com.wing.ecommercebackendwing.model.entity.User;
 import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.security.UserStatusCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,15 +22,20 @@ public class LoginAttemptService {
 
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final UserStatusCache userStatusCache;
 
     @Transactional
     public void loginSucceeded(String email) {
         userRepository.findByEmail(email).ifPresent(user -> {
+            boolean wasLocked = Boolean.TRUE.equals(user.getAccountLocked());
             user.setFailedLoginAttempts(0);
             user.setLastFailedLogin(null);
             user.setAccountLocked(false);
             user.setLockedUntil(null);
             userRepository.save(user);
+            if (wasLocked) {
+                userStatusCache.invalidate(user.getId());
+            }
         });
     }
 
@@ -46,6 +52,7 @@ public class LoginAttemptService {
                 user.setLockedUntil(lockUntil);
                 
                 log.warn("Account locked for user: {} until: {}", email, lockUntil);
+                userStatusCache.invalidate(user.getId());
                 
                 try {
                     emailService.sendAccountLockedEmail(email, lockUntil.toString());
@@ -85,6 +92,7 @@ public class LoginAttemptService {
             user.setLockedUntil(null);
             user.setFailedLoginAttempts(0);
             userRepository.save(user);
+            userStatusCache.invalidate(userId);
             log.info("Account unlocked for user: {}", userId);
         });
     }
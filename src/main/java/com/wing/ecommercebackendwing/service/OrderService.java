@@ -7,14 +7,18 @@ import com.wing.ecommercebackendwing.exception.custom.BadRequestException;
 import com.wing.ecommercebackendwing.exception.custom.ForbiddenException;
 import com.wing.ecommercebackendwing.exception.custom.ResourceNotFoundException;
 import com.wing.ecommercebackendwing.model.entity.*;
-import com.wing.ecommercebackendwing.model.enums.NotificationType;
 import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
 import com.wing.ecommercebackendwing.repository.*;
+import com.wing.ecommercebackendwing.service.cart.CartSummaryCache;
+import com.wing.ecommercebackendwing.service.outbox.OrderEventPayload;
+import com.wing.ecommercebackendwing.service.outbox.OutboxService;
 import com.wing.ecommercebackendwing.util.OrderNumberGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -48,19 +52,19 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
     private final AddressRepository addressRepository;
-    private final ProductRepository productRepository;
-    private final ProductVariantRepository productVariantRepository;
     private final UserRepository userRepository;
     private final OrderNumberGenerator orderNumberGenerator;
     private final TaxService taxService;
     private final DeliveryFeeService deliveryFeeService;
     private final DiscountService discountService;
-    private final WingPointsService wingPointsService;
     private final OrderIdempotencyRecordRepository orderIdempotencyRecordRepository;
     private final ObjectMapper objectMapper;
     private final PhoneNumberService phoneNumberService;
-    private final NotificationService notificationService;
+    private final OutboxService outboxService;
+    private final StockReservationService stockReservationService;
+    private final CartSummaryCache cartSummaryCache;
 
     @Transactional
     public OrderResponse createOrder(UUID userId, CreateOrderRequest request) {
@@ -114,8 +118,6 @@ public class OrderService {
         List<OrderItem> orderItems = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
         Merchant merchant = null;
-        Map<UUID, Product> lockedProducts = new HashMap<>();
-        Map<UUID, ProductVariant> lockedVariants = new HashMap<>();
         Map<UUID, Integer> requestedProductStock = new HashMap<>();
         Map<UUID, Integer> requestedVariantStock = new HashMap<>();
 
@@ -123,121 +125,42 @@ public class OrderService {
         Cart cart = cartRepository.findByUserId(userId).orElse(null);
         List<CartItem> checkoutCartItems = Collections.emptyList();
         if (cart != null && cart.getItems() != null && !cart.getItems().isEmpty()) {
+            // Filter by id so no cart product is loaded before its row is locked; a product read
+            // earlier in this transaction would keep its pre-lock stock.
+            Set<UUID> merchantItemIds = request.getMerchantId() != null
+                    ? cartItemRepository.findIdsByCartIdAndMerchantId(cart.getId(), request.getMerchantId())
+                    : null;
             checkoutCartItems = cart.getItems().stream()
-                    .filter(item -> request.getMerchantId() == null || (
-                            item.getProduct() != null
-                                    && item.getProduct().getMerchant() != null
-                                    && request.getMerchantId().equals(item.getProduct().getMerchant().getId())
-                    ))
+                    .filter(item -> merchantItemIds == null || merchantItemIds.contains(item.getId()))
                     .toList();
         }
 
-        if (request.getItems() != null && !request.getItems().isEmpty()) {
+        boolean buyNow = request.getItems() != null && !request.getItems().isEmpty();
+        List<CheckoutLine> lines = new ArrayList<>();
+        if (buyNow) {
             // Processing items from request (Buy Now flow)
             for (com.wing.ecommercebackendwing.dto.request.order.OrderItemRequest itemReq : request.getItems()) {
                 int quantity = itemReq.getQuantity() != null ? itemReq.getQuantity() : 0;
                 if (quantity <= 0) {
                     throw new BadRequestException("Item quantity must be at least 1");
                 }
-
-                Product product = lockedProducts.computeIfAbsent(
-                        itemReq.getProductId(),
-                        this::findProductForStockReservation
-                );
-
-                ProductVariant variant = null;
-                if (itemReq.getVariantId() != null) {
-                    UUID variantId = itemReq.getVariantId();
-                    variant = lockedVariants.computeIfAbsent(
-                            variantId,
-                            this::findVariantForStockReservation
-                    );
-                    if (!variant.getProduct().getId().equals(product.getId())) {
-                        throw new BadRequestException("Variant does not belong to the specified product");
-                    }
-                    requestedVariantStock.merge(variantId, quantity, Integer::sum);
-                } else {
-                    requestedProductStock.merge(product.getId(), quantity, Integer::sum);
-                }
-
-                // Price
-                BigDecimal price = (variant != null) ? variant.getPrice() : product.getPrice();
-
-                // Merchant Validation
-                if (merchant == null) {
-                    merchant = product.getMerchant();
-                } else if (!merchant.getId().equals(product.getMerchant().getId())) {
-                    throw new BadRequestException("All items in an order must belong to the same merchant");
-                }
-
-                OrderItem orderItem = new OrderItem();
-                orderItem.setProduct(product);
-                orderItem.setVariant(variant);
-                orderItem.setProductName(product.getName());
-                orderItem.setProductImage(product.getImages());
-                orderItem.setVariantName(variant != null ? variant.getName() : null);
-                orderItem.setQuantity(quantity);
-                orderItem.setUnitPrice(price);
-
-                BigDecimal itemSubtotal = price.multiply(BigDecimal.valueOf(quantity));
-                orderItem.setSubtotal(itemSubtotal);
-                orderItem.setCreatedAt(Instant.now());
-                orderItem.setUpdatedAt(Instant.now());
-
-                orderItems.add(orderItem);
-                totalAmount = totalAmount.add(itemSubtotal);
+                lines.add(new CheckoutLine(itemReq.getProductId(), itemReq.getVariantId(), quantity, null, null));
             }
         } else if (!checkoutCartItems.isEmpty()) {
             // Checkout from cart flow
-            for (com.wing.ecommercebackendwing.model.entity.CartItem cartItem : checkoutCartItems) {
+            for (CartItem cartItem : checkoutCartItems) {
                 int quantity = cartItem.getQuantity() != null ? cartItem.getQuantity() : 0;
                 if (quantity <= 0) {
                     throw new BadRequestException("Cart contains an invalid quantity for product");
                 }
-
-                Product product = lockedProducts.computeIfAbsent(
+                ProductVariant cartVariant = cartItem.getVariant();
+                lines.add(new CheckoutLine(
                         cartItem.getProduct().getId(),
-                        id -> findProductForStockReservation(id, cartItem.getProduct())
-                );
-                ProductVariant variant = null;
-                if (cartItem.getVariant() != null) {
-                    UUID variantId = cartItem.getVariant().getId();
-                    variant = lockedVariants.computeIfAbsent(
-                            variantId,
-                            id -> findVariantForStockReservation(id, cartItem.getVariant())
-                    );
-                    if (!variant.getProduct().getId().equals(product.getId())) {
-                        throw new BadRequestException("Variant does not belong to the specified product");
-                    }
-                    requestedVariantStock.merge(variantId, quantity, Integer::sum);
-                } else {
-                    requestedProductStock.merge(product.getId(), quantity, Integer::sum);
-                }
-
-                // Merchant Validation
-                if (merchant == null) {
-                    merchant = product.getMerchant();
-                } else if (!merchant.getId().equals(product.getMerchant().getId())) {
-                    throw new BadRequestException("Your cart contains items from multiple merchants. Please checkout separately per merchant.");
-                }
-
-                OrderItem orderItem = new OrderItem();
-                orderItem.setProduct(product);
-                orderItem.setVariant(variant);
-                orderItem.setProductName(product.getName());
-                orderItem.setProductImage(product.getImages());
-                orderItem.setVariantName(variant != null ? variant.getName() : null);
-                orderItem.setQuantity(quantity);
-                BigDecimal unitPrice = variant != null ? variant.getPrice() : product.getPrice();
-                orderItem.setUnitPrice(unitPrice);
-
-                BigDecimal itemSubtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
-                orderItem.setSubtotal(itemSubtotal);
-                orderItem.setCreatedAt(Instant.now());
-                orderItem.setUpdatedAt(Instant.now());
-
-                orderItems.add(orderItem);
-                totalAmount = totalAmount.add(itemSubtotal);
+                        cartVariant != null ? cartVariant.getId() : null,
+                        quantity,
+                        cartItem.getProduct(),
+                        cartVariant
+                ));
             }
         } else if (request.getMerchantId() != null) {
             throw new BadRequestException("No cart items found for the selected merchant");
@@ -245,7 +168,60 @@ public class OrderService {
             throw new BadRequestException("No items provided and no cart found");
         }
 
-        reserveLockedStock(lockedProducts, requestedProductStock, lockedVariants, requestedVariantStock);
+        // One ordered lock query per table, products before variants, for every checkout.
+        Set<UUID> productIds = new HashSet<>();
+        Set<UUID> variantIds = new HashSet<>();
+        for (CheckoutLine line : lines) {
+            productIds.add(line.productId());
+            if (line.variantId() != null) {
+                variantIds.add(line.variantId());
+            }
+        }
+        Map<UUID, Product> lockedProducts = stockReservationService.lockProducts(productIds);
+        Map<UUID, ProductVariant> lockedVariants = stockReservationService.lockVariants(variantIds);
+
+        for (CheckoutLine line : lines) {
+            Product product = resolveLockedProduct(lockedProducts, line.productId(), line.cartProduct());
+            ProductVariant variant = null;
+            if (line.variantId() != null) {
+                variant = resolveLockedVariant(lockedVariants, line.variantId(), line.cartVariant());
+                if (!variant.getProduct().getId().equals(product.getId())) {
+                    throw new BadRequestException("Variant does not belong to the specified product");
+                }
+                requestedVariantStock.merge(line.variantId(), line.quantity(), Integer::sum);
+            } else {
+                requestedProductStock.merge(product.getId(), line.quantity(), Integer::sum);
+            }
+
+            // Merchant Validation
+            if (merchant == null) {
+                merchant = product.getMerchant();
+            } else if (!merchant.getId().equals(product.getMerchant().getId())) {
+                throw new BadRequestException(buyNow
+                        ? "All items in an order must belong to the same merchant"
+                        : "Your cart contains items from multiple merchants. Please checkout separately per merchant.");
+            }
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProduct(product);
+            orderItem.setVariant(variant);
+            orderItem.setProductName(product.getName());
+            orderItem.setProductImage(product.getImages());
+            orderItem.setVariantName(variant != null ? variant.getName() : null);
+            orderItem.setQuantity(line.quantity());
+            BigDecimal unitPrice = variant != null ? variant.getPrice() : product.getPrice();
+            orderItem.setUnitPrice(unitPrice);
+
+            BigDecimal itemSubtotal = unitPrice.multiply(BigDecimal.valueOf(line.quantity()));
+            orderItem.setSubtotal(itemSubtotal);
+            orderItem.setCreatedAt(Instant.now());
+            orderItem.setUpdatedAt(Instant.now());
+
+            orderItems.add(orderItem);
+            totalAmount = totalAmount.add(itemSubtotal);
+        }
+
+        stockReservationService.reserve(lockedProducts, requestedProductStock, lockedVariants, requestedVariantStock);
 
         if (merchant == null) {
             throw new BadRequestException("Product merchant not found");
@@ -335,20 +311,18 @@ public class OrderService {
         if (request.getItems() == null || request.getItems().isEmpty()) {
             if (cart != null) {
                 if (request.getMerchantId() != null) {
-                    UUID checkedOutMerchantId = request.getMerchantId();
-                    cart.getItems().removeIf(cartItem ->
-                            cartItem.getProduct() != null
-                                    && cartItem.getProduct().getMerchant() != null
-                                    && checkedOutMerchantId.equals(cartItem.getProduct().getMerchant().getId())
-                    );
+                    Set<UUID> checkedOutItemIds = new HashSet<>();
+                    checkoutCartItems.forEach(cartItem -> checkedOutItemIds.add(cartItem.getId()));
+                    cart.getItems().removeIf(cartItem -> checkedOutItemIds.contains(cartItem.getId()));
                 } else {
                     cart.getItems().clear();
                 }
                 cartRepository.save(cart);
+                cartSummaryCache.invalidate(userId);
             }
         }
 
-        sendOrderPlacedNotification(savedOrder);
+        publishOrderEvent(OutboxEventType.ORDER_PLACED, savedOrder, null, savedOrder.getStatus());
         log.info("Created order {} for user {}", savedOrder.getOrderNumber(), userId);
         return savedOrder;
     }
@@ -364,17 +338,19 @@ public class OrderService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getAllOrders(int page, int size) {
         Pageable pageable = PageRequest.of(page, Math.min(size, 100), Sort.by(Sort.Direction.DESC, "orderDate"));
-        return orderRepository.findAll(pageable).map(OrderMapper::toResponse);
+        return toResponses(orderRepository.findPageIds(pageable));
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getUserOrders(UUID userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, Math.min(size, 50), Sort.by(Sort.Direction.DESC, "orderDate"));
-        Page<Order> orders = orderRepository.findByUserId(userId, pageable);
-        return orders.map(OrderMapper::toResponse);
+        return toResponses(orderRepository.findPageIdsByUserId(userId, pageable));
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getMerchantOrders(UUID userId, int page, int size) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -384,16 +360,38 @@ public class OrderService {
         }
 
         Pageable pageable = PageRequest.of(page, Math.min(size, 50), Sort.by(Sort.Direction.DESC, "orderDate"));
-        Page<Order> orders = orderRepository.findByMerchantId(user.getMerchant().getId(), pageable);
-        return orders.map(OrderMapper::toResponse);
+        return toResponses(orderRepository.findPageIdsByMerchantId(user.getMerchant().getId(), pageable));
+    }
+
+    /**
+     * Loads the orders of an id page in one query and maps them in page order, so a page costs
+     * the same few queries whatever its size. An order deleted between the two queries is left out.
+     */
+    private Page<OrderResponse> toResponses(Page<UUID> ids) {
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), ids.getPageable(), ids.getTotalElements());
+        }
+        Map<UUID, Order> orders = new HashMap<>();
+        for (Order order : orderRepository.findWithDetailsByIdIn(ids.getContent())) {
+            orders.put(order.getId(), order);
+        }
+        List<OrderResponse> responses = new ArrayList<>(ids.getNumberOfElements());
+        for (UUID id : ids.getContent()) {
+            Order order = orders.get(id);
+            if (order != null) {
+                responses.add(OrderMapper.toResponse(order));
+            }
+        }
+        return new PageImpl<>(responses, ids.getPageable(), ids.getTotalElements());
     }
 
+    @Transactional(readOnly = true)
     public OrderResponse getOrderByNumber(UUID userId, String orderNumber) {
         if (orderNumber == null || orderNumber.isBlank()) {
             throw new IllegalArgumentException("Order number cannot be empty");
         }
 
-        Order order = orderRepository.findByOrderNumber(orderNumber.trim())
+        Order order = orderRepository.findWithDetailsByOrderNumber(orderNumber.trim())
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         User requestingUser = userRepository.findById(userId)
@@ -450,9 +448,6 @@ public class OrderService {
 
         if (newStatus == OrderStatus.CANCELLED && previousStatus != OrderStatus.CANCELLED) {
             restoreStockForCancelledOrder(order);
-            if (wingPointsService != null) {
-                wingPointsService.revokeEarnedPointsForOrder(order.getUser().getId(), order.getId());
-            }
         }
 
         order.setStatus(newStatus);
@@ -468,98 +463,36 @@ public class OrderService {
         Order savedOrder = orderRepository.save(order);
 
         if (previousStatus != newStatus) {
-            sendOrderStatusUpdatedNotification(savedOrder, newStatus);
+            // Notification and, for cancellations, points reversal run after commit.
+            publishOrderEvent(OutboxEventType.ORDER_STATUS_CHANGED, savedOrder, previousStatus, newStatus);
         }
 
         log.info("Updated order {} status to {} by user {}", orderId, newStatus, requestingUserId);
         return OrderMapper.toResponse(savedOrder);
     }
 
-    private Product findProductForStockReservation(UUID productId) {
-        return productRepository.findByIdForUpdate(productId)
-                .or(() -> productRepository.findById(productId))
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
-    }
-
-    private Product findProductForStockReservation(UUID productId, Product fallbackProduct) {
-        Optional<Product> resolved = productRepository.findByIdForUpdate(productId)
-                .or(() -> productRepository.findById(productId));
-        if (resolved.isPresent()) {
-            return resolved.get();
+    private Product resolveLockedProduct(Map<UUID, Product> lockedProducts, UUID productId, Product cartProduct) {
+        Product product = lockedProducts.get(productId);
+        if (product != null) {
+            return product;
         }
-        if (fallbackProduct != null && productId.equals(fallbackProduct.getId())) {
-            return fallbackProduct;
+        if (cartProduct != null && productId.equals(cartProduct.getId())) {
+            return cartProduct;
         }
         throw new ResourceNotFoundException("Product not found: " + productId);
     }
 
-    private ProductVariant findVariantForStockReservation(UUID variantId) {
-        return productVariantRepository.findByIdForUpdate(variantId)
-                .or(() -> productVariantRepository.findById(variantId))
-                .orElseThrow(() -> new ResourceNotFoundException("Variant not found: " + variantId));
-    }
-
-    private ProductVariant findVariantForStockReservation(UUID variantId, ProductVariant fallbackVariant) {
-        Optional<ProductVariant> resolved = productVariantRepository.findByIdForUpdate(variantId)
-                .or(() -> productVariantRepository.findById(variantId));
-        if (resolved.isPresent()) {
-            return resolved.get();
+    private ProductVariant resolveLockedVariant(Map<UUID, ProductVariant> lockedVariants, UUID variantId, ProductVariant cartVariant) {
+        ProductVariant variant = lockedVariants.get(variantId);
+        if (variant != null) {
+            return variant;
         }
-        if (fallbackVariant != null && variantId.equals(fallbackVariant.getId())) {
-            return fallbackVariant;
+        if (cartVariant != null && variantId.equals(cartVariant.getId())) {
+            return cartVariant;
         }
         throw new ResourceNotFoundException("Variant not found: " + variantId);
     }
 
-    private void reserveLockedStock(Map<UUID, Product> lockedProducts,
-                                    Map<UUID, Integer> requestedProductStock,
-                                    Map<UUID, ProductVariant> lockedVariants,
-                                    Map<UUID, Integer> requestedVariantStock) {
-        for (Map.Entry<UUID, Integer> entry : requestedVariantStock.entrySet()) {
-            UUID variantId = entry.getKey();
-            int requested = entry.getValue();
-            ProductVariant variant = lockedVariants.get(variantId);
-            int available = variant != null && variant.getStock() != null ? variant.getStock() : 0;
-            if (variant == null || available < requested) {
-                String productName = (variant != null && variant.getProduct() != null)
-                        ? variant.getProduct().getName()
-                        : "selected variant";
-                throw new BadRequestException("Insufficient stock for product " + productName);
-            }
-        }
-
-        for (Map.Entry<UUID, Integer> entry : requestedProductStock.entrySet()) {
-            UUID productId = entry.getKey();
-            int requested = entry.getValue();
-            Product product = lockedProducts.get(productId);
-            int available = product != null && product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-            if (product == null || available < requested) {
-                String productName = product != null ? product.getName() : "selected product";
-                throw new BadRequestException("Insufficient stock for product " + productName);
-            }
-        }
-
-        for (Map.Entry<UUID, Integer> entry : requestedVariantStock.entrySet()) {
-            int updatedRows = productVariantRepository.decrementStockIfAvailable(entry.getKey(), entry.getValue());
-            if (updatedRows == 0) {
-                ProductVariant variant = lockedVariants.get(entry.getKey());
-                String productName = (variant != null && variant.getProduct() != null)
-                        ? variant.getProduct().getName()
-                        : "selected variant";
-                throw new BadRequestException("Insufficient stock for product " + productName);
-            }
-        }
-
-        for (Map.Entry<UUID, Integer> entry : requestedProductStock.entrySet()) {
-            int updatedRows = productRepository.decrementStockIfAvailable(entry.getKey(), entry.getValue());
-            if (updatedRows == 0) {
-                Product product = lockedProducts.get(entry.getKey());
-                String productName = product != null ? product.getName() : "selected product";
-                throw new BadRequestException("Insufficient stock for product " + productName);
-            }
-        }
-    }
-
     private boolean isTransitionAllowed(OrderStatus currentStatus, OrderStatus newStatus) {
         if (currentStatus == newStatus) {
             return true;
@@ -573,6 +506,8 @@ public class OrderService {
             return;
         }
 
+        Map<UUID, Integer> productStock = new HashMap<>();
+        Map<UUID, Integer> variantStock = new HashMap<>();
         for (OrderItem item : order.getItems()) {
             int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
             if (quantity <= 0) {
@@ -580,60 +515,37 @@ public class OrderService {
             }
 
             if (item.getVariant() != null) {
-                productVariantRepository.incrementStock(item.getVariant().getId(), quantity);
+                variantStock.merge(item.getVariant().getId(), quantity, Integer::sum);
             } else if (item.getProduct() != null) {
-                productRepository.incrementStock(item.getProduct().getId(), quantity);
+                productStock.merge(item.getProduct().getId(), quantity, Integer::sum);
             }
         }
-    }
 
-    private void sendOrderPlacedNotification(Order order) {
-        UUID orderId = order.getId();
-        UUID userId = order.getUser() != null ? order.getUser().getId() : null;
-        if (orderId == null || userId == null) {
-            log.error("Skipping order placed notification due to missing context. orderId={} userId={}", orderId, userId);
-            return;
+        if (!productStock.isEmpty() || !variantStock.isEmpty()) {
+            stockReservationService.release(productStock, variantStock);
         }
-        safelySendNotification(
-                userId,
-                orderId,
-                "ORDER_CREATED",
-                "Order Placed",
-                "Your order #[" + orderId + "] has been placed successfully",
-                NotificationType.ORDER
-        );
     }
 
-    private void sendOrderStatusUpdatedNotification(Order order, OrderStatus newStatus) {
-        UUID orderId = order.getId();
+    private void publishOrderEvent(OutboxEventType type, Order order, OrderStatus previousStatus, OrderStatus newStatus) {
         UUID userId = order.getUser() != null ? order.getUser().getId() : null;
-        if (orderId == null || userId == null) {
-            log.error("Skipping order status notification due to missing context. orderId={} userId={}", orderId, userId);
+        if (order.getId() == null || userId == null) {
+            log.error("Skipping {} event due to missing context. orderId={} userId={}", type, order.getId(), userId);
             return;
         }
-        safelySendNotification(
+        outboxService.publish(type, new OrderEventPayload(
+                order.getId(),
                 userId,
-                orderId,
-                "ORDER_STATUS_UPDATED",
-                "Order Status Updated",
-                "Your order #[" + orderId + "] status changed to " + newStatus,
-                NotificationType.ORDER_STATUS
-        );
+                order.getOrderNumber(),
+                previousStatus,
+                newStatus
+        ));
     }
 
-    private void safelySendNotification(UUID userId, UUID orderId, String trigger, String title, String message, NotificationType type) {
-        try {
-            notificationService.sendNotification(userId, title, message, type.name(), orderId);
-        } catch (RuntimeException exception) {
-            log.error(
-                    "Failed to send notification. trigger={} orderId={} userId={} reason={}",
-                    trigger,
-                    orderId,
-                    userId,
-                    exception.getMessage(),
-                    exception
-            );
-        }
+    /**
+     * One requested line, collected before any rows are locked. The cart entities are only a
+     * fallback for rows the lock query did not return.
+     */
+    private record CheckoutLine(UUID productId, UUID variantId, int quantity,
+                                Product cartProduct, ProductVariant cartVariant) {
     }
-
 }
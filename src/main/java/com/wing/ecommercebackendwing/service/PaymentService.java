@@ -5,26 +5,30 @@ import com.wing.ecommercebackendwing.dto.response.payment.KHQRResultDto;
 import com.wing.ecommercebackendwing.dto.response.payment.PaymentVerificationResponse;
 import com.wing.ecommercebackendwing.model.entity.Order;
 import com.wing.ecommercebackendwing.model.entity.Payment;
-import com.wing.ecommercebackendwing.model.enums.NotificationType;
 import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
 import com.wing.ecommercebackendwing.model.enums.PaymentMethod;
 import com.wing.ecommercebackendwing.model.enums.PaymentStatus;
 import com.wing.ecommercebackendwing.repository.OrderRepository;
 import com.wing.ecommercebackendwing.repository.PaymentRepository;
+import com.wing.ecommercebackendwing.service.outbox.OrderEventPayload;
+import com.wing.ecommercebackendwing.service.outbox.OutboxService;
+import com.wing.ecommercebackendwing.service.payment.KhqrGatewayClient;
+import com.wing.ecommercebackendwing.service.payment.KhqrLookup;
+import com.wing.ecommercebackendwing.service.payment.KhqrTransaction;
+import com.wing.ecommercebackendwing.service.payment.PaymentVerificationCoordinator;
 import kh.org.nbc.bakong_khqr.BakongKHQR;
 import kh.org.nbc.bakong_khqr.model.KHQRCurrency;
 import kh.org.nbc.bakong_khqr.model.KHQRData;
 import kh.org.nbc.bakong_khqr.model.MerchantInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
-import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -36,13 +40,10 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final BakongConfig bakongConfig;
-    private final RestTemplate restTemplate;
-    private final WingPointsService wingPointsService;
-    private final NotificationService notificationService;
-
-
-    @org.springframework.beans.factory.annotation.Value("${khqr.api-token}")
-    private String bakongApiToken;
+    private final KhqrGatewayClient gatewayClient;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentVerificationCoordinator verificationCoordinator;
 
     @org.springframework.beans.factory.annotation.Value("${khqr.expiration-seconds:600}")
     private long khqrExpirationSeconds;
@@ -115,228 +116,218 @@ public class PaymentService {
     }
 
 
-    @Transactional
+    /**
+     * Checks a KHQR payment with Bakong without holding a row lock or a pooled connection across
+     * the HTTP call. A short transaction reads the payment and answers from local state when it
+     * can; the gateway is then called with no transaction open; a second short transaction locks
+     * the row and applies a paid result only if the payment is still PENDING.
+     *
+     * Concurrent polls for the same payment share one check, and its answer is reused for the
+     * cooldown by {@link PaymentVerificationCoordinator}.
+     */
     public PaymentVerificationResponse verifyPaymentByMd5(String md5, UUID userId) {
         // Normalize MD5 to lowercase as some SDKs/APIs might vary in casing
         String normalizedMd5 = md5.trim().toLowerCase();
-        
-        Payment payment = paymentRepository.findByMd5AndOrderUserIdForUpdate(normalizedMd5, userId)
-                .or(() -> paymentRepository.findByMd5AndOrder_User_Id(normalizedMd5, userId))
-                .or(() -> paymentRepository.findByMd5(normalizedMd5)
-                        .filter(candidate -> candidate.getOrder() != null
-                                && candidate.getOrder().getUser() != null
-                                && userId.equals(candidate.getOrder().getUser().getId())))
-                .orElse(null);
+        return verificationCoordinator.verify(normalizedMd5, userId, () -> checkPayment(normalizedMd5, userId));
+    }
+
+    private PaymentVerificationResponse checkPayment(String normalizedMd5, UUID userId) {
+        PaymentVerificationResponse localAnswer = transactionTemplate.execute(
+                status -> answerFromLocalState(normalizedMd5, userId));
+        if (localAnswer != null) {
+            return localAnswer;
+        }
+
+        log.info("Verifying payment with Bakong Open API for MD5: {}", normalizedMd5);
+        PaymentVerificationResponse response;
+        try {
+            KhqrLookup lookup = gatewayClient.checkMd5(normalizedMd5);
+            response = lookup.isPaid()
+                    ? transactionTemplate.execute(status -> applyGatewayResult(normalizedMd5, userId, lookup.transaction()))
+                    : pendingResponse(lookup.message());
+        } catch (Exception e) {
+            log.error("Error verifying payment for transaction {}: {}", normalizedMd5, e.getMessage());
+            response = pendingResponse("Error: " + e.getMessage());
+        }
+
+        // Normalize "not found" or "pending" messages to semantic PENDING
+        if (!response.isPaid() && response.getMessage() != null) {
+            String msg = response.getMessage().toLowerCase();
+            if (msg.contains("not found") || msg.contains("pending") || msg.contains("processing")) {
+                response.setMessage("PENDING");
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * First phase of {@link #verifyPaymentByMd5}. Returns the answer when no gateway call is
+     * needed, or {@code null} when the gateway has to be asked.
+     */
+    private PaymentVerificationResponse answerFromLocalState(String normalizedMd5, UUID userId) {
+        Payment payment = findOwnedPayment(normalizedMd5, userId).orElse(null);
 
         if (payment == null) {
             log.warn("Payment record not found or access denied for MD5: {} by user: {}", normalizedMd5, userId);
-            return PaymentVerificationResponse.builder()
-                    .isPaid(false)
-                    .message("Payment record not found")
-                    .build();
+            return notFoundResponse();
         }
 
         if (payment.getStatus() == PaymentStatus.COMPLETED) {
-            return PaymentVerificationResponse.builder()
-                    .isPaid(true)
-                    .expired(false)
-                    .paidAmount(payment.getAmount().doubleValue())
-                    .currency(payment.getCurrency() != null ? payment.getCurrency() : "USD")
-                    .message("Payment already completed")
-                    .build();
+            return alreadyCompletedResponse(payment);
         }
 
         if (payment.getStatus() == PaymentStatus.EXPIRED) {
-            return PaymentVerificationResponse.builder()
-                    .isPaid(false)
-                    .expired(true)
-                    .message("Transaction timed out. Please generate a new QR code.")
-                    .build();
+            return expiredResponse();
         }
 
         // Check if QR code has expired
         if (payment.getExpiresAt() != null && Instant.now().isAfter(payment.getExpiresAt())) {
             log.warn("QR code expired for payment MD5: {}", normalizedMd5);
-            payment.setStatus(PaymentStatus.EXPIRED);
-            payment.setGatewayResponse("KHQR timeout reached");
-            paymentRepository.save(payment);
-            sendPaymentFailedNotification(payment);
-            return PaymentVerificationResponse.builder()
-                    .isPaid(false)
-                    .expired(true)
-                    .message("Transaction timed out. Please generate a new QR code.")
-                    .build();
+            Payment locked = lockOwnedPayment(normalizedMd5, userId).orElse(payment);
+            if (locked.getStatus() == PaymentStatus.COMPLETED) {
+                return alreadyCompletedResponse(locked);
+            }
+            if (locked.getStatus() == PaymentStatus.PENDING) {
+                markExpired(locked);
+            }
+            return expiredResponse();
         }
 
-        // Check for cooldown (don't hit Bakong API more than once every 5 seconds per transaction)
-        if (payment.getLastVerifiedAt() != null && 
-            Instant.now().minusSeconds(5).isBefore(payment.getLastVerifiedAt())) {
-            log.debug("Verification cooldown active for MD5: {}. Returning last known state.", normalizedMd5);
-            return PaymentVerificationResponse.builder()
-                    .isPaid(false)
-                    .expired(false)
-                    .message("PENDING")
-                    .build();
+        return null;
+    }
+
+    /**
+     * Third phase of {@link #verifyPaymentByMd5}: re-reads the payment under lock and settles it
+     * only if nobody else (reconciler, another tab) has moved it out of PENDING meanwhile.
+     */
+    private PaymentVerificationResponse applyGatewayResult(String normalizedMd5, UUID userId, KhqrTransaction transaction) {
+        Payment payment = lockOwnedPayment(normalizedMd5, userId).orElse(null);
+        if (payment == null) {
+            return notFoundResponse();
         }
+        if (payment.getStatus() == PaymentStatus.COMPLETED) {
+            return alreadyCompletedResponse(payment);
+        }
+        if (payment.getStatus() != PaymentStatus.PENDING) {
+            log.warn("Gateway reports md5 {} paid but payment {} is already {}", normalizedMd5, payment.getId(), payment.getStatus());
+            return expiredResponse();
+        }
+        return applyConfirmedTransaction(payment, transaction);
+    }
 
-        String baseUrl = bakongConfig.getApiBaseUrl();
-        String url = (baseUrl.endsWith("/") ? baseUrl : baseUrl + "/") + "v1/check_transaction_by_md5";
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        headers.setBearerAuth(bakongApiToken);
-        
-        log.info("Verifying payment with Bakong Open API for MD5: {}", normalizedMd5);
+    private Optional<Payment> findOwnedPayment(String normalizedMd5, UUID userId) {
+        return paymentRepository.findByMd5AndOrder_User_Id(normalizedMd5, userId)
+                .or(() -> paymentRepository.findByMd5(normalizedMd5)
+                        .filter(candidate -> isOwnedBy(candidate, userId)));
+    }
 
-        // Update last verification attempt time
-        payment.setLastVerifiedAt(Instant.now());
-        paymentRepository.save(payment);
+    private Optional<Payment> lockOwnedPayment(String normalizedMd5, UUID userId) {
+        return paymentRepository.findByMd5AndOrderUserIdForUpdate(normalizedMd5, userId)
+                .or(() -> findOwnedPayment(normalizedMd5, userId));
+    }
 
-        Map<String, String> requestBody = Map.of("md5", normalizedMd5);
-        HttpEntity<Map<String, String>> entity = new HttpEntity<>(requestBody, headers);
+    private boolean isOwnedBy(Payment payment, UUID userId) {
+        return payment.getOrder() != null
+                && payment.getOrder().getUser() != null
+                && userId.equals(payment.getOrder().getUser().getId());
+    }
 
-        PaymentVerificationResponse response = executeVerificationRequest(url, entity, normalizedMd5, payment);
-        
-        // Normalize "not found" or "pending" messages to semantic PENDING
-        if (!response.isPaid() && response.getMessage() != null) {
-            String msg = response.getMessage().toLowerCase();
-            if (msg.contains("not found") || msg.contains("pending") || msg.contains("processing")) {
-                response.setMessage("PENDING");
-            }
-        }
-        
-        return response;
+    private PaymentVerificationResponse notFoundResponse() {
+        return PaymentVerificationResponse.builder()
+                .isPaid(false)
+                .message("Payment record not found")
+                .build();
     }
 
+    private PaymentVerificationResponse alreadyCompletedResponse(Payment payment) {
+        return PaymentVerificationResponse.builder()
+                .isPaid(true)
+                .expired(false)
+                .paidAmount(payment.getAmount().doubleValue())
+                .currency(payment.getCurrency() != null ? payment.getCurrency() : "USD")
+                .message("Payment already completed")
+                .build();
+    }
 
-    private PaymentVerificationResponse executeVerificationRequest(String url, HttpEntity<Map<String, String>> entity, String transactionId, Payment payment) {
-        try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.POST, entity, new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {});
-            
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                Object responseCodeObj = responseBody.get("responseCode");
-                Object responseMessageObj = responseBody.get("responseMessage");
-                
-                // responseCode 0 is success
-                if (responseCodeObj != null && "0".equals(String.valueOf(responseCodeObj))) {
-                    Object dataObj = responseBody.get("data");
-                    Double amount = 0.0;
-                    String currency = "USD";
-                    
-                    if (dataObj instanceof Map) {
-                        Map<?, ?> data = (Map<?, ?>) dataObj;
-                        String gatewayReference = extractGatewayReference(data);
-                        if (gatewayReference != null) {
-                            if (payment.getTransactionId() != null && !payment.getTransactionId().equals(gatewayReference)) {
-                                log.error("Gateway reference mismatch for payment md5={}. existingRef={}, incomingRef={}",
-                                        transactionId, payment.getTransactionId(), gatewayReference);
-                                return PaymentVerificationResponse.builder()
-                                        .isPaid(false)
-                                        .expired(false)
-                                        .message("Payment verification failed due to transaction reference mismatch")
-                                        .build();
-                            }
-                            payment.setTransactionId(gatewayReference);
-                        }
-                        
-                        Object amountObj = data.get("amount");
-                        if (amountObj != null) {
-                            amount = Double.valueOf(String.valueOf(amountObj));
-                        }
-                        
-                        Object currencyObj = data.get("currency");
-                        if (currencyObj != null) {
-                            currency = String.valueOf(currencyObj);
-                        }
-                    }
-
-                    double expectedAmount = payment.getAmount() != null ? payment.getAmount().doubleValue() : 0.0;
-                    String expectedCurrency = payment.getCurrency() != null ? payment.getCurrency() : "USD";
-                    if (Double.compare(amount, expectedAmount) != 0 ||
-                            !expectedCurrency.equalsIgnoreCase(currency)) {
-                        log.warn("Payment amount/currency mismatch for transaction {}. expectedAmount={}, actualAmount={}, expectedCurrency={}, actualCurrency={}",
-                                transactionId, expectedAmount, amount, expectedCurrency, currency);
-                        return PaymentVerificationResponse.builder()
-                                .isPaid(false)
-                                .expired(false)
-                                .message("Payment verification failed due to amount or currency mismatch")
-                                .build();
-                    }
-
-                    payment.setStatus(PaymentStatus.COMPLETED);
-                    payment.setPaidAt(Instant.now());
-                    payment.setGatewayResponse(responseBody.toString());
-                    paymentRepository.save(payment);
-
-                    Order order = payment.getOrder();
-                    if (!isOrderStateTerminalForPayment(order.getStatus())) {
-                        order.setStatus(OrderStatus.PAID);
-                        order.setUpdatedAt(Instant.now());
-                        orderRepository.save(order);
-                        if (wingPointsService != null) {
-                            try {
-                                wingPointsService.addPoints(
-                                        order.getUser().getId(),
-                                        null,
-                                        "Points earned from order " + order.getOrderNumber(),
-                                        order.getId()
-                                );
-                            } catch (Exception ex) {
-                                log.error("Failed to award WingPoints for order {}: {}", order.getId(), ex.getMessage());
-                            }
-                        }
-                    }
-                    sendPaymentSuccessfulNotification(order);
-
-                    log.info("Payment verified successfully for transaction {}", transactionId);
-                    
-                    return PaymentVerificationResponse.builder()
-                            .isPaid(true)
-                            .expired(false)
-                            .paidAmount(amount)
-                            .currency(currency)
-                            .message("Success")
-                            .build();
-                } else {
-                    String errorMsg = responseMessageObj != null ? responseMessageObj.toString() : "Transaction pending or not found";
-                    log.debug("Payment verification pending for transaction {}: {}", transactionId, errorMsg);
-                    return PaymentVerificationResponse.builder()
-                            .isPaid(false)
-                            .expired(false)
-                            .message(errorMsg)
-                            .build();
-                }
-            } else {
+    private PaymentVerificationResponse expiredResponse() {
+        return PaymentVerificationResponse.builder()
+                .isPaid(false)
+                .expired(true)
+                .message("Transaction timed out. Please generate a new QR code.")
+                .build();
+    }
+
+    private PaymentVerificationResponse pendingResponse(String message) {
+        return PaymentVerificationResponse.builder()
+                .isPaid(false)
+                .expired(false)
+                .message(message)
+                .build();
+    }
+
+    private PaymentVerificationResponse applyConfirmedTransaction(Payment payment, KhqrTransaction transaction) {
+        String md5 = transaction.md5();
+        String gatewayReference = transaction.gatewayReference();
+        if (gatewayReference != null) {
+            if (payment.getTransactionId() != null && !payment.getTransactionId().equals(gatewayReference)) {
+                log.error("Gateway reference mismatch for payment md5={}. existingRef={}, incomingRef={}",
+                        md5, payment.getTransactionId(), gatewayReference);
                 return PaymentVerificationResponse.builder()
                         .isPaid(false)
                         .expired(false)
-                        .message("API Error: " + response.getStatusCode())
+                        .message("Payment verification failed due to transaction reference mismatch")
                         .build();
             }
-        } catch (Exception e) {
-            log.error("Error verifying payment for transaction {}: {}", transactionId, e.getMessage());
+            payment.setTransactionId(gatewayReference);
+        }
+
+        double amount = transaction.amount();
+        String currency = transaction.currency();
+        double expectedAmount = payment.getAmount() != null ? payment.getAmount().doubleValue() : 0.0;
+        String expectedCurrency = payment.getCurrency() != null ? payment.getCurrency() : "USD";
+        if (Double.compare(amount, expectedAmount) != 0 ||
+                !expectedCurrency.equalsIgnoreCase(currency)) {
+            log.warn("Payment amount/currency mismatch for transaction {}. expectedAmount={}, actualAmount={}, expectedCurrency={}, actualCurrency={}",
+                    md5, expectedAmount, amount, expectedCurrency, currency);
             return PaymentVerificationResponse.builder()
                     .isPaid(false)
                     .expired(false)
-                    .message("Error: " + e.getMessage())
+                    .message("Payment verification failed due to amount or currency mismatch")
                     .build();
         }
-    }
 
-    private String extractGatewayReference(Map<?, ?> data) {
-        String[] candidateKeys = {"transactionId", "externalRef", "instructionRef", "trackingId"};
-        for (String key : candidateKeys) {
-            Object raw = data.get(key);
-            if (raw == null) continue;
-            String normalized = String.valueOf(raw).trim();
-            if (!normalized.isEmpty() && !"null".equalsIgnoreCase(normalized)) {
-                return normalized;
-            }
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setPaidAt(Instant.now());
+        payment.setGatewayResponse(transaction.rawResponse());
+        paymentRepository.save(payment);
+
+        Order order = payment.getOrder();
+        OrderStatus previousStatus = order.getStatus();
+        if (!isOrderStateTerminalForPayment(order.getStatus())) {
+            order.setStatus(OrderStatus.PAID);
+            order.setUpdatedAt(Instant.now());
+            orderRepository.save(order);
         }
-        return null;
+        // Points and the success notification are applied after commit.
+        publishPaymentEvent(OutboxEventType.PAYMENT_COMPLETED, order, previousStatus);
+
+        log.info("Payment verified successfully for transaction {}", md5);
+
+        return PaymentVerificationResponse.builder()
+                .isPaid(true)
+                .expired(false)
+                .paidAmount(amount)
+                .currency(currency)
+                .message("Success")
+                .build();
+    }
+
+    private void markExpired(Payment payment) {
+        payment.setStatus(PaymentStatus.EXPIRED);
+        payment.setGatewayResponse("KHQR timeout reached");
+        paymentRepository.save(payment);
+        publishPaymentEvent(OutboxEventType.PAYMENT_FAILED, payment.getOrder(), null);
     }
 
     private boolean isOrderStateTerminalForPayment(OrderStatus status) {
@@ -345,65 +336,57 @@ public class PaymentService {
                 || status == OrderStatus.DELIVERED;
     }
 
-    private void sendPaymentSuccessfulNotification(Order order) {
+    private void publishPaymentEvent(OutboxEventType type, Order order, OrderStatus previousStatus) {
         if (order == null) {
-            log.error("Skipping payment success notification because order is null");
+            log.error("Skipping {} event because order is null", type);
             return;
         }
         UUID orderId = order.getId();
         UUID userId = order.getUser() != null ? order.getUser().getId() : null;
         if (orderId == null || userId == null) {
-            log.error("Skipping payment success notification due to missing context. orderId={} userId={}", orderId, userId);
+            log.error("Skipping {} event due to missing context. orderId={} userId={}", type, orderId, userId);
             return;
         }
-        safelySendNotification(
-                userId,
+        outboxService.publish(type, new OrderEventPayload(
                 orderId,
-                "PAYMENT_SUCCESS",
-                "Payment Successful",
-                "Payment for order #[" + orderId + "] was successful",
-                NotificationType.PAYMENT
-        );
+                userId,
+                order.getOrderNumber(),
+                previousStatus,
+                order.getStatus()
+        ));
     }
 
-    private void sendPaymentFailedNotification(Payment payment) {
-        if (payment == null || payment.getOrder() == null) {
-            log.error("Skipping payment failed notification because payment/order context is missing");
-            return;
-        }
-        Order order = payment.getOrder();
-        UUID orderId = order.getId();
-        UUID userId = order.getUser() != null ? order.getUser().getId() : null;
-        if (orderId == null || userId == null) {
-            log.error("Skipping payment failed notification due to missing context. orderId={} userId={}", orderId, userId);
-            return;
+    /**
+     * Settles a payment the background reconciler found paid at the gateway.
+     * The row is locked and only a PENDING payment still carrying the checked md5 is touched,
+     * so a concurrent client verification or a regenerated QR cannot be settled twice.
+     */
+    @Transactional
+    public boolean settleFromGateway(UUID paymentId, KhqrTransaction transaction) {
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId).orElse(null);
+        if (payment == null || payment.getStatus() != PaymentStatus.PENDING
+                || !transaction.md5().equals(payment.getMd5())) {
+            return false;
         }
-        safelySendNotification(
-                userId,
-                orderId,
-                "PAYMENT_FAILED",
-                "Payment Failed",
-                "Payment for order #[" + orderId + "] has failed. Please retry.",
-                NotificationType.PAYMENT
-        );
+        return applyConfirmedTransaction(payment, transaction).isPaid();
     }
 
-    private void safelySendNotification(UUID userId, UUID orderId, String trigger, String title, String message, NotificationType type) {
-        try {
-            notificationService.sendNotification(userId, title, message, type.name(), orderId);
-        } catch (RuntimeException exception) {
-            log.error(
-                    "Failed to send notification. trigger={} orderId={} userId={} reason={}",
-                    trigger,
-                    orderId,
-                    userId,
-                    exception.getMessage(),
-                    exception
-            );
+    /**
+     * Expires a payment the gateway did not report as paid, unless it was settled or its QR was
+     * regenerated after the reconciler read it.
+     */
+    @Transactional
+    public boolean expireIfPending(UUID paymentId, Instant now) {
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId).orElse(null);
+        if (payment == null || payment.getStatus() != PaymentStatus.PENDING
+                || payment.getExpiresAt() == null || now.isBefore(payment.getExpiresAt())) {
+            return false;
         }
+        log.info("KHQR payment {} expired without a gateway transaction", paymentId);
+        markExpired(payment);
+        return true;
     }
 
-    @Transactional
     public PaymentVerificationResponse verifyPayment(String transactionId, UUID userId) {
         if (transactionId == null) {
             return PaymentVerificationResponse.builder()
@@ -4,22 +4,42 @@ import com.wing.ecommercebackendwing.dto.mapper.ProductMapper;
 import com.wing.ecommercebackendwing.dto.request.product.CreateProductRequest;
 import com.wing.ecommercebackendwing.dto.request.product.ProductFilterRequest;
 import com.wing.ecommercebackendwing.dto.request.product.UpdateProductRequest;
+import com.wing.ecommercebackendwing.dto.response.common.Pagination;
+import com.wing.ecommercebackendwing.dto.response.product.ProductFacetsResponse;
+import com.wing.ecommercebackendwing.dto.response.product.ProductListResponse;
+import com.wing.ecommercebackendwing.dto.response.product.ProductRatingSummaryResponse;
 import com.wing.ecommercebackendwing.dto.response.product.ProductResponse;
+import com.wing.ecommercebackendwing.dto.response.product.ProductSuggestionResponse;
 import com.wing.ecommercebackendwing.model.entity.Category;
 import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.model.entity.ProductRatingStats;
 import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.repository.ProductRatingStatsRepository;
 import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.service.category.CategoryTree;
+import com.wing.ecommercebackendwing.service.product.ProductCache;
+import com.wing.ecommercebackendwing.service.product.ProductCounters;
+import com.wing.ecommercebackendwing.service.product.ProductFacetDocument;
+import com.wing.ecommercebackendwing.service.product.ProductFacetIndex;
+import com.wing.ecommercebackendwing.service.product.ProductQueryEngine;
+import com.wing.ecommercebackendwing.service.product.ProductSlice;
+import com.wing.ecommercebackendwing.service.product.ProductSummary;
+import com.wing.ecommercebackendwing.service.search.ProductSearchDocument;
+import com.wing.ecommercebackendwing.service.search.ProductSearchIndex;
+import com.wing.ecommercebackendwing.service.search.ProductSuggestDocument;
+import com.wing.ecommercebackendwing.service.search.ProductSuggestIndex;
 import com.wing.ecommercebackendwing.util.SlugGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -30,29 +50,53 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final SlugGenerator slugGenerator;
-
-    public Page<ProductResponse> getProducts(ProductFilterRequest filter) {
-        Pageable pageable = PageRequest.of(
-                filter.getPage(),
-                Math.min(filter.getSize(), 100) // Max 100 items per page
-        );
-
-        // Apply filters (simplified - should use Specification for complex filtering)
-        Page<Product> products;
-        if (filter.getCategoryId() != null) {
-            products = productRepository.findByCategoryId(filter.getCategoryId(), pageable);
-        } else if (filter.getSearchQuery() != null && !filter.getSearchQuery().isBlank()) {
-            products = productRepository.searchByNameOrDescription(filter.getSearchQuery().trim(), pageable);
-        } else {
-            products = productRepository.findAll(pageable);
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductQueryEngine productQueryEngine;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductRatingStatsRepository productRatingStatsRepository;
+    private final ProductCounters productCounters;
+    private final CategoryTree categoryTree;
+
+    public ProductListResponse getProducts(ProductFilterRequest filter) {
+        ProductSlice slice = productQueryEngine.find(filter);
+
+        Map<UUID, ProductSummary> byId = new HashMap<>();
+        if (!slice.productIds().isEmpty()) {
+            productRepository.findSummariesByIdIn(slice.productIds()).forEach(product -> byId.put(product.id(), product));
         }
+        List<ProductResponse> products = slice.productIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(ProductMapper::toResponse)
+                .map(this::withLiveCounts)
+                .toList();
 
-        return products.map(ProductMapper::toResponse);
+        boolean firstPage = filter.getCursor() == null || filter.getCursor().isBlank();
+        ProductFacetsResponse facets = Boolean.TRUE.equals(filter.getFacets()) || (filter.getFacets() == null && firstPage)
+                ? productFacetIndex.facets(filter).orElse(null)
+                : null;
+
+        return ProductListResponse.builder()
+                .products(products)
+                .pagination(Pagination.builder()
+                        .limit(products.size())
+                        .total(facets != null ? facets.getTotal() : null)
+                        .build())
+                .nextCursor(slice.nextCursor())
+                .facets(facets)
+                .build();
     }
 
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(ProductMapper::toResponse)
+    public List<ProductSuggestionResponse> suggest(String query, int limit) {
+        return productSuggestIndex.suggest(query, limit).stream()
+                .map(suggestion -> ProductSuggestionResponse.builder()
+                        .type(suggestion.type().name().toLowerCase(Locale.ROOT))
+                        .id(suggestion.id())
+                        .name(suggestion.name())
+                        .slug(suggestion.slug())
+                        .build())
                 .toList();
     }
 
@@ -61,9 +105,46 @@ public class ProductService {
             throw new IllegalArgumentException("Slug cannot be empty");
         }
         
-        Product product = productRepository.findBySlug(slug.trim())
+        ProductResponse product = productCache.getBySlug(slug.trim())
+                .orElseThrow(() -> new RuntimeException("Product not found with slug: " + slug));
+        productCounters.recordView(product.getId());
+        return withLiveCounts(product);
+    }
+
+    /** Adds the views and sales not flushed to the database yet. */
+    private ProductResponse withLiveCounts(ProductResponse product) {
+        product.setViewCount(productCounters.views(product.getId(), product.getViewCount()));
+        product.setSoldCount(productCounters.sold(product.getId(), product.getSoldCount()));
+        return product;
+    }
+
+    /**
+     * The product's rating with its star histogram, read from the stats row kept by
+     * ProductRatingAggregator rather than by counting reviews.
+     */
+    public ProductRatingSummaryResponse getRatingSummary(String slug) {
+        ProductResponse product = productCache.getBySlug(slug.trim())
                 .orElseThrow(() -> new RuntimeException("Product not found with slug: " + slug));
-        return ProductMapper.toResponse(product);
+        ProductRatingStats stats = productRatingStatsRepository.findById(product.getId())
+                .orElseGet(ProductRatingStats::new);
+        return ProductRatingSummaryResponse.builder()
+                .productId(product.getId())
+                .rating(product.getRating())
+                .reviewCount(product.getReviewCount())
+                .stars(List.of(
+                        starCount(5, stats.getStar5()),
+                        starCount(4, stats.getStar4()),
+                        starCount(3, stats.getStar3()),
+                        starCount(2, stats.getStar2()),
+                        starCount(1, stats.getStar1())))
+                .build();
+    }
+
+    private static ProductRatingSummaryResponse.StarCount starCount(int stars, Integer count) {
+        return ProductRatingSummaryResponse.StarCount.builder()
+                .stars(stars)
+                .count(count != null ? count : 0)
+                .build();
     }
 
     @Transactional
@@ -83,6 +164,12 @@ public class ProductService {
                 .build(); 
 
         Product savedProduct = productRepository.save(product);
+        productRatingStatsRepository.createIfMissing(savedProduct.getId());
+        productCache.evict(savedProduct.getId(), savedProduct.getSlug());
+        productSearchIndex.index(ProductSearchDocument.from(savedProduct));
+        productFacetIndex.index(ProductFacetDocument.from(savedProduct));
+        productSuggestIndex.index(ProductSuggestDocument.from(savedProduct));
+        categoryTree.rebuildAfterCommit();
         log.info("Created product: {} with slug: {}", savedProduct.getName(), savedProduct.getSlug());
         return ProductMapper.toResponse(savedProduct);
     }
@@ -100,6 +187,8 @@ public class ProductService {
         product.setStockQuantity(newStock);
         product.setUpdatedAt(Instant.now());
         productRepository.save(product);
+        productCache.patchStock(Map.of(productId, newStock));
+        productFacetIndex.patchStock(Map.of(productId, newStock));
         
         log.info("Updated stock for product {}: {} -> {}", productId, product.getStockQuantity() - quantityChange, newStock);
     }
@@ -109,9 +198,11 @@ public class ProductService {
         Product product = productRepository.findBySlug(slug)
                 .orElseThrow(() -> new RuntimeException("Product not found with slug: " + slug));
 
+        boolean categoryChanged = false;
         if (request.getCategoryId() != null) {
             Category category = categoryRepository.findById(request.getCategoryId())
                     .orElseThrow(() -> new RuntimeException("Category not found"));
+            categoryChanged = product.getCategory() == null || !category.getId().equals(product.getCategory().getId());
             product.setCategory(category);
         }
 
@@ -122,6 +213,13 @@ public class ProductService {
         product.setUpdatedAt(Instant.now());
 
         Product savedProduct = productRepository.save(product);
+        productCache.evict(savedProduct.getId(), slug);
+        productSearchIndex.index(ProductSearchDocument.from(savedProduct));
+        productFacetIndex.index(ProductFacetDocument.from(savedProduct));
+        productSuggestIndex.index(ProductSuggestDocument.from(savedProduct));
+        if (categoryChanged) {
+            categoryTree.rebuildAfterCommit();
+        }
         return ProductMapper.toResponse(savedProduct);
     }
 
@@ -133,6 +231,13 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         
         productRepository.delete(product);
+        productRatingStatsRepository.deleteById(product.getId());
+        productCounters.forget(product.getId());
+        productCache.evict(product.getId(), slug);
+        productSearchIndex.remove(product.getId());
+        productFacetIndex.remove(product.getId());
+        productSuggestIndex.remove(product.getId());
+        categoryTree.rebuildAfterCommit();
         log.info("Deleted product with slug: {}", slug);
     }
 }
@@ -2,13 +2,17 @@ package com.wing.ecommercebackendwing.service;
 
 import com.wing.ecommercebackendwing.dto.mapper.ReviewMapper;
 import com.wing.ecommercebackendwing.dto.request.review.CreateReviewRequest;
+import com.wing.ecommercebackendwing.dto.request.review.UpdateReviewRequest;
 import com.wing.ecommercebackendwing.dto.response.review.ReviewResponse;
+import com.wing.ecommercebackendwing.exception.custom.ForbiddenException;
+import com.wing.ecommercebackendwing.exception.custom.ResourceNotFoundException;
 import com.wing.ecommercebackendwing.model.entity.Product;
 import com.wing.ecommercebackendwing.model.entity.Review;
 import com.wing.ecommercebackendwing.model.entity.User;
 import com.wing.ecommercebackendwing.repository.ProductRepository;
 import com.wing.ecommercebackendwing.repository.ReviewRepository;
 import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.service.product.ProductRatingAggregator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,6 +29,7 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ProductRatingAggregator productRatingAggregator;
 
     @Transactional
     public ReviewResponse createReview(UUID userId, CreateReviewRequest request) {
@@ -46,10 +51,44 @@ public class ReviewService {
         review.setCreatedAt(Instant.now());
         review.setUpdatedAt(Instant.now());
 
-        Review savedReview = reviewRepository.save(review);
+        Review savedReview = reviewRepository.saveAndFlush(review);
+        productRatingAggregator.record(product, null, savedReview.getRating());
         return ReviewMapper.toResponse(savedReview);
     }
 
+    @Transactional
+    public ReviewResponse updateReview(UUID userId, UUID reviewId, UpdateReviewRequest request) {
+        Review review = findOwnReview(userId, reviewId);
+        Integer previousRating = review.getRating();
+
+        review.setRating(request.getRating());
+        review.setComment(request.getComment());
+        review.setImages(request.getImages() != null && !request.getImages().isEmpty()
+                ? String.join(",", request.getImages()) : null);
+        review.setUpdatedAt(Instant.now());
+
+        Review savedReview = reviewRepository.saveAndFlush(review);
+        productRatingAggregator.record(savedReview.getProduct(), previousRating, savedReview.getRating());
+        return ReviewMapper.toResponse(savedReview);
+    }
+
+    @Transactional
+    public void deleteReview(UUID userId, UUID reviewId) {
+        Review review = findOwnReview(userId, reviewId);
+        reviewRepository.delete(review);
+        reviewRepository.flush();
+        productRatingAggregator.record(review.getProduct(), review.getRating(), null);
+    }
+
+    private Review findOwnReview(UUID userId, UUID reviewId) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review", reviewId.toString()));
+        if (!review.getUser().getId().equals(userId)) {
+            throw new ForbiddenException("You can only change your own reviews");
+        }
+        return review;
+    }
+
     public List<ReviewResponse> getProductReviews(UUID productId) {
         return reviewRepository.findByProductId(productId).stream()
                 .map(ReviewMapper::toResponse)
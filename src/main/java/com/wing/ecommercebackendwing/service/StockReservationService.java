@@ -0,0 +1,239 @@
+package com.wing.ecommercebackendwing.service;
+
+import com.wing.ecommercebackendwing.exception.custom.BadRequestException;
+import com.wing.ecommercebackendwing.exception.custom.InsufficientStockException;
+import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.model.entity.ProductVariant;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.repository.ProductVariantRepository;
+import com.wing.ecommercebackendwing.service.product.ProductCache;
+import com.wing.ecommercebackendwing.service.product.ProductCounters;
+import com.wing.ecommercebackendwing.service.product.ProductFacetIndex;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Row-locking and stock movement for checkout and cancellation.
+ *
+ * Every caller locks products first, then variants, each table in a single
+ * {@code SELECT ... WHERE id IN (...) ORDER BY id FOR UPDATE}. Because all transactions acquire row
+ * locks in the same global order, overlapping carts serialize instead of deadlocking. Decrements
+ * and increments are then applied with one multi-row UPDATE per table. Rows this transaction had
+ * loaded before locking them are re-read once locked, so stock is always checked against the
+ * value under the lock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final ProductCache productCache;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductCounters productCounters;
+    private final EntityManager entityManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<UUID, Product> lockProducts(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Set<UUID> ids = new TreeSet<>(productIds);
+        List<Product> loadedBeforeLock = loadedBeforeLock(Product.class, Product::getId, ids);
+        Map<UUID, Product> locked = new HashMap<>();
+        for (Product product : productRepository.findAllByIdInForUpdate(ids)) {
+            locked.put(product.getId(), product);
+        }
+        loadedBeforeLock.forEach(entityManager::refresh);
+        return locked;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<UUID, ProductVariant> lockVariants(Collection<UUID> variantIds) {
+        if (variantIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Set<UUID> ids = new TreeSet<>(variantIds);
+        List<ProductVariant> loadedBeforeLock = loadedBeforeLock(ProductVariant.class, ProductVariant::getId, ids);
+        Map<UUID, ProductVariant> locked = new HashMap<>();
+        for (ProductVariant variant : productVariantRepository.findAllByIdInForUpdate(ids)) {
+            locked.put(variant.getId(), variant);
+        }
+        loadedBeforeLock.forEach(entityManager::refresh);
+        return locked;
+    }
+
+    /**
+     * Rows of {@code ids} this transaction loaded before locking them. The lock query hands those
+     * instances back without re-reading them, so they are refreshed once the lock is held.
+     */
+    private <T> List<T> loadedBeforeLock(Class<T> type, Function<T, UUID> id, Set<UUID> ids) {
+        return entityManager.unwrap(Session.class).getManagedEntities(type).stream()
+                .filter(entity -> ids.contains(id.apply(entity)))
+                .toList();
+    }
+
+    /**
+     * Checks every requested line against the locked rows and, only if all of them fit, applies
+     * the decrements. Rows must already be locked via {@link #lockProducts} and {@link #lockVariants}.
+     *
+     * @throws InsufficientStockException listing every short product and variant
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<UUID, Product> lockedProducts,
+                        Map<UUID, Integer> requestedProductStock,
+                        Map<UUID, ProductVariant> lockedVariants,
+                        Map<UUID, Integer> requestedVariantStock) {
+        List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+
+        for (Map.Entry<UUID, Integer> entry : requestedVariantStock.entrySet()) {
+            ProductVariant variant = lockedVariants.get(entry.getKey());
+            int available = variant != null && variant.getStock() != null ? variant.getStock() : 0;
+            if (available < entry.getValue()) {
+                Product product = variant != null ? variant.getProduct() : null;
+                shortages.add(new InsufficientStockException.Shortage(
+                        product != null ? product.getId() : null,
+                        entry.getKey(),
+                        variant != null ? variant.getSku() : null,
+                        variantLabel(variant),
+                        entry.getValue(),
+                        available
+                ));
+            }
+        }
+
+        for (Map.Entry<UUID, Integer> entry : requestedProductStock.entrySet()) {
+            Product product = lockedProducts.get(entry.getKey());
+            int available = product != null && product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+            if (available < entry.getValue()) {
+                shortages.add(new InsufficientStockException.Shortage(
+                        entry.getKey(),
+                        null,
+                        product != null ? product.getSku() : null,
+                        product != null ? product.getName() : null,
+                        entry.getValue(),
+                        available
+                ));
+            }
+        }
+
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException(shortages);
+        }
+
+        if (!requestedVariantStock.isEmpty()) {
+            BatchArgs args = BatchArgs.of(requestedVariantStock);
+            int updated = productVariantRepository.decrementStockBatch(args.ids(), args.quantities());
+            if (updated != args.ids().length) {
+                throw concurrentStockChange("variant", updated, args.ids().length);
+            }
+        }
+
+        if (!requestedProductStock.isEmpty()) {
+            BatchArgs args = BatchArgs.of(requestedProductStock);
+            int updated = productRepository.decrementStockBatch(args.ids(), args.quantities());
+            if (updated != args.ids().length) {
+                throw concurrentStockChange("product", updated, args.ids().length);
+            }
+            Map<UUID, Integer> stockAfter = stockAfter(lockedProducts, requestedProductStock, -1);
+            productCache.patchStock(stockAfter);
+            productFacetIndex.patchStock(stockAfter);
+        }
+        productCounters.recordSales(soldByProduct(requestedProductStock, lockedVariants, requestedVariantStock, 1));
+    }
+
+    /**
+     * Returns stock for a cancelled order. Takes the same ordered locks as checkout so a
+     * cancellation racing a checkout of the same items cannot deadlock with it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<UUID, Integer> productStock, Map<UUID, Integer> variantStock) {
+        Map<UUID, Product> lockedProducts = lockProducts(productStock.keySet());
+        Map<UUID, ProductVariant> lockedVariants = lockVariants(variantStock.keySet());
+
+        if (!variantStock.isEmpty()) {
+            BatchArgs args = BatchArgs.of(variantStock);
+            productVariantRepository.incrementStockBatch(args.ids(), args.quantities());
+        }
+        if (!productStock.isEmpty()) {
+            BatchArgs args = BatchArgs.of(productStock);
+            productRepository.incrementStockBatch(args.ids(), args.quantities());
+            Map<UUID, Integer> stockAfter = stockAfter(lockedProducts, productStock, 1);
+            productCache.patchStock(stockAfter);
+            productFacetIndex.patchStock(stockAfter);
+        }
+        productCounters.recordSales(soldByProduct(productStock, lockedVariants, variantStock, -1));
+    }
+
+    /**
+     * Units moved per product, counting variant lines against their product.
+     */
+    private static Map<UUID, Integer> soldByProduct(Map<UUID, Integer> productStock,
+                                                    Map<UUID, ProductVariant> lockedVariants,
+                                                    Map<UUID, Integer> variantStock,
+                                                    int sign) {
+        Map<UUID, Integer> sold = new HashMap<>();
+        productStock.forEach((id, quantity) -> sold.merge(id, sign * quantity, Integer::sum));
+        variantStock.forEach((id, quantity) -> {
+            ProductVariant variant = lockedVariants.get(id);
+            if (variant != null && variant.getProduct() != null) {
+                sold.merge(variant.getProduct().getId(), sign * quantity, Integer::sum);
+            }
+        });
+        return sold;
+    }
+
+    /**
+     * New stock per product. The locked entities hold the value read under the lock, since
+     * {@link #lockProducts} refreshes any loaded earlier and the batch UPDATE bypasses the
+     * persistence context.
+     */
+    private static Map<UUID, Integer> stockAfter(Map<UUID, Product> lockedProducts, Map<UUID, Integer> change, int sign) {
+        Map<UUID, Integer> stock = new HashMap<>();
+        change.forEach((id, quantity) -> {
+            Product product = lockedProducts.get(id);
+            if (product != null && product.getStockQuantity() != null) {
+                stock.put(id, product.getStockQuantity() + sign * quantity);
+            }
+        });
+        return stock;
+    }
+
+    static String variantLabel(ProductVariant variant) {
+        if (variant == null) {
+            return null;
+        }
+        Product product = variant.getProduct();
+        if (product == null || product.getName() == null) {
+            return variant.getName();
+        }
+        return variant.getName() != null ? product.getName() + " - " + variant.getName() : product.getName();
+    }
+
+    private static BadRequestException concurrentStockChange(String kind, int updated, int expected) {
+        // Rows are locked before we get here, so this only happens if a row vanished or was
+        // modified outside the locking protocol. Roll the whole checkout back.
+        log.error("Batch {} stock decrement updated {} of {} rows", kind, updated, expected);
+        return new BadRequestException("Stock changed during checkout, please try again");
+    }
+
+    private record BatchArgs(UUID[] ids, Integer[] quantities) {
+
+        static BatchArgs of(Map<UUID, Integer> stock) {
+            SortedMap<UUID, Integer> sorted = new TreeMap<>(stock);
+            return new BatchArgs(
+                    sorted.keySet().toArray(new UUID[0]),
+                    sorted.values().toArray(new Integer[0])
+            );
+        }
+    }
+}
@@ -38,9 +38,11 @@ public class UserService {
     @Value("${app.public-base-url:http://localhost:8081}")
     private String publicBaseUrl;
 
+    @Transactional(readOnly = true)
     public UserResponse getUserById(UUID userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithAddressesById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        userRepository.fetchSavedPaymentMethods(userId);
         return UserMapper.toResponse(user);
     }
 
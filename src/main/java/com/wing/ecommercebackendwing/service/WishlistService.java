@@ -1,5 +1,6 @@
 package com.wing.ecommercebackendwing.service;
 
+import com.wing.ecommercebackendwing.dto.mapper.ProductMapper;
 import com.wing.ecommercebackendwing.dto.mapper.WishlistMapper;
 import com.wing.ecommercebackendwing.dto.request.order.WishlistRequest;
 import com.wing.ecommercebackendwing.dto.response.product.ProductResponse;
@@ -55,9 +56,10 @@ public class WishlistService {
                 .ifPresent(wishlistRepository::delete);
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> getWishlist(UUID userId) {
-        return wishlistRepository.findByUserId(userId).stream()
-                .map(WishlistMapper::toProductResponse)
+        return wishlistRepository.findProductSummariesByUserId(userId).stream()
+                .map(ProductMapper::toResponse)
                 .collect(Collectors.toList());
     }
 }
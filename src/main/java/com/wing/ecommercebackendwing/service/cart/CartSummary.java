@@ -0,0 +1,15 @@
+package com.wing.ecommercebackendwing.service.cart;
+
+import java.math.BigDecimal;
+
+/**
+ * What the mini-cart shows: the number of units in a user's cart and their subtotal at current
+ * prices. A user without a cart, or with an empty one, has zero of both.
+ */
+public record CartSummary(Long itemCount, BigDecimal subtotal) {
+
+    public CartSummary {
+        itemCount = itemCount != null ? itemCount : 0L;
+        subtotal = subtotal != null ? subtotal : BigDecimal.ZERO;
+    }
+}
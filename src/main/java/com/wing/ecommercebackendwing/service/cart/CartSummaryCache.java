@@ -0,0 +1,62 @@
+package com.wing.ecommercebackendwing.service.cart;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wing.ecommercebackendwing.repository.CartItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-user cache of the mini-cart summary, which is rendered on every page while the full cart
+ * is only opened now and then.
+ *
+ * Every write to a user's cart items must call {@link #invalidate(UUID)}. Price changes to the
+ * products in a cart are not tracked; entries expire after a short time to pick them up.
+ */
+@Component
+@Slf4j
+public class CartSummaryCache {
+
+    private final CartItemRepository cartItemRepository;
+    private final Cache<UUID, CartSummary> cache;
+
+    public CartSummaryCache(CartItemRepository cartItemRepository,
+                            @Value("${app.cart-summary-cache.max-size:50000}") long maxSize,
+                            @Value("${app.cart-summary-cache.ttl-seconds:120}") long ttlSeconds) {
+        this.cartItemRepository = cartItemRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxSize))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, ttlSeconds)))
+                .build();
+    }
+
+    public CartSummary get(UUID userId) {
+        return cache.get(userId, cartItemRepository::summarizeByUserId);
+    }
+
+    /**
+     * Drop the cached summary for a user. Inside a transaction the entry is evicted again once the
+     * transaction completes, so a concurrent read cannot re-cache the pre-commit cart.
+     */
+    public void invalidate(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+        cache.invalidate(userId);
+        log.debug("Cart summary cache invalidated for user: {}", userId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.wing.ecommercebackendwing.service.category;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One category in a {@link CategoryTree} snapshot, with everything derived from its place in the
+ * tree precomputed. Immutable.
+ *
+ * @param path                ancestor ids from the root down to and including this category
+ * @param slugPath            the same path as slugs
+ * @param childIds            direct children in display order
+ * @param subtreeIds          this category and every category below it
+ * @param productCount        active products filed directly under this category
+ * @param subtreeProductCount active products in this category and below
+ */
+public record CategoryNode(UUID id, UUID parentId, String name, String slug, String description,
+                           String icon, String image, Integer sortOrder, boolean active,
+                           List<UUID> path, List<String> slugPath, List<UUID> childIds,
+                           Set<UUID> subtreeIds, int productCount, int subtreeProductCount) {
+
+    public int depth() {
+        return path.size() - 1;
+    }
+}
@@ -0,0 +1,9 @@
+package com.wing.ecommercebackendwing.service.category;
+
+import java.util.UUID;
+
+/**
+ * Active products filed directly under one category.
+ */
+public record CategoryProductCount(UUID categoryId, Long products) {
+}
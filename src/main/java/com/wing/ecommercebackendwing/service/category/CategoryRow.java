@@ -0,0 +1,10 @@
+package com.wing.ecommercebackendwing.service.category;
+
+import java.util.UUID;
+
+/**
+ * The columns of one category the tree is built from, read without loading entities.
+ */
+public record CategoryRow(UUID id, UUID parentId, String name, String slug, String description,
+                          String icon, String image, Integer sortOrder, Boolean active) {
+}
@@ -0,0 +1,178 @@
+package com.wing.ecommercebackendwing.service.category;
+
+import com.wing.ecommercebackendwing.model.entity.CategoryChangedEvent;
+import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The category tree held in memory on every node, so category reads never touch the database.
+ *
+ * Each build reads every category and the active product count per category in two queries, links
+ * them into an immutable {@link CategoryTreeSnapshot} and swaps it in with one volatile write;
+ * readers always see one whole tree. Category writes on this node rebuild it after commit, product
+ * writes that move counts request a rebuild in the background, and a periodic refresh picks up
+ * writes made on other replicas.
+ */
+@Component
+@Slf4j
+public class CategoryTree {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ExecutorService rebuilds = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("category-tree-"));
+
+    private volatile CategoryTreeSnapshot snapshot;
+
+    public CategoryTree(CategoryRepository categoryRepository, ProductRepository productRepository) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+    }
+
+    /** Every category, each parent before its children, siblings in display order. */
+    public List<CategoryNode> all() {
+        return current().nodes();
+    }
+
+    public Optional<CategoryNode> bySlug(String slug) {
+        return current().bySlug(slug);
+    }
+
+    public Optional<CategoryNode> byId(UUID id) {
+        return current().byId(id);
+    }
+
+    /**
+     * The ids of a category and everything below it, or empty if the tree has not been built yet
+     * or does not know the category, in which case the caller should resolve the subtree itself.
+     * Never waits for a build.
+     */
+    public Optional<Set<UUID>> subtree(UUID categoryId) {
+        CategoryTreeSnapshot built = snapshot;
+        if (built == null) {
+            return Optional.empty();
+        }
+        return built.byId(categoryId).map(CategoryNode::subtreeIds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        requestRebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.category-tree.refresh-interval-ms:300000}",
+            fixedDelayString = "${app.category-tree.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuildAfterCommit();
+    }
+
+    /**
+     * Rebuilds once the surrounding transaction commits, or straight away outside one.
+     */
+    public void rebuildAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestRebuild();
+                }
+            });
+        } else {
+            requestRebuild();
+        }
+    }
+
+    /**
+     * Queues a rebuild in the background. Requests made before a queued rebuild starts share it;
+     * one made while a rebuild runs queues another, so no committed write is missed.
+     */
+    public Future<?> requestRebuild() {
+        if (rebuilds.isShutdown() || !rebuildQueued.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return rebuilds.submit(() -> {
+            rebuildQueued.set(false);
+            rebuild();
+        });
+    }
+
+    /**
+     * Reads the categories and counts and swaps in a fresh tree. Returns false if the build
+     * failed, in which case the current tree stays in place.
+     */
+    public boolean rebuild() {
+        buildLock.lock();
+        try {
+            long started = System.nanoTime();
+            CategoryTreeSnapshot fresh;
+            try {
+                fresh = CategoryTreeSnapshot.build(categoryRepository.findTreeRows(), productRepository.countActiveByCategory());
+            } catch (RuntimeException e) {
+                log.error("Category tree rebuild failed; keeping the current tree", e);
+                return false;
+            }
+            snapshot = fresh;
+            if (fresh.cutCycles() > 0) {
+                log.warn("Category tree: {} parent cycles cut, those categories are served as roots", fresh.cutCycles());
+            }
+            log.debug("Category tree rebuilt: {} categories in {} ms", fresh.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return true;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        rebuilds.shutdownNow();
+        rebuilds.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The current tree, building it on this thread if a read comes in before the startup build
+     * has finished. Fails like the query would if that first build cannot read the database.
+     */
+    private CategoryTreeSnapshot current() {
+        CategoryTreeSnapshot built = snapshot;
+        if (built != null) {
+            return built;
+        }
+        buildLock.lock();
+        try {
+            if (snapshot == null) {
+                snapshot = CategoryTreeSnapshot.build(categoryRepository.findTreeRows(), productRepository.countActiveByCategory());
+            }
+            return snapshot;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+}
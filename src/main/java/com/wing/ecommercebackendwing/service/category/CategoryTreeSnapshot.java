@@ -0,0 +1,201 @@
+package com.wing.ecommercebackendwing.service.category;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The whole category tree at one point in time. Built once from flat rows and never changed, so
+ * any number of readers can share it while the next one is built.
+ */
+final class CategoryTreeSnapshot {
+
+    /** Siblings in display order: sort order first, unset last, then name. */
+    private static final Comparator<CategoryRow> DISPLAY_ORDER = Comparator
+            .comparing(CategoryRow::sortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(CategoryRow::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(CategoryRow::id);
+
+    private final List<CategoryNode> nodes;
+    private final Map<UUID, CategoryNode> byId;
+    private final Map<String, CategoryNode> bySlug;
+    private final int cutCycles;
+
+    private CategoryTreeSnapshot(List<CategoryNode> nodes, int cutCycles) {
+        this.nodes = List.copyOf(nodes);
+        this.cutCycles = cutCycles;
+        Map<UUID, CategoryNode> ids = new HashMap<>();
+        Map<String, CategoryNode> slugs = new HashMap<>();
+        for (CategoryNode node : nodes) {
+            ids.put(node.id(), node);
+            if (node.slug() != null) {
+                slugs.put(node.slug(), node);
+            }
+        }
+        this.byId = Map.copyOf(ids);
+        this.bySlug = Map.copyOf(slugs);
+    }
+
+    /**
+     * Links rows into a tree. A row whose parent is missing becomes a root, and so does the first
+     * row met of each parent cycle in bad data, which cuts the cycle there.
+     */
+    static CategoryTreeSnapshot build(List<CategoryRow> rows, List<CategoryProductCount> counts) {
+        Map<UUID, CategoryRow> rowById = new HashMap<>();
+        for (CategoryRow row : rows) {
+            rowById.put(row.id(), row);
+        }
+        Map<UUID, List<CategoryRow>> children = new HashMap<>();
+        List<CategoryRow> roots = new ArrayList<>();
+        for (CategoryRow row : rows) {
+            if (row.parentId() != null && rowById.containsKey(row.parentId()) && !row.parentId().equals(row.id())) {
+                children.computeIfAbsent(row.parentId(), id -> new ArrayList<>()).add(row);
+            } else {
+                roots.add(row);
+            }
+        }
+        children.values().forEach(siblings -> siblings.sort(DISPLAY_ORDER));
+        roots.sort(DISPLAY_ORDER);
+        Map<UUID, Integer> direct = new HashMap<>();
+        for (CategoryProductCount count : counts) {
+            if (count.categoryId() != null && count.products() != null) {
+                direct.merge(count.categoryId(), Math.toIntExact(count.products()), Integer::sum);
+            }
+        }
+
+        Builder builder = new Builder(children, direct);
+        for (CategoryRow root : roots) {
+            builder.add(root);
+        }
+        // Whatever is left is only reachable through a parent cycle.
+        int cutCycles = 0;
+        List<CategoryRow> unreached = new ArrayList<>();
+        for (CategoryRow row : rows) {
+            if (!builder.visited.contains(row.id())) {
+                unreached.add(row);
+            }
+        }
+        unreached.sort(DISPLAY_ORDER);
+        for (CategoryRow row : unreached) {
+            if (!builder.visited.contains(row.id())) {
+                cutCycles++;
+                builder.add(row);
+            }
+        }
+        return new CategoryTreeSnapshot(builder.nodes, cutCycles);
+    }
+
+    /** Every category, each parent before its children, siblings in display order. */
+    List<CategoryNode> nodes() {
+        return nodes;
+    }
+
+    Optional<CategoryNode> byId(UUID id) {
+        return Optional.ofNullable(id != null ? byId.get(id) : null);
+    }
+
+    Optional<CategoryNode> bySlug(String slug) {
+        return Optional.ofNullable(slug != null ? bySlug.get(slug) : null);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    int cutCycles() {
+        return cutCycles;
+    }
+
+    /**
+     * Walks one root's subtree depth first without recursion, so a deep tree cannot overflow the
+     * stack, then fills in subtree ids and counts bottom up.
+     */
+    private static final class Builder {
+
+        private final Map<UUID, List<CategoryRow>> children;
+        private final Map<UUID, Integer> direct;
+        private final Set<UUID> visited = new HashSet<>();
+        private final List<CategoryNode> nodes = new ArrayList<>();
+
+        Builder(Map<UUID, List<CategoryRow>> children, Map<UUID, Integer> direct) {
+            this.children = children;
+            this.direct = direct;
+        }
+
+        void add(CategoryRow root) {
+            // Preorder, so each row's path is known by the time its children are reached.
+            List<CategoryRow> order = new ArrayList<>();
+            Map<UUID, List<UUID>> paths = new HashMap<>();
+            Map<UUID, List<String>> slugPaths = new HashMap<>();
+            Map<UUID, List<UUID>> childIds = new HashMap<>();
+            Deque<CategoryRow> stack = new ArrayDeque<>();
+            stack.push(root);
+            visited.add(root.id());
+            paths.put(root.id(), List.of(root.id()));
+            slugPaths.put(root.id(), Collections.singletonList(root.slug()));
+            while (!stack.isEmpty()) {
+                CategoryRow row = stack.pop();
+                order.add(row);
+                List<CategoryRow> below = children.getOrDefault(row.id(), List.of());
+                List<UUID> ids = new ArrayList<>(below.size());
+                for (CategoryRow child : below) {
+                    if (visited.add(child.id())) {
+                        ids.add(child.id());
+                        paths.put(child.id(), append(paths.get(row.id()), child.id()));
+                        slugPaths.put(child.id(), append(slugPaths.get(row.id()), child.slug()));
+                    }
+                }
+                childIds.put(row.id(), List.copyOf(ids));
+                // Pushed in reverse so the first sibling comes off the stack first.
+                for (int i = below.size() - 1; i >= 0; i--) {
+                    CategoryRow child = below.get(i);
+                    if (ids.contains(child.id())) {
+                        stack.push(child);
+                    }
+                }
+            }
+
+            Map<UUID, Set<UUID>> subtree = new HashMap<>();
+            Map<UUID, Integer> subtreeCount = new HashMap<>();
+            for (int i = order.size() - 1; i >= 0; i--) {
+                CategoryRow row = order.get(i);
+                Set<UUID> ids = new LinkedHashSet<>();
+                ids.add(row.id());
+                int count = direct.getOrDefault(row.id(), 0);
+                for (UUID child : childIds.get(row.id())) {
+                    ids.addAll(subtree.get(child));
+                    count += subtreeCount.get(child);
+                }
+                subtree.put(row.id(), ids);
+                subtreeCount.put(row.id(), count);
+            }
+
+            for (CategoryRow row : order) {
+                // A root's parent is gone or was cut, so it is served as a root.
+                UUID parentId = row == root ? null : row.parentId();
+                nodes.add(new CategoryNode(row.id(), parentId, row.name(), row.slug(), row.description(),
+                        row.icon(), row.image(), row.sortOrder(), !Boolean.FALSE.equals(row.active()),
+                        paths.get(row.id()), slugPaths.get(row.id()), childIds.get(row.id()),
+                        Collections.unmodifiableSet(subtree.get(row.id())),
+                        direct.getOrDefault(row.id(), 0), subtreeCount.get(row.id())));
+            }
+        }
+
+        private static <T> List<T> append(List<T> path, T last) {
+            List<T> extended = new ArrayList<>(path.size() + 1);
+            extended.addAll(path);
+            extended.add(last);
+            return Collections.unmodifiableList(extended);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.wing.ecommercebackendwing.service.outbox;
+
+import com.wing.ecommercebackendwing.model.enums.NotificationType;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
+import com.wing.ecommercebackendwing.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * In-app notifications for order and payment events.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxHandler implements OutboxEventHandler {
+
+    private final NotificationService notificationService;
+
+    @Override
+    public String name() {
+        return "notification";
+    }
+
+    @Override
+    public boolean supports(OutboxEventType type) {
+        return true;
+    }
+
+    @Override
+    public void handle(UUID eventId, OutboxEventType type, OrderEventPayload payload) {
+        UUID orderId = payload.orderId();
+        switch (type) {
+            case ORDER_PLACED -> send(payload, "Order Placed",
+                    "Your order #[" + orderId + "] has been placed successfully", NotificationType.ORDER);
+            case ORDER_STATUS_CHANGED -> send(payload, "Order Status Updated",
+                    "Your order #[" + orderId + "] status changed to " + payload.newStatus(), NotificationType.ORDER_STATUS);
+            case PAYMENT_COMPLETED -> send(payload, "Payment Successful",
+                    "Payment for order #[" + orderId + "] was successful", NotificationType.PAYMENT);
+            case PAYMENT_FAILED -> send(payload, "Payment Failed",
+                    "Payment for order #[" + orderId + "] has failed. Please retry.", NotificationType.PAYMENT);
+        }
+    }
+
+    private void send(OrderEventPayload payload, String title, String message, NotificationType type) {
+        notificationService.sendNotification(payload.userId(), title, message, type.name(), payload.orderId());
+    }
+}
@@ -0,0 +1,18 @@
+package com.wing.ecommercebackendwing.service.outbox;
+
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+
+import java.util.UUID;
+
+/**
+ * Payload shared by all order and payment outbox events.
+ * {@code newStatus} is the order status right after the change that produced the event.
+ */
+public record OrderEventPayload(
+        UUID orderId,
+        UUID userId,
+        String orderNumber,
+        OrderStatus previousStatus,
+        OrderStatus newStatus
+) {
+}
@@ -0,0 +1,196 @@
+package com.wing.ecommercebackendwing.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wing.ecommercebackendwing.config.OutboxProperties;
+import com.wing.ecommercebackendwing.model.entity.OutboxEvent;
+import com.wing.ecommercebackendwing.model.enums.OutboxStatus;
+import com.wing.ecommercebackendwing.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers outbox events to their handlers on a dedicated worker pool.
+ *
+ * Events are pushed here right after their transaction commits. A scheduled poller picks up
+ * anything that was not delivered that way (node crash, full queue, failed attempt whose backoff
+ * has elapsed), claiming rows with FOR UPDATE SKIP LOCKED so replicas never poll the same event.
+ * A failing handler is retried with exponential backoff; after {@code maxAttempts} the event is
+ * parked with its last error.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final String CLAIM_SQL = """
+            UPDATE outbox_events SET next_attempt_at = ?
+            WHERE id IN (
+                SELECT id FROM outbox_events
+                WHERE status = 'PENDING' AND next_attempt_at <= ?
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id
+            """;
+
+    private static final String MARK_HANDLED_SQL = """
+            INSERT INTO outbox_handled_events (event_id, handler, handled_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (event_id, handler) DO NOTHING
+            """;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventHandler> handlers;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate handlerTransaction;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+    private final ThreadPoolExecutor workers;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxEventHandler> handlers,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            OutboxProperties properties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = List.copyOf(handlers);
+        this.jdbcTemplate = jdbcTemplate;
+        this.handlerTransaction = new TransactionTemplate(transactionManager);
+        this.handlerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        int threads = Math.max(1, properties.getWorkerThreads());
+        this.workers = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                new CustomizableThreadFactory("outbox-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Queues an event for delivery. Never blocks the caller: if the queue is full the event
+     * stays PENDING and the poller delivers it once its lease expires.
+     */
+    public void dispatch(UUID eventId) {
+        try {
+            workers.execute(() -> deliver(eventId));
+        } catch (RejectedExecutionException e) {
+            log.warn("Outbox queue full, event {} left for the poller", eventId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:5000}")
+    public void pollDue() {
+        int capacity = workers.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<UUID> claimed = jdbcTemplate.queryForList(
+                CLAIM_SQL,
+                UUID.class,
+                Timestamp.from(now.plusSeconds(properties.getLeaseSeconds())),
+                Timestamp.from(now),
+                Math.min(capacity, properties.getPollBatchSize())
+        );
+        claimed.forEach(this::dispatch);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void deleteProcessed() {
+        Instant cutoff = Instant.now().minus(properties.getRetentionHours(), ChronoUnit.HOURS);
+        int events = handlerTransaction.execute(status -> outboxEventRepository.deleteProcessedBefore(cutoff));
+        int markers = jdbcTemplate.update("DELETE FROM outbox_handled_events WHERE handled_at < ?", Timestamp.from(cutoff));
+        if (events > 0 || markers > 0) {
+            log.debug("Deleted {} processed outbox events and {} handled markers", events, markers);
+        }
+    }
+
+    void deliver(UUID eventId) {
+        OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
+        if (event == null || event.getStatus() != OutboxStatus.PENDING) {
+            return;
+        }
+
+        try {
+            OrderEventPayload payload = objectMapper.readValue(event.getPayload(), OrderEventPayload.class);
+            for (OutboxEventHandler handler : handlers) {
+                if (handler.supports(event.getType())) {
+                    handlerTransaction.executeWithoutResult(status -> {
+                        if (jdbcTemplate.update(MARK_HANDLED_SQL, eventId, handler.name()) == 1) {
+                            handler.handle(eventId, event.getType(), payload);
+                        }
+                    });
+                }
+            }
+            markProcessed(eventId);
+        } catch (Exception e) {
+            markFailed(event, e);
+        }
+    }
+
+    private void markProcessed(UUID eventId) {
+        handlerTransaction.executeWithoutResult(status -> outboxEventRepository.findById(eventId).ifPresent(event -> {
+            event.setStatus(OutboxStatus.PROCESSED);
+            event.setProcessedAt(Instant.now());
+            event.setLastError(null);
+            outboxEventRepository.save(event);
+        }));
+    }
+
+    private void markFailed(OutboxEvent snapshot, Exception failure) {
+        String error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        handlerTransaction.executeWithoutResult(status -> outboxEventRepository.findById(snapshot.getId()).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (attempts >= properties.getMaxAttempts()) {
+                event.setStatus(OutboxStatus.PARKED);
+                log.error("Parked outbox event {} {} after {} attempts: {}", event.getId(), event.getType(), attempts, error);
+            } else {
+                event.setNextAttemptAt(Instant.now().plusMillis(backoffMillis(attempts)));
+                log.warn("Outbox event {} {} failed (attempt {}), retrying: {}", event.getId(), event.getType(), attempts, error);
+            }
+            outboxEventRepository.save(event);
+        }));
+    }
+
+    long backoffMillis(int attempts) {
+        long initial = Math.max(1, properties.getInitialBackoffMs());
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(properties.getMaxBackoffMs(), initial << shift);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Anything still queued stays PENDING in the table and is picked up by the poller.
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+}
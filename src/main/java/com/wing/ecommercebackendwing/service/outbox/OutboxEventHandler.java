@@ -0,0 +1,22 @@
+package com.wing.ecommercebackendwing.service.outbox;
+
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
+
+import java.util.UUID;
+
+/**
+ * Applies the side effects of an outbox event.
+ *
+ * Each call runs in its own transaction together with the handler's idempotency marker, so a
+ * handler sees each event id at most once even though delivery is at-least-once. Throwing rolls
+ * back both and schedules a retry.
+ */
+public interface OutboxEventHandler {
+
+    /** Stable name recorded with the idempotency marker; do not change once deployed. */
+    String name();
+
+    boolean supports(OutboxEventType type);
+
+    void handle(UUID eventId, OutboxEventType type, OrderEventPayload payload);
+}
@@ -0,0 +1,63 @@
+package com.wing.ecommercebackendwing.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wing.ecommercebackendwing.config.OutboxProperties;
+import com.wing.ecommercebackendwing.model.entity.OutboxEvent;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
+import com.wing.ecommercebackendwing.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Records domain events in the caller's transaction and hands them to the dispatcher once that
+ * transaction commits. A rolled-back transaction leaves no event behind.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final OutboxProperties outboxProperties;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public UUID publish(OutboxEventType type, OrderEventPayload payload) {
+        Instant now = Instant.now();
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setAggregateId(payload.orderId());
+        event.setPayload(serialize(payload));
+        event.setCreatedAt(now);
+        // Leased to this node: the poller leaves it alone while the after-commit dispatch runs.
+        event.setNextAttemptAt(now.plusSeconds(outboxProperties.getLeaseSeconds()));
+        UUID eventId = outboxEventRepository.save(event).getId();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.dispatch(eventId);
+            }
+        });
+        log.debug("Queued outbox event {} {} for order {}", eventId, type, payload.orderId());
+        return eventId;
+    }
+
+    private String serialize(OrderEventPayload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize outbox payload", e);
+        }
+    }
+}
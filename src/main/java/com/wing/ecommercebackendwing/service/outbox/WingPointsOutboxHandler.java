@@ -0,0 +1,65 @@
+package com.wing.ecommercebackendwing.service.outbox;
+
+import com.wing.ecommercebackendwing.model.entity.Order;
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
+import com.wing.ecommercebackendwing.repository.OrderRepository;
+import com.wing.ecommercebackendwing.service.WingPointsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Awards points when a payment moves an order to PAID and reverses them when the order is
+ * cancelled.
+ *
+ * Awarding locks the order row first. A cancellation that commits before the award makes the
+ * award a no-op. A cancellation that waits for the award is followed by its own reversal event,
+ * which then finds the earned points.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WingPointsOutboxHandler implements OutboxEventHandler {
+
+    private final WingPointsService wingPointsService;
+    private final OrderRepository orderRepository;
+
+    @Override
+    public String name() {
+        return "wing-points";
+    }
+
+    @Override
+    public boolean supports(OutboxEventType type) {
+        return type == OutboxEventType.PAYMENT_COMPLETED || type == OutboxEventType.ORDER_STATUS_CHANGED;
+    }
+
+    @Override
+    public void handle(UUID eventId, OutboxEventType type, OrderEventPayload payload) {
+        if (type == OutboxEventType.ORDER_STATUS_CHANGED) {
+            if (payload.newStatus() == OrderStatus.CANCELLED) {
+                wingPointsService.revokeEarnedPointsForOrder(payload.userId(), payload.orderId());
+            }
+            return;
+        }
+
+        // Only the payment that actually moved the order to PAID earns points.
+        if (payload.newStatus() != OrderStatus.PAID || payload.previousStatus() == OrderStatus.PAID) {
+            return;
+        }
+        Order order = orderRepository.findByIdForUpdate(payload.orderId()).orElse(null);
+        if (order == null || order.getStatus() == OrderStatus.CANCELLED) {
+            log.info("Skipping points for order {}: order is missing or cancelled", payload.orderId());
+            return;
+        }
+        wingPointsService.addPoints(
+                payload.userId(),
+                null,
+                "Points earned from order " + payload.orderNumber(),
+                payload.orderId()
+        );
+    }
+}
@@ -0,0 +1,112 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+import com.wing.ecommercebackendwing.config.BakongConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bakong Open API calls used to confirm KHQR payments.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KhqrGatewayClient {
+
+    /** Bakong rejects md5 list requests with more entries than this. */
+    public static final int MAX_MD5_PER_REQUEST = 50;
+
+    private static final ParameterizedTypeReference<Map<String, Object>> RESPONSE_TYPE = new ParameterizedTypeReference<>() {};
+
+    private final RestTemplate restTemplate;
+    private final BakongConfig bakongConfig;
+
+    /**
+     * Looks up one md5 hash.
+     *
+     * @throws RestClientException when the gateway cannot be reached
+     */
+    public KhqrLookup checkMd5(String md5) {
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                endpoint("v1/check_transaction_by_md5"), HttpMethod.POST, new HttpEntity<>(Map.of("md5", md5), headers()), RESPONSE_TYPE);
+
+        Map<String, Object> body = response.getBody();
+        if (response.getStatusCode() != HttpStatus.OK || body == null) {
+            return KhqrLookup.unpaid("API Error: " + response.getStatusCode());
+        }
+        // responseCode 0 is success
+        if (!"0".equals(String.valueOf(body.get("responseCode")))) {
+            Object message = body.get("responseMessage");
+            String reason = message != null ? message.toString() : "Transaction pending or not found";
+            log.debug("Payment verification pending for transaction {}: {}", md5, reason);
+            return KhqrLookup.unpaid(reason);
+        }
+        return KhqrLookup.paid(KhqrTransaction.fromGatewayData(md5, body.get("data"), body.toString()));
+    }
+
+    /**
+     * Looks up several md5 hashes in one call.
+     *
+     * @return the paid transactions keyed by md5; hashes the gateway does not know are absent
+     * @throws RestClientException when the gateway cannot be reached or answers with an error
+     */
+    public Map<String, KhqrTransaction> checkMd5List(List<String> md5s) {
+        if (md5s.isEmpty()) {
+            return Map.of();
+        }
+        if (md5s.size() > MAX_MD5_PER_REQUEST) {
+            throw new IllegalArgumentException("At most " + MAX_MD5_PER_REQUEST + " md5 hashes per request");
+        }
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                endpoint("v1/check_transaction_by_md5_list"), HttpMethod.POST, new HttpEntity<>(md5s, headers()), RESPONSE_TYPE);
+
+        Map<String, Object> body = response.getBody();
+        if (!response.getStatusCode().is2xxSuccessful() || body == null) {
+            throw new RestClientException("Bakong md5 list check failed: " + response.getStatusCode());
+        }
+        if (!"0".equals(String.valueOf(body.get("responseCode")))) {
+            // The list endpoint answers 1 when none of the hashes are known.
+            log.debug("Bakong md5 list check matched nothing: {}", body.get("responseMessage"));
+            return Map.of();
+        }
+
+        Map<String, KhqrTransaction> paid = new HashMap<>();
+        if (body.get("data") instanceof List<?> entries) {
+            for (Object entry : entries) {
+                if (!(entry instanceof Map<?, ?> result)) continue;
+                Object md5 = result.get("md5");
+                if (md5 == null || !"SUCCESS".equalsIgnoreCase(String.valueOf(result.get("status")))) continue;
+                String normalizedMd5 = String.valueOf(md5).trim().toLowerCase();
+                paid.put(normalizedMd5, KhqrTransaction.fromGatewayData(normalizedMd5, result.get("data"), result.toString()));
+            }
+        }
+        return paid;
+    }
+
+    private String endpoint(String path) {
+        String baseUrl = bakongConfig.getApiBaseUrl();
+        return (baseUrl.endsWith("/") ? baseUrl : baseUrl + "/") + path;
+    }
+
+    private HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.setBearerAuth(bakongConfig.getApiToken());
+        return headers;
+    }
+}
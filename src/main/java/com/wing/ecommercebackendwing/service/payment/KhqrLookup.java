@@ -0,0 +1,19 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+/**
+ * Outcome of a single md5 lookup: the paid transaction, or the gateway's reason it is not paid yet.
+ */
+public record KhqrLookup(KhqrTransaction transaction, String message) {
+
+    public static KhqrLookup paid(KhqrTransaction transaction) {
+        return new KhqrLookup(transaction, "Success");
+    }
+
+    public static KhqrLookup unpaid(String message) {
+        return new KhqrLookup(null, message);
+    }
+
+    public boolean isPaid() {
+        return transaction != null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+import com.wing.ecommercebackendwing.config.PaymentReconcilerProperties;
+import com.wing.ecommercebackendwing.repository.PaymentRepository;
+import com.wing.ecommercebackendwing.service.PaymentService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confirms PENDING KHQR payments without waiting for the shopper's browser to poll.
+ *
+ * Each pass walks the PENDING payments in keyset pages ordered by id, splits every page into
+ * md5 list requests of up to 50 hashes and sends them with bounded parallelism. Paid hashes are
+ * settled through {@link PaymentService}, so the order update and outbox events are the same as
+ * for a client verification. A payment past its expiry gets one last check and is expired when
+ * the gateway still does not know it; if the gateway is unreachable nothing is expired.
+ * Results are shared with {@link PaymentVerificationCoordinator}, so client polls right after a
+ * pass are answered from memory.
+ *
+ * No transaction or row lock is held during gateway calls. Settling locks one payment at a time
+ * and re-checks its state, so overlapping passes on several replicas are harmless.
+ */
+@Component
+@Slf4j
+public class KhqrPaymentReconciler {
+
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final KhqrGatewayClient gatewayClient;
+    private final PaymentVerificationCoordinator verificationCoordinator;
+    private final PaymentReconcilerProperties properties;
+    private final ExecutorService gatewayCalls;
+
+    public KhqrPaymentReconciler(PaymentRepository paymentRepository,
+                                 PaymentService paymentService,
+                                 KhqrGatewayClient gatewayClient,
+                                 PaymentVerificationCoordinator verificationCoordinator,
+                                 PaymentReconcilerProperties properties) {
+        this.paymentRepository = paymentRepository;
+        this.paymentService = paymentService;
+        this.gatewayClient = gatewayClient;
+        this.verificationCoordinator = verificationCoordinator;
+        this.properties = properties;
+        this.gatewayCalls = Executors.newFixedThreadPool(
+                Math.max(1, properties.getParallelism()), new CustomizableThreadFactory("khqr-reconcile-"));
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment-reconciler.interval-ms:5000}")
+    public void reconcile() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        int batchSize = Math.max(1, properties.getBatchSize());
+        UUID cursor = KEYSET_START;
+        Outcome total = new Outcome();
+
+        while (true) {
+            List<PendingKhqrPayment> page = paymentRepository.findPendingKhqrAfter(cursor, PageRequest.ofSize(batchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            total.add(reconcilePage(page, now));
+            cursor = page.get(page.size() - 1).id();
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (total.settled > 0 || total.expired > 0 || total.failedChunks > 0) {
+            log.info("KHQR reconciliation: {} settled, {} expired, {} still pending, {} gateway calls failed",
+                    total.settled, total.expired, total.pending, total.failedChunks);
+        }
+    }
+
+    Outcome reconcilePage(List<PendingKhqrPayment> page, Instant now) {
+        int chunkSize = Math.min(Math.max(1, properties.getGatewayChunkSize()), KhqrGatewayClient.MAX_MD5_PER_REQUEST);
+        List<CompletableFuture<Outcome>> chunks = new ArrayList<>();
+        for (int from = 0; from < page.size(); from += chunkSize) {
+            List<PendingKhqrPayment> chunk = page.subList(from, Math.min(from + chunkSize, page.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> reconcileChunk(chunk, now), gatewayCalls));
+        }
+
+        Outcome outcome = new Outcome();
+        chunks.forEach(chunk -> outcome.add(chunk.join()));
+        return outcome;
+    }
+
+    private Outcome reconcileChunk(List<PendingKhqrPayment> chunk, Instant now) {
+        Outcome outcome = new Outcome();
+        Map<String, KhqrTransaction> paid;
+        try {
+            paid = gatewayClient.checkMd5List(chunk.stream().map(PendingKhqrPayment::md5).toList());
+        } catch (RuntimeException e) {
+            log.warn("Bakong md5 list check failed for {} payments: {}", chunk.size(), e.getMessage());
+            outcome.failedChunks++;
+            return outcome;
+        }
+
+        for (PendingKhqrPayment payment : chunk) {
+            KhqrTransaction transaction = paid.get(payment.md5());
+            try {
+                if (transaction != null) {
+                    if (paymentService.settleFromGateway(payment.id(), transaction)) {
+                        verificationCoordinator.invalidate(payment.md5(), payment.userId());
+                        outcome.settled++;
+                    }
+                } else if (payment.isExpired(now)) {
+                    if (paymentService.expireIfPending(payment.id(), now)) {
+                        verificationCoordinator.invalidate(payment.md5(), payment.userId());
+                        outcome.expired++;
+                    }
+                } else {
+                    verificationCoordinator.recordPending(payment.md5(), payment.userId());
+                    outcome.pending++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to reconcile KHQR payment {}: {}", payment.id(), e.getMessage(), e);
+            }
+        }
+        return outcome;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        gatewayCalls.shutdown();
+        if (!gatewayCalls.awaitTermination(10, TimeUnit.SECONDS)) {
+            gatewayCalls.shutdownNow();
+        }
+    }
+
+    static final class Outcome {
+        int settled;
+        int expired;
+        int pending;
+        int failedChunks;
+
+        void add(Outcome other) {
+            settled += other.settled;
+            expired += other.expired;
+            pending += other.pending;
+            failedChunks += other.failedChunks;
+        }
+    }
+}
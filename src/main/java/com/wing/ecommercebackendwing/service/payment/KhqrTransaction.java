@@ -0,0 +1,51 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+import java.util.Map;
+
+/**
+ * A KHQR transaction the Bakong gateway reports as paid.
+ * Parsed from the {@code data} object of a successful md5 lookup, single or list.
+ */
+public record KhqrTransaction(
+        String md5,
+        String gatewayReference,
+        double amount,
+        String currency,
+        String rawResponse
+) {
+
+    private static final String[] REFERENCE_KEYS = {"transactionId", "externalRef", "instructionRef", "trackingId"};
+
+    public static KhqrTransaction fromGatewayData(String md5, Object data, String rawResponse) {
+        String gatewayReference = null;
+        double amount = 0.0;
+        String currency = "USD";
+
+        if (data instanceof Map<?, ?> fields) {
+            gatewayReference = extractGatewayReference(fields);
+
+            Object amountObj = fields.get("amount");
+            if (amountObj != null) {
+                amount = Double.parseDouble(String.valueOf(amountObj));
+            }
+
+            Object currencyObj = fields.get("currency");
+            if (currencyObj != null) {
+                currency = String.valueOf(currencyObj);
+            }
+        }
+        return new KhqrTransaction(md5, gatewayReference, amount, currency, rawResponse);
+    }
+
+    private static String extractGatewayReference(Map<?, ?> data) {
+        for (String key : REFERENCE_KEYS) {
+            Object raw = data.get(key);
+            if (raw == null) continue;
+            String normalized = String.valueOf(raw).trim();
+            if (!normalized.isEmpty() && !"null".equalsIgnoreCase(normalized)) {
+                return normalized;
+            }
+        }
+        return null;
+    }
+}
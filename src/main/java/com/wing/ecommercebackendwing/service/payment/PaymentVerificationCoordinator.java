@@ -0,0 +1,146 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.wing.ecommercebackendwing.dto.response.payment.PaymentVerificationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses payment verification polls for the same md5 into one check.
+ *
+ * Callers arriving while a check is running wait for it and get the same result. The result is
+ * then kept in memory: an unpaid answer for the cooldown, so polls inside it are served without
+ * touching the database or the gateway, and a paid or expired answer for much longer since it
+ * cannot change. Entries are keyed by md5 and the polling user, so nobody can read or join a
+ * check for a payment they do not own.
+ */
+@Component
+@Slf4j
+public class PaymentVerificationCoordinator {
+
+    private static final String ALREADY_COMPLETED = "Payment already completed";
+
+    private final ConcurrentMap<Key, CompletableFuture<PaymentVerificationResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<Key, PaymentVerificationResponse> recent;
+
+    @Autowired
+    public PaymentVerificationCoordinator(
+            @Value("${app.payment-verification.cooldown-seconds:5}") long cooldownSeconds,
+            @Value("${app.payment-verification.final-state-ttl-seconds:600}") long finalStateTtlSeconds,
+            @Value("${app.payment-verification.max-entries:50000}") long maxEntries) {
+        this(cooldownSeconds, finalStateTtlSeconds, maxEntries, Ticker.systemTicker());
+    }
+
+    PaymentVerificationCoordinator(long cooldownSeconds, long finalStateTtlSeconds, long maxEntries, Ticker ticker) {
+        Duration cooldown = Duration.ofSeconds(Math.max(0, cooldownSeconds));
+        Duration finalStateTtl = Duration.ofSeconds(Math.max(0, finalStateTtlSeconds));
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxEntries))
+                .expireAfter(Expiry.<Key, PaymentVerificationResponse>creating(
+                        (key, response) -> isFinal(response) ? finalStateTtl : cooldown))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Returns the recent answer for this md5 and user, joins a check already running for them, or
+     * runs {@code check} and shares its answer. Each caller gets its own copy of the response.
+     */
+    public PaymentVerificationResponse verify(String md5, UUID userId, Supplier<PaymentVerificationResponse> check) {
+        Key key = new Key(md5, userId);
+        PaymentVerificationResponse cached = recent.getIfPresent(key);
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        CompletableFuture<PaymentVerificationResponse> mine = new CompletableFuture<>();
+        CompletableFuture<PaymentVerificationResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.debug("Joining in-flight verification for MD5: {}", md5);
+            return copy(await(running));
+        }
+
+        try {
+            PaymentVerificationResponse response = check.get();
+            // Cache before leaving the in-flight map so a late caller finds one or the other.
+            recent.put(key, asRecorded(response));
+            mine.complete(response);
+            return copy(response);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Records that the gateway was just checked for this payment and it is not paid yet,
+     * so client polls inside the cooldown do not repeat the check. A final answer is kept.
+     */
+    public void recordPending(String md5, UUID userId) {
+        PaymentVerificationResponse pending = PaymentVerificationResponse.builder()
+                .isPaid(false)
+                .expired(false)
+                .message("PENDING")
+                .build();
+        recent.asMap().compute(new Key(md5, userId), (key, current) -> current != null && isFinal(current) ? current : pending);
+    }
+
+    /**
+     * Drops the remembered answer after the payment changed state outside a client poll.
+     */
+    public void invalidate(String md5, UUID userId) {
+        recent.invalidate(new Key(md5, userId));
+    }
+
+    private static PaymentVerificationResponse await(CompletableFuture<PaymentVerificationResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isFinal(PaymentVerificationResponse response) {
+        return response.isPaid() || response.isExpired();
+    }
+
+    /** Later polls of a settled payment read the same as a lookup of a completed payment. */
+    private static PaymentVerificationResponse asRecorded(PaymentVerificationResponse response) {
+        PaymentVerificationResponse recorded = copy(response);
+        if (recorded.isPaid()) {
+            recorded.setMessage(ALREADY_COMPLETED);
+        }
+        return recorded;
+    }
+
+    private static PaymentVerificationResponse copy(PaymentVerificationResponse response) {
+        return PaymentVerificationResponse.builder()
+                .isPaid(response.isPaid())
+                .expired(response.isExpired())
+                .paidAmount(response.getPaidAmount())
+                .currency(response.getCurrency())
+                .message(response.getMessage())
+                .build();
+    }
+
+    private record Key(String md5, UUID userId) {
+    }
+}
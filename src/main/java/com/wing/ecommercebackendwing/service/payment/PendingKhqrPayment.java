@@ -0,0 +1,14 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns the reconciler needs from a PENDING KHQR payment, without loading the entity.
+ */
+public record PendingKhqrPayment(UUID id, String md5, Instant expiresAt, UUID userId) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,13 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import java.util.UUID;
+
+/**
+ * Display name of a category or merchant facet value; categories also carry their parent.
+ */
+public record FacetLabel(UUID id, UUID parentId, String name) {
+
+    public FacetLabel(UUID id, String name) {
+        this(id, null, name);
+    }
+}
@@ -0,0 +1,440 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.dto.response.product.ProductFacetsResponse;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+
+/**
+ * Facet attributes of every product, laid out for counting. Not thread-safe; see
+ * {@link ProductFacetIndex} for locking.
+ *
+ * Each product gets a dense document number. Low-cardinality attributes (price bucket, rating
+ * band, in stock, featured) are one bitset per value, so a filter on them is a handful of bitset
+ * unions. Category and merchant can have thousands of values, which as bitsets would cost
+ * products x values bits, so they are kept as one ordinal per document and filtered with a scan.
+ * A write only flips the bits of one document; numbers of removed products are reused.
+ */
+final class FacetTable {
+
+    private static final double[] RATING_BOUNDS = {1, 2, 3, 4};
+    private static final int INITIAL_CAPACITY = 1024;
+    /** Guards ancestor walks against a parent cycle in bad category data. */
+    private static final int MAX_CATEGORY_DEPTH = 32;
+
+    enum Dimension { CATEGORY, MERCHANT, PRICE, RATING, IN_STOCK }
+
+    /** The listing filter, with the text query already resolved to product ids. */
+    record Criteria(UUID categoryId, UUID merchantId, BigDecimal minPrice, BigDecimal maxPrice,
+                    BigDecimal minRating, Boolean inStock, Boolean featured, Collection<UUID> textMatches) {
+    }
+
+    private final BigDecimal[] priceBoundValues;
+    private final double[] priceBounds;
+    private final int maxValues;
+
+    private final Map<UUID, Integer> docByProduct = new HashMap<>();
+    private final ArrayDeque<Integer> freeDocs = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final BitSet featured = new BitSet();
+    private final BitSet[] priceDocs;
+    private final BitSet[] ratingDocs;
+    private final Values categories = new Values();
+    private final Values merchants = new Values();
+
+    private int[] categoryOf = new int[INITIAL_CAPACITY];
+    private int[] merchantOf = new int[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+    private byte[] priceBucketOf = new byte[INITIAL_CAPACITY];
+    private byte[] ratingBandOf = new byte[INITIAL_CAPACITY];
+    private int nextDoc;
+
+    FacetTable(List<BigDecimal> priceBounds, int maxValues) {
+        this.priceBoundValues = priceBounds.stream().sorted().distinct().toArray(BigDecimal[]::new);
+        this.priceBounds = Arrays.stream(priceBoundValues).mapToDouble(BigDecimal::doubleValue).toArray();
+        this.maxValues = Math.max(1, maxValues);
+        this.priceDocs = newBitSets(this.priceBounds.length + 1);
+        this.ratingDocs = newBitSets(RATING_BOUNDS.length + 1);
+    }
+
+    void labelCategories(Collection<FacetLabel> labels) {
+        labels.forEach(label -> categories.ordinal(label.id()));
+        for (FacetLabel label : labels) {
+            int ordinal = categories.ordinal(label.id());
+            categories.names.set(ordinal, label.name());
+            categories.parents.set(ordinal, label.parentId() != null ? categories.ordinal(label.parentId()) : -1);
+        }
+    }
+
+    void labelMerchants(Collection<FacetLabel> labels) {
+        for (FacetLabel label : labels) {
+            merchants.names.set(merchants.ordinal(label.id()), label.name());
+        }
+    }
+
+    void upsert(ProductFacetDocument document) {
+        Integer existing = docByProduct.get(document.id());
+        int doc;
+        if (existing != null) {
+            doc = existing;
+            priceDocs[priceBucketOf[doc]].clear(doc);
+            ratingDocs[ratingBandOf[doc]].clear(doc);
+        } else {
+            doc = freeDocs.isEmpty() ? nextDoc++ : freeDocs.pop();
+            ensureCapacity(doc + 1);
+            docByProduct.put(document.id(), doc);
+        }
+
+        categoryOf[doc] = document.categoryId() != null ? categories.ordinal(document.categoryId()) : -1;
+        merchantOf[doc] = document.merchantId() != null ? merchants.ordinal(document.merchantId()) : -1;
+        prices[doc] = document.price() != null ? document.price().doubleValue() : 0;
+        priceBucketOf[doc] = (byte) bucket(priceBounds, prices[doc]);
+        priceDocs[priceBucketOf[doc]].set(doc);
+        setRating(doc, document.rating());
+        live.set(doc);
+        inStock.set(doc, document.stock() != null && document.stock() > 0);
+        featured.set(doc, Boolean.TRUE.equals(document.featured()));
+    }
+
+    void remove(UUID productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        inStock.clear(doc);
+        featured.clear(doc);
+        priceDocs[priceBucketOf[doc]].clear(doc);
+        ratingDocs[ratingBandOf[doc]].clear(doc);
+        freeDocs.push(doc);
+    }
+
+    void setStock(UUID productId, int stock) {
+        Integer doc = docByProduct.get(productId);
+        if (doc != null) {
+            inStock.set(doc, stock > 0);
+        }
+    }
+
+    void setRating(UUID productId, BigDecimal rating) {
+        Integer doc = docByProduct.get(productId);
+        if (doc != null) {
+            ratingDocs[ratingBandOf[doc]].clear(doc);
+            setRating(doc, rating);
+        }
+    }
+
+    int size() {
+        return docByProduct.size();
+    }
+
+    /**
+     * Counts for every facet under {@code criteria}. Each facet is counted over the products that
+     * pass every filter except the one on that facet, so facets without a filter share one pass
+     * over the fully filtered set and each filtered facet adds one more.
+     */
+    ProductFacetsResponse count(Criteria criteria) {
+        BitSet common = (BitSet) live.clone();
+        if (criteria.featured() != null) {
+            if (criteria.featured()) {
+                common.and(featured);
+            } else {
+                common.andNot(featured);
+            }
+        }
+        if (criteria.textMatches() != null) {
+            BitSet matches = new BitSet();
+            for (UUID productId : criteria.textMatches()) {
+                Integer doc = docByProduct.get(productId);
+                if (doc != null) {
+                    matches.set(doc);
+                }
+            }
+            common.and(matches);
+        }
+
+        Map<Dimension, BitSet> filters = new EnumMap<>(Dimension.class);
+        if (criteria.categoryId() != null) {
+            filters.put(Dimension.CATEGORY, categoryFilter(common, criteria.categoryId()));
+        }
+        if (criteria.merchantId() != null) {
+            filters.put(Dimension.MERCHANT, merchantFilter(common, criteria.merchantId()));
+        }
+        if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+            filters.put(Dimension.PRICE, rangeFilter(priceDocs, priceBounds, prices,
+                    criteria.minPrice() != null ? criteria.minPrice().doubleValue() : Double.NEGATIVE_INFINITY,
+                    criteria.maxPrice() != null ? criteria.maxPrice().doubleValue() : Double.POSITIVE_INFINITY));
+        }
+        if (criteria.minRating() != null) {
+            filters.put(Dimension.RATING, rangeFilter(ratingDocs, RATING_BOUNDS, ratings,
+                    criteria.minRating().doubleValue(), Double.POSITIVE_INFINITY));
+        }
+        if (Boolean.TRUE.equals(criteria.inStock())) {
+            filters.put(Dimension.IN_STOCK, inStock);
+        }
+
+        Tally tally = new Tally();
+        BitSet matching = without(common, filters, null);
+        EnumSet<Dimension> unfiltered = EnumSet.allOf(Dimension.class);
+        unfiltered.removeAll(filters.keySet());
+        tally.count(matching, unfiltered);
+        for (Dimension dimension : filters.keySet()) {
+            tally.count(without(common, filters, dimension), EnumSet.of(dimension));
+        }
+
+        return ProductFacetsResponse.builder()
+                .total(matching.cardinality())
+                .inStock(tally.inStockCount)
+                .categories(categoryCounts(tally.byCategory, criteria.categoryId()))
+                .merchants(top(merchants, tally.byMerchant, ordinal -> true))
+                .priceRanges(priceCounts(tally.byPrice))
+                .ratings(ratingCounts(tally.byRating))
+                .build();
+    }
+
+    private BitSet without(BitSet common, Map<Dimension, BitSet> filters, Dimension skipped) {
+        BitSet result = (BitSet) common.clone();
+        filters.forEach((dimension, filter) -> {
+            if (dimension != skipped) {
+                result.and(filter);
+            }
+        });
+        return result;
+    }
+
+    private BitSet categoryFilter(BitSet candidates, UUID categoryId) {
+        Integer root = categories.ordinals.get(categoryId);
+        BitSet result = new BitSet();
+        if (root == null) {
+            return result;
+        }
+        boolean[] inTree = new boolean[categories.size()];
+        for (int ordinal = 0; ordinal < inTree.length; ordinal++) {
+            inTree[ordinal] = isWithin(ordinal, root);
+        }
+        for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+            if (categoryOf[doc] >= 0 && inTree[categoryOf[doc]]) {
+                result.set(doc);
+            }
+        }
+        return result;
+    }
+
+    private BitSet merchantFilter(BitSet candidates, UUID merchantId) {
+        Integer ordinal = merchants.ordinals.get(merchantId);
+        BitSet result = new BitSet();
+        if (ordinal == null) {
+            return result;
+        }
+        for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+            if (merchantOf[doc] == ordinal) {
+                result.set(doc);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Documents with {@code min <= value <= max}: whole buckets inside the range are unioned, and
+     * only the buckets the bounds cut through are checked document by document.
+     */
+    private static BitSet rangeFilter(BitSet[] buckets, double[] bounds, double[] values, double min, double max) {
+        BitSet result = new BitSet();
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            double low = bucket == 0 ? Double.NEGATIVE_INFINITY : bounds[bucket - 1];
+            double high = bucket == bounds.length ? Double.POSITIVE_INFINITY : bounds[bucket];
+            if (high <= min || low > max) {
+                continue;
+            }
+            if (low >= min && high <= max) {
+                result.or(buckets[bucket]);
+                continue;
+            }
+            BitSet docs = buckets[bucket];
+            for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+                if (values[doc] >= min && values[doc] <= max) {
+                    result.set(doc);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Subcategories of the selected category, or the top-level ones when none is selected. */
+    private List<ProductFacetsResponse.ValueCount> categoryCounts(long[] direct, UUID selected) {
+        Integer selectedOrdinal = selected != null ? categories.ordinals.get(selected) : null;
+        int parent = selectedOrdinal != null ? selectedOrdinal : -1;
+        if (selected != null && selectedOrdinal == null) {
+            return List.of();
+        }
+        long[] rolledUp = Arrays.copyOf(direct, direct.length);
+        for (int ordinal = 0; ordinal < direct.length; ordinal++) {
+            if (direct[ordinal] == 0) {
+                continue;
+            }
+            int ancestor = categories.parents.get(ordinal);
+            for (int depth = 0; ancestor >= 0 && depth < MAX_CATEGORY_DEPTH; depth++) {
+                rolledUp[ancestor] += direct[ordinal];
+                ancestor = categories.parents.get(ancestor);
+            }
+        }
+        return top(categories, rolledUp, ordinal -> categories.parents.get(ordinal) == parent);
+    }
+
+    private boolean isWithin(int ordinal, int root) {
+        for (int depth = 0; ordinal >= 0 && depth < MAX_CATEGORY_DEPTH; depth++) {
+            if (ordinal == root) {
+                return true;
+            }
+            ordinal = categories.parents.get(ordinal);
+        }
+        return false;
+    }
+
+    private List<ProductFacetsResponse.ValueCount> top(Values values, long[] counts, IntPredicate include) {
+        List<ProductFacetsResponse.ValueCount> result = new ArrayList<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0 && include.test(ordinal)) {
+                result.add(ProductFacetsResponse.ValueCount.builder()
+                        .id(values.ids.get(ordinal))
+                        .name(values.names.get(ordinal))
+                        .count(counts[ordinal])
+                        .build());
+            }
+        }
+        result.sort(Comparator.comparingLong(ProductFacetsResponse.ValueCount::getCount).reversed()
+                .thenComparing(count -> count.getName() != null ? count.getName() : ""));
+        return result.size() > maxValues ? List.copyOf(result.subList(0, maxValues)) : result;
+    }
+
+    private List<ProductFacetsResponse.PriceRangeCount> priceCounts(long[] counts) {
+        List<ProductFacetsResponse.PriceRangeCount> result = new ArrayList<>(counts.length);
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            result.add(ProductFacetsResponse.PriceRangeCount.builder()
+                    .min(bucket == 0 ? BigDecimal.ZERO : priceBoundValues[bucket - 1])
+                    .max(bucket == priceBounds.length ? null : priceBoundValues[bucket])
+                    .count(counts[bucket])
+                    .build());
+        }
+        return result;
+    }
+
+    private static List<ProductFacetsResponse.RatingCount> ratingCounts(long[] bands) {
+        List<ProductFacetsResponse.RatingCount> result = new ArrayList<>(RATING_BOUNDS.length);
+        long andUp = bands[bands.length - 1];
+        for (int band = RATING_BOUNDS.length; band >= 1; band--) {
+            if (band < RATING_BOUNDS.length) {
+                andUp += bands[band];
+            }
+            result.add(ProductFacetsResponse.RatingCount.builder().minRating(band).count(andUp).build());
+        }
+        return result;
+    }
+
+    private void setRating(int doc, BigDecimal rating) {
+        ratings[doc] = rating != null ? rating.doubleValue() : 0;
+        ratingBandOf[doc] = (byte) bucket(RATING_BOUNDS, ratings[doc]);
+        ratingDocs[ratingBandOf[doc]].set(doc);
+    }
+
+    /** Index of the first bound above {@code value}, or the number of bounds. */
+    private static int bucket(double[] bounds, double value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value >= bounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > categoryOf.length) {
+            int grown = Math.max(capacity, categoryOf.length + (categoryOf.length >> 1));
+            categoryOf = Arrays.copyOf(categoryOf, grown);
+            merchantOf = Arrays.copyOf(merchantOf, grown);
+            prices = Arrays.copyOf(prices, grown);
+            ratings = Arrays.copyOf(ratings, grown);
+            priceBucketOf = Arrays.copyOf(priceBucketOf, grown);
+            ratingBandOf = Arrays.copyOf(ratingBandOf, grown);
+        }
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] sets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            sets[i] = new BitSet();
+        }
+        return sets;
+    }
+
+    /** Category or merchant ids by ordinal, with display names and (for categories) parents. */
+    private static final class Values {
+        final Map<UUID, Integer> ordinals = new HashMap<>();
+        final List<UUID> ids = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<Integer> parents = new ArrayList<>();
+
+        int ordinal(UUID id) {
+            return ordinals.computeIfAbsent(id, key -> {
+                ids.add(key);
+                names.add(null);
+                parents.add(-1);
+                return ids.size() - 1;
+            });
+        }
+
+        int size() {
+            return ids.size();
+        }
+    }
+
+    /** Per-value counts from one or more passes over matching documents. */
+    private final class Tally {
+        final long[] byCategory = new long[categories.size()];
+        final long[] byMerchant = new long[merchants.size()];
+        final long[] byPrice = new long[priceDocs.length];
+        final long[] byRating = new long[ratingDocs.length];
+        long inStockCount;
+
+        void count(BitSet docs, EnumSet<Dimension> dimensions) {
+            if (dimensions.isEmpty()) {
+                return;
+            }
+            boolean category = dimensions.contains(Dimension.CATEGORY);
+            boolean merchant = dimensions.contains(Dimension.MERCHANT);
+            boolean price = dimensions.contains(Dimension.PRICE);
+            boolean rating = dimensions.contains(Dimension.RATING);
+            boolean stock = dimensions.contains(Dimension.IN_STOCK);
+            for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+                if (category && categoryOf[doc] >= 0) {
+                    byCategory[categoryOf[doc]]++;
+                }
+                if (merchant && merchantOf[doc] >= 0) {
+                    byMerchant[merchantOf[doc]]++;
+                }
+                if (price) {
+                    byPrice[priceBucketOf[doc]]++;
+                }
+                if (rating) {
+                    byRating[ratingBandOf[doc]]++;
+                }
+                if (stock && inStock.get(doc)) {
+                    inStockCount++;
+                }
+            }
+        }
+    }
+}
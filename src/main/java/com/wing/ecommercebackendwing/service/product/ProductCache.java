@@ -0,0 +1,194 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.wing.ecommercebackendwing.dto.mapper.ProductMapper;
+import com.wing.ecommercebackendwing.dto.response.product.ProductResponse;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of product detail responses, by slug and by id.
+ *
+ * A slug maps to a product id, and the id to its response, so a stock change only has to touch
+ * one entry. Slugs that do not exist are remembered for a short time so that crawlers and broken
+ * links do not reach the database on every request.
+ *
+ * Every write to a product must go through {@link #evict} or {@link #patchStock}. Inside a
+ * transaction both take effect when it completes, so a concurrent read cannot re-cache the
+ * pre-commit row.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+
+    private static final UUID MISSING = new UUID(0L, 0L);
+
+    private final ProductRepository productRepository;
+    private final Cache<String, UUID> slugs;
+    private final Cache<UUID, ProductResponse> products;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder stockPatches = new LongAdder();
+
+    public ProductCache(ProductRepository productRepository,
+                        @Value("${app.product-cache.max-size:10000}") long maxSize,
+                        @Value("${app.product-cache.ttl-seconds:600}") long ttlSeconds,
+                        @Value("${app.product-cache.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+        this.productRepository = productRepository;
+        Duration ttl = Duration.ofSeconds(Math.max(1, ttlSeconds));
+        Duration negativeTtl = Duration.ofSeconds(Math.max(1, negativeTtlSeconds));
+        this.products = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxSize))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.slugs = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxSize * 2))
+                .expireAfter(Expiry.<String, UUID>creating((slug, id) -> MISSING.equals(id) ? negativeTtl : ttl))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the product with this slug, loading it on a miss. Callers get their own copy.
+     */
+    public Optional<ProductResponse> getBySlug(String slug) {
+        boolean loaded = false;
+        UUID id = slugs.getIfPresent(slug);
+        if (id == null) {
+            loaded = true;
+            id = slugs.get(slug, this::loadSlug);
+        }
+        if (MISSING.equals(id)) {
+            record(loaded);
+            if (!loaded) {
+                negativeHits.increment();
+            }
+            return Optional.empty();
+        }
+
+        ProductResponse product = products.getIfPresent(id);
+        if (product == null) {
+            loaded = true;
+            product = products.get(id, this::loadById);
+        }
+        record(loaded);
+        if (product == null) {
+            // Deleted behind our back; forget the slug too.
+            slugs.invalidate(slug);
+            return Optional.empty();
+        }
+        return Optional.of(product.toBuilder().build());
+    }
+
+    /**
+     * Drops the product and its slug, including a remembered "not found" for a new slug.
+     */
+    public void evict(UUID productId, String slug) {
+        afterCompletion(() -> {
+            if (productId != null) {
+                products.invalidate(productId);
+            }
+            if (slug != null) {
+                slugs.invalidate(slug);
+            }
+        });
+    }
+
+    /**
+     * Updates the cached stock of products whose row was changed by a stock movement, without
+     * dropping the entries. Takes absolute values read under the row lock, and is applied only
+     * after commit. Products that are not cached are left alone.
+     */
+    public void patchStock(Map<UUID, Integer> stockByProductId) {
+        if (stockByProductId.isEmpty()) {
+            return;
+        }
+        Runnable patch = () -> stockByProductId.forEach((id, stock) ->
+                products.asMap().computeIfPresent(id, (key, cached) -> {
+                    stockPatches.increment();
+                    return cached.toBuilder().stock(stock).build();
+                }));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    patch.run();
+                }
+            });
+        } else {
+            patch.run();
+        }
+    }
+
+    /**
+     * Adds flushed view and sold counts to a cached product, so it keeps up with the counters
+     * without being dropped. Products that are not cached are left alone.
+     */
+    public void patchCounts(UUID productId, int views, int sold) {
+        products.asMap().computeIfPresent(productId, (key, cached) -> cached.toBuilder()
+                .viewCount(Math.max(0, (cached.getViewCount() != null ? cached.getViewCount() : 0) + views))
+                .soldCount(Math.max(0, (cached.getSoldCount() != null ? cached.getSoldCount() : 0) + sold))
+                .build());
+    }
+
+    public ProductCacheStats stats() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return new ProductCacheStats(
+                hitCount,
+                misses.sum(),
+                lookups == 0 ? 0.0 : (double) hitCount / lookups,
+                negativeHits.sum(),
+                products.stats().evictionCount() + slugs.stats().evictionCount(),
+                stockPatches.sum(),
+                products.estimatedSize()
+        );
+    }
+
+    private void record(boolean loaded) {
+        (loaded ? misses : hits).increment();
+    }
+
+    private UUID loadSlug(String slug) {
+        return productRepository.findBySlug(slug)
+                .map(product -> {
+                    products.put(product.getId(), ProductMapper.toResponse(product));
+                    return product.getId();
+                })
+                .orElse(MISSING);
+    }
+
+    private ProductResponse loadById(UUID id) {
+        return productRepository.findById(id).map(ProductMapper::toResponse).orElse(null);
+    }
+
+    /**
+     * Runs {@code action} now and, inside a transaction, again once it completes, so a concurrent
+     * read cannot re-cache the pre-commit product.
+     */
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+        action.run();
+    }
+}
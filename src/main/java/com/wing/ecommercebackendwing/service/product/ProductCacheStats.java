@@ -0,0 +1,22 @@
+package com.wing.ecommercebackendwing.service.product;
+
+/**
+ * Counters of {@link ProductCache} since startup.
+ *
+ * @param hits          slug lookups answered from memory, including known-missing slugs
+ * @param misses        slug lookups that went to the database
+ * @param negativeHits  lookups of unknown slugs answered "not found" from memory
+ * @param evictions     entries dropped for size or age, not explicit invalidations
+ * @param stockPatches  entries updated in place after a stock change
+ * @param entries       products currently cached
+ */
+public record ProductCacheStats(
+        long hits,
+        long misses,
+        double hitRate,
+        long negativeHits,
+        long evictions,
+        long stockPatches,
+        long entries
+) {
+}
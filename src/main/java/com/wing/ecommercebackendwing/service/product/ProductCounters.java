@@ -0,0 +1,294 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind view and sales counters for products.
+ *
+ * Views and sales are added to a pair of {@link LongAdder}s per product, so a hot product's
+ * counter takes concurrent increments without a shared lock or a row write. {@link #flush} drains
+ * the adders every few seconds and adds the totals to {@code products} in one UPDATE per batch,
+ * skipping rows a checkout holds locked rather than waiting on them; those deltas stay pending for
+ * the next flush. The last flush runs on graceful shutdown. Reads merge the pending deltas into
+ * the persisted counts through {@link #views} and {@link #sold}.
+ */
+@Component
+@Slf4j
+public class ProductCounters {
+
+    /** Flushes a product may go without a write before its adders are dropped. */
+    private static final int IDLE_FLUSHES = 2;
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate flushTransaction;
+    private final int flushBatchSize;
+    private final ConcurrentHashMap<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    /** Deltas being written by the running flush, still counted by reads until they land. */
+    private volatile Map<UUID, Delta> inFlight = Map.of();
+
+    public ProductCounters(ProductRepository productRepository,
+                           ProductCache productCache,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.product-counters.flush-batch-size:1000}") int flushBatchSize) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+    }
+
+    public void recordView(UUID productId) {
+        if (productId != null) {
+            add(productId, 1, 0);
+        }
+    }
+
+    /**
+     * Adds sold quantities, negative for returned stock, once the surrounding transaction commits.
+     */
+    public void recordSales(Map<UUID, Integer> quantityByProduct) {
+        if (quantityByProduct.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> sales = Map.copyOf(quantityByProduct);
+        Runnable record = () -> sales.forEach((id, quantity) -> add(id, 0, quantity));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+
+    /**
+     * Drops anything still pending for a deleted product, so flushes stop retrying it.
+     */
+    public void forget(UUID productId) {
+        pending.remove(productId);
+    }
+
+    /** The persisted view count plus views not flushed yet. */
+    public int views(UUID productId, Integer persisted) {
+        Pending counts = pending.get(productId);
+        Delta flushing = inFlight.get(productId);
+        long live = (persisted != null ? persisted : 0)
+                + (counts != null ? counts.views.sum() : 0)
+                + (flushing != null ? flushing.views() : 0);
+        return clamp(live);
+    }
+
+    /** The persisted sold count plus sales not flushed yet. */
+    public int sold(UUID productId, Integer persisted) {
+        Pending counts = pending.get(productId);
+        Delta flushing = inFlight.get(productId);
+        long live = (persisted != null ? persisted : 0)
+                + (counts != null ? counts.sold.sum() : 0)
+                + (flushing != null ? flushing.sold() : 0);
+        return clamp(live);
+    }
+
+    @Scheduled(fixedDelayString = "${app.product-counters.flush-interval-ms:10000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int written = flush();
+        int left = pendingProducts();
+        if (left > 0) {
+            log.warn("Product counters: {} products still had unflushed counts at shutdown", left);
+        } else {
+            log.info("Product counters flushed {} products at shutdown", written);
+        }
+    }
+
+    /**
+     * Writes every pending delta. Returns how many products were updated; those whose row was
+     * locked keep their deltas for the next flush, as do all of a batch that fails.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            Map<UUID, Delta> deltas = drain();
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+            inFlight = new ConcurrentHashMap<>(deltas);
+            int written = 0;
+            int requeued = 0;
+            List<Map.Entry<UUID, Delta>> batch = new ArrayList<>(Math.min(flushBatchSize, deltas.size()));
+            for (Map.Entry<UUID, Delta> entry : new TreeMap<>(deltas).entrySet()) {
+                batch.add(entry);
+                if (batch.size() == flushBatchSize) {
+                    written += write(batch);
+                    requeued += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                written += write(batch);
+                requeued += batch.size();
+            }
+            requeued -= written;
+            if (requeued > 0) {
+                log.debug("Product counters: {} written, {} deferred to the next flush", written, requeued);
+            }
+            return written;
+        } finally {
+            inFlight = Map.of();
+            flushLock.unlock();
+        }
+    }
+
+    int pendingProducts() {
+        int products = 0;
+        for (Pending counts : pending.values()) {
+            if (counts.views.sum() != 0 || counts.sold.sum() != 0) {
+                products++;
+            }
+        }
+        return products;
+    }
+
+    private Map<UUID, Delta> drain() {
+        Map<UUID, Delta> deltas = new HashMap<>();
+        List<UUID> idle = new ArrayList<>();
+        for (Map.Entry<UUID, Pending> entry : pending.entrySet()) {
+            Pending counts = entry.getValue();
+            if (!collect(deltas, entry.getKey(), counts) && ++counts.idleFlushes >= IDLE_FLUSHES) {
+                idle.add(entry.getKey());
+            }
+        }
+        if (!idle.isEmpty()) {
+            evictIdle(idle, deltas);
+        }
+        return deltas;
+    }
+
+    /**
+     * Drops idle adder pairs, taking in anything that arrived since they were drained. A writer
+     * still holding one hands its late counts back through {@link #add}.
+     */
+    private void evictIdle(List<UUID> idle, Map<UUID, Delta> deltas) {
+        for (UUID productId : idle) {
+            Pending counts = pending.get(productId);
+            if (counts != null && pending.remove(productId, counts)) {
+                collect(deltas, productId, counts);
+            }
+        }
+    }
+
+    private static boolean collect(Map<UUID, Delta> deltas, UUID productId, Pending counts) {
+        long views = counts.views.sumThenReset();
+        long sold = counts.sold.sumThenReset();
+        if (views == 0 && sold == 0) {
+            return false;
+        }
+        counts.idleFlushes = 0;
+        deltas.merge(productId, new Delta(views, sold), Delta::plus);
+        return true;
+    }
+
+    /**
+     * Writes one batch in its own short transaction and puts back whatever did not land.
+     */
+    private int write(List<Map.Entry<UUID, Delta>> batch) {
+        int size = batch.size();
+        UUID[] ids = new UUID[size];
+        Integer[] views = new Integer[size];
+        Integer[] sold = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = batch.get(i).getKey();
+            views[i] = clamp(batch.get(i).getValue().views());
+            sold[i] = clamp(batch.get(i).getValue().sold());
+        }
+
+        Set<UUID> updated;
+        try {
+            List<UUID> returned = flushTransaction.execute(status -> productRepository.addCounts(ids, views, sold));
+            updated = returned != null ? new HashSet<>(returned) : Set.of();
+        } catch (RuntimeException e) {
+            log.warn("Product counter flush of {} products failed; retrying next flush", size, e);
+            updated = Set.of();
+        }
+
+        for (Map.Entry<UUID, Delta> entry : batch) {
+            Delta delta = entry.getValue();
+            if (updated.contains(entry.getKey())) {
+                productCache.patchCounts(entry.getKey(), (int) delta.views(), (int) delta.sold());
+            } else {
+                // Until the next line, reads count this delta twice: in inFlight and in the adders.
+                add(entry.getKey(), delta.views(), delta.sold());
+            }
+            inFlight.remove(entry.getKey());
+        }
+        return updated.size();
+    }
+
+    /**
+     * Adds to a product's adders. If the adders were evicted meanwhile, whatever the flush did not
+     * collect from them is taken back and added to the product's current pair; the flush and the
+     * writer each reset what they take, so every increment lands exactly once.
+     */
+    private void add(UUID productId, long views, long sold) {
+        Pending counts = pending.computeIfAbsent(productId, id -> new Pending());
+        if (views != 0) {
+            counts.views.add(views);
+        }
+        if (sold != 0) {
+            counts.sold.add(sold);
+        }
+        if (pending.get(productId) != counts) {
+            long lateViews = counts.views.sumThenReset();
+            long lateSold = counts.sold.sumThenReset();
+            if (lateViews != 0 || lateSold != 0) {
+                add(productId, lateViews, lateSold);
+            }
+        }
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    private static final class Pending {
+        final LongAdder views = new LongAdder();
+        final LongAdder sold = new LongAdder();
+        /** Only touched by the flushing thread. */
+        int idleFlushes;
+    }
+
+    private record Delta(long views, long sold) {
+
+        Delta plus(Delta other) {
+            return new Delta(views + other.views, sold + other.sold);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.exception.custom.BadRequestException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque keyset position: the sort spec and the sort key values of the last product on a page.
+ * Clients only ever pass it back, so the format can change between releases as long as old
+ * cursors fail cleanly.
+ */
+final class ProductCursor {
+
+    private static final int VERSION = 1;
+
+    private ProductCursor() {
+    }
+
+    static String encode(String spec, List<String> values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(spec);
+            out.writeByte(values.size());
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * The key values stored in {@code cursor}, after checking it was issued for {@code sort}.
+     */
+    static List<String> decode(String cursor, ProductSort sort) {
+        String spec;
+        List<String> values = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            spec = in.readUTF();
+            int count = in.readByte();
+            for (int i = 0; i < count; i++) {
+                values.add(in.readUTF());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+        if (!spec.equals(sort.spec()) || values.size() != sort.keys().size()) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        return values;
+    }
+}
@@ -0,0 +1,94 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wing.ecommercebackendwing.dto.mapper.ProductMapper;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes the whole catalog to a response as it is read, for GET /api/products/all.
+ *
+ * Products are read as listing projections in keyset pages of {@code pageSize}, each page in its
+ * own short read, and serialized before the next page is fetched. No connection is held while the
+ * client downloads, so a slow reader costs the pool nothing, and the response is never held in
+ * full: memory stays flat whatever the catalog size. Pages are not one snapshot; a product added
+ * or removed mid-export may or may not appear, but none appears twice.
+ */
+@Component
+@Slf4j
+public class ProductExporter {
+
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    public enum Format {
+        /** One JSON array, the same shape the endpoint has always returned. */
+        JSON,
+        /** One product object per line. */
+        NDJSON
+    }
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final int pageSize;
+
+    public ProductExporter(ProductRepository productRepository,
+                           ObjectMapper objectMapper,
+                           @Value("${app.product-export.page-size:500}") int pageSize) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        // The response stream is flushed by the container as its buffer fills, not once per product.
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Streams every product to {@code out} in {@code format}. Returns the number written.
+     * An IOException, usually the client going away mid-download, stops the export.
+     */
+    public long export(Format format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // The servlet container owns the response stream.
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (format == Format.JSON) {
+                generator.writeStartArray();
+            }
+            UUID cursor = KEYSET_START;
+            List<ProductSummary> page;
+            do {
+                page = productRepository.findSummariesAfter(cursor, PageRequest.of(0, pageSize));
+                for (ProductSummary product : page) {
+                    writer.writeValue(generator, ProductMapper.toResponse(product));
+                    if (format == Format.NDJSON) {
+                        generator.writeRaw('\n');
+                    }
+                    count++;
+                }
+                if (!page.isEmpty()) {
+                    cursor = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == pageSize);
+            if (format == Format.JSON) {
+                generator.writeEndArray();
+            }
+        }
+        log.info("Exported {} products as {} in {} ms", count, format,
+                (System.nanoTime() - started) / 1_000_000);
+        return count;
+    }
+}
@@ -0,0 +1,32 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.model.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The product columns the facet index reads.
+ */
+public record ProductFacetDocument(
+        UUID id,
+        UUID categoryId,
+        UUID merchantId,
+        BigDecimal price,
+        BigDecimal rating,
+        Integer stock,
+        Boolean featured
+) {
+
+    public static ProductFacetDocument from(Product product) {
+        return new ProductFacetDocument(
+                product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getMerchant() != null ? product.getMerchant().getId() : null,
+                product.getPrice(),
+                product.getRating(),
+                product.getStockQuantity(),
+                product.getIsFeatured()
+        );
+    }
+}
@@ -0,0 +1,144 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.config.FacetProperties;
+import com.wing.ecommercebackendwing.config.SearchProperties;
+import com.wing.ecommercebackendwing.dto.request.product.ProductFilterRequest;
+import com.wing.ecommercebackendwing.dto.response.product.ProductFacetsResponse;
+import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.repository.MerchantRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.service.search.ProductSearchIndex;
+import com.wing.ecommercebackendwing.service.search.RebuildableIndex;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Facet counts for the product listing, held in memory on every node.
+ *
+ * Product writes and stock changes on this node update the table after commit, one product at a
+ * time. The periodic rebuild picks up writes made on other replicas and category or merchant
+ * renames.
+ */
+@Component
+public class ProductFacetIndex extends RebuildableIndex<FacetTable> {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final MerchantRepository merchantRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final SearchProperties searchProperties;
+    private final FacetProperties properties;
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             CategoryRepository categoryRepository,
+                             MerchantRepository merchantRepository,
+                             ProductSearchIndex productSearchIndex,
+                             SearchProperties searchProperties,
+                             FacetProperties properties) {
+        super("facet", newTable(properties), properties::isEnabled);
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.merchantRepository = merchantRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.searchProperties = searchProperties;
+        this.properties = properties;
+    }
+
+    /**
+     * Facet counts for the products matching {@code filter}, or empty while the table is being
+     * built, or when the filter has a search query and the search index is not ready to resolve it.
+     */
+    public Optional<ProductFacetsResponse> facets(ProductFilterRequest filter) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+        Collection<UUID> textMatches = null;
+        if (filter.getSearchQuery() != null && !filter.getSearchQuery().isBlank()) {
+            if (!productSearchIndex.isReady()) {
+                return Optional.empty();
+            }
+            textMatches = productSearchIndex.search(filter.getSearchQuery().trim(), 0,
+                    Math.max(1, searchProperties.getMaxFilterMatches())).productIds();
+        }
+        FacetTable.Criteria criteria = new FacetTable.Criteria(filter.getCategoryId(), filter.getMerchantId(),
+                filter.getMinPrice(), filter.getMaxPrice(), filter.getMinRating(),
+                filter.getInStock(), filter.getFeatured(), textMatches);
+        return Optional.of(read(table -> table.count(criteria)));
+    }
+
+    /**
+     * Adds or replaces a product once the surrounding transaction commits.
+     */
+    public void index(ProductFacetDocument document) {
+        afterCommit(table -> table.upsert(document));
+    }
+
+    /**
+     * Removes a product once the surrounding transaction commits.
+     */
+    public void remove(UUID productId) {
+        afterCommit(table -> table.remove(productId));
+    }
+
+    /**
+     * Records absolute stock levels once the surrounding transaction commits.
+     */
+    public void patchStock(Map<UUID, Integer> stockByProduct) {
+        if (stockByProduct.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> stock = Map.copyOf(stockByProduct);
+        afterCommit(table -> stock.forEach(table::setStock));
+    }
+
+    /**
+     * Records new average ratings once the surrounding transaction commits.
+     */
+    public void patchRating(Map<UUID, BigDecimal> ratingByProduct) {
+        if (ratingByProduct.isEmpty()) {
+            return;
+        }
+        Map<UUID, BigDecimal> ratings = Map.copyOf(ratingByProduct);
+        afterCommit(table -> ratings.forEach(table::setRating));
+    }
+
+    @Scheduled(initialDelayString = "${app.facets.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.facets.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    @Override
+    protected FacetTable load() {
+        FacetTable fresh = newTable(properties);
+        fresh.labelCategories(categoryRepository.findFacetLabels());
+        fresh.labelMerchants(merchantRepository.findFacetLabels());
+        int pageSize = Math.max(1, properties.getRebuildPageSize());
+        UUID cursor = KEYSET_START;
+        while (true) {
+            List<ProductFacetDocument> page = productRepository.findFacetDocumentsAfter(cursor, PageRequest.ofSize(pageSize));
+            page.forEach(fresh::upsert);
+            if (page.size() < pageSize) {
+                return fresh;
+            }
+            cursor = page.get(page.size() - 1).id();
+        }
+    }
+
+    @Override
+    protected String describe(FacetTable built) {
+        return built.size() + " products";
+    }
+
+    private static FacetTable newTable(FacetProperties properties) {
+        return new FacetTable(properties.getPriceBuckets(), properties.getMaxValues());
+    }
+}
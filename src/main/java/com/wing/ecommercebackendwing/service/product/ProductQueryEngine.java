@@ -0,0 +1,251 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.config.SearchProperties;
+import com.wing.ecommercebackendwing.dto.request.product.ProductFilterRequest;
+import com.wing.ecommercebackendwing.exception.custom.BadRequestException;
+import com.wing.ecommercebackendwing.service.category.CategoryTree;
+import com.wing.ecommercebackendwing.service.search.ProductSearchIndex;
+import com.wing.ecommercebackendwing.service.search.SearchHits;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Product listing query: every filter, the sort and the page position in one SQL statement.
+ *
+ * Filters combine freely. A category matches its whole subtree: the ids come precomputed from
+ * the {@link CategoryTree}, or from a recursive CTE over categories if the tree does not know the
+ * category yet. Text goes through the search index when it is ready, whose ranked matches are
+ * joined in with their rank so that relevance can be sorted on; until then it is a LIKE over name
+ * and description. Pages are keyset cursors rather than offsets: the next page starts strictly
+ * after the sort key values of the last row, so page 500 reads as few rows as page 1.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductQueryEngine {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final String DEFAULT_SORT = "-created";
+    private static final String SEARCH_SORT = "relevance";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductSearchIndex productSearchIndex;
+    private final SearchProperties searchProperties;
+    private final CategoryTree categoryTree;
+
+    /**
+     * Ids of one page of matching products in listing order, and the cursor for the next page.
+     */
+    public ProductSlice find(ProductFilterRequest filter) {
+        Optional<ProductQuery> query = build(filter);
+        if (query.isEmpty()) {
+            return ProductSlice.empty();
+        }
+        ProductQuery statement = query.get();
+        List<Row> rows = jdbcTemplate.query(connection -> prepare(connection, statement), rowMapper(statement.sort()));
+
+        boolean more = rows.size() > statement.limit();
+        List<Row> page = more ? rows.subList(0, statement.limit()) : rows;
+        String nextCursor = more ? ProductCursor.encode(statement.sort().spec(), page.get(page.size() - 1).keys()) : null;
+        return new ProductSlice(page.stream().map(Row::id).toList(), nextCursor);
+    }
+
+    /**
+     * The statement for {@code filter}, or empty when the search query cannot match anything.
+     */
+    Optional<ProductQuery> build(ProductFilterRequest filter) {
+        String text = filter.getSearchQuery() != null ? filter.getSearchQuery().trim() : "";
+        List<UUID> ranked = null;
+        if (!text.isEmpty() && productSearchIndex.isReady()) {
+            SearchHits hits = productSearchIndex.search(text, 0, Math.max(1, searchProperties.getMaxFilterMatches()));
+            if (hits.productIds().isEmpty()) {
+                return Optional.empty();
+            }
+            ranked = hits.productIds();
+        }
+        ProductSort sort = sort(filter.getSort(), !text.isEmpty(), ranked != null);
+        int limit = Math.max(1, Math.min(filter.getSize() != null ? filter.getSize() : 20, MAX_PAGE_SIZE));
+
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+
+        Optional<Set<UUID>> subtree = filter.getCategoryId() != null
+                ? categoryTree.subtree(filter.getCategoryId())
+                : Optional.empty();
+        List<String> ctes = new ArrayList<>();
+        if (filter.getCategoryId() != null && subtree.isEmpty()) {
+            // UNION rather than UNION ALL so a parent cycle in bad data ends the recursion.
+            ctes.add("category_tree(id) AS (SELECT id FROM categories WHERE id = ? " +
+                    "UNION SELECT c.id FROM categories c JOIN category_tree t ON c.parent_id = t.id)");
+            args.add(filter.getCategoryId());
+        }
+        if (ranked != null) {
+            ctes.add("ranked(id, position) AS (SELECT * FROM unnest(?) WITH ORDINALITY)");
+            args.add(ranked.toArray(UUID[]::new));
+        }
+        if (!ctes.isEmpty()) {
+            sql.append("WITH RECURSIVE ").append(String.join(", ", ctes)).append(' ');
+        }
+
+        sql.append("SELECT ");
+        List<ProductSort.Key> keys = sort.keys();
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(keys.get(i).field().expression).append(" AS k").append(i);
+        }
+        sql.append(" FROM products p");
+        if (ranked != null) {
+            sql.append(" JOIN ranked r ON r.id = p.id");
+        }
+        sql.append(" WHERE TRUE");
+
+        if (subtree.isPresent()) {
+            sql.append(" AND p.category_id = ANY(?)");
+            args.add(subtree.get().toArray(UUID[]::new));
+        } else if (filter.getCategoryId() != null) {
+            sql.append(" AND p.category_id IN (SELECT id FROM category_tree)");
+        }
+        if (filter.getMerchantId() != null) {
+            sql.append(" AND p.merchant_id = ?");
+            args.add(filter.getMerchantId());
+        }
+        if (filter.getMinPrice() != null) {
+            sql.append(" AND p.price >= ?");
+            args.add(filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            sql.append(" AND p.price <= ?");
+            args.add(filter.getMaxPrice());
+        }
+        if (filter.getMinRating() != null) {
+            sql.append(" AND p.rating >= ?");
+            args.add(filter.getMinRating());
+        }
+        if (Boolean.TRUE.equals(filter.getInStock())) {
+            sql.append(" AND p.stock > 0");
+        }
+        if (filter.getFeatured() != null) {
+            sql.append(" AND p.is_featured = ?");
+            args.add(filter.getFeatured());
+        }
+        if (!text.isEmpty() && ranked == null) {
+            String pattern = "%" + escapeLike(text.toLowerCase(Locale.ROOT)) + "%";
+            sql.append(" AND (LOWER(p.name) LIKE ? ESCAPE '\\' OR LOWER(p.description) LIKE ? ESCAPE '\\')");
+            args.add(pattern);
+            args.add(pattern);
+        }
+        if (filter.getCursor() != null && !filter.getCursor().isBlank()) {
+            appendSeek(sql, args, sort, ProductCursor.decode(filter.getCursor().trim(), sort));
+        }
+
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append('k').append(i).append(keys.get(i).descending() ? " DESC" : " ASC");
+        }
+        // One extra row tells whether there is a next page without a COUNT.
+        sql.append(" LIMIT ?");
+        args.add(limit + 1);
+
+        return Optional.of(new ProductQuery(sql.toString(), List.copyOf(args), sort, limit));
+    }
+
+    private static ProductSort sort(String requested, boolean hasText, boolean ranked) {
+        if (requested == null || requested.isBlank()) {
+            return ProductSort.parse(hasText && ranked ? SEARCH_SORT : DEFAULT_SORT);
+        }
+        ProductSort sort = ProductSort.parse(requested);
+        if (sort.uses(ProductSort.Field.RELEVANCE) && !ranked) {
+            if (!hasText) {
+                throw new BadRequestException("Sorting by relevance needs a search query");
+            }
+            // Search index still building: no ranking to sort on yet.
+            return ProductSort.parse(DEFAULT_SORT);
+        }
+        return sort;
+    }
+
+    /**
+     * Rows strictly after the cursor in sort order. With one direction throughout this is a row
+     * value comparison, which Postgres can answer from a matching composite index; mixed
+     * directions need the expanded form {@code a > x OR (a = x AND b < y) OR ...}.
+     */
+    private static void appendSeek(StringBuilder sql, List<Object> args, ProductSort sort, List<String> values) {
+        List<ProductSort.Key> keys = sort.keys();
+        List<Object> bound = new ArrayList<>(keys.size());
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                bound.add(keys.get(i).field().type.bind(values.get(i)));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+
+        if (sort.singleDirection()) {
+            String columns = String.join(", ", keys.stream().map(key -> key.field().expression).toList());
+            String placeholders = String.join(", ", keys.stream().map(key -> "?").toList());
+            sql.append(" AND (").append(columns).append(keys.get(0).descending() ? ") < (" : ") > (")
+                    .append(placeholders).append(')');
+            args.addAll(bound);
+            return;
+        }
+
+        sql.append(" AND (");
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i > 0 ? " OR (" : "(");
+            for (int j = 0; j < i; j++) {
+                sql.append(keys.get(j).field().expression).append(" = ? AND ");
+                args.add(bound.get(j));
+            }
+            sql.append(keys.get(i).field().expression).append(keys.get(i).descending() ? " < ?" : " > ?").append(')');
+            args.add(bound.get(i));
+        }
+        sql.append(')');
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static PreparedStatement prepare(Connection connection, ProductQuery query) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(query.sql());
+        List<Object> args = query.args();
+        for (int i = 0; i < args.size(); i++) {
+            if (args.get(i) instanceof UUID[] ids) {
+                ps.setArray(i + 1, connection.createArrayOf("uuid", ids));
+            } else {
+                ps.setObject(i + 1, args.get(i));
+            }
+        }
+        return ps;
+    }
+
+    private static RowMapper<Row> rowMapper(ProductSort sort) {
+        List<ProductSort.Key> keys = sort.keys();
+        return (rs, rowNum) -> {
+            List<String> values = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                values.add(keys.get(i).field().type.read(rs, "k" + i));
+            }
+            return new Row(UUID.fromString(values.get(values.size() - 1)), values);
+        };
+    }
+
+    record ProductQuery(String sql, List<Object> args, ProductSort sort, int limit) {
+    }
+
+    /** A result row: the product id and its sort key values, the id last. */
+    record Row(UUID id, List<String> keys) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.repository.ProductRatingStatsRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps each product's rating, review count and star histogram in step with its reviews.
+ *
+ * A review write moves one or two star counts by one; {@link #record} applies that as a single
+ * conditional UPDATE of the product's stats row that also sets the product's columns, so listing
+ * and detail reads never aggregate reviews. Products get their stats row when they are created;
+ * one created before that (or whose row would go negative) gets its row here and is recounted
+ * from its reviews once. Creating the row locks it, so concurrent reviews of the same product
+ * queue on it and apply their deltas after the recount commits rather than recounting without
+ * seeing each other. The periodic {@link #repairAll} recounts every product and corrects any
+ * other drift.
+ */
+@Component
+@Slf4j
+public class ProductRatingAggregator {
+
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    private final ProductRatingStatsRepository ratingStatsRepository;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductFacetIndex productFacetIndex;
+    private final TransactionTemplate batchTransaction;
+    private final int repairBatchSize;
+    private final AtomicBoolean repairing = new AtomicBoolean();
+
+    public ProductRatingAggregator(ProductRatingStatsRepository ratingStatsRepository,
+                                   ProductRepository productRepository,
+                                   ProductCache productCache,
+                                   ProductFacetIndex productFacetIndex,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.ratings.repair-batch-size:1000}") int repairBatchSize) {
+        this.ratingStatsRepository = ratingStatsRepository;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.productFacetIndex = productFacetIndex;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.repairBatchSize = Math.max(1, repairBatchSize);
+    }
+
+    /**
+     * Moves a review of {@code product} from the {@code before} star rating to {@code after};
+     * null stands for no review, so a create passes null before and a delete null after. Must run
+     * in the transaction that writes the review, after the review is flushed.
+     */
+    public void record(Product product, Integer before, Integer after) {
+        int[] delta = new int[6];
+        if (isStars(before)) {
+            delta[before]--;
+        }
+        if (isStars(after)) {
+            delta[after]++;
+        }
+        if (delta[1] == 0 && delta[2] == 0 && delta[3] == 0 && delta[4] == 0 && delta[5] == 0) {
+            return;
+        }
+        UUID productId = product.getId();
+        boolean created = ratingStatsRepository.createIfMissing(productId) > 0;
+        if (created || ratingStatsRepository.applyDelta(productId,
+                delta[1], delta[2], delta[3], delta[4], delta[5]) == 0) {
+            ratingStatsRepository.rebuildFromReviews(new UUID[]{productId});
+        }
+        productCache.evict(productId, null);
+        productRepository.findRatingById(productId)
+                .ifPresent(rating -> productFacetIndex.patchRating(Map.of(productId, rating)));
+    }
+
+    private static boolean isStars(Integer rating) {
+        return rating != null && rating >= 1 && rating <= 5;
+    }
+
+    @Scheduled(initialDelayString = "${app.ratings.repair-interval-ms:86400000}",
+            fixedDelayString = "${app.ratings.repair-interval-ms:86400000}")
+    public void scheduledRepair() {
+        repairAll();
+    }
+
+    /**
+     * Recounts every product's reviews, one batch per transaction, and fixes products whose
+     * rating or review count had drifted. Returns how many were fixed, or -1 if a repair was
+     * already running.
+     */
+    public int repairAll() {
+        if (!repairing.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            long started = System.nanoTime();
+            int repaired = 0;
+            int checked = 0;
+            UUID cursor = KEYSET_START;
+            while (true) {
+                UUID after = cursor;
+                List<UUID> batch = productRepository.findIdsAfter(after, PageRequest.ofSize(repairBatchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Integer fixed = batchTransaction.execute(status ->
+                        ratingStatsRepository.rebuildFromReviews(batch.toArray(UUID[]::new)));
+                if (fixed != null && fixed > 0) {
+                    repaired += fixed;
+                    batch.forEach(id -> productCache.evict(id, null));
+                }
+                checked += batch.size();
+                if (batch.size() < repairBatchSize) {
+                    break;
+                }
+                cursor = batch.get(batch.size() - 1);
+            }
+            if (repaired > 0) {
+                log.warn("Rating repair fixed {} of {} products in {} ms", repaired, checked,
+                        (System.nanoTime() - started) / 1_000_000);
+                productFacetIndex.requestRebuild();
+            } else {
+                log.info("Rating repair checked {} products in {} ms, none had drifted", checked,
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+            return repaired;
+        } finally {
+            repairing.set(false);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of a product listing: ids in listing order, and the cursor for the next page or null
+ * on the last one.
+ */
+public record ProductSlice(List<UUID> productIds, String nextCursor) {
+
+    public static ProductSlice empty() {
+        return new ProductSlice(List.of(), null);
+    }
+}
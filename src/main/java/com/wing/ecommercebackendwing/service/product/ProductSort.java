@@ -0,0 +1,172 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.exception.custom.BadRequestException;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Listing order parsed from a spec such as {@code "-rating,price"}, where a leading minus sorts
+ * descending. The product id is always appended as the last key so that the order is total,
+ * which keyset cursors depend on; it takes the direction of the key before it so that a single
+ * direction sort stays a plain row comparison.
+ */
+final class ProductSort {
+
+    static final int MAX_KEYS = 4;
+
+    enum Field {
+        /** Position in the ranked search matches; only valid together with a search query. */
+        RELEVANCE("relevance", "r.position", Type.LONG),
+        PRICE("price", "p.price", Type.DECIMAL),
+        RATING("rating", "COALESCE(p.rating, 0)", Type.DECIMAL),
+        SOLD("sold", "COALESCE(p.sold_count, 0)", Type.LONG),
+        CREATED("created", "p.created_at", Type.TIMESTAMP),
+        NAME("name", "p.name", Type.TEXT),
+        ID("id", "p.id", Type.ID);
+
+        final String param;
+        final String expression;
+        final Type type;
+
+        Field(String param, String expression, Type type) {
+            this.param = param;
+            this.expression = expression;
+            this.type = type;
+        }
+
+        static Field fromParam(String param) {
+            for (Field field : values()) {
+                if (field != ID && field.param.equals(param)) {
+                    return field;
+                }
+            }
+            throw new BadRequestException("Unknown sort key: " + param);
+        }
+    }
+
+    /** How a key's value is read from a row, written into a cursor and bound back as a parameter. */
+    enum Type {
+        DECIMAL {
+            String read(ResultSet rs, String column) throws SQLException {
+                BigDecimal value = rs.getBigDecimal(column);
+                return value != null ? value.toPlainString() : null;
+            }
+
+            Object bind(String value) {
+                return new BigDecimal(value);
+            }
+        },
+        LONG {
+            String read(ResultSet rs, String column) throws SQLException {
+                return Long.toString(rs.getLong(column));
+            }
+
+            Object bind(String value) {
+                return Long.parseLong(value);
+            }
+        },
+        TIMESTAMP {
+            String read(ResultSet rs, String column) throws SQLException {
+                Timestamp value = rs.getTimestamp(column);
+                return value != null ? value.toInstant().toString() : null;
+            }
+
+            Object bind(String value) {
+                return Timestamp.from(Instant.parse(value));
+            }
+        },
+        TEXT {
+            String read(ResultSet rs, String column) throws SQLException {
+                return rs.getString(column);
+            }
+
+            Object bind(String value) {
+                return value;
+            }
+        },
+        ID {
+            String read(ResultSet rs, String column) throws SQLException {
+                return rs.getObject(column, UUID.class).toString();
+            }
+
+            Object bind(String value) {
+                return UUID.fromString(value);
+            }
+        };
+
+        abstract String read(ResultSet rs, String column) throws SQLException;
+
+        abstract Object bind(String value);
+    }
+
+    record Key(Field field, boolean descending) {
+    }
+
+    private final List<Key> keys;
+    private final String spec;
+
+    private ProductSort(List<Key> keys, String spec) {
+        this.keys = keys;
+        this.spec = spec;
+    }
+
+    static ProductSort parse(String spec) {
+        List<Key> keys = new ArrayList<>();
+        Set<Field> seen = EnumSet.noneOf(Field.class);
+        for (String part : spec.split(",")) {
+            String token = part.trim().toLowerCase(Locale.ROOT);
+            if (token.isEmpty()) {
+                continue;
+            }
+            boolean descending = token.startsWith("-");
+            Field field = Field.fromParam(descending ? token.substring(1) : token);
+            if (!seen.add(field)) {
+                throw new BadRequestException("Duplicate sort key: " + field.param);
+            }
+            keys.add(new Key(field, descending));
+        }
+        if (keys.isEmpty()) {
+            throw new BadRequestException("Sort must name at least one key");
+        }
+        if (keys.size() > MAX_KEYS) {
+            throw new BadRequestException("Sort accepts at most " + MAX_KEYS + " keys");
+        }
+        StringBuilder canonical = new StringBuilder();
+        for (Key key : keys) {
+            if (!canonical.isEmpty()) {
+                canonical.append(',');
+            }
+            canonical.append(key.descending() ? "-" : "").append(key.field().param);
+        }
+        keys.add(new Key(Field.ID, keys.get(keys.size() - 1).descending()));
+        return new ProductSort(List.copyOf(keys), canonical.toString());
+    }
+
+    /** Keys in order, ending with the id. */
+    List<Key> keys() {
+        return keys;
+    }
+
+    /** Canonical form, recorded in cursors so a cursor is never applied to a different order. */
+    String spec() {
+        return spec;
+    }
+
+    boolean uses(Field field) {
+        return keys.stream().anyMatch(key -> key.field() == field);
+    }
+
+    boolean singleDirection() {
+        return keys.stream().allMatch(key -> key.descending() == keys.get(0).descending());
+    }
+}
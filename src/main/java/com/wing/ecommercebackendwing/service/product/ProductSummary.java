@@ -0,0 +1,24 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The product columns a listing response shows, read as a projection so that listings never
+ * load entities: no long text columns, no persistence context, nothing to dirty-check.
+ */
+public record ProductSummary(
+        UUID id,
+        UUID merchantId,
+        String name,
+        String slug,
+        BigDecimal price,
+        BigDecimal comparePrice,
+        Integer stock,
+        String images,
+        BigDecimal rating,
+        Integer reviewCount,
+        Integer soldCount,
+        Integer viewCount
+) {
+}
@@ -0,0 +1,349 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import com.wing.ecommercebackendwing.config.SearchProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Term to product postings over name, category and description. Not thread-safe; see
+ * {@link ProductSearchIndex} for locking.
+ *
+ * Documents get increasing internal ids, so every posting list is sorted by id and a multi-word
+ * query is a merge of sorted lists. Removing or replacing a product only marks its old id dead;
+ * {@link #compact()} renumbers the live documents and drops dead postings once enough pile up.
+ */
+final class InvertedIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final SearchProperties properties;
+    private final Map<String, Postings> terms = new HashMap<>();
+    /** Same postings in term order, for prefix lookups. */
+    private final TreeMap<String, Postings> sortedTerms = new TreeMap<>();
+    private final Map<UUID, Integer> docByProduct = new HashMap<>();
+    private final BitSet dead = new BitSet();
+
+    private UUID[] productIds = new UUID[INITIAL_CAPACITY];
+    private float[] lengths = new float[INITIAL_CAPACITY];
+    private float[] boosts = new float[INITIAL_CAPACITY];
+    private int nextDoc;
+    private int deadDocs;
+    private double totalLength;
+
+    InvertedIndex(SearchProperties properties) {
+        this.properties = properties;
+    }
+
+    void upsert(ProductSearchDocument document) {
+        remove(document.id());
+
+        Map<String, Float> weighted = new HashMap<>();
+        float length = addField(weighted, document.name(), properties.getNameWeight())
+                + addField(weighted, document.categoryName(), properties.getCategoryWeight())
+                + addField(weighted, document.description(), properties.getDescriptionWeight());
+        if (weighted.isEmpty()) {
+            return;
+        }
+
+        int doc = nextDoc++;
+        ensureCapacity(doc + 1);
+        productIds[doc] = document.id();
+        lengths[doc] = length;
+        boosts[doc] = boost(document);
+        totalLength += length;
+        docByProduct.put(document.id(), doc);
+        weighted.forEach((term, frequency) -> terms.computeIfAbsent(term, this::newTerm).add(doc, frequency));
+    }
+
+    void remove(UUID productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc != null) {
+            dead.set(doc);
+            deadDocs++;
+            totalLength -= lengths[doc];
+        }
+    }
+
+    int size() {
+        return docByProduct.size();
+    }
+
+    int termCount() {
+        return terms.size();
+    }
+
+    int deadDocs() {
+        return deadDocs;
+    }
+
+    boolean needsCompaction() {
+        return deadDocs > INITIAL_CAPACITY && deadDocs > docByProduct.size() / 4;
+    }
+
+    /**
+     * Renumbers live documents densely, keeping their order, and drops dead postings and terms.
+     */
+    void compact() {
+        if (deadDocs == 0) {
+            return;
+        }
+        int[] remap = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (dead.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = live;
+                productIds[live] = productIds[doc];
+                lengths[live] = lengths[doc];
+                boosts[live] = boosts[doc];
+                docByProduct.put(productIds[live], live);
+                live++;
+            }
+        }
+        Arrays.fill(productIds, live, nextDoc, null);
+        terms.values().removeIf(postings -> postings.remap(remap) == 0);
+        sortedTerms.values().removeIf(postings -> postings.size == 0);
+        nextDoc = live;
+        deadDocs = 0;
+        dead.clear();
+    }
+
+    /**
+     * Products containing every query word, best first. The last word also matches as a prefix,
+     * since queries are typed left to right.
+     */
+    SearchHits search(List<String> tokens, int offset, int limit) {
+        if (tokens.isEmpty() || docByProduct.isEmpty() || limit <= 0) {
+            return SearchHits.empty();
+        }
+        int liveDocs = docByProduct.size();
+        double averageLength = Math.max(totalLength / liveDocs, 1e-6);
+
+        List<Scored> perToken = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Scored matches = match(tokens.get(i), i == tokens.size() - 1, liveDocs, averageLength);
+            if (matches.size == 0) {
+                return SearchHits.empty();
+            }
+            perToken.add(matches);
+        }
+        perToken.sort(Comparator.comparingInt(scored -> scored.size));
+        Scored result = perToken.get(0);
+        for (int i = 1; i < perToken.size() && result.size > 0; i++) {
+            result = result.intersect(perToken.get(i));
+        }
+
+        int wanted = offset + limit;
+        PriorityQueue<int[]> top = new PriorityQueue<>(
+                Comparator.<int[]>comparingDouble(entry -> Float.intBitsToFloat(entry[1])).thenComparingInt(entry -> -entry[0]));
+        for (int i = 0; i < result.size; i++) {
+            int doc = result.docs[i];
+            float score = result.scores[i] + boosts[doc];
+            if (top.size() < wanted) {
+                top.add(new int[]{doc, Float.floatToIntBits(score)});
+            } else if (score > Float.intBitsToFloat(top.peek()[1])) {
+                top.poll();
+                top.add(new int[]{doc, Float.floatToIntBits(score)});
+            }
+        }
+        UUID[] ranked = new UUID[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = productIds[top.poll()[0]];
+        }
+        List<UUID> page = offset >= ranked.length
+                ? List.of()
+                : List.of(Arrays.copyOfRange(ranked, offset, ranked.length));
+        return new SearchHits(page, result.size);
+    }
+
+    private Scored match(String token, boolean prefix, int liveDocs, double averageLength) {
+        Postings exact = terms.get(token);
+        Scored scored = exact != null ? score(exact, 1.0, liveDocs, averageLength) : Scored.EMPTY;
+        if (!prefix) {
+            return scored;
+        }
+        for (Postings expansion : expansions(token)) {
+            scored = scored.union(score(expansion, properties.getPrefixMatchWeight(), liveDocs, averageLength));
+        }
+        return scored;
+    }
+
+    /** Longer terms starting with {@code prefix}, the most common first. */
+    private List<Postings> expansions(String prefix) {
+        NavigableMap<String, Postings> range = sortedTerms.subMap(prefix, false, prefix + Character.MAX_VALUE, false);
+        int max = Math.max(0, properties.getMaxPrefixExpansions());
+        if (range.size() <= max) {
+            return new ArrayList<>(range.values());
+        }
+        PriorityQueue<Postings> largest = new PriorityQueue<>(Comparator.comparingInt(postings -> postings.size));
+        for (Postings postings : range.values()) {
+            largest.add(postings);
+            if (largest.size() > max) {
+                largest.poll();
+            }
+        }
+        return new ArrayList<>(largest);
+    }
+
+    private Postings newTerm(String term) {
+        Postings postings = new Postings();
+        sortedTerms.put(term, postings);
+        return postings;
+    }
+
+    private Scored score(Postings postings, double weight, int liveDocs, double averageLength) {
+        double k1 = properties.getBm25K1();
+        double b = properties.getBm25B();
+        // Dead postings still count towards df until compaction; close enough for ranking.
+        int df = Math.min(postings.size, liveDocs);
+        double idf = Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5)) * weight;
+
+        Scored scored = new Scored(postings.size);
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            if (dead.get(doc)) {
+                continue;
+            }
+            double tf = postings.frequencies[i];
+            double norm = k1 * (1 - b + b * lengths[doc] / averageLength);
+            scored.append(doc, (float) (idf * tf * (k1 + 1) / (tf + norm)));
+        }
+        return scored;
+    }
+
+    private float boost(ProductSearchDocument document) {
+        double sold = document.soldCount() != null ? Math.max(0, document.soldCount()) : 0;
+        double rating = document.rating() != null ? document.rating().doubleValue() : 0;
+        return (float) (properties.getPopularityWeight() * Math.log1p(sold) + properties.getRatingWeight() * rating);
+    }
+
+    private static float addField(Map<String, Float> weighted, String text, double weight) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        for (String token : tokens) {
+            weighted.merge(token, (float) weight, Float::sum);
+        }
+        return (float) (tokens.size() * weight);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int grown = Math.max(capacity, productIds.length + (productIds.length >> 1));
+            productIds = Arrays.copyOf(productIds, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+            boosts = Arrays.copyOf(boosts, grown);
+        }
+    }
+
+    private static final class Postings {
+        int[] docs = new int[2];
+        float[] frequencies = new float[2];
+        int size;
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (kept > 0 && kept < docs.length / 4) {
+                docs = Arrays.copyOf(docs, kept);
+                frequencies = Arrays.copyOf(frequencies, kept);
+            }
+            return kept;
+        }
+    }
+
+    /** Documents sorted by id with a score each. */
+    private static final class Scored {
+        static final Scored EMPTY = new Scored(0);
+
+        int[] docs;
+        float[] scores;
+        int size;
+
+        Scored(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void append(int doc, float score) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(4, size * 2));
+                scores = Arrays.copyOf(scores, Math.max(4, size * 2));
+            }
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        Scored union(Scored other) {
+            if (other.size == 0) {
+                return this;
+            }
+            if (size == 0) {
+                return other;
+            }
+            Scored merged = new Scored(size + other.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && docs[i] < other.docs[j])) {
+                    merged.append(docs[i], scores[i]);
+                    i++;
+                } else if (i == size || other.docs[j] < docs[i]) {
+                    merged.append(other.docs[j], other.scores[j]);
+                    j++;
+                } else {
+                    merged.append(docs[i], scores[i] + other.scores[j]);
+                    i++;
+                    j++;
+                }
+            }
+            return merged;
+        }
+
+        Scored intersect(Scored other) {
+            Scored common = new Scored(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (other.docs[j] < docs[i]) {
+                    j++;
+                } else {
+                    common.append(docs[i], scores[i] + other.scores[j]);
+                    i++;
+                    j++;
+                }
+            }
+            return common;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable prefix index over suggestion names, answering "best k names with a word starting
+ * with this prefix" without visiting every match.
+ *
+ * Names are folded and stored once, back to back, as UTF-8 bytes. A key is a position in that
+ * text where a word starts, so "yoga mat premium" has keys at "yoga...", "mat..." and
+ * "premium..."; keys are sorted by the bytes from there to the end of the name, which puts every
+ * key with a given prefix in one contiguous range. A segment tree over the sorted keys holds the
+ * best-scoring key of each span, so the top k of a range come out best first by repeatedly
+ * splitting it around its best key: O(k log n) however many names share the prefix.
+ *
+ * Memory is the folded text plus four ints per key, two of them for the tree.
+ */
+final class PrefixIndex {
+
+    private static final PrefixIndex EMPTY = build(List.of(), 1);
+
+    private final Suggestion[] entries;
+    private final byte[] text;
+    private final int[] textStart;
+    private final int[] keyEntry;
+    private final int[] keyOffset;
+    private final int[] best;
+    private final int keys;
+
+    private PrefixIndex(Suggestion[] entries, byte[] text, int[] textStart, int[] keyEntry, int[] keyOffset) {
+        this.entries = entries;
+        this.text = text;
+        this.textStart = textStart;
+        this.keyEntry = keyEntry;
+        this.keyOffset = keyOffset;
+        this.keys = keyEntry.length;
+        this.best = new int[Math.max(1, 2 * keys)];
+        for (int i = 0; i < keys; i++) {
+            best[keys + i] = i;
+        }
+        for (int node = keys - 1; node > 0; node--) {
+            best[node] = better(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Indexes each suggestion's name at up to {@code maxWordStarts} word starts.
+     */
+    static PrefixIndex build(Collection<Suggestion> suggestions, int maxWordStarts) {
+        Suggestion[] entries = suggestions.toArray(Suggestion[]::new);
+        int[] textStart = new int[entries.length + 1];
+        List<byte[]> folded = new ArrayList<>(entries.length);
+        int textLength = 0;
+        int keyCount = 0;
+        for (Suggestion entry : entries) {
+            byte[] bytes = normalize(entry.name()).getBytes(StandardCharsets.UTF_8);
+            folded.add(bytes);
+            textLength += bytes.length;
+            keyCount += Math.min(wordStarts(bytes), Math.max(1, maxWordStarts));
+        }
+
+        byte[] text = new byte[textLength];
+        int[] keyEntry = new int[keyCount];
+        int[] keyOffset = new int[keyCount];
+        int position = 0;
+        int key = 0;
+        for (int e = 0; e < entries.length; e++) {
+            byte[] bytes = folded.get(e);
+            textStart[e] = position;
+            System.arraycopy(bytes, 0, text, position, bytes.length);
+            int starts = 0;
+            for (int i = 0; i < bytes.length && starts < Math.max(1, maxWordStarts); i++) {
+                if (i == 0 || bytes[i - 1] == ' ') {
+                    keyEntry[key] = e;
+                    keyOffset[key] = position + i;
+                    key++;
+                    starts++;
+                }
+            }
+            position += bytes.length;
+        }
+        textStart[entries.length] = position;
+
+        int[] order = new int[keyCount];
+        long[] head = new long[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            order[k] = k;
+            head[k] = head(text, keyOffset[k], textStart[keyEntry[k] + 1]);
+        }
+        new KeySorter(text, textStart, keyEntry, keyOffset, head).sort(order, 0, keyCount - 1);
+        int[] sortedEntry = new int[keyCount];
+        int[] sortedOffset = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            sortedEntry[i] = keyEntry[order[i]];
+            sortedOffset[i] = keyOffset[order[i]];
+        }
+        return new PrefixIndex(entries, text, textStart, sortedEntry, sortedOffset);
+    }
+
+    /**
+     * Up to {@code limit} distinct suggestions with a word starting with {@code prefix}, best
+     * first, leaving out those {@code hidden} rejects. {@code prefix} must already be normalized.
+     */
+    List<Suggestion> top(String prefix, int limit, Predicate<Suggestion> hidden) {
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, 32));
+        if (prefix.isEmpty() || keys == 0 || limit <= 0) {
+            return result;
+        }
+        byte[] wanted = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = firstKey(wanted, false);
+        int to = firstKey(wanted, true);
+        if (from >= to) {
+            return result;
+        }
+
+        // Spans of the range, ordered by their best key's score.
+        PriorityQueue<int[]> spans = new PriorityQueue<>((a, b) -> compareKeys(a[2], b[2]));
+        spans.add(new int[]{from, to, bestIn(from, to)});
+        Set<Integer> seenEntries = new HashSet<>();
+        while (!spans.isEmpty() && result.size() < limit) {
+            int[] span = spans.poll();
+            int top = span[2];
+            int entry = keyEntry[top];
+            if (seenEntries.add(entry)) {
+                Suggestion suggestion = entries[entry];
+                if (!hidden.test(suggestion)) {
+                    result.add(suggestion);
+                }
+            }
+            if (span[0] < top) {
+                spans.add(new int[]{span[0], top, bestIn(span[0], top)});
+            }
+            if (top + 1 < span[1]) {
+                spans.add(new int[]{top + 1, span[1], bestIn(top + 1, span[1])});
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    int keyCount() {
+        return keys;
+    }
+
+    /** Approximate heap used by the index arrays, not counting the suggestions themselves. */
+    long bytes() {
+        return text.length + 4L * (textStart.length + keyEntry.length + keyOffset.length + best.length);
+    }
+
+    List<Suggestion> entries() {
+        return Arrays.asList(entries);
+    }
+
+    /**
+     * Lower-case, accent-free words separated by single spaces: the form names are indexed in and
+     * prefixes must be given in.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = SearchTokenizer.fold(text);
+        StringBuilder normalized = new StringBuilder(folded.length());
+        boolean space = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (SearchTokenizer.isWordChar(c)) {
+                if (space && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Whether {@code normalizedName} has a word starting with {@code prefix}, among its first
+     * {@code maxWordStarts}; the same rule the index applies, for callers matching outside it.
+     */
+    static boolean matches(String normalizedName, String prefix, int maxWordStarts) {
+        int starts = 0;
+        for (int i = 0; i < normalizedName.length() && starts < Math.max(1, maxWordStarts); i++) {
+            if (i == 0 || normalizedName.charAt(i - 1) == ' ') {
+                if (normalizedName.startsWith(prefix, i)) {
+                    return true;
+                }
+                starts++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The first eight bytes of a key as one unsigned long, which settles most comparisons. Names
+     * never contain a zero byte, so zero padding sorts a shorter key first, as the full comparison
+     * would.
+     */
+    private static long head(byte[] text, int from, int end) {
+        long packed = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            packed = (packed << 8) | (from + i < end ? text[from + i] & 0xFF : 0);
+        }
+        return packed;
+    }
+
+    /**
+     * Sorts key numbers by their bytes. A quicksort on the int array directly, since sorting boxed
+     * Integers with a comparator takes seconds for a million-product catalog.
+     */
+    private record KeySorter(byte[] text, int[] textStart, int[] keyEntry, int[] keyOffset, long[] head) {
+
+        void sort(int[] order, int low, int high) {
+            while (high - low > 16) {
+                int pivot = order[(low + high) >>> 1];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (compare(order[i], pivot) < 0) {
+                        i++;
+                    }
+                    while (compare(order[j], pivot) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int swap = order[i];
+                        order[i++] = order[j];
+                        order[j--] = swap;
+                    }
+                }
+                // Recurse into the smaller side so the stack stays logarithmic.
+                if (j - low < high - i) {
+                    sort(order, low, j);
+                    low = i;
+                } else {
+                    sort(order, i, high);
+                    high = j;
+                }
+            }
+            for (int i = low + 1; i <= high; i++) {
+                int key = order[i];
+                int j = i - 1;
+                while (j >= low && compare(order[j], key) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = key;
+            }
+        }
+
+        private int compare(int a, int b) {
+            int byHead = Long.compareUnsigned(head[a], head[b]);
+            return byHead != 0 ? byHead : Arrays.compareUnsigned(
+                    text, keyOffset[a], textStart[keyEntry[a] + 1],
+                    text, keyOffset[b], textStart[keyEntry[b] + 1]);
+        }
+    }
+
+    private static int wordStarts(byte[] bytes) {
+        int starts = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (i == 0 || bytes[i - 1] == ' ') {
+                starts++;
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * First key whose bytes, cut to the prefix length, compare at or above the prefix, or with
+     * {@code after} strictly above it: the two ends of the range of keys starting with it.
+     */
+    private int firstKey(byte[] prefix, boolean after) {
+        int low = 0;
+        int high = keys;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareToPrefix(mid, prefix);
+            if (cmp < 0 || (after && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareToPrefix(int key, byte[] prefix) {
+        int start = keyOffset[key];
+        int end = Math.min(textStart[keyEntry[key] + 1], start + prefix.length);
+        return Arrays.compareUnsigned(text, start, end, prefix, 0, prefix.length);
+    }
+
+    /** The best key in [from, to). */
+    private int bestIn(int from, int to) {
+        int result = -1;
+        for (int low = from + keys, high = to + keys; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                result = result < 0 ? best[low] : better(result, best[low]);
+                low++;
+            }
+            if ((high & 1) == 1) {
+                high--;
+                result = result < 0 ? best[high] : better(result, best[high]);
+            }
+        }
+        return result;
+    }
+
+    private int better(int a, int b) {
+        return compareKeys(a, b) <= 0 ? a : b;
+    }
+
+    /** Higher score first, then the earlier key so ties are stable. */
+    private int compareKeys(int a, int b) {
+        int byScore = Double.compare(entries[keyEntry[b]].score(), entries[keyEntry[a]].score());
+        return byScore != 0 ? byScore : Integer.compare(a, b);
+    }
+}
@@ -0,0 +1,30 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import com.wing.ecommercebackendwing.model.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The product columns the search index reads.
+ */
+public record ProductSearchDocument(
+        UUID id,
+        String name,
+        String description,
+        String categoryName,
+        Integer soldCount,
+        BigDecimal rating
+) {
+
+    public static ProductSearchDocument from(Product product) {
+        return new ProductSearchDocument(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                product.getSoldCount(),
+                product.getRating()
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import com.wing.ecommercebackendwing.config.SearchProperties;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranked full-text search over products, held in memory on every node.
+ *
+ * Ranking is BM25 over name, category and description, with name matches weighted highest, plus
+ * a popularity term from sold count and rating. Product writes on this node update the index
+ * after commit. The periodic rebuild picks up writes made on other replicas and fresh sold counts
+ * and ratings.
+ *
+ * Until the first build completes {@link #isReady()} is false and callers use the SQL search.
+ */
+@Component
+public class ProductSearchIndex extends RebuildableIndex<InvertedIndex> {
+
+    private final ProductRepository productRepository;
+    private final SearchProperties properties;
+
+    public ProductSearchIndex(ProductRepository productRepository, SearchProperties properties) {
+        super("search", new InvertedIndex(properties), properties::isEnabled);
+        this.productRepository = productRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * One page of products matching every word of {@code query}, best first.
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        return read(index -> index.search(tokens, Math.max(0, offset), limit));
+    }
+
+    /**
+     * Adds or replaces a product once the surrounding transaction commits.
+     */
+    public void index(ProductSearchDocument document) {
+        afterCommit(index -> index.upsert(document));
+    }
+
+    /**
+     * Removes a product once the surrounding transaction commits.
+     */
+    public void remove(UUID productId) {
+        afterCommit(index -> index.remove(productId));
+    }
+
+    @Scheduled(initialDelayString = "${app.search.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.search.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    @Override
+    protected InvertedIndex load() {
+        InvertedIndex fresh = new InvertedIndex(properties);
+        int pageSize = Math.max(1, properties.getRebuildPageSize());
+        UUID cursor = KEYSET_START;
+        while (true) {
+            List<ProductSearchDocument> page = productRepository.findSearchDocumentsAfter(cursor, PageRequest.ofSize(pageSize));
+            page.forEach(fresh::upsert);
+            if (page.size() < pageSize) {
+                return fresh;
+            }
+            cursor = page.get(page.size() - 1).id();
+        }
+    }
+
+    @Override
+    protected void afterWrite(InvertedIndex live) {
+        if (live.needsCompaction()) {
+            live.compact();
+        }
+    }
+
+    @Override
+    protected void beforeSwap(InvertedIndex fresh) {
+        fresh.compact();
+    }
+
+    @Override
+    protected String describe(InvertedIndex built) {
+        return built.size() + " products, " + built.termCount() + " terms";
+    }
+
+    public Stats stats() {
+        return read(index -> new Stats(builtAt() != null, index.size(), index.termCount(), index.deadDocs(),
+                builtAt(), buildMillis()));
+    }
+
+    public record Stats(boolean ready, int products, int terms, int deadDocuments, Instant builtAt, long buildMillis) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import com.wing.ecommercebackendwing.model.entity.Product;
+
+import java.util.UUID;
+
+/**
+ * The product columns the suggestion index reads.
+ */
+public record ProductSuggestDocument(
+        UUID id,
+        String name,
+        String slug,
+        UUID categoryId,
+        Integer soldCount,
+        Integer viewCount
+) {
+
+    public static ProductSuggestDocument from(Product product) {
+        return new ProductSuggestDocument(
+                product.getId(),
+                product.getName(),
+                product.getSlug(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getSoldCount(),
+                product.getViewCount()
+        );
+    }
+}
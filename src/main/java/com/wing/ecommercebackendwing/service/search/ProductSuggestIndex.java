@@ -0,0 +1,160 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import com.wing.ecommercebackendwing.config.SuggestProperties;
+import com.wing.ecommercebackendwing.model.entity.Category;
+import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Type-ahead suggestions over product and category names, held in memory on every node.
+ *
+ * Suggestions are ranked by sold and view counts; a category ranks by the totals of its products.
+ * Product writes on this node land after commit in a small overlay beside the compact
+ * {@link PrefixIndex}, and once enough have piled up the index is rebuilt in memory in the
+ * background to take them in. The periodic rebuild from the database refreshes counts, category
+ * names and writes made on other replicas.
+ */
+@Component
+public class ProductSuggestIndex extends RebuildableIndex<SuggestionTable> {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final SuggestProperties properties;
+
+    public ProductSuggestIndex(ProductRepository productRepository,
+                               CategoryRepository categoryRepository,
+                               SuggestProperties properties) {
+        super("suggest", new SuggestionTable(PrefixIndex.empty(), properties.getMaxWordStarts()), properties::isEnabled);
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Up to {@code limit} products and categories with a word starting with what was typed, best
+     * first. Empty until the first build completes.
+     */
+    public List<Suggestion> suggest(String typed, int limit) {
+        if (!isReady()) {
+            return List.of();
+        }
+        String prefix = PrefixIndex.normalize(typed);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        return read(table -> table.top(prefix, limit));
+    }
+
+    /**
+     * Adds or replaces a product once the surrounding transaction commits.
+     */
+    public void index(ProductSuggestDocument document) {
+        Suggestion suggestion = toSuggestion(document);
+        afterCommit(table -> table.upsert(suggestion));
+    }
+
+    /**
+     * Removes a product once the surrounding transaction commits.
+     */
+    public void remove(UUID productId) {
+        afterCommit(table -> table.remove(productId));
+    }
+
+    @Scheduled(initialDelayString = "${app.suggest.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.suggest.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    /**
+     * Folds the pending writes into a fresh compact index without reading the database. Before
+     * the first rebuild there is nothing to fold them into, so this waits for that instead.
+     */
+    boolean compact() {
+        if (!read(table -> isReady() && overflowing(table))) {
+            return false;
+        }
+        return replace(() -> compactTable(read(SuggestionTable::live)), "compaction");
+    }
+
+    @Override
+    protected SuggestionTable load() {
+        List<Suggestion> suggestions = new ArrayList<>();
+        Map<UUID, long[]> categoryTotals = new HashMap<>();
+        int pageSize = Math.max(1, properties.getRebuildPageSize());
+        UUID cursor = KEYSET_START;
+        while (true) {
+            List<ProductSuggestDocument> page = productRepository.findSuggestDocumentsAfter(cursor, PageRequest.ofSize(pageSize));
+            for (ProductSuggestDocument document : page) {
+                suggestions.add(toSuggestion(document));
+                if (document.categoryId() != null) {
+                    long[] totals = categoryTotals.computeIfAbsent(document.categoryId(), id -> new long[2]);
+                    totals[0] += count(document.soldCount());
+                    totals[1] += count(document.viewCount());
+                }
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+            cursor = page.get(page.size() - 1).id();
+        }
+        for (Category category : categoryRepository.findByIsActiveTrue()) {
+            long[] totals = categoryTotals.getOrDefault(category.getId(), new long[2]);
+            suggestions.add(new Suggestion(Suggestion.Type.CATEGORY, category.getId(), category.getName(),
+                    category.getSlug(), score(totals[0], totals[1])));
+        }
+        return compactTable(suggestions);
+    }
+
+    @Override
+    protected void afterWrite(SuggestionTable live) {
+        if (overflowing(live)) {
+            submitIfIdle(this::compact);
+        }
+    }
+
+    @Override
+    protected String describe(SuggestionTable built) {
+        return built.indexed() + " suggestions, " + built.keyCount() + " keys, " + built.bytes() / 1024 + " KiB";
+    }
+
+    public Stats stats() {
+        return read(table -> new Stats(builtAt() != null, table.indexed(), table.keyCount(), table.pendingWrites(),
+                table.bytes(), builtAt(), buildMillis()));
+    }
+
+    private SuggestionTable compactTable(List<Suggestion> suggestions) {
+        return new SuggestionTable(PrefixIndex.build(suggestions, properties.getMaxWordStarts()), properties.getMaxWordStarts());
+    }
+
+    private boolean overflowing(SuggestionTable table) {
+        return table.pendingWrites() >= Math.max(1, properties.getMaxPendingWrites());
+    }
+
+    private Suggestion toSuggestion(ProductSuggestDocument document) {
+        return new Suggestion(Suggestion.Type.PRODUCT, document.id(), document.name(), document.slug(),
+                score(count(document.soldCount()), count(document.viewCount())));
+    }
+
+    private double score(long sold, long views) {
+        return properties.getSoldWeight() * Math.log1p(sold) + properties.getViewWeight() * Math.log1p(views);
+    }
+
+    private static long count(Integer value) {
+        return value != null ? Math.max(0, value) : 0;
+    }
+
+    public record Stats(boolean ready, int suggestions, int keys, int pendingWrites, long indexBytes,
+                        Instant builtAt, long buildMillis) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory structure over the catalog that is patched after each commit on this node and
+ * rebuilt in full in the background.
+ *
+ * Subclasses supply the snapshot a rebuild swaps in and the writes that patch it. A rebuild runs
+ * at startup and whenever {@link #requestRebuild()} is called, at most one at a time. Writes that
+ * commit while a rebuild is reading are replayed onto the new structure before it replaces the
+ * old one. Until the first rebuild completes {@link #isReady()} is false.
+ */
+public abstract class RebuildableIndex<T> {
+
+    /** The lowest id, where keyset-paged snapshot reads start. */
+    protected static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final String name;
+    private final BooleanSupplier enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService rebuilds;
+
+    private T current;
+    private List<Consumer<T>> writesDuringRebuild;
+    private volatile boolean ready;
+    private volatile Instant builtAt;
+    private volatile long buildMillis;
+
+    protected RebuildableIndex(String name, T empty, BooleanSupplier enabled) {
+        this.name = name;
+        this.enabled = enabled;
+        this.current = empty;
+        this.rebuilds = Executors.newSingleThreadExecutor(new CustomizableThreadFactory(name + "-rebuild-"));
+    }
+
+    /**
+     * Reads the catalog into a fresh structure. Runs on the rebuild thread without the lock.
+     */
+    protected abstract T load();
+
+    /**
+     * A short summary of a freshly built structure for the log.
+     */
+    protected abstract String describe(T built);
+
+    /**
+     * Runs under the write lock after each write to the live structure.
+     */
+    protected void afterWrite(T live) {
+    }
+
+    /**
+     * Runs under the write lock once replayed writes are in, just before the structure goes live.
+     */
+    protected void beforeSwap(T fresh) {
+    }
+
+    public boolean isReady() {
+        return enabled.getAsBoolean() && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        requestRebuild();
+    }
+
+    /**
+     * Starts a rebuild in the background unless one is already running.
+     */
+    public Future<?> requestRebuild() {
+        if (!enabled.getAsBoolean()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return rebuilds.submit(this::rebuild);
+    }
+
+    /**
+     * Reads the catalog and swaps in a fresh structure. Returns false if another rebuild was
+     * running or this one failed, in which case the current structure stays in place.
+     */
+    public boolean rebuild() {
+        return replace(this::load, "rebuild");
+    }
+
+    /**
+     * Swaps in the structure {@code source} builds, replaying writes that commit meanwhile.
+     */
+    protected boolean replace(Supplier<T> source, String reason) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long started = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            T fresh;
+            try {
+                fresh = source.get();
+            } catch (RuntimeException e) {
+                log.error("Product {} {} failed; keeping the current index", name, reason, e);
+                lock.writeLock().lock();
+                try {
+                    writesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return false;
+            }
+
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild.forEach(write -> write.accept(fresh));
+                writesDuringRebuild = null;
+                beforeSwap(fresh);
+                current = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            builtAt = Instant.now();
+            ready = true;
+            log.info("Product {} {}: {} in {} ms", name, reason, describe(fresh), buildMillis);
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Runs {@code task} on the rebuild thread unless a rebuild is already running.
+     */
+    protected void submitIfIdle(Runnable task) {
+        if (!rebuilding.get() && !rebuilds.isShutdown()) {
+            rebuilds.submit(task);
+        }
+    }
+
+    protected <R> R read(Function<T, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies {@code write} once the surrounding transaction commits, or now outside one.
+     */
+    protected void afterCommit(Consumer<T> write) {
+        if (!enabled.getAsBoolean()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(write);
+                }
+            });
+        } else {
+            apply(write);
+        }
+    }
+
+    private void apply(Consumer<T> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(current);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(write);
+            }
+            afterWrite(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    protected Instant builtAt() {
+        return builtAt;
+    }
+
+    protected long buildMillis() {
+        return buildMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        rebuilds.shutdownNow();
+        rebuilds.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
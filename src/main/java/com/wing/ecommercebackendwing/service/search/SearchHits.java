@@ -0,0 +1,14 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of ranked product ids and the number of products that matched.
+ */
+public record SearchHits(List<UUID> productIds, long total) {
+
+    public static SearchHits empty() {
+        return new SearchHits(List.of(), 0);
+    }
+}
@@ -0,0 +1,14 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import java.util.UUID;
+
+/**
+ * A product or category offered for a typed prefix. Higher scores are offered first.
+ */
+public record Suggestion(Type type, UUID id, String name, String slug, double score) {
+
+    public enum Type {
+        PRODUCT,
+        CATEGORY
+    }
+}
@@ -0,0 +1,95 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A compact {@link PrefixIndex} plus the writes made since it was built. Writes land in a small
+ * overlay that queries scan alongside the index; once the overlay grows past the configured size
+ * the owner builds a fresh index from {@link #live()}. Not thread-safe.
+ */
+final class SuggestionTable {
+
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator.comparingDouble(Suggestion::score).reversed()
+            .thenComparing(Suggestion::name);
+
+    private final PrefixIndex base;
+    private final int maxWordStarts;
+    private final Map<UUID, Pending> pending = new HashMap<>();
+    private final Set<UUID> removed = new HashSet<>();
+
+    SuggestionTable(PrefixIndex base, int maxWordStarts) {
+        this.base = base;
+        this.maxWordStarts = maxWordStarts;
+    }
+
+    void upsert(Suggestion suggestion) {
+        removed.remove(suggestion.id());
+        pending.put(suggestion.id(), new Pending(suggestion, PrefixIndex.normalize(suggestion.name())));
+    }
+
+    void remove(UUID id) {
+        pending.remove(id);
+        removed.add(id);
+    }
+
+    /**
+     * Up to {@code limit} suggestions with a word starting with {@code prefix}, best first.
+     */
+    List<Suggestion> top(String prefix, int limit) {
+        List<Suggestion> result = base.top(prefix, limit,
+                suggestion -> pending.containsKey(suggestion.id()) || removed.contains(suggestion.id()));
+        boolean merged = false;
+        for (Pending write : pending.values()) {
+            if (PrefixIndex.matches(write.normalizedName(), prefix, maxWordStarts)) {
+                result.add(write.suggestion());
+                merged = true;
+            }
+        }
+        if (merged) {
+            result.sort(BEST_FIRST);
+            if (result.size() > limit) {
+                result = new ArrayList<>(result.subList(0, limit));
+            }
+        }
+        return result;
+    }
+
+    /** Writes held outside the compact index. */
+    int pendingWrites() {
+        return pending.size() + removed.size();
+    }
+
+    /** Every current suggestion, for building the next index. */
+    List<Suggestion> live() {
+        List<Suggestion> live = new ArrayList<>(base.size() + pending.size());
+        for (Suggestion suggestion : base.entries()) {
+            if (!pending.containsKey(suggestion.id()) && !removed.contains(suggestion.id())) {
+                live.add(suggestion);
+            }
+        }
+        pending.values().forEach(write -> live.add(write.suggestion()));
+        return live;
+    }
+
+    int indexed() {
+        return base.size();
+    }
+
+    int keyCount() {
+        return base.keyCount();
+    }
+
+    long bytes() {
+        return base.bytes();
+    }
+
+    private record Pending(Suggestion suggestion, String normalizedName) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.wing.ecommercebackendwing.service.stream;
+
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
+import com.wing.ecommercebackendwing.service.outbox.OrderEventPayload;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Body of one status stream event. The SSE event name is {@link #type()}.
+ */
+public record StatusStreamEvent(
+        String type,
+        UUID orderId,
+        String orderNumber,
+        OrderStatus previousStatus,
+        OrderStatus status,
+        Instant occurredAt
+) {
+
+    public static final String ORDER_PLACED = "order.placed";
+    public static final String ORDER_STATUS = "order.status";
+    public static final String PAYMENT_COMPLETED = "payment.completed";
+    public static final String PAYMENT_EXPIRED = "payment.expired";
+
+    public static StatusStreamEvent from(OutboxEventType type, OrderEventPayload payload) {
+        String name = switch (type) {
+            case ORDER_PLACED -> ORDER_PLACED;
+            case ORDER_STATUS_CHANGED -> ORDER_STATUS;
+            case PAYMENT_COMPLETED -> PAYMENT_COMPLETED;
+            case PAYMENT_FAILED -> PAYMENT_EXPIRED;
+        };
+        return new StatusStreamEvent(name, payload.orderId(), payload.orderNumber(),
+                payload.previousStatus(), payload.newStatus(), Instant.now());
+    }
+}
@@ -0,0 +1,348 @@
+package com.wing.ecommercebackendwing.service.stream;
+
+import com.wing.ecommercebackendwing.config.StatusStreamProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Open status streams on this node, grouped by user.
+ *
+ * Every published event gets an id {@code <epoch>-<seq>}, where the epoch identifies this process,
+ * and is kept in a small per-user buffer. A client reconnecting with {@code Last-Event-ID} is sent
+ * the buffered events after that id. When the id comes from another process or the events after it
+ * were already dropped, the client gets a {@code resync} event instead and should reload the order
+ * or payment it is watching.
+ *
+ * Writes to client connections happen on a small sender pool, one task per user at a time, so
+ * events reach each client in order and a slow client never holds up the outbox workers.
+ */
+@Component
+@Slf4j
+public class StatusStreamHub {
+
+    static final String RESYNC = "resync";
+    static final String OVERLOADED = "overloaded";
+
+    private final StatusStreamProperties properties;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final ConcurrentMap<UUID, UserChannel> channels = new ConcurrentHashMap<>();
+    private final Executor sender;
+    private final LongFunction<SseEmitter> emitters;
+
+    @Autowired
+    public StatusStreamHub(StatusStreamProperties properties) {
+        this(properties, senderPool(properties), SseEmitter::new);
+    }
+
+    StatusStreamHub(StatusStreamProperties properties, Executor sender, LongFunction<SseEmitter> emitters) {
+        this.properties = properties;
+        this.sender = sender;
+        this.emitters = emitters;
+    }
+
+    private static ThreadPoolExecutor senderPool(StatusStreamProperties properties) {
+        int threads = Math.max(1, properties.getSenderThreads());
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getSenderQueueCapacity())),
+                new CustomizableThreadFactory("status-stream-"));
+    }
+
+    /**
+     * Opens a stream for the user, resuming after {@code lastEventId} when it can.
+     */
+    public SseEmitter subscribe(UUID userId, String lastEventId) {
+        if (openStreams.incrementAndGet() > properties.getMaxSubscribers()) {
+            openStreams.decrementAndGet();
+            log.warn("Status stream limit of {} reached; asking client to retry later", properties.getMaxSubscribers());
+            return overloaded();
+        }
+
+        Subscriber subscriber = new Subscriber(emitters.apply(properties.getEmitterTimeoutMs()));
+        List<Subscriber> evicted = new ArrayList<>();
+        UserChannel channel = channels.compute(userId, (id, current) -> {
+            UserChannel ch = current != null ? current : new UserChannel(sequence.get());
+            synchronized (ch) {
+                ch.pruneExpired(Instant.now().minusSeconds(properties.getReplayTtlSeconds()));
+                resumeFrom(ch, subscriber, lastEventId);
+                while (ch.subscribers.size() >= Math.max(1, properties.getMaxSubscribersPerUser())) {
+                    evicted.add(ch.subscribers.remove(0));
+                }
+                ch.subscribers.add(subscriber);
+            }
+            return ch;
+        });
+
+        Runnable remove = () -> detach(channel, subscriber);
+        subscriber.emitter.onCompletion(remove);
+        subscriber.emitter.onTimeout(remove);
+        subscriber.emitter.onError(error -> remove.run());
+        evicted.forEach(old -> {
+            openStreams.decrementAndGet();
+            old.emitter.complete();
+        });
+
+        // Sends the replay, or a first comment so proxies forward the response headers right away.
+        subscriber.heartbeatDue = true;
+        scheduleDrain(channel);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Delivers an event to the user's open streams and keeps it for resume.
+     */
+    public void publish(UUID userId, StatusStreamEvent event) {
+        Instant now = Instant.now();
+        UserChannel channel = channels.compute(userId, (id, current) -> {
+            UserChannel ch = current != null ? current : new UserChannel(sequence.get());
+            synchronized (ch) {
+                ch.lastActivity = now;
+                ch.recent.addLast(new Sent(sequence.incrementAndGet(), now, event));
+                ch.latestSeq = ch.recent.peekLast().seq;
+                while (ch.recent.size() > Math.max(1, properties.getReplaySize())) {
+                    ch.droppedUpTo = ch.recent.removeFirst().seq;
+                }
+                ch.pruneExpired(now.minusSeconds(properties.getReplayTtlSeconds()));
+            }
+            return ch;
+        });
+        scheduleDrain(channel);
+    }
+
+    @Scheduled(fixedDelayString = "${app.status-stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        Instant replayCutoff = Instant.now().minusSeconds(properties.getReplayTtlSeconds());
+        // An idle user's buffer is dropped once nothing in it could still be replayed.
+        for (UUID userId : channels.keySet()) {
+            UserChannel channel = channels.computeIfPresent(userId, (id, ch) -> {
+                synchronized (ch) {
+                    ch.pruneExpired(replayCutoff);
+                    boolean idle = ch.subscribers.isEmpty() && ch.recent.isEmpty() && ch.lastActivity.isBefore(replayCutoff);
+                    return idle ? null : ch;
+                }
+            });
+            if (channel != null && !channel.subscribers.isEmpty()) {
+                synchronized (channel) {
+                    channel.subscribers.forEach(subscriber -> subscriber.heartbeatDue = true);
+                }
+                scheduleDrain(channel);
+            }
+        }
+    }
+
+    public int openStreams() {
+        return openStreams.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        ExecutorService pool = sender instanceof ExecutorService service ? service : null;
+        if (pool != null) {
+            pool.shutdown();
+        }
+        for (UserChannel channel : channels.values()) {
+            List<Subscriber> subscribers;
+            synchronized (channel) {
+                subscribers = new ArrayList<>(channel.subscribers);
+            }
+            subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+        if (pool != null && !pool.awaitTermination(5, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+    }
+
+    String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    /** Picks the position the subscriber starts from. Caller holds the channel lock. */
+    private void resumeFrom(UserChannel channel, Subscriber subscriber, String lastEventId) {
+        subscriber.lastSentSeq = channel.latestSeq;
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator > 0 && epoch.equals(lastEventId.substring(0, separator))) {
+            try {
+                long seq = Long.parseLong(lastEventId.substring(separator + 1));
+                if (seq >= channel.droppedUpTo && seq <= sequence.get()) {
+                    subscriber.lastSentSeq = Math.min(seq, channel.latestSeq);
+                    return;
+                }
+            } catch (NumberFormatException ignored) {
+                // Not one of ours; fall through to a resync.
+            }
+        }
+        subscriber.resyncDue = true;
+    }
+
+    private void scheduleDrain(UserChannel channel) {
+        if (!channel.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(channel));
+        } catch (RejectedExecutionException e) {
+            // Left for the next publish or heartbeat; the buffer still holds the events.
+            channel.draining.set(false);
+            log.warn("Status stream sender queue full; delivery delayed");
+        }
+    }
+
+    private void drain(UserChannel channel) {
+        try {
+            List<Subscriber> subscribers;
+            List<Sent> recent;
+            long droppedUpTo;
+            synchronized (channel) {
+                subscribers = new ArrayList<>(channel.subscribers);
+                recent = new ArrayList<>(channel.recent);
+                droppedUpTo = channel.droppedUpTo;
+            }
+            for (Subscriber subscriber : subscribers) {
+                deliver(channel, subscriber, recent, droppedUpTo);
+            }
+        } finally {
+            channel.draining.set(false);
+        }
+        if (channel.hasUndelivered()) {
+            scheduleDrain(channel);
+        }
+    }
+
+    private void deliver(UserChannel channel, Subscriber subscriber, List<Sent> recent, long droppedUpTo) {
+        try {
+            boolean sent = false;
+            if (subscriber.resyncDue || subscriber.lastSentSeq < droppedUpTo) {
+                long latest = recent.isEmpty() ? Math.max(subscriber.lastSentSeq, droppedUpTo) : recent.get(recent.size() - 1).seq;
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(eventId(latest))
+                        .name(RESYNC)
+                        .data(Map.of("reason", "Events since Last-Event-ID are no longer available"), MediaType.APPLICATION_JSON));
+                subscriber.lastSentSeq = latest;
+                subscriber.resyncDue = false;
+                sent = true;
+            }
+            for (Sent event : recent) {
+                if (event.seq > subscriber.lastSentSeq) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(eventId(event.seq))
+                            .name(event.event.type())
+                            .data(event.event, MediaType.APPLICATION_JSON));
+                    subscriber.lastSentSeq = event.seq;
+                    sent = true;
+                }
+            }
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                if (!sent) {
+                    subscriber.emitter.send(SseEmitter.event().comment("ping"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container completes the emitter itself.
+            log.debug("Dropping status stream: {}", e.getMessage());
+            detach(channel, subscriber);
+        }
+    }
+
+    private void detach(UserChannel channel, Subscriber subscriber) {
+        boolean removed;
+        synchronized (channel) {
+            removed = channel.subscribers.remove(subscriber);
+            channel.lastActivity = Instant.now();
+        }
+        if (removed) {
+            openStreams.decrementAndGet();
+        }
+    }
+
+    private SseEmitter overloaded() {
+        SseEmitter emitter = emitters.apply(0L);
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(OVERLOADED)
+                    .reconnectTime(properties.getRetryAfterMs())
+                    .data(Map.of("reason", "Too many open streams, retry later"), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    private static final class UserChannel {
+        final List<Subscriber> subscribers = new ArrayList<>();
+        final ArrayDeque<Sent> recent = new ArrayDeque<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+        long latestSeq;
+        long droppedUpTo;
+        Instant lastActivity = Instant.now();
+
+        /**
+         * A new buffer cannot replay anything published before it existed, so ids older than
+         * {@code floor} get a resync.
+         */
+        UserChannel(long floor) {
+            this.latestSeq = floor;
+            this.droppedUpTo = floor;
+        }
+
+        void pruneExpired(Instant cutoff) {
+            while (!recent.isEmpty() && recent.peekFirst().at.isBefore(cutoff)) {
+                droppedUpTo = recent.removeFirst().seq;
+            }
+        }
+
+        synchronized boolean hasUndelivered() {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.lastSentSeq < latestSeq || subscriber.resyncDue || subscriber.heartbeatDue) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        volatile long lastSentSeq;
+        volatile boolean resyncDue;
+        volatile boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private record Sent(long seq, Instant at, StatusStreamEvent event) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.wing.ecommercebackendwing.service.stream;
+
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
+import com.wing.ecommercebackendwing.service.outbox.OrderEventPayload;
+import com.wing.ecommercebackendwing.service.outbox.OutboxEventHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Pushes order and payment events to the owner's open status streams.
+ *
+ * Delivery is best effort: the event is handed to the hub (and to the other replicas when
+ * clustering is on) and never fails the outbox handler, since a client that missed it will
+ * resync or read the state on its next request.
+ */
+@Component
+@Slf4j
+public class StatusStreamOutboxHandler implements OutboxEventHandler {
+
+    private final StatusStreamHub hub;
+    private final StatusStreamRelay relay;
+
+    public StatusStreamOutboxHandler(StatusStreamHub hub, ObjectProvider<StatusStreamRelay> relay) {
+        this.hub = hub;
+        this.relay = relay.getIfAvailable();
+    }
+
+    @Override
+    public String name() {
+        return "status-stream";
+    }
+
+    @Override
+    public boolean supports(OutboxEventType type) {
+        return true;
+    }
+
+    @Override
+    public void handle(UUID eventId, OutboxEventType type, OrderEventPayload payload) {
+        if (payload.userId() == null) {
+            return;
+        }
+        StatusStreamEvent event = StatusStreamEvent.from(type, payload);
+        hub.publish(payload.userId(), event);
+        if (relay != null) {
+            try {
+                relay.forward(payload.userId(), event);
+            } catch (RuntimeException e) {
+                log.warn("Failed to relay status event {} to other replicas: {}", eventId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.wing.ecommercebackendwing.service.stream;
+
+import java.util.UUID;
+
+/**
+ * Hands status events to the other replicas, whose users may hold their streams there.
+ */
+public interface StatusStreamRelay {
+
+    void forward(UUID userId, StatusStreamEvent event);
+}
@@ -1,39 +1,190 @@
 package com.wing.ecommercebackendwing.util;
 
-import com.wing.ecommercebackendwing.model.entity.Order;
 import com.wing.ecommercebackendwing.repository.OrderRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Hands out {@code ORD-yyyyMMdd-NNN} numbers from an in-memory block.
+ *
+ * Each day has its own Postgres sequence that steps by {@code blockSize}; one {@code nextval}
+ * reserves a block for this node. nextval runs on the caller's connection, is never rolled back
+ * and takes no row lock, so reserving a block needs no second pooled connection while the
+ * checkout holds its own. Replicas never share a block, so numbers are unique cluster-wide
+ * without scanning orders or retrying on the unique constraint. Numbers from different nodes
+ * interleave, and a restart leaves the rest of its block unused.
+ *
+ * The sequences for today and tomorrow are created in the background at startup and then hourly,
+ * and old ones are dropped, so the checkout path only ever reads them.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class OrderNumberGenerator {
 
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String SEQUENCE_PREFIX = "order_number_seq_";
+
+    /** Empty, rather than an error that would abort the caller's transaction, if the sequence is missing. */
+    private static final String NEXT_BLOCK_SQL = """
+            SELECT nextval(c.oid) AS high, s.seqincrement AS size
+            FROM pg_class c JOIN pg_sequence s ON s.seqrelid = c.oid
+            WHERE c.oid = to_regclass(?)
+            """;
+
+    private static final String CREATE_SQL = "CREATE SEQUENCE IF NOT EXISTS %s START WITH %d INCREMENT BY %d";
+
+    private static final String LIST_SQL = """
+            SELECT sequencename FROM pg_sequences
+            WHERE schemaname = current_schema() AND sequencename LIKE 'order\\_number\\_seq\\_%'
+            """;
+
     private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate sequenceTransaction;
+    private final Clock clock;
+    private final int blockSize;
+    private final Set<LocalDate> preparedDays = ConcurrentHashMap.newKeySet();
+
+    private LocalDate blockDay;
+    private long nextSequence;
+    private long blockEnd;
+
+    @Autowired
+    public OrderNumberGenerator(OrderRepository orderRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.order-number.block-size:20}") int blockSize) {
+        this(orderRepository, jdbcTemplate, transactionManager, blockSize, Clock.systemDefaultZone());
+    }
+
+    OrderNumberGenerator(OrderRepository orderRepository,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         int blockSize,
+                         Clock clock) {
+        this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceTransaction = new TransactionTemplate(transactionManager);
+        // Creating a day's sequence must not roll back with a failed checkout that happened to
+        // trigger it, or another node could recreate it and hand out the same numbers.
+        this.sequenceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+        this.clock = clock;
+    }
 
     public String generateOrderNumber() {
-        String datePrefix = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String prefix = "ORD-" + datePrefix + "-";
-        
-        Optional<Order> lastOrder = orderRepository.findFirstByOrderNumberStartingWithOrderByOrderNumberDesc(prefix);
-        
-        int nextSequence = 1;
-        if (lastOrder.isPresent()) {
-            String lastOrderNumber = lastOrder.get().getOrderNumber();
+        LocalDate today = LocalDate.now(clock);
+        if (!preparedDays.contains(today)) {
+            // Only before the startup preparation has finished. Done outside the monitor, so no
+            // other checkout waits on this one's second connection.
+            prepare(today);
+        }
+        synchronized (this) {
+            if (!today.equals(blockDay) || nextSequence >= blockEnd) {
+                allocateBlock(today);
+            }
+            return String.format("%s%03d", prefix(today), nextSequence++);
+        }
+    }
+
+    /**
+     * Creates the sequences for today and tomorrow ahead of their first checkout, and drops those
+     * for days before yesterday.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.order-number.prepare-cron:0 0 * * * *}")
+    public void prepareSequences() {
+        LocalDate today = LocalDate.now(clock);
+        prepare(today);
+        prepare(today.plusDays(1));
+        preparedDays.removeIf(day -> day.isBefore(today));
+        dropBefore(today.minusDays(1));
+    }
+
+    private void allocateBlock(LocalDate day) {
+        List<long[]> blocks = jdbcTemplate.query(NEXT_BLOCK_SQL,
+                (rs, row) -> new long[]{rs.getLong("high"), rs.getLong("size")}, sequenceName(day));
+        if (blocks.isEmpty()) {
+            preparedDays.remove(day);
+            throw new IllegalStateException("Order number sequence for " + day + " does not exist");
+        }
+        // The step is read from the sequence, so a node configured with another block size
+        // cannot overlap the blocks of the node that created it.
+        blockDay = day;
+        blockEnd = blocks.get(0)[0];
+        nextSequence = blockEnd - blocks.get(0)[1];
+        log.debug("Allocated order numbers {}..{} for {}", nextSequence, blockEnd - 1, day);
+    }
+
+    private void prepare(LocalDate day) {
+        if (preparedDays.contains(day)) {
+            return;
+        }
+        try {
+            sequenceTransaction.executeWithoutResult(status -> jdbcTemplate.execute(
+                    CREATE_SQL.formatted(sequenceName(day), firstUnusedSequence(day) + blockSize, blockSize)));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created it at the same moment; IF NOT EXISTS does not cover that race.
+            log.debug("Order number sequence for {} was created concurrently", day);
+        }
+        preparedDays.add(day);
+    }
+
+    private void dropBefore(LocalDate cutoff) {
+        for (String name : jdbcTemplate.queryForList(LIST_SQL, String.class)) {
             try {
-                String sequencePart = lastOrderNumber.substring(lastOrderNumber.lastIndexOf("-") + 1);
-                nextSequence = Integer.parseInt(sequencePart) + 1;
-            } catch (Exception e) {
-                log.warn("Failed to parse sequence from order number: {}", lastOrderNumber);
+                LocalDate day = LocalDate.parse(name.substring(SEQUENCE_PREFIX.length()), DAY_FORMAT);
+                if (day.isBefore(cutoff)) {
+                    jdbcTemplate.execute("DROP SEQUENCE IF EXISTS " + sequenceName(day));
+                }
+            } catch (DateTimeParseException e) {
+                log.warn("Ignoring unexpected sequence {}", name);
             }
         }
-        
-        return String.format("%s%03d", prefix, nextSequence);
+    }
+
+    /**
+     * Continues after any orders numbered before the day's sequence existed (e.g. a deploy mid-day).
+     * Runs once per day, not per order.
+     */
+    private long firstUnusedSequence(LocalDate day) {
+        String prefix = prefix(day);
+        return orderRepository.findFirstByOrderNumberStartingWithOrderByOrderNumberDesc(prefix)
+                .map(order -> {
+                    String lastOrderNumber = order.getOrderNumber();
+                    try {
+                        return Long.parseLong(lastOrderNumber.substring(lastOrderNumber.lastIndexOf("-") + 1)) + 1;
+                    } catch (Exception e) {
+                        log.warn("Failed to parse sequence from order number: {}", lastOrderNumber);
+                        return 1L;
+                    }
+                })
+                .orElse(1L);
+    }
+
+    private static String sequenceName(LocalDate day) {
+        return SEQUENCE_PREFIX + day.format(DAY_FORMAT);
+    }
+
+    private static String prefix(LocalDate day) {
+        return "ORD-" + day.format(DAY_FORMAT) + "-";
     }
 }
@@ -0,0 +1,89 @@
+package com.wing.ecommercebackendwing.benchmark;
+
+import com.wing.ecommercebackendwing.config.JwtProperties;
+import com.wing.ecommercebackendwing.model.entity.User;
+import com.wing.ecommercebackendwing.model.enums.UserRole;
+import com.wing.ecommercebackendwing.security.jwt.JwtClaims;
+import com.wing.ecommercebackendwing.security.jwt.JwtTokenProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU cost of authenticating a bearer token.
+ *
+ * legacyTripleParse replays what JwtAuthenticationFilter did before: validateToken, getJtiFromToken
+ * and getUsernameFromToken, each decoding the secret and building a fresh parser.
+ * singleParse is the current path: one verification against the cached parser.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.wing.ecommercebackendwing.benchmark.JwtAuthenticationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "dGhpcy1pcy1hLWJlbmNobWFyay1zZWNyZXQtdGhhdC1pcy1sb25nLWVub3VnaA==";
+
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        provider = new JwtTokenProvider(properties);
+        provider.validateConfig();
+
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+        user.setFirstName("Bench");
+        user.setLastName("User");
+        user.setRole(UserRole.CUSTOMER);
+        token = provider.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public void legacyTripleParse(Blackhole blackhole) {
+        blackhole.consume(legacyParser().parseSignedClaims(token));
+        blackhole.consume(legacyParser().parseSignedClaims(token).getPayload().getId());
+        blackhole.consume(legacyParser().parseSignedClaims(token).getPayload().getSubject());
+    }
+
+    @Benchmark
+    public void singleParse(Blackhole blackhole) {
+        JwtClaims claims = provider.parseAccessToken(token).orElseThrow();
+        blackhole.consume(claims.jti());
+        blackhole.consume(claims.subject());
+    }
+
+    private static io.jsonwebtoken.JwtParser legacyParser() {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser()
+                .verifyWith(key)
+                .requireIssuer("wing-api")
+                .requireAudience("wing-client")
+                .clockSkewSeconds(60)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
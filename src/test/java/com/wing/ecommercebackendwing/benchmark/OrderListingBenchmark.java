@@ -0,0 +1,260 @@
+package com.wing.ecommercebackendwing.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of a user's order history against Postgres, by page size.
+ *
+ * perOrderLoads replays the statements Hibernate issued before order listings had a fetch plan:
+ * the page and its count, then for every order its payment and delivery (the inverse side of
+ * one-to-ones, loaded with the order), its delivery address, its items, and each item's product.
+ * fetchPlan is the current path: the id page and its count, then one query joining everything
+ * OrderMapper reads. Both run on one connection over the same rows, so the gap is round trips.
+ *
+ * Tables are created as temporary tables and vanish with the connection. Point it at a database
+ * with -Dbench.datasource.url, -Dbench.datasource.username and -Dbench.datasource.password, or
+ * the SPRING_DATASOURCE_* environment variables.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.wing.ecommercebackendwing.benchmark.OrderListingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderListingBenchmark {
+
+    private static final int ORDERS = 2_000;
+    private static final int PRODUCTS = 5_000;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Param({"10", "50", "100"})
+    public int pageSize;
+
+    private Connection connection;
+    private UUID userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                setting("bench.datasource.url", "SPRING_DATASOURCE_URL", "jdbc:postgresql://localhost:5432/ecommerce"),
+                setting("bench.datasource.username", "SPRING_DATASOURCE_USERNAME", "postgres"),
+                setting("bench.datasource.password", "SPRING_DATASOURCE_PASSWORD", "postgres"));
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TEMP TABLE bench_products (id uuid PRIMARY KEY, slug text, images text)");
+            ddl.execute("CREATE TEMP TABLE bench_addresses (id uuid PRIMARY KEY, full_name text, phone text, street text, " +
+                    "city text, province text, postal_code text, country text)");
+            ddl.execute("CREATE TEMP TABLE bench_orders (id uuid PRIMARY KEY, order_number text, user_id uuid, " +
+                    "delivery_address_id uuid, status text, total numeric(10,2), order_date timestamp)");
+            ddl.execute("CREATE INDEX ON bench_orders (user_id, order_date)");
+            ddl.execute("CREATE TEMP TABLE bench_order_items (id uuid PRIMARY KEY, order_id uuid, product_id uuid, " +
+                    "product_name text, quantity int, unit_price numeric(10,2))");
+            ddl.execute("CREATE INDEX ON bench_order_items (order_id)");
+            ddl.execute("CREATE TEMP TABLE bench_payments (id uuid PRIMARY KEY, order_id uuid UNIQUE, status text, method text)");
+            ddl.execute("CREATE TEMP TABLE bench_deliveries (id uuid PRIMARY KEY, order_id uuid UNIQUE, status text)");
+        }
+        seed();
+        try (Statement analyze = connection.createStatement()) {
+            analyze.execute("ANALYZE");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void perOrderLoads(Blackhole blackhole) throws SQLException {
+        List<UUID> orderIds = new ArrayList<>(pageSize);
+        List<UUID> addressIds = new ArrayList<>(pageSize);
+        try (PreparedStatement page = connection.prepareStatement(
+                "SELECT * FROM bench_orders WHERE user_id = ? ORDER BY order_date DESC LIMIT ? OFFSET 0")) {
+            page.setObject(1, userId);
+            page.setInt(2, pageSize);
+            try (ResultSet rows = page.executeQuery()) {
+                while (rows.next()) {
+                    orderIds.add(rows.getObject("id", UUID.class));
+                    addressIds.add(rows.getObject("delivery_address_id", UUID.class));
+                    blackhole.consume(rows.getString("order_number"));
+                }
+            }
+        }
+        count(blackhole);
+        Set<UUID> loadedProducts = new HashSet<>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            UUID orderId = orderIds.get(i);
+            consumeAll(blackhole, "SELECT * FROM bench_payments WHERE order_id = ?", orderId);
+            consumeAll(blackhole, "SELECT * FROM bench_deliveries WHERE order_id = ?", orderId);
+            consumeAll(blackhole, "SELECT * FROM bench_addresses WHERE id = ?", addressIds.get(i));
+            List<UUID> productIds = new ArrayList<>(ITEMS_PER_ORDER);
+            try (PreparedStatement items = connection.prepareStatement("SELECT * FROM bench_order_items WHERE order_id = ?")) {
+                items.setObject(1, orderId);
+                try (ResultSet rows = items.executeQuery()) {
+                    while (rows.next()) {
+                        productIds.add(rows.getObject("product_id", UUID.class));
+                        blackhole.consume(rows.getString("product_name"));
+                    }
+                }
+            }
+            for (UUID productId : productIds) {
+                // The persistence context only loads each product once per page.
+                if (loadedProducts.add(productId)) {
+                    consumeAll(blackhole, "SELECT * FROM bench_products WHERE id = ?", productId);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void fetchPlan(Blackhole blackhole) throws SQLException {
+        List<UUID> orderIds = new ArrayList<>(pageSize);
+        try (PreparedStatement page = connection.prepareStatement(
+                "SELECT id FROM bench_orders WHERE user_id = ? ORDER BY order_date DESC LIMIT ? OFFSET 0")) {
+            page.setObject(1, userId);
+            page.setInt(2, pageSize);
+            try (ResultSet rows = page.executeQuery()) {
+                while (rows.next()) {
+                    orderIds.add(rows.getObject(1, UUID.class));
+                }
+            }
+        }
+        count(blackhole);
+        Array ids = connection.createArrayOf("uuid", orderIds.toArray());
+        try (PreparedStatement details = connection.prepareStatement(
+                "SELECT o.*, i.*, p.*, pay.*, d.*, a.* FROM bench_orders o " +
+                        "LEFT JOIN bench_order_items i ON i.order_id = o.id " +
+                        "LEFT JOIN bench_products p ON p.id = i.product_id " +
+                        "LEFT JOIN bench_payments pay ON pay.order_id = o.id " +
+                        "LEFT JOIN bench_deliveries d ON d.order_id = o.id " +
+                        "LEFT JOIN bench_addresses a ON a.id = o.delivery_address_id " +
+                        "WHERE o.id = ANY(?)")) {
+            details.setArray(1, ids);
+            try (ResultSet rows = details.executeQuery()) {
+                int columns = rows.getMetaData().getColumnCount();
+                while (rows.next()) {
+                    for (int c = 1; c <= columns; c++) {
+                        blackhole.consume(rows.getObject(c));
+                    }
+                }
+            }
+        }
+    }
+
+    private void count(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement count = connection.prepareStatement("SELECT COUNT(*) FROM bench_orders WHERE user_id = ?")) {
+            count.setObject(1, userId);
+            try (ResultSet rows = count.executeQuery()) {
+                rows.next();
+                blackhole.consume(rows.getLong(1));
+            }
+        }
+    }
+
+    private void consumeAll(Blackhole blackhole, String sql, UUID id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, id);
+            try (ResultSet rows = statement.executeQuery()) {
+                int columns = rows.getMetaData().getColumnCount();
+                while (rows.next()) {
+                    for (int c = 1; c <= columns; c++) {
+                        blackhole.consume(rows.getObject(c));
+                    }
+                }
+            }
+        }
+    }
+
+    private void seed() throws SQLException {
+        Random random = new Random(42);
+        userId = UUID.randomUUID();
+        List<UUID> products = new ArrayList<>(PRODUCTS);
+        connection.setAutoCommit(false);
+        try (PreparedStatement product = connection.prepareStatement("INSERT INTO bench_products VALUES (?, ?, ?)")) {
+            for (int i = 0; i < PRODUCTS; i++) {
+                UUID id = UUID.randomUUID();
+                products.add(id);
+                product.setObject(1, id);
+                product.setString(2, "product-" + i);
+                product.setString(3, "[\"https://cdn.example.com/p" + i + ".jpg\"]");
+                product.addBatch();
+            }
+            product.executeBatch();
+        }
+        try (PreparedStatement address = connection.prepareStatement("INSERT INTO bench_addresses VALUES (?, 'Buyer', '+85512345678', 'Street', 'Phnom Penh', 'PP', '12000', 'KH')");
+             PreparedStatement order = connection.prepareStatement("INSERT INTO bench_orders VALUES (?, ?, ?, ?, 'DELIVERED', 30.00, ?)");
+             PreparedStatement item = connection.prepareStatement("INSERT INTO bench_order_items VALUES (?, ?, ?, 'Product', 1, 10.00)");
+             PreparedStatement payment = connection.prepareStatement("INSERT INTO bench_payments VALUES (?, ?, 'COMPLETED', 'KHQR')");
+             PreparedStatement delivery = connection.prepareStatement("INSERT INTO bench_deliveries VALUES (?, ?, 'DELIVERED')")) {
+            Instant start = Instant.parse("2025-01-01T00:00:00Z");
+            for (int o = 0; o < ORDERS; o++) {
+                UUID orderId = UUID.randomUUID();
+                UUID addressId = UUID.randomUUID();
+                address.setObject(1, addressId);
+                address.addBatch();
+                order.setObject(1, orderId);
+                order.setString(2, "ORD-" + o);
+                order.setObject(3, userId);
+                order.setObject(4, addressId);
+                order.setTimestamp(5, Timestamp.from(start.plusSeconds(3600L * o)));
+                order.addBatch();
+                for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                    item.setObject(1, UUID.randomUUID());
+                    item.setObject(2, orderId);
+                    item.setObject(3, products.get(random.nextInt(PRODUCTS)));
+                    item.addBatch();
+                }
+                payment.setObject(1, UUID.randomUUID());
+                payment.setObject(2, orderId);
+                payment.addBatch();
+                delivery.setObject(1, UUID.randomUUID());
+                delivery.setObject(2, orderId);
+                delivery.addBatch();
+            }
+            address.executeBatch();
+            order.executeBatch();
+            item.executeBatch();
+            payment.executeBatch();
+            delivery.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private static String setting(String property, String environment, String fallback) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            value = System.getenv(environment);
+        }
+        return value != null ? value : fallback;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderListingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,200 @@
+package com.wing.ecommercebackendwing.benchmark;
+
+import com.wing.ecommercebackendwing.dto.mapper.ProductMapper;
+import com.wing.ecommercebackendwing.dto.response.product.ProductResponse;
+import com.wing.ecommercebackendwing.model.entity.Category;
+import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.service.product.ProductSummary;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FlushModeType;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernatePersistenceConfiguration;
+import org.hibernate.tool.schema.Action;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of the product listing loaded from Postgres through Hibernate, by page size.
+ *
+ * entities replays the old path: the page's products as entities in a read-only session, the
+ * way a read-only repository transaction loads them, mapped with ProductMapper. projection is the
+ * current path: the listing columns as ProductSummary records. Products carry a long description
+ * and dimensions, as real catalog rows do, which only the entity path reads.
+ *
+ * Scores are pages per second; multiply by pageSize for rows per second. Run with -prof gc for
+ * allocation: gc.alloc.rate.norm is bytes allocated per page.
+ *
+ * The schema is created in its own Postgres schema and dropped afterwards. Point it at a database
+ * with -Dbench.datasource.url, -Dbench.datasource.username and -Dbench.datasource.password, or
+ * the SPRING_DATASOURCE_* environment variables.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.wing.ecommercebackendwing.benchmark.ProductListingBenchmark -Dexec.args="-prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductListingBenchmark {
+
+    private static final int PRODUCTS = 20_000;
+    private static final String SCHEMA = "listing_bench";
+    private static final String ENTITY_PAGE = "SELECT p FROM Product p WHERE p.id IN :productIds";
+    private static final String PROJECTION_PAGE =
+            "SELECT new com.wing.ecommercebackendwing.service.product.ProductSummary(" + ProductRepository.SUMMARY_COLUMNS + ") " +
+                    "FROM Product p LEFT JOIN p.merchant m WHERE p.id IN :productIds";
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private EntityManagerFactory entityManagerFactory;
+    private final List<UUID> ids = new ArrayList<>(PRODUCTS);
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HibernatePersistenceConfiguration configuration = new HibernatePersistenceConfiguration("listing-bench")
+                .jdbcUrl(setting("bench.datasource.url", "SPRING_DATASOURCE_URL", "jdbc:postgresql://localhost:5432/ecommerce"))
+                .jdbcCredentials(setting("bench.datasource.username", "SPRING_DATASOURCE_USERNAME", "postgres"),
+                        setting("bench.datasource.password", "SPRING_DATASOURCE_PASSWORD", "postgres"))
+                .schemaToolingAction(Action.CREATE_DROP)
+                .property("hibernate.default_schema", SCHEMA)
+                .property("jakarta.persistence.create-database-schemas", "true")
+                .property("hibernate.jdbc.batch_size", "500")
+                .property("hibernate.order_inserts", "true");
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition entity : scanner.findCandidateComponents(Product.class.getPackageName())) {
+            try {
+                configuration.managedClass(Class.forName(entity.getBeanClassName()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        entityManagerFactory = configuration.createEntityManagerFactory();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public void entities(Blackhole blackhole) {
+        List<UUID> page = page();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.unwrap(Session.class).setDefaultReadOnly(true);
+            entityManager.setFlushMode(FlushModeType.COMMIT);
+            entityManager.getTransaction().begin();
+            List<Product> products = entityManager.createQuery(ENTITY_PAGE, Product.class)
+                    .setParameter("productIds", page)
+                    .getResultList();
+            for (Product product : products) {
+                ProductResponse response = ProductMapper.toResponse(product);
+                blackhole.consume(response);
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public void projection(Blackhole blackhole) {
+        List<UUID> page = page();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            List<ProductSummary> products = entityManager.createQuery(PROJECTION_PAGE, ProductSummary.class)
+                    .setParameter("productIds", page)
+                    .getResultList();
+            for (ProductSummary product : products) {
+                ProductResponse response = ProductMapper.toResponse(product);
+                blackhole.consume(response);
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /** A random contiguous run of ids, so both paths read the same mix of rows. */
+    private List<UUID> page() {
+        int from = random.nextInt(ids.size() - pageSize);
+        return ids.subList(from, from + pageSize);
+    }
+
+    private void seed() {
+        String description = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(40);
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            Category category = new Category();
+            category.setName("Bench");
+            category.setSlug("bench");
+            entityManager.persist(category);
+            Instant now = Instant.now();
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = Product.builder()
+                        .name("Product " + i)
+                        .slug("product-" + i)
+                        .description(description)
+                        .dimensions("30 x 20 x 10 cm")
+                        .sku("SKU-" + i)
+                        .price(BigDecimal.valueOf(100 + random.nextInt(10_000), 2))
+                        .stockQuantity(random.nextInt(100))
+                        .images("[\"https://cdn.example.com/p" + i + ".jpg\"]")
+                        .rating(BigDecimal.valueOf(random.nextInt(500), 2))
+                        .category(category)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build();
+                entityManager.persist(product);
+                ids.add(product.getId());
+                if (i % 500 == 499) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    category = entityManager.getReference(Category.class, category.getId());
+                }
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static String setting(String property, String environment, String fallback) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            value = System.getenv(environment);
+        }
+        return value != null ? value : fallback;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductListingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
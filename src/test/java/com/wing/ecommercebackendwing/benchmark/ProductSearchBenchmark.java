@@ -0,0 +1,158 @@
+package com.wing.ecommercebackendwing.benchmark;
+
+import com.wing.ecommercebackendwing.config.SearchProperties;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.service.search.ProductSearchDocument;
+import com.wing.ecommercebackendwing.service.search.ProductSearchIndex;
+import com.wing.ecommercebackendwing.service.search.SearchHits;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product search over a 1M product catalog.
+ *
+ * likeScan replays what the SQL LIKE fallback costs Postgres: a sequential pass lower-casing
+ * name and description of every row and testing each for the substring, then (unranked) the first
+ * page. Running it in memory leaves out I/O, so it is a lower bound for the SQL query.
+ * invertedIndex is the current path through ProductSearchIndex: ranked, all words required, the
+ * last one as a prefix. Catalog text is drawn from a Zipf-like vocabulary so common and rare
+ * words both occur; the query set mixes both and includes a short prefix.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.wing.ecommercebackendwing.benchmark.ProductSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"common", "rare", "twoWords", "prefix"})
+    public String queryKind;
+
+    private String[] names;
+    private String[] descriptions;
+    private ProductSearchIndex index;
+    private String query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary[i] = word(random);
+        }
+
+        List<ProductSearchDocument> catalog = new ArrayList<>(PRODUCTS);
+        names = new String[PRODUCTS];
+        descriptions = new String[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            names[i] = words(random, vocabulary, 3);
+            descriptions[i] = words(random, vocabulary, 20);
+            catalog.add(new ProductSearchDocument(UUID.randomUUID(), names[i], descriptions[i],
+                    vocabulary[random.nextInt(30)], random.nextInt(2000), BigDecimal.valueOf(random.nextInt(50), 1)));
+        }
+
+        index = new ProductSearchIndex(repositoryOver(catalog), new SearchProperties());
+        // The index logs its build time, product and term counts.
+        index.rebuild();
+
+        query = switch (queryKind) {
+            case "common" -> vocabulary[1];
+            case "rare" -> vocabulary[VOCABULARY / 2];
+            case "twoWords" -> vocabulary[3] + " " + vocabulary[40];
+            default -> vocabulary[2].substring(0, 2);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        index.shutdown();
+    }
+
+    @Benchmark
+    public void likeScan(Blackhole blackhole) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        int matches = 0;
+        for (int i = 0; i < PRODUCTS; i++) {
+            if (names[i].toLowerCase(Locale.ROOT).contains(needle) || descriptions[i].toLowerCase(Locale.ROOT).contains(needle)) {
+                if (matches < PAGE_SIZE) {
+                    blackhole.consume(i);
+                }
+                matches++;
+            }
+        }
+        blackhole.consume(matches);
+    }
+
+    @Benchmark
+    public SearchHits invertedIndex() {
+        return index.search(query, 0, PAGE_SIZE);
+    }
+
+    /**
+     * Serves keyset pages of the catalog the way findSearchDocumentsAfter does. Postgres orders
+     * uuids as unsigned bytes, which is their hex string order, not UUID.compareTo's signed one.
+     */
+    private static ProductRepository repositoryOver(List<ProductSearchDocument> catalog) {
+        List<ProductSearchDocument> byId = new ArrayList<>(catalog);
+        byId.sort(Comparator.comparing((ProductSearchDocument document) -> document.id().toString()));
+        List<String> ids = byId.stream().map(document -> document.id().toString()).toList();
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findSearchDocumentsAfter")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    int found = Collections.binarySearch(ids, args[0].toString());
+                    int from = found >= 0 ? found + 1 : -found - 1;
+                    int to = Math.min(byId.size(), from + ((Pageable) args[1]).getPageSize());
+                    return byId.subList(from, to);
+                });
+    }
+
+    private static String word(Random random) {
+        int length = 3 + random.nextInt(7);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static String words(Random random, String[] vocabulary, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            // Zipf-like: low indexes are much more frequent.
+            int rank = (int) Math.min(vocabulary.length - 1, Math.floor(Math.pow(vocabulary.length, random.nextDouble())) - 1);
+            text.append(vocabulary[rank]).append(' ');
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
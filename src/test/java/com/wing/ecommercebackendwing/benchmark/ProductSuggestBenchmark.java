@@ -0,0 +1,172 @@
+package com.wing.ecommercebackendwing.benchmark;
+
+import com.wing.ecommercebackendwing.config.SuggestProperties;
+import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.service.search.ProductSuggestDocument;
+import com.wing.ecommercebackendwing.service.search.ProductSuggestIndex;
+import com.wing.ecommercebackendwing.service.search.Suggestion;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead suggestions over a 1M product catalog, sampled so the report shows p99 and p99.9.
+ *
+ * likeScan replays what a LIKE '%typed%' query per keystroke costs: a pass over every name
+ * keeping the best ten matches by popularity. Running it in memory leaves out I/O, so it is a
+ * lower bound for the SQL query. prefixIndex is the current path through ProductSuggestIndex.
+ * Prefix lengths run from one character, the widest range, to a whole word.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.wing.ecommercebackendwing.benchmark.ProductSuggestBenchmark
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProductSuggestBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int LIMIT = 10;
+
+    @Param({"1", "2", "3", "word"})
+    public String typed;
+
+    private String[] names;
+    private int[] sold;
+    private ProductSuggestIndex index;
+    private String prefix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary[i] = word(random);
+        }
+
+        List<ProductSuggestDocument> catalog = new ArrayList<>(PRODUCTS);
+        names = new String[PRODUCTS];
+        sold = new int[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            names[i] = words(random, vocabulary, 3);
+            sold[i] = (int) Math.floor(Math.pow(10_000, random.nextDouble()));
+            catalog.add(new ProductSuggestDocument(UUID.randomUUID(), names[i], "product-" + i, null, sold[i], random.nextInt(50_000)));
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        index = new ProductSuggestIndex(repositoryOver(catalog), noCategories(), new SuggestProperties());
+        index.rebuild();
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        log.info("Suggestion index heap: +{} MiB", (heapAfter - heapBefore) >> 20);
+
+        String common = vocabulary[1];
+        prefix = switch (typed) {
+            case "word" -> common;
+            default -> common.substring(0, Math.min(common.length(), Integer.parseInt(typed)));
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        index.shutdown();
+    }
+
+    @Benchmark
+    public void likeScan(Blackhole blackhole) {
+        String needle = prefix.toLowerCase(Locale.ROOT);
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.comparingInt(i -> sold[i]));
+        for (int i = 0; i < PRODUCTS; i++) {
+            if (names[i].toLowerCase(Locale.ROOT).contains(needle)) {
+                best.add(i);
+                if (best.size() > LIMIT) {
+                    best.poll();
+                }
+            }
+        }
+        blackhole.consume(best);
+    }
+
+    @Benchmark
+    public List<Suggestion> prefixIndex() {
+        return index.suggest(prefix, LIMIT);
+    }
+
+    /**
+     * Serves keyset pages of the catalog the way findSuggestDocumentsAfter does. Postgres orders
+     * uuids as unsigned bytes, which is their hex string order, not UUID.compareTo's signed one.
+     */
+    private static ProductRepository repositoryOver(List<ProductSuggestDocument> catalog) {
+        List<ProductSuggestDocument> byId = new ArrayList<>(catalog);
+        byId.sort(Comparator.comparing((ProductSuggestDocument document) -> document.id().toString()));
+        List<String> ids = byId.stream().map(document -> document.id().toString()).toList();
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findSuggestDocumentsAfter")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    int found = Collections.binarySearch(ids, args[0].toString());
+                    int from = found >= 0 ? found + 1 : -found - 1;
+                    int to = Math.min(byId.size(), from + ((Pageable) args[1]).getPageSize());
+                    return byId.subList(from, to);
+                });
+    }
+
+    private static CategoryRepository noCategories() {
+        return (CategoryRepository) Proxy.newProxyInstance(CategoryRepository.class.getClassLoader(),
+                new Class<?>[]{CategoryRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findByIsActiveTrue")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return List.of();
+                });
+    }
+
+    private static String word(Random random) {
+        int length = 3 + random.nextInt(7);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static String words(Random random, String[] vocabulary, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            // Zipf-like: low indexes are much more frequent.
+            int rank = (int) Math.min(vocabulary.length - 1, Math.floor(Math.pow(vocabulary.length, random.nextDouble())) - 1);
+            text.append(i > 0 ? " " : "").append(vocabulary[rank]);
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSuggestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.wing.ecommercebackendwing.benchmark;
+
+import com.wing.ecommercebackendwing.config.RateLimitProperties;
+import com.wing.ecommercebackendwing.security.ratelimit.RateLimitDecision;
+import com.wing.ecommercebackendwing.security.ratelimit.RateLimiterEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credential-stuffing flood against /api/auth/login from many threads.
+ *
+ * hotKey: every thread hammers the same IP, so all CAS traffic lands on one limiter.
+ * rotatingIps: every request comes from a fresh IP, so the key store churns at its size bound.
+ * Run with -prof gc to confirm allocation per op stays constant and the heap does not grow;
+ * the key store size is logged at teardown, and exceeding store.max-keys fails the run.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.wing.ecommercebackendwing.benchmark.RateLimiterFloodBenchmark
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(value = 1, jvmArgs = {"-Xmx256m"})
+public class RateLimiterFloodBenchmark {
+
+    private static final long MAX_KEYS = 100_000;
+
+    private RateLimiterEngine engine;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getStore().setMaxKeys(MAX_KEYS);
+        engine = new RateLimiterEngine(properties, System::nanoTime);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.getKeyStore().cleanUp();
+        long keyStoreSize = engine.getKeyStore().estimatedSize();
+        log.info("Key store size: {} (max {})", keyStoreSize, MAX_KEYS);
+        if (keyStoreSize > MAX_KEYS) {
+            throw new IllegalStateException("Key store grew past its bound: " + keyStoreSize);
+        }
+    }
+
+    @Benchmark
+    public void hotKey(Blackhole blackhole) {
+        RateLimitDecision decision = engine.check("POST", "/api/auth/login", "203.0.113.7", null);
+        blackhole.consume(decision);
+    }
+
+    @Benchmark
+    public void rotatingIps(Blackhole blackhole) {
+        int ip = ThreadLocalRandom.current().nextInt();
+        String clientIp = (ip >>> 24) + "." + (ip >>> 16 & 0xFF) + "." + (ip >>> 8 & 0xFF) + "." + (ip & 0xFF);
+        blackhole.consume(engine.check("POST", "/api/auth/login", clientIp, null));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterFloodBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -46,6 +46,14 @@ class ControllerValidationAnnotationTest {
         assertTrue(hasValidAnnotation(method, 1));
     }
 
+    @Test
+    void applyCartBatch_shouldRequireValidRequestBody() throws NoSuchMethodException {
+        Method method = CartController.class.getMethod("applyBatch",
+                com.wing.ecommercebackendwing.security.CustomUserDetails.class,
+                com.wing.ecommercebackendwing.dto.request.cart.CartBatchRequest.class);
+        assertTrue(hasValidAnnotation(method, 1));
+    }
+
     private boolean hasValidAnnotation(Method method, int parameterIndex) {
         Parameter parameter = method.getParameters()[parameterIndex];
         return Arrays.stream(parameter.getAnnotations())
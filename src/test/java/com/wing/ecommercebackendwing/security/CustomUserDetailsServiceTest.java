@@ -0,0 +1,85 @@
+package com.wing.ecommercebackendwing.security;
+
+import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.security.jwt.JwtClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserStatusCache userStatusCache;
+    private CustomUserDetailsService userDetailsService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        userStatusCache = new UserStatusCache(userRepository, event -> { }, 100, 300);
+        userDetailsService = new CustomUserDetailsService(userRepository, userStatusCache);
+    }
+
+    @Test
+    void loadUserFromClaims_ShouldBuildPrincipalWithoutUserLookup() {
+        when(userRepository.findAccountStatusById(userId))
+                .thenReturn(Optional.of(new UserAccountStatus(true, false, null)));
+
+        CustomUserDetails first = userDetailsService.loadUserFromClaims(claims("CUSTOMER"));
+        CustomUserDetails second = userDetailsService.loadUserFromClaims(claims("CUSTOMER"));
+
+        assertEquals(userId, first.getUserId());
+        assertEquals("u@example.com", first.getUsername());
+        assertEquals("ROLE_CUSTOMER", first.getAuthorities().iterator().next().getAuthority());
+        assertTrue(first.isEnabled());
+        assertTrue(second.isAccountNonLocked());
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository, times(1)).findAccountStatusById(userId);
+    }
+
+    @Test
+    void loadUserFromClaims_ShouldReloadStatusAfterInvalidation() {
+        when(userRepository.findAccountStatusById(userId))
+                .thenReturn(Optional.of(new UserAccountStatus(true, false, null)))
+                .thenReturn(Optional.of(new UserAccountStatus(false, true, Instant.now().plusSeconds(600))));
+
+        assertTrue(userDetailsService.loadUserFromClaims(claims("CUSTOMER")).isEnabled());
+
+        userStatusCache.invalidate(userId);
+        CustomUserDetails afterRevoke = userDetailsService.loadUserFromClaims(claims("CUSTOMER"));
+
+        assertFalse(afterRevoke.isEnabled());
+        assertFalse(afterRevoke.isAccountNonLocked());
+    }
+
+    @Test
+    void loadUserFromClaims_ShouldTreatExpiredLockAsUnlocked() {
+        when(userRepository.findAccountStatusById(userId))
+                .thenReturn(Optional.of(new UserAccountStatus(true, true, Instant.now().minusSeconds(1))));
+
+        assertTrue(userDetailsService.loadUserFromClaims(claims("ADMIN")).isAccountNonLocked());
+    }
+
+    private JwtClaims claims(String role) {
+        Instant now = Instant.now();
+        return new JwtClaims(UUID.randomUUID().toString(), "u@example.com", userId, role, now, now.plusSeconds(3600));
+    }
+}
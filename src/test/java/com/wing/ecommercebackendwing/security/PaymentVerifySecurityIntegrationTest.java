@@ -1,11 +1,13 @@
 package com.wing.ecommercebackendwing.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wing.ecommercebackendwing.config.RateLimitProperties;
 import com.wing.ecommercebackendwing.controller.PaymentController;
 import com.wing.ecommercebackendwing.security.jwt.JwtAuthenticationEntryPoint;
 import com.wing.ecommercebackendwing.security.jwt.JwtAuthenticationFilter;
 import com.wing.ecommercebackendwing.security.jwt.JwtTokenProvider;
 import com.wing.ecommercebackendwing.security.jwt.TokenBlacklistService;
+import com.wing.ecommercebackendwing.security.ratelimit.RateLimiterEngine;
 import com.wing.ecommercebackendwing.service.PaymentService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +15,6 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -51,13 +52,14 @@ class PaymentVerifySecurityIntegrationTest {
         JwtTokenProvider jwtTokenProvider() {
             JwtTokenProvider provider = mock(JwtTokenProvider.class);
             when(provider.validateToken(org.mockito.ArgumentMatchers.anyString())).thenReturn(false);
+            when(provider.parseAccessToken(org.mockito.ArgumentMatchers.anyString())).thenReturn(java.util.Optional.empty());
             return provider;
         }
 
         @Bean
         @Primary
-        UserDetailsService userDetailsService() {
-            return mock(UserDetailsService.class);
+        CustomUserDetailsService userDetailsService() {
+            return mock(CustomUserDetailsService.class);
         }
 
         @Bean
@@ -70,12 +72,18 @@ class PaymentVerifySecurityIntegrationTest {
         @Primary
         JwtAuthenticationFilter jwtAuthenticationFilter(
                 JwtTokenProvider tokenProvider,
-                UserDetailsService userDetailsService,
+                CustomUserDetailsService userDetailsService,
                 TokenBlacklistService tokenBlacklistService
         ) {
             return new JwtAuthenticationFilter(tokenProvider, userDetailsService, tokenBlacklistService);
         }
 
+        @Bean
+        @Primary
+        RateLimiterEngine rateLimiterEngine() {
+            return new RateLimiterEngine(new RateLimitProperties(), System::nanoTime);
+        }
+
         @Bean
         @Primary
         JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint() {
@@ -0,0 +1,97 @@
+package com.wing.ecommercebackendwing.security.cluster;
+
+import com.wing.ecommercebackendwing.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ClusterRateLimitCoordinatorTest {
+
+    private static final long HOUR_SECONDS = 3600;
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private ClusterRateLimitCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = new ClusterRateLimitCoordinator(jdbcTemplate, new RateLimitProperties());
+    }
+
+    @Test
+    void tryAcquire_ShouldCountHitsBeingFlushed_UntilTheClusterTotalArrives() throws Exception {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            assertTrue(coordinator.tryAcquire("ip:1", 3, HOUR_SECONDS).allowed());
+        }
+        boolean[] allowedDuringFlush = new boolean[1];
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString(1)).thenReturn("ip:1");
+        when(row.getLong(2)).thenReturn(windowStart(HOUR_SECONDS));
+        when(row.getLong(3)).thenReturn(3L);
+        doAnswer(invocation -> {
+            allowedDuringFlush[0] = coordinator.tryAcquire("ip:1", 3, HOUR_SECONDS).allowed();
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // Act
+        coordinator.flush();
+
+        // Assert
+        assertFalse(allowedDuringFlush[0]);
+        assertFalse(coordinator.tryAcquire("ip:1", 3, HOUR_SECONDS).allowed());
+    }
+
+    @Test
+    void flush_ShouldStillReportHits_FromAWindowThatHasEnded() throws InterruptedException {
+        // Arrange
+        coordinator.tryAcquire("ip:1", 10, 1);
+        TimeUnit.MILLISECONDS.sleep(1000 - Math.floorMod(System.currentTimeMillis(), 1000) + 10);
+
+        // Act
+        coordinator.flush();
+        coordinator.flush();
+
+        // Assert
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void flush_ShouldKeepDeltas_WhenTheUpsertFails() {
+        // Arrange
+        assertTrue(coordinator.tryAcquire("ip:1", 1, HOUR_SECONDS).allowed());
+        doThrow(new DataAccessResourceFailureException("down"))
+                .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // Act
+        coordinator.flush();
+        coordinator.flush();
+
+        // Assert
+        assertFalse(coordinator.tryAcquire("ip:1", 1, HOUR_SECONDS).allowed());
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static long windowStart(long windowSeconds) {
+        long now = System.currentTimeMillis();
+        return now - Math.floorMod(now, TimeUnit.SECONDS.toMillis(windowSeconds));
+    }
+}
@@ -0,0 +1,88 @@
+package com.wing.ecommercebackendwing.security.cluster;
+
+import com.wing.ecommercebackendwing.config.ClusterProperties;
+import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.security.UserAccountStatus;
+import com.wing.ecommercebackendwing.security.UserStatusCache;
+import com.wing.ecommercebackendwing.security.UserStatusChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserStatusSyncTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PostgresNotificationListener notificationListener;
+
+    private final ClusterProperties clusterProperties = new ClusterProperties();
+    private final List<Object> published = new ArrayList<>();
+    private final UUID userId = UUID.randomUUID();
+
+    private UserStatusCache userStatusCache;
+    private UserStatusSync userStatusSync;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findAccountStatusById(userId))
+                .thenReturn(Optional.of(new UserAccountStatus(true, false, null)))
+                .thenReturn(Optional.of(new UserAccountStatus(false, false, null)));
+        userStatusCache = new UserStatusCache(userRepository, published::add, 100, 300);
+        userStatusSync = new UserStatusSync(userStatusCache, jdbcTemplate, notificationListener, clusterProperties);
+    }
+
+    @Test
+    void invalidate_ShouldNotifyPeers_OnTheUserStatusChannel() {
+        // Act
+        userStatusCache.invalidate(userId);
+        published.forEach(event -> userStatusSync.onUserStatusChanged((UserStatusChangedEvent) event));
+
+        // Assert
+        assertEquals(List.of(new UserStatusChangedEvent(userId)), published);
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq(clusterProperties.getUserStatusChannel()), eq(userId.toString()));
+    }
+
+    @Test
+    void onNotification_ShouldReloadStatus_WhenAnotherNodeChangedIt() {
+        // Arrange
+        assertTrue(userStatusCache.get(userId).isEnabled());
+
+        // Act
+        userStatusSync.onNotification(userId.toString());
+
+        // Assert
+        assertFalse(userStatusCache.get(userId).isEnabled());
+        assertTrue(published.isEmpty(), "a peer's change was published again");
+    }
+
+    @Test
+    void onNotification_ShouldKeepCachedStatus_WhenPayloadIsMalformed() {
+        // Arrange
+        assertTrue(userStatusCache.get(userId).isEnabled());
+
+        // Act
+        userStatusSync.onNotification("not-a-uuid");
+
+        // Assert
+        assertTrue(userStatusCache.get(userId).isEnabled());
+        verify(userRepository, times(1)).findAccountStatusById(userId);
+    }
+}
@@ -0,0 +1,65 @@
+package com.wing.ecommercebackendwing.security.jwt;
+
+import com.wing.ecommercebackendwing.config.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TokenBlacklistServiceTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private TokenBlacklistService tokenBlacklistService;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("unused-in-this-test-unused-in-this-test");
+        tokenBlacklistService = new TokenBlacklistService(jwtProperties, eventPublisher, 1_000);
+    }
+
+    @Test
+    void blacklist_ShouldRejectTokenAndPublishForPeers() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        JwtClaims claims = new JwtClaims("jti-1", "u@example.com", UUID.randomUUID(), "CUSTOMER", Instant.now(), expiresAt);
+
+        tokenBlacklistService.blacklist(claims);
+
+        assertTrue(tokenBlacklistService.isBlacklisted(claims));
+        assertFalse(tokenBlacklistService.isBlacklisted("jti-2"));
+        verify(eventPublisher).publishEvent(new TokenRevokedEvent("jti-1", expiresAt));
+    }
+
+    @Test
+    void applyRemoteRevocation_ShouldNotRepublish() {
+        tokenBlacklistService.applyRemoteRevocation("remote-jti", Instant.now().plusSeconds(60));
+
+        assertTrue(tokenBlacklistService.isBlacklisted("remote-jti"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void rebuildBloomFilter_ShouldKeepLiveRevocationsAndIgnoreExpiredOnes() {
+        tokenBlacklistService.applyRemoteRevocation("live", Instant.now().plusSeconds(60));
+        tokenBlacklistService.applyRemoteRevocation("already-expired", Instant.now().minusSeconds(1));
+
+        tokenBlacklistService.rebuildBloomFilter();
+
+        assertTrue(tokenBlacklistService.isBlacklisted("live"));
+        assertFalse(tokenBlacklistService.isBlacklisted("already-expired"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.wing.ecommercebackendwing.security.ratelimit;
+
+import com.wing.ecommercebackendwing.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterEngineTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void tokenBucket_ShouldAllowBurstThenReportRetryAfter() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, TimeUnit.SECONDS.toNanos(60));
+
+        for (int i = 4; i >= 0; i--) {
+            RateLimitDecision decision = limiter.tryAcquire(clock.get());
+            assertTrue(decision.allowed());
+            assertEquals(i, decision.remaining());
+        }
+
+        RateLimitDecision denied = limiter.tryAcquire(clock.get());
+        assertFalse(denied.allowed());
+        assertEquals(12, denied.retryAfterSeconds());
+        assertEquals(60, denied.resetSeconds());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(12));
+        assertTrue(limiter.tryAcquire(clock.get()).allowed());
+    }
+
+    @Test
+    void slidingWindow_ShouldWeightPreviousWindow() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(10, TimeUnit.SECONDS.toNanos(10));
+        long windowStart = TimeUnit.SECONDS.toNanos(1000);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(windowStart).allowed());
+        }
+        assertFalse(limiter.tryAcquire(windowStart).allowed());
+
+        // Half-way into the next window the previous 10 still count as 5.
+        long halfWay = windowStart + TimeUnit.SECONDS.toNanos(15);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(halfWay).allowed());
+        }
+        RateLimitDecision denied = limiter.tryAcquire(halfWay);
+        assertFalse(denied.allowed());
+        assertTrue(denied.retryAfterSeconds() >= 1);
+    }
+
+    @Test
+    void engine_ShouldMatchConfiguredPoliciesAndKeyByUser() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName("CART");
+        policy.setMethods(List.of("post"));
+        policy.setPaths(List.of("/api/cart/**"));
+        policy.setKey(RateLimitProperties.KeyType.USER);
+        policy.setMaxRequests(1);
+        properties.setPolicies(List.of(policy));
+        RateLimiterEngine engine = new RateLimiterEngine(properties, clock::get);
+
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+
+        assertNull(engine.check("GET", "/api/cart", "10.0.0.1", alice));
+        assertTrue(engine.check("POST", "/api/cart/add", "10.0.0.1", alice).allowed());
+        assertFalse(engine.check("POST", "/api/cart/add", "10.0.0.2", alice).allowed());
+        assertTrue(engine.check("POST", "/api/cart/add", "10.0.0.1", bob).allowed());
+    }
+
+    @Test
+    void engine_ShouldFallBackToLegacyPolicies() {
+        RateLimiterEngine engine = new RateLimiterEngine(new RateLimitProperties(), clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(engine.check("POST", "/api/auth/login", "1.2.3.4", null).allowed());
+        }
+        assertFalse(engine.check("POST", "/api/auth/login", "1.2.3.4", null).allowed());
+        assertTrue(engine.check("POST", "/api/payments/verify/md5/abc", "1.2.3.4", null).allowed());
+        assertNull(engine.check("GET", "/api/products", "1.2.3.4", null));
+    }
+
+    @Test
+    void engine_ShouldLimitCatalogExportByDefault() {
+        RateLimiterEngine engine = new RateLimiterEngine(new RateLimitProperties(), clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.check("GET", "/api/products/all", "1.2.3.4", null).allowed());
+        }
+        assertFalse(engine.check("GET", "/api/products/all", "1.2.3.4", null).allowed());
+        assertTrue(engine.check("GET", "/api/products/all", "5.6.7.8", null).allowed());
+    }
+
+    @Test
+    void keyStore_ShouldStayBoundedUnderDistinctKeyFlood() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getStore().setMaxKeys(1_000);
+        RateLimiterEngine engine = new RateLimiterEngine(properties, clock::get);
+
+        for (int i = 0; i < 50_000; i++) {
+            engine.check("POST", "/api/auth/login", "10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF), null);
+        }
+        engine.getKeyStore().cleanUp();
+
+        assertTrue(engine.getKeyStore().estimatedSize() <= 1_000);
+    }
+}
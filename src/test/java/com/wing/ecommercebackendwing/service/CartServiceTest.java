@@ -0,0 +1,234 @@
+package com.wing.ecommercebackendwing.service;
+
+import com.wing.ecommercebackendwing.dto.request.cart.CartBatchRequest;
+import com.wing.ecommercebackendwing.dto.request.cart.CartOperationRequest;
+import com.wing.ecommercebackendwing.dto.response.cart.CartItemResponse;
+import com.wing.ecommercebackendwing.dto.response.cart.CartResponse;
+import com.wing.ecommercebackendwing.exception.custom.InsufficientStockException;
+import com.wing.ecommercebackendwing.exception.custom.ResourceNotFoundException;
+import com.wing.ecommercebackendwing.model.entity.*;
+import com.wing.ecommercebackendwing.repository.CartItemRepository;
+import com.wing.ecommercebackendwing.repository.CartRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.repository.ProductVariantRepository;
+import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.service.cart.CartSummary;
+import com.wing.ecommercebackendwing.service.cart.CartSummaryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CartServiceTest {
+
+    @Mock private CartRepository cartRepository;
+    @Mock private CartItemRepository cartItemRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private ProductVariantRepository productVariantRepository;
+    @Mock private UserRepository userRepository;
+
+    private CartService cartService;
+    private UUID userId;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        CartSummaryCache cartSummaryCache = new CartSummaryCache(cartItemRepository, 100, 60);
+        cartService = new CartService(cartRepository, cartItemRepository, productRepository,
+                productVariantRepository, userRepository, cartSummaryCache);
+        userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        cart = new Cart();
+        cart.setId(UUID.randomUUID());
+        cart.setUser(user);
+        cart.setItems(new ArrayList<>());
+        when(cartRepository.findWithItemsByUserId(userId)).thenReturn(Optional.of(cart));
+        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void getCart_ShouldLoadCartInOneQuery_WhenPricesAreCurrent() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            cart.getItems().add(item(product(BigDecimal.TEN), null, BigDecimal.TEN, 1));
+        }
+
+        // Act
+        CartResponse response = cartService.getCart(userId);
+
+        // Assert
+        assertEquals(20, response.getItems().size());
+        assertEquals(new BigDecimal("200"), response.getSubtotal());
+        verify(cartRepository, only()).findWithItemsByUserId(userId);
+        verifyNoInteractions(cartItemRepository, productRepository, productVariantRepository);
+    }
+
+    @Test
+    void getCart_ShouldRepriceOnlyChangedLines_InOneStatement() {
+        // Arrange
+        Product discounted = product(new BigDecimal("8.00"));
+        Product unchanged = product(BigDecimal.TEN);
+        ProductVariant variant = new ProductVariant();
+        variant.setId(UUID.randomUUID());
+        variant.setProduct(unchanged);
+        variant.setPrice(new BigDecimal("12.50"));
+        CartItem discountedItem = item(discounted, null, BigDecimal.TEN, 2);
+        CartItem unchangedItem = item(unchanged, null, new BigDecimal("10.00"), 1);
+        CartItem variantItem = item(unchanged, variant, BigDecimal.TEN, 1);
+        cart.getItems().addAll(List.of(discountedItem, unchangedItem, variantItem));
+
+        // Act
+        CartResponse response = cartService.getCart(userId);
+
+        // Assert
+        verify(cartItemRepository).repriceItems(eq(cart.getId()),
+                aryEq(new UUID[]{discountedItem.getId(), variantItem.getId()}),
+                aryEq(new BigDecimal[]{new BigDecimal("8.00"), new BigDecimal("12.50")}),
+                any(Instant.class));
+        verify(cartRepository, never()).save(any(Cart.class));
+        assertEquals(List.of(new BigDecimal("8.00"), new BigDecimal("10.00"), new BigDecimal("12.50")),
+                response.getItems().stream().map(CartItemResponse::getPrice).toList());
+        assertEquals(new BigDecimal("38.50"), response.getSubtotal());
+    }
+
+    @Test
+    void getCartSummary_ShouldBeServedFromCache_UntilACartWrite() {
+        // Arrange
+        CartItem item = item(product(BigDecimal.TEN), null, BigDecimal.TEN, 2);
+        cart.getItems().add(item);
+        when(cartItemRepository.summarizeByUserId(userId)).thenReturn(new CartSummary(2L, new BigDecimal("20")));
+
+        // Act
+        CartSummary first = cartService.getCartSummary(userId);
+        CartSummary cached = cartService.getCartSummary(userId);
+        cartService.removeItem(userId, item.getId());
+        when(cartItemRepository.summarizeByUserId(userId)).thenReturn(new CartSummary(null, null));
+        CartSummary afterRemove = cartService.getCartSummary(userId);
+
+        // Assert
+        assertEquals(first, cached);
+        assertEquals(2L, first.itemCount());
+        assertEquals(new CartSummary(0L, BigDecimal.ZERO), afterRemove);
+        verify(cartItemRepository, times(2)).summarizeByUserId(userId);
+    }
+
+    @Test
+    void applyBatch_ShouldApplyEveryOperation_WithOneProductQuery() {
+        // Arrange
+        Product kept = product(BigDecimal.TEN);
+        CartItem keptItem = item(kept, null, BigDecimal.TEN, 1);
+        cart.getItems().add(keptItem);
+        Product shirt = product(new BigDecimal("15.00"));
+        ProductVariant large = variant(shirt, new BigDecimal("17.00"), 5);
+        Product mug = product(new BigDecimal("4.00"));
+        when(productRepository.findWithVariantsByIdIn(any())).thenReturn(List.of(shirt, mug));
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                operation(CartOperationRequest.Type.ADD, null, shirt.getId(), null, 2),
+                operation(CartOperationRequest.Type.ADD, null, shirt.getId(), large.getId(), 1),
+                operation(CartOperationRequest.Type.ADD, null, shirt.getId(), null, 1),
+                operation(CartOperationRequest.Type.ADD, null, mug.getId(), null, 1),
+                operation(CartOperationRequest.Type.UPDATE, keptItem.getId(), null, null, 3),
+                operation(CartOperationRequest.Type.REMOVE, null, mug.getId(), null, null)));
+
+        // Act
+        CartResponse response = cartService.applyBatch(userId, request);
+
+        // Assert
+        assertEquals(List.of(3, 3, 1), response.getItems().stream().map(CartItemResponse::getQuantity).toList());
+        assertEquals(large.getId(), response.getItems().get(2).getVariantId());
+        assertEquals(new BigDecimal("92.00"), response.getSubtotal());
+        verify(productRepository, only()).findWithVariantsByIdIn(any());
+        verifyNoInteractions(productVariantRepository);
+        verify(cartRepository, times(1)).save(cart);
+    }
+
+    @Test
+    void applyBatch_ShouldApplyNothing_AndReportEveryShortLine() {
+        // Arrange
+        Product lamp = product(BigDecimal.TEN);
+        ProductVariant red = variant(lamp, null, 1);
+        CartItem lampItem = item(lamp, null, BigDecimal.TEN, 4);
+        cart.getItems().add(lampItem);
+        when(productRepository.findWithVariantsByIdIn(any())).thenReturn(List.of(lamp));
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                operation(CartOperationRequest.Type.UPDATE, lampItem.getId(), null, null, 11),
+                operation(CartOperationRequest.Type.ADD, null, lamp.getId(), red.getId(), 2)));
+
+        // Act
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> cartService.applyBatch(userId, request));
+
+        // Assert
+        assertEquals(2, exception.getShortages().size());
+        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartItemRepository, never()).summarizeByUserId(any());
+    }
+
+    @Test
+    void applyBatch_ShouldFail_WhenALineToUpdateIsNotInTheCart() {
+        // Arrange
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                operation(CartOperationRequest.Type.REMOVE, UUID.randomUUID(), null, null, null)));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> cartService.applyBatch(userId, request));
+        verify(cartRepository, never()).save(any(Cart.class));
+    }
+
+    private static CartOperationRequest operation(CartOperationRequest.Type type, UUID cartItemId, UUID productId,
+                                                  UUID variantId, Integer quantity) {
+        return new CartOperationRequest(type, cartItemId, productId, variantId, quantity);
+    }
+
+    private static ProductVariant variant(Product product, BigDecimal price, int stock) {
+        ProductVariant variant = new ProductVariant();
+        variant.setId(UUID.randomUUID());
+        variant.setProduct(product);
+        variant.setName("Variant");
+        variant.setPrice(price);
+        variant.setStock(stock);
+        if (product.getVariants() == null) {
+            product.setVariants(new ArrayList<>());
+        }
+        product.getVariants().add(variant);
+        return variant;
+    }
+
+    private static Product product(BigDecimal price) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Product");
+        product.setSlug("product");
+        product.setPrice(price);
+        product.setStockQuantity(10);
+        return product;
+    }
+
+    private CartItem item(Product product, ProductVariant variant, BigDecimal price, int quantity) {
+        CartItem item = new CartItem();
+        item.setId(UUID.randomUUID());
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setVariant(variant);
+        item.setPrice(price);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
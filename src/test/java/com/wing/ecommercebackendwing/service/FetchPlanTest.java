@@ -0,0 +1,317 @@
+package com.wing.ecommercebackendwing.service;
+
+import com.wing.ecommercebackendwing.dto.response.auth.UserResponse;
+import com.wing.ecommercebackendwing.dto.response.order.OrderResponse;
+import com.wing.ecommercebackendwing.dto.response.product.ProductResponse;
+import com.wing.ecommercebackendwing.model.entity.*;
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.PaymentMethod;
+import com.wing.ecommercebackendwing.model.enums.UserRole;
+import com.wing.ecommercebackendwing.repository.OrderRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.repository.UserRepository;
+import com.wing.ecommercebackendwing.repository.WishlistRepository;
+import com.wing.ecommercebackendwing.service.product.ProductSummary;
+import jakarta.persistence.Entity;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.collection.spi.PersistentBag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * With open-session-in-view off, responses are mapped after nothing but the service's own
+ * queries. Every collection those queries do not fetch is built here as an uninitialized
+ * Hibernate bag, which throws LazyInitializationException on access just as a real one does once
+ * its session is gone, so a mapper reaching past its fetch plan fails these tests.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FetchPlanTest {
+
+    @Mock private OrderRepository orderRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private WishlistRepository wishlistRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private PhoneNumberService phoneNumberService;
+
+    @InjectMocks private OrderService orderService;
+    @InjectMocks private UserService userService;
+    @InjectMocks private WishlistService wishlistService;
+
+    @Test
+    void openInView_ShouldBeDisabled_InEveryProfile() throws IOException {
+        // Arrange
+        Properties base = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        Resource[] profiles = new PathMatchingResourcePatternResolver().getResources("classpath*:application-*.properties");
+
+        // Act & Assert
+        // Left on, the session and its connection stay open while the response is serialized.
+        assertEquals("false", base.getProperty("spring.jpa.open-in-view"));
+        for (Resource profile : profiles) {
+            String openInView = PropertiesLoaderUtils.loadProperties(profile).getProperty("spring.jpa.open-in-view");
+            assertTrue(openInView == null || openInView.equals("false"), profile.getFilename());
+        }
+    }
+
+    @Test
+    void getUserById_ShouldMapProfile_FromItsTwoFetchQueries() {
+        // Arrange
+        User user = user();
+        user.setAddresses(new ArrayList<>(List.of(address(user))));
+        when(userRepository.findWithAddressesById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.fetchSavedPaymentMethods(user.getId())).thenAnswer(invocation -> {
+            // Hibernate initializes the managed user's bag from the fetched rows.
+            user.setSavedPaymentMethods(new ArrayList<>(List.of(savedPaymentMethod(user))));
+            return Optional.of(user);
+        });
+
+        // Act
+        UserResponse response = userService.getUserById(user.getId());
+
+        // Assert
+        assertEquals(1, response.getAddresses().size());
+        assertEquals(1, response.getSavedPaymentMethods().size());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserById_ShouldFail_WhenACollectionIsLeftOutOfTheFetchPlan() {
+        // Arrange
+        User user = user();
+        user.setAddresses(new ArrayList<>());
+        when(userRepository.findWithAddressesById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.fetchSavedPaymentMethods(user.getId())).thenReturn(Optional.of(user));
+
+        // Act & Assert
+        assertThrows(LazyInitializationException.class, () -> userService.getUserById(user.getId()));
+    }
+
+    @Test
+    void getOrderByNumber_ShouldMapOrder_FromItsFetchQuery() {
+        // Arrange
+        User buyer = user();
+        Merchant merchant = new Merchant();
+        merchant.setId(UUID.randomUUID());
+        merchant.setUser(user());
+        merchant.setProducts(unfetched());
+        merchant.setOrders(unfetched());
+        Order order = order(buyer, merchant);
+        when(orderRepository.findWithDetailsByOrderNumber("ORD-1")).thenReturn(Optional.of(order));
+        when(userRepository.findById(buyer.getId())).thenReturn(Optional.of(buyer));
+
+        // Act
+        OrderResponse response = orderService.getOrderByNumber(buyer.getId(), " ORD-1 ");
+
+        // Assert
+        assertEquals(order.getId(), response.getId());
+        assertEquals("wireless-mouse", response.getItems().get(0).getProductSlug());
+        verify(orderRepository, only()).findWithDetailsByOrderNumber("ORD-1");
+    }
+
+    @Test
+    void getWishlist_ShouldReadProductColumns_WithoutLoadingEntities() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        ProductSummary summary = new ProductSummary(UUID.randomUUID(), UUID.randomUUID(), "Wireless Mouse",
+                "wireless-mouse", BigDecimal.TEN, null, 5, "mouse.jpg", BigDecimal.ONE, 2, 3, 4);
+        when(wishlistRepository.findProductSummariesByUserId(userId)).thenReturn(List.of(summary));
+
+        // Act
+        List<ProductResponse> wishlist = wishlistService.getWishlist(userId);
+
+        // Assert
+        assertEquals(List.of("wireless-mouse"), wishlist.stream().map(ProductResponse::getSlug).toList());
+        verify(wishlistRepository, only()).findProductSummariesByUserId(userId);
+        verifyNoInteractions(productRepository, userRepository);
+    }
+
+    @Test
+    void readMethods_ShouldRunInReadOnlyTransactions() throws NoSuchMethodException {
+        // Arrange
+        List<Method> methods = List.of(
+                UserService.class.getMethod("getUserById", UUID.class),
+                OrderService.class.getMethod("getOrderByNumber", UUID.class, String.class),
+                WishlistService.class.getMethod("getWishlist", UUID.class));
+
+        // Act & Assert
+        // The user's two fetch queries only add up to one graph inside a single persistence context.
+        for (Method method : methods) {
+            Transactional transactional = method.getAnnotation(Transactional.class);
+            assertNotNull(transactional, method.getName());
+            assertTrue(transactional.readOnly(), method.getName());
+        }
+    }
+
+    @Test
+    void controllers_ShouldNeverSerializeEntities_NorHoldTransactions() throws ClassNotFoundException {
+        // Arrange
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(RestController.class));
+        Set<BeanDefinition> controllers = scanner.findCandidateComponents("com.wing.ecommercebackendwing.controller");
+
+        // Act & Assert
+        // Response bodies are written after the service transaction has closed, so any entity
+        // reachable from one would lazy-load with no session.
+        assertFalse(controllers.isEmpty());
+        for (BeanDefinition definition : controllers) {
+            Class<?> controller = Class.forName(definition.getBeanClassName());
+            assertFalse(AnnotatedElementUtils.hasAnnotation(controller, Transactional.class), controller.getSimpleName());
+            for (Method handler : controller.getDeclaredMethods()) {
+                if (!AnnotatedElementUtils.hasAnnotation(handler, RequestMapping.class)) {
+                    continue;
+                }
+                String endpoint = controller.getSimpleName() + "." + handler.getName();
+                assertFalse(AnnotatedElementUtils.hasAnnotation(handler, Transactional.class), endpoint);
+                Class<?> entity = reachableEntity(handler.getGenericReturnType(), new HashSet<>());
+                assertNull(entity, endpoint + " serializes " + entity);
+            }
+        }
+    }
+
+    /**
+     * The first entity type reachable from {@code type} through type arguments and the fields of
+     * this application's own classes, or null.
+     */
+    private static Class<?> reachableEntity(Type type, Set<Type> seen) {
+        if (!seen.add(type)) {
+            return null;
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            for (Type argument : parameterized.getActualTypeArguments()) {
+                Class<?> entity = reachableEntity(argument, seen);
+                if (entity != null) {
+                    return entity;
+                }
+            }
+            return reachableEntity(parameterized.getRawType(), seen);
+        }
+        if (type instanceof WildcardType wildcard) {
+            for (Type bound : wildcard.getUpperBounds()) {
+                Class<?> entity = reachableEntity(bound, seen);
+                if (entity != null) {
+                    return entity;
+                }
+            }
+            return null;
+        }
+        if (type instanceof GenericArrayType array) {
+            return reachableEntity(array.getGenericComponentType(), seen);
+        }
+        if (!(type instanceof Class<?> clazz)) {
+            return null;
+        }
+        if (clazz.isArray()) {
+            return reachableEntity(clazz.getComponentType(), seen);
+        }
+        if (clazz.isAnnotationPresent(Entity.class)) {
+            return clazz;
+        }
+        if (!clazz.getName().startsWith("com.wing.ecommercebackendwing.")) {
+            return null;
+        }
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Class<?> entity = reachableEntity(field.getGenericType(), seen);
+                if (entity != null) {
+                    return entity;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <T> List<T> unfetched() {
+        return new PersistentBag<>();
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("buyer@example.com");
+        user.setRole(UserRole.CUSTOMER);
+        user.setAddresses(unfetched());
+        user.setSavedPaymentMethods(unfetched());
+        user.setOrders(unfetched());
+        user.setReviews(unfetched());
+        user.setDeliveries(unfetched());
+        return user;
+    }
+
+    private static Address address(User user) {
+        Address address = new Address();
+        address.setId(UUID.randomUUID());
+        address.setUser(user);
+        address.setCity("Phnom Penh");
+        return address;
+    }
+
+    private static SavedPaymentMethod savedPaymentMethod(User user) {
+        SavedPaymentMethod method = new SavedPaymentMethod();
+        method.setId(UUID.randomUUID());
+        method.setUser(user);
+        method.setMethod(PaymentMethod.KHQR);
+        return method;
+    }
+
+    private static Order order(User buyer, Merchant merchant) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setSlug("wireless-mouse");
+        OrderItem item = new OrderItem();
+        item.setId(UUID.randomUUID());
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setUnitPrice(BigDecimal.TEN);
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setOrderNumber("ORD-1");
+        order.setUser(buyer);
+        order.setMerchant(merchant);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotal(BigDecimal.TEN);
+        order.setCreatedAt(Instant.now());
+        order.getItems().add(item);
+        return order;
+    }
+}
@@ -0,0 +1,197 @@
+package com.wing.ecommercebackendwing.service;
+
+import com.wing.ecommercebackendwing.dto.response.order.OrderResponse;
+import com.wing.ecommercebackendwing.model.entity.*;
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.PaymentMethod;
+import com.wing.ecommercebackendwing.model.enums.PaymentStatus;
+import com.wing.ecommercebackendwing.repository.OrderRepository;
+import com.wing.ecommercebackendwing.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Order listings must cost the same number of queries whatever the page size: one for the id
+ * page (plus Spring Data's count), one for the orders with everything OrderMapper reads.
+ *
+ * These tests count repository calls on a mock, not SQL statements, so they cannot see a lazy
+ * load Hibernate would issue while mapping. That part is covered only by checking that the
+ * details query fetches every association OrderMapper reads.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderListingQueryCountTest {
+
+    private static final int MAX_REPOSITORY_CALLS_PER_PAGE = 2;
+
+    @Mock private OrderRepository orderRepository;
+    @Mock private UserRepository userRepository;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @Test
+    void getUserOrders_ShouldIssueConstantQueries_WhateverThePageSize() {
+        UUID userId = UUID.randomUUID();
+        for (int size : List.of(1, 10, 50)) {
+            // Arrange
+            clearInvocations(orderRepository);
+            List<Order> orders = orders(size);
+            stubPage(orders);
+
+            // Act
+            Page<OrderResponse> page = orderService.getUserOrders(userId, 0, size);
+
+            // Assert
+            assertEquals(size, page.getNumberOfElements());
+            assertEquals(MAX_REPOSITORY_CALLS_PER_PAGE, mockingDetails(orderRepository).getInvocations().size(), "page size " + size);
+            verify(orderRepository).findPageIdsByUserId(eq(userId), any(Pageable.class));
+            verify(orderRepository).findWithDetailsByIdIn(any());
+        }
+    }
+
+    @Test
+    void getMerchantOrders_ShouldIssueConstantQueries_AndKeepPageOrder() {
+        // Arrange
+        Merchant merchant = new Merchant();
+        merchant.setId(UUID.randomUUID());
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setMerchant(merchant);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        List<Order> orders = orders(20);
+        stubPage(orders);
+
+        // Act
+        Page<OrderResponse> page = orderService.getMerchantOrders(user.getId(), 0, 20);
+
+        // Assert
+        assertEquals(orders.stream().map(Order::getId).toList(), page.getContent().stream().map(OrderResponse::getId).toList());
+        assertEquals(MAX_REPOSITORY_CALLS_PER_PAGE, mockingDetails(orderRepository).getInvocations().size());
+        OrderResponse first = page.getContent().get(0);
+        assertEquals("COMPLETED", first.getPaymentStatus());
+        assertEquals("Phnom Penh", first.getShippingAddress().getCity());
+        assertEquals("product-0-0", first.getItems().get(0).getProductSlug());
+    }
+
+    @Test
+    void getAllOrders_ShouldSkipOrdersDeletedBetweenQueries_AndKeepTotals() {
+        // Arrange
+        List<Order> orders = orders(3);
+        Pageable pageable = PageRequest.of(0, 3);
+        when(orderRepository.findPageIds(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(orders.stream().map(Order::getId).toList(), pageable, 7));
+        when(orderRepository.findWithDetailsByIdIn(any())).thenReturn(List.of(orders.get(2), orders.get(0)));
+
+        // Act
+        Page<OrderResponse> page = orderService.getAllOrders(0, 3);
+
+        // Assert
+        assertEquals(List.of(orders.get(0).getId(), orders.get(2).getId()),
+                page.getContent().stream().map(OrderResponse::getId).toList());
+        assertEquals(7, page.getTotalElements());
+    }
+
+    @Test
+    void getAllOrders_ShouldNotLoadOrders_WhenPageIsEmpty() {
+        // Arrange
+        when(orderRepository.findPageIds(any(Pageable.class))).thenReturn(Page.empty(PageRequest.of(3, 10)));
+
+        // Act
+        Page<OrderResponse> page = orderService.getAllOrders(3, 10);
+
+        // Assert
+        assertTrue(page.isEmpty());
+        verify(orderRepository, never()).findWithDetailsByIdIn(any());
+    }
+
+    @Test
+    void findWithDetailsByIdIn_ShouldFetchEveryAssociationOrderMapperReads() throws NoSuchMethodException {
+        // Arrange
+        String details = OrderRepository.class.getMethod("findWithDetailsByIdIn", Collection.class)
+                .getAnnotation(Query.class).value();
+
+        // Act & Assert
+        for (String path : List.of("o.items", "i.product", "o.payment", "o.delivery", "o.deliveryAddress")) {
+            Pattern fetch = Pattern.compile("\\bJOIN\\s+FETCH\\s+" + Pattern.quote(path) + "\\b", Pattern.CASE_INSENSITIVE);
+            assertTrue(fetch.matcher(details).find(), path);
+        }
+        // Paged queries must not fetch collections, or Hibernate pages in memory.
+        for (String pageQuery : List.of("findPageIds", "findPageIdsByUserId", "findPageIdsByMerchantId")) {
+            for (var method : OrderRepository.class.getMethods()) {
+                if (method.getName().equals(pageQuery)) {
+                    assertFalse(method.getAnnotation(Query.class).value().toUpperCase().contains("FETCH"), pageQuery);
+                }
+            }
+        }
+    }
+
+    private void stubPage(List<Order> orders) {
+        List<UUID> ids = orders.stream().map(Order::getId).toList();
+        Page<UUID> idPage = new PageImpl<>(ids, PageRequest.of(0, Math.max(1, ids.size())), ids.size());
+        when(orderRepository.findPageIds(any(Pageable.class))).thenReturn(idPage);
+        when(orderRepository.findPageIdsByUserId(any(), any(Pageable.class))).thenReturn(idPage);
+        when(orderRepository.findPageIdsByMerchantId(any(), any(Pageable.class))).thenReturn(idPage);
+        // The IN query returns rows in whatever order the database picks.
+        List<Order> shuffled = new ArrayList<>(orders);
+        Collections.reverse(shuffled);
+        when(orderRepository.findWithDetailsByIdIn(any())).thenReturn(shuffled);
+    }
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int o = 0; o < count; o++) {
+            Order order = new Order();
+            order.setId(UUID.randomUUID());
+            order.setOrderNumber("ORD-" + o);
+            order.setStatus(OrderStatus.PAID);
+            order.setSubtotal(BigDecimal.TEN);
+            order.setTotal(BigDecimal.TEN);
+            order.setCreatedAt(Instant.now());
+            Address address = new Address();
+            address.setCity("Phnom Penh");
+            order.setDeliveryAddress(address);
+            Payment payment = new Payment();
+            payment.setStatus(PaymentStatus.COMPLETED);
+            payment.setMethod(PaymentMethod.KHQR);
+            order.setPayment(payment);
+            for (int i = 0; i < 3; i++) {
+                Product product = new Product();
+                product.setId(UUID.randomUUID());
+                product.setSlug("product-" + o + "-" + i);
+                OrderItem item = new OrderItem();
+                item.setId(UUID.randomUUID());
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setUnitPrice(BigDecimal.ONE);
+                order.getItems().add(item);
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+}
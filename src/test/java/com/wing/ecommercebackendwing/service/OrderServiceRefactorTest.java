@@ -6,13 +6,22 @@ import com.wing.ecommercebackendwing.dto.request.order.ShippingAddressRequest;
 import com.wing.ecommercebackendwing.dto.response.order.OrderResponse;
 import com.wing.ecommercebackendwing.exception.custom.BadRequestException;
 import com.wing.ecommercebackendwing.exception.custom.ForbiddenException;
+import com.wing.ecommercebackendwing.exception.custom.InsufficientStockException;
 import com.wing.ecommercebackendwing.exception.custom.ResourceNotFoundException;
 import com.wing.ecommercebackendwing.model.entity.*;
 import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
 import com.wing.ecommercebackendwing.model.enums.UserRole;
 import com.wing.ecommercebackendwing.repository.*;
+import com.wing.ecommercebackendwing.service.cart.CartSummaryCache;
+import com.wing.ecommercebackendwing.service.outbox.OutboxService;
+import com.wing.ecommercebackendwing.service.product.ProductCache;
+import com.wing.ecommercebackendwing.service.product.ProductCounters;
+import com.wing.ecommercebackendwing.service.product.ProductFacetIndex;
 import com.wing.ecommercebackendwing.util.OrderNumberGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +30,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -38,6 +48,7 @@ public class OrderServiceRefactorTest {
 
     @Mock private OrderRepository orderRepository;
     @Mock private CartRepository cartRepository;
+    @Mock private CartItemRepository cartItemRepository;
     @Mock private AddressRepository addressRepository;
     @Mock private ProductRepository productRepository;
     @Mock private ProductVariantRepository productVariantRepository;
@@ -49,7 +60,8 @@ public class OrderServiceRefactorTest {
     @Mock private OrderIdempotencyRecordRepository orderIdempotencyRecordRepository;
     @Mock private ObjectMapper objectMapper;
     @Mock private PhoneNumberService phoneNumberService;
-    @Mock private NotificationService notificationService;
+    @Mock private OutboxService outboxService;
+    @Mock private CartSummaryCache cartSummaryCache;
 
     @InjectMocks
     private OrderService orderService;
@@ -77,6 +89,10 @@ public class OrderServiceRefactorTest {
         product.setStockQuantity(100);
         product.setMerchant(merchant);
         lenient().when(phoneNumberService.normalizeToE164(anyString(), any())).thenReturn("+855962026409");
+        ReflectionTestUtils.setField(orderService, "stockReservationService",
+                new StockReservationService(productRepository, productVariantRepository,
+                        new ProductCache(productRepository, 100, 60, 30), mock(ProductFacetIndex.class),
+                        mock(ProductCounters.class), entityManager()));
     }
 
     @Test
@@ -101,9 +117,9 @@ public class OrderServiceRefactorTest {
         cart.setItems(new ArrayList<>());
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(product));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
-        when(productRepository.decrementStockIfAvailable(productId, 2)).thenReturn(1);
+        when(productRepository.decrementStockBatch(aryEq(new UUID[]{productId}), aryEq(new Integer[]{2}))).thenReturn(1);
         when(addressRepository.save(any(Address.class))).thenAnswer(i -> i.getArguments()[0]);
         when(orderNumberGenerator.generateOrderNumber()).thenReturn("ORD-123");
         when(taxService.calculateTax(any())).thenReturn(BigDecimal.ZERO);
@@ -119,15 +135,13 @@ public class OrderServiceRefactorTest {
         OrderResponse result = orderService.createOrder(userId, request);
 
         // Assert
-        verify(productRepository).decrementStockIfAvailable(productId, 2);
+        verify(productRepository).decrementStockBatch(aryEq(new UUID[]{productId}), aryEq(new Integer[]{2}));
         verify(productRepository, never()).save(any(Product.class));
         verify(cartRepository, never()).save(cart); // Cart should NOT be saved/cleared
-        verify(notificationService).sendNotification(
-                eq(userId),
-                eq("Order Placed"),
-                eq("Your order #[" + createdOrderId + "] has been placed successfully"),
-                eq("ORDER"),
-                eq(createdOrderId)
+        verify(cartSummaryCache, never()).invalidate(any());
+        verify(outboxService).publish(
+                eq(OutboxEventType.ORDER_PLACED),
+                argThat(payload -> createdOrderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
         assertNotNull(result);
         assertEquals("ORD-123", result.getOrderNumber());
@@ -159,7 +173,7 @@ public class OrderServiceRefactorTest {
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
-        when(productRepository.decrementStockIfAvailable(productId, 3)).thenReturn(1);
+        when(productRepository.decrementStockBatch(aryEq(new UUID[]{productId}), aryEq(new Integer[]{3}))).thenReturn(1);
         when(addressRepository.save(any(Address.class))).thenAnswer(i -> i.getArguments()[0]);
         when(orderNumberGenerator.generateOrderNumber()).thenReturn("ORD-123");
         when(taxService.calculateTax(any())).thenReturn(BigDecimal.ZERO);
@@ -175,16 +189,14 @@ public class OrderServiceRefactorTest {
         OrderResponse result = orderService.createOrder(userId, request);
 
         // Assert
-        verify(productRepository).decrementStockIfAvailable(productId, 3);
+        verify(productRepository).decrementStockBatch(aryEq(new UUID[]{productId}), aryEq(new Integer[]{3}));
         verify(productRepository, never()).save(any(Product.class));
         assertTrue(cart.getItems().isEmpty());
         verify(cartRepository).save(cart); // Cart SHOULD be cleared
-        verify(notificationService).sendNotification(
-                eq(userId),
-                eq("Order Placed"),
-                eq("Your order #[" + createdOrderId + "] has been placed successfully"),
-                eq("ORDER"),
-                eq(createdOrderId)
+        verify(cartSummaryCache).invalidate(userId);
+        verify(outboxService).publish(
+                eq(OutboxEventType.ORDER_PLACED),
+                argThat(payload -> createdOrderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
     }
 
@@ -211,14 +223,11 @@ public class OrderServiceRefactorTest {
         request.setItems(List.of(item1, item2));
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
-        when(productRepository.findById(otherProduct.getId())).thenReturn(Optional.of(otherProduct));
-        when(productRepository.decrementStockIfAvailable(productId, 1)).thenReturn(1);
-        when(productRepository.decrementStockIfAvailable(otherProduct.getId(), 1)).thenReturn(1);
+        when(productRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(product, otherProduct));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> orderService.createOrder(userId, request));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -249,8 +258,8 @@ public class OrderServiceRefactorTest {
         request.setPaymentMethod("KHQR");
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
-        when(productVariantRepository.findById(variantId)).thenReturn(Optional.of(mismatchedVariant));
+        when(productRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(product));
+        when(productVariantRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(mismatchedVariant));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.empty());
 
         assertThrows(BadRequestException.class, () -> orderService.createOrder(userId, request));
@@ -261,7 +270,7 @@ public class OrderServiceRefactorTest {
         verify(orderRepository, never()).save(any(Order.class));
         verify(cartRepository, never()).save(any(Cart.class));
         verify(addressRepository, never()).save(any(Address.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -280,18 +289,54 @@ public class OrderServiceRefactorTest {
         request.setPaymentMethod("KHQR");
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(product));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.empty());
-        when(productRepository.decrementStockIfAvailable(productId, 2)).thenReturn(0);
+        when(productRepository.decrementStockBatch(aryEq(new UUID[]{productId}), aryEq(new Integer[]{2}))).thenReturn(0);
 
         assertThrows(BadRequestException.class, () -> orderService.createOrder(userId, request));
 
-        verify(productRepository).decrementStockIfAvailable(productId, 2);
+        verify(productRepository).decrementStockBatch(aryEq(new UUID[]{productId}), aryEq(new Integer[]{2}));
         verify(orderRepository, never()).save(any(Order.class));
         verify(addressRepository, never()).save(any(Address.class));
         verify(cartRepository, never()).save(any(Cart.class));
-        verify(productVariantRepository, never()).decrementStockIfAvailable(any(UUID.class), anyInt());
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(productVariantRepository, never()).decrementStockBatch(any(), any());
+        verify(outboxService, never()).publish(any(), any());
+    }
+
+    @Test
+    void createOrder_ShouldReportEveryShortLine_WithoutDecrementing() {
+        Product secondProduct = new Product();
+        secondProduct.setId(UUID.randomUUID());
+        secondProduct.setName("Second Product");
+        secondProduct.setSku("SKU-2");
+        secondProduct.setPrice(BigDecimal.ONE);
+        secondProduct.setStockQuantity(1);
+        secondProduct.setMerchant(merchant);
+        product.setSku("SKU-1");
+
+        OrderItemRequest first = new OrderItemRequest();
+        first.setProductId(productId);
+        first.setQuantity(101);
+        OrderItemRequest second = new OrderItemRequest();
+        second.setProductId(secondProduct.getId());
+        second.setQuantity(2);
+
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setItems(List.of(first, second));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        when(productRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(product, secondProduct));
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> orderService.createOrder(userId, request));
+
+        assertEquals(2, ex.getShortages().size());
+        assertTrue(ex.getShortages().stream().anyMatch(s -> "SKU-1".equals(s.sku()) && s.requested() == 101 && s.available() == 100));
+        assertTrue(ex.getShortages().stream().anyMatch(s -> "SKU-2".equals(s.sku()) && s.requested() == 2 && s.available() == 1));
+        verify(productRepository, times(1)).findAllByIdInForUpdate(anyCollection());
+        verify(productRepository, never()).decrementStockBatch(any(), any());
+        verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
@@ -342,9 +387,9 @@ public class OrderServiceRefactorTest {
 
         assertEquals("ORD-EXISTING", response.getOrderNumber());
         verify(orderRepository, never()).save(any(Order.class));
-        verify(productRepository, never()).decrementStockIfAvailable(any(UUID.class), anyInt());
-        verify(productVariantRepository, never()).decrementStockIfAvailable(any(UUID.class), anyInt());
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(productRepository, never()).decrementStockBatch(any(), any());
+        verify(productVariantRepository, never()).decrementStockBatch(any(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -373,9 +418,9 @@ public class OrderServiceRefactorTest {
 
         verify(orderRepository, never()).save(any(Order.class));
         verify(orderIdempotencyRecordRepository, never()).save(any(OrderIdempotencyRecord.class));
-        verify(productRepository, never()).decrementStockIfAvailable(any(UUID.class), anyInt());
-        verify(productVariantRepository, never()).decrementStockIfAvailable(any(UUID.class), anyInt());
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(productRepository, never()).decrementStockBatch(any(), any());
+        verify(productVariantRepository, never()).decrementStockBatch(any(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -403,7 +448,7 @@ public class OrderServiceRefactorTest {
                 () -> orderService.updateOrderStatus(orderId, OrderStatus.PENDING, admin.getId()));
 
         verify(orderRepository, never()).save(any(Order.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -432,12 +477,9 @@ public class OrderServiceRefactorTest {
 
         assertEquals("CONFIRMED", response.getStatus());
         verify(orderRepository).save(any(Order.class));
-        verify(notificationService).sendNotification(
-                eq(userId),
-                eq("Order Status Updated"),
-                eq("Your order #[" + orderId + "] status changed to CONFIRMED"),
-                eq("ORDER_STATUS"),
-                eq(orderId)
+        verify(outboxService).publish(
+                eq(OutboxEventType.ORDER_STATUS_CHANGED),
+                argThat(payload -> orderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
     }
 
@@ -463,7 +505,7 @@ public class OrderServiceRefactorTest {
         assertThrows(BadRequestException.class,
                 () -> orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED, userId));
         verify(orderRepository, never()).save(any(Order.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -495,20 +537,18 @@ public class OrderServiceRefactorTest {
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(productRepository.incrementStock(orderProductId, 3)).thenReturn(1);
+        when(productRepository.incrementStockBatch(aryEq(new UUID[]{orderProductId}), aryEq(new Integer[]{3}))).thenReturn(1);
 
         OrderResponse response = orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED, userId);
 
         assertEquals("CANCELLED", response.getStatus());
-        verify(productRepository).incrementStock(orderProductId, 3);
-        verify(productVariantRepository, never()).incrementStock(any(UUID.class), anyInt());
+        verify(productRepository).findAllByIdInForUpdate(anyCollection());
+        verify(productRepository).incrementStockBatch(aryEq(new UUID[]{orderProductId}), aryEq(new Integer[]{3}));
+        verify(productVariantRepository, never()).incrementStockBatch(any(), any());
         verify(orderRepository).save(any(Order.class));
-        verify(notificationService).sendNotification(
-                eq(userId),
-                eq("Order Status Updated"),
-                eq("Your order #[" + orderId + "] status changed to CANCELLED"),
-                eq("ORDER_STATUS"),
-                eq(orderId)
+        verify(outboxService).publish(
+                eq(OutboxEventType.ORDER_STATUS_CHANGED),
+                argThat(payload -> orderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
     }
 
@@ -547,10 +587,10 @@ public class OrderServiceRefactorTest {
         OrderResponse response = orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED, admin.getId());
 
         assertEquals("CANCELLED", response.getStatus());
-        verify(productRepository, never()).incrementStock(orderProductId, 2);
-        verify(productVariantRepository, never()).incrementStock(any(UUID.class), anyInt());
+        verify(productRepository, never()).incrementStockBatch(any(), any());
+        verify(productVariantRepository, never()).incrementStockBatch(any(), any());
         verify(orderRepository).save(any(Order.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -583,7 +623,7 @@ public class OrderServiceRefactorTest {
         assertThrows(ForbiddenException.class,
                 () -> orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED, userId));
         verify(orderRepository, never()).save(any(Order.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -596,6 +636,12 @@ public class OrderServiceRefactorTest {
         assertThrows(ResourceNotFoundException.class,
                 () -> orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED, requester));
         verify(orderRepository, never()).save(any(Order.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
+    }
+
+    private static EntityManager entityManager() {
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(mock(Session.class));
+        return entityManager;
     }
 }
@@ -4,13 +4,18 @@ import com.wing.ecommercebackendwing.config.BakongConfig;
 import com.wing.ecommercebackendwing.dto.response.payment.PaymentVerificationResponse;
 import com.wing.ecommercebackendwing.model.entity.Order;
 import com.wing.ecommercebackendwing.model.entity.Payment;
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
 import com.wing.ecommercebackendwing.model.enums.PaymentStatus;
 import com.wing.ecommercebackendwing.repository.OrderRepository;
 import com.wing.ecommercebackendwing.repository.PaymentRepository;
+import com.wing.ecommercebackendwing.service.outbox.OutboxService;
+import com.wing.ecommercebackendwing.service.payment.KhqrGatewayClient;
+import com.wing.ecommercebackendwing.service.payment.PaymentVerificationCoordinator;
+import com.wing.ecommercebackendwing.service.payment.KhqrTransaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -19,6 +24,8 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
 
@@ -45,9 +52,10 @@ public class PaymentServiceTest {
     @Mock
     private RestTemplate restTemplate;
     @Mock
-    private NotificationService notificationService;
+    private OutboxService outboxService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private PaymentService paymentService;
 
     private final String md5 = "aaad6ba89e1045b3ba46fa8542555882";
@@ -58,6 +66,15 @@ public class PaymentServiceTest {
     @BeforeEach
     void setUp() {
         lenient().when(bakongConfig.getApiBaseUrl()).thenReturn("https://api.bakong.org/");
+        paymentService = new PaymentService(
+                paymentRepository,
+                orderRepository,
+                bakongConfig,
+                new KhqrGatewayClient(restTemplate, bakongConfig),
+                outboxService,
+                new TransactionTemplate(transactionManager),
+                new PaymentVerificationCoordinator(5, 600, 10_000)
+        );
     }
 
     @Test
@@ -100,13 +117,10 @@ public class PaymentServiceTest {
         assertEquals("Success", result.getMessage());
         assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
         assertEquals(expectedTransactionId, payment.getTransactionId());
-        verify(paymentRepository, times(2)).save(payment);
-        verify(notificationService).sendNotification(
-                eq(userId),
-                eq("Payment Successful"),
-                eq("Payment for order #[" + orderId + "] was successful"),
-                eq("PAYMENT"),
-                eq(orderId)
+        verify(paymentRepository, times(1)).save(payment);
+        verify(outboxService).publish(
+                eq(OutboxEventType.PAYMENT_COMPLETED),
+                argThat(payload -> orderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
     }
 
@@ -148,13 +162,10 @@ public class PaymentServiceTest {
         // Assert
         assertTrue(result.isPaid());
         assertEquals("any-string-id", payment.getTransactionId());
-        verify(paymentRepository, times(2)).save(payment);
-        verify(notificationService).sendNotification(
-                eq(userId),
-                eq("Payment Successful"),
-                eq("Payment for order #[" + orderId + "] was successful"),
-                eq("PAYMENT"),
-                eq(orderId)
+        verify(paymentRepository, times(1)).save(payment);
+        verify(outboxService).publish(
+                eq(OutboxEventType.PAYMENT_COMPLETED),
+                argThat(payload -> orderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
     }
 
@@ -192,9 +203,9 @@ public class PaymentServiceTest {
 
         assertFalse(result.isPaid());
         assertEquals(PaymentStatus.PENDING, payment.getStatus());
-        verify(paymentRepository, times(1)).save(payment);
+        verify(paymentRepository, never()).save(payment);
         verify(orderRepository, never()).save(any(Order.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @SuppressWarnings("rawtypes")
@@ -231,9 +242,9 @@ public class PaymentServiceTest {
 
         assertFalse(result.isPaid());
         assertEquals(PaymentStatus.PENDING, payment.getStatus());
-        verify(paymentRepository, times(1)).save(payment);
+        verify(paymentRepository, never()).save(payment);
         verify(orderRepository, never()).save(any(Order.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @Test
@@ -265,7 +276,7 @@ public class PaymentServiceTest {
         verify(restTemplate, never()).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class));
         verify(paymentRepository, never()).save(any(Payment.class));
         verify(orderRepository, never()).save(any(Order.class));
-        verify(notificationService, never()).sendNotification(any(), anyString(), anyString(), anyString(), any());
+        verify(outboxService, never()).publish(any(), any());
     }
 
     @SuppressWarnings("rawtypes")
@@ -308,14 +319,11 @@ public class PaymentServiceTest {
         assertEquals("Payment already completed", second.getMessage());
         assertEquals("ext-1001", payment.getTransactionId());
         verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class));
-        verify(paymentRepository, times(2)).save(any(Payment.class));
+        verify(paymentRepository, times(1)).save(any(Payment.class));
         verify(orderRepository, times(1)).save(any(Order.class));
-        verify(notificationService, times(1)).sendNotification(
-                eq(userId),
-                eq("Payment Successful"),
-                eq("Payment for order #[" + orderId + "] was successful"),
-                eq("PAYMENT"),
-                eq(orderId)
+        verify(outboxService, times(1)).publish(
+                eq(OutboxEventType.PAYMENT_COMPLETED),
+                argThat(payload -> orderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
     }
 
@@ -354,14 +362,11 @@ public class PaymentServiceTest {
         PaymentVerificationResponse result = paymentService.verifyPaymentByMd5(md5, userId);
 
         assertTrue(result.isPaid());
-        verify(paymentRepository, times(2)).save(any(Payment.class));
+        verify(paymentRepository, times(1)).save(any(Payment.class));
         verify(orderRepository, never()).save(any(Order.class));
-        verify(notificationService, times(1)).sendNotification(
-                eq(userId),
-                eq("Payment Successful"),
-                eq("Payment for order #[" + orderId + "] was successful"),
-                eq("PAYMENT"),
-                eq(orderId)
+        verify(outboxService, times(1)).publish(
+                eq(OutboxEventType.PAYMENT_COMPLETED),
+                argThat(payload -> orderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
     }
 
@@ -389,18 +394,15 @@ public class PaymentServiceTest {
         assertTrue(result.isExpired());
         assertEquals(PaymentStatus.EXPIRED, payment.getStatus());
         verify(paymentRepository, times(1)).save(payment);
-        verify(notificationService).sendNotification(
-                eq(userId),
-                eq("Payment Failed"),
-                eq("Payment for order #[" + orderId + "] has failed. Please retry."),
-                eq("PAYMENT"),
-                eq(orderId)
+        verify(outboxService).publish(
+                eq(OutboxEventType.PAYMENT_FAILED),
+                argThat(payload -> orderId.equals(payload.orderId()) && userId.equals(payload.userId()))
         );
     }
 
     @SuppressWarnings("rawtypes")
     @Test
-    void verifyPaymentByMd5_ShouldSucceedWhenNotificationDispatchFails() {
+    void verifyPaymentByMd5_ShouldDeferPointsAndNotificationToOutbox() {
         UUID orderId = UUID.randomUUID();
         Payment payment = new Payment();
         payment.setMd5(md5);
@@ -409,10 +411,11 @@ public class PaymentServiceTest {
         payment.setStatus(PaymentStatus.PENDING);
         Order order = new Order();
         order.setId(orderId);
+        order.setOrderNumber("ORD-20260101-001");
         com.wing.ecommercebackendwing.model.entity.User user = new com.wing.ecommercebackendwing.model.entity.User();
         user.setId(userId);
         order.setUser(user);
-        order.setStatus(com.wing.ecommercebackendwing.model.enums.OrderStatus.PENDING);
+        order.setStatus(OrderStatus.PENDING);
         payment.setOrder(order);
 
         when(paymentRepository.findByMd5(anyString())).thenReturn(Optional.of(payment));
@@ -429,15 +432,107 @@ public class PaymentServiceTest {
         ResponseEntity<Map<String, Object>> responseEntity = new ResponseEntity<>(responseBody, HttpStatus.OK);
         when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
                 .thenReturn((ResponseEntity) responseEntity);
-        doThrow(new RuntimeException("notification down"))
-                .when(notificationService)
-                .sendNotification(any(), anyString(), anyString(), anyString(), any());
 
         PaymentVerificationResponse result = paymentService.verifyPaymentByMd5(md5, userId);
 
         assertTrue(result.isPaid());
         assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
-        verify(paymentRepository, times(2)).save(any(Payment.class));
+        verify(paymentRepository, times(1)).save(any(Payment.class));
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(outboxService).publish(
+                eq(OutboxEventType.PAYMENT_COMPLETED),
+                argThat(payload -> payload.previousStatus() == OrderStatus.PENDING
+                        && payload.newStatus() == OrderStatus.PAID
+                        && "ORD-20260101-001".equals(payload.orderNumber()))
+        );
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    void verifyPaymentByMd5_InsideCooldown_ShouldReturnLastStateWithoutGatewayOrWrites() {
+        Payment payment = pendingPayment(UUID.randomUUID(), OrderStatus.PENDING);
+        when(paymentRepository.findByMd5(anyString())).thenReturn(Optional.of(payment));
+
+        Map<String, Object> responseBody = new HashMap<>();
+        responseBody.put("responseCode", "1");
+        responseBody.put("responseMessage", "Transaction could not be found. Please check and try again.");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn((ResponseEntity) new ResponseEntity<>(responseBody, HttpStatus.OK));
+
+        PaymentVerificationResponse first = paymentService.verifyPaymentByMd5(md5, userId);
+        PaymentVerificationResponse second = paymentService.verifyPaymentByMd5(md5.toUpperCase(), userId);
+
+        assertEquals("PENDING", first.getMessage());
+        assertEquals("PENDING", second.getMessage());
+        assertFalse(second.isPaid());
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        verify(paymentRepository, times(1)).findByMd5(anyString());
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    void settleFromGateway_ShouldCompletePendingPaymentAndPublish() {
+        UUID paymentId = UUID.randomUUID();
+        Payment payment = pendingPayment(paymentId, OrderStatus.PENDING);
+        when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(payment));
+
+        boolean settled = paymentService.settleFromGateway(paymentId,
+                new KhqrTransaction(md5, "ref-9", 12.50, "USD", "{status=SUCCESS}"));
+
+        assertTrue(settled);
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertEquals("ref-9", payment.getTransactionId());
+        assertEquals(OrderStatus.PAID, payment.getOrder().getStatus());
+        verify(restTemplate, never()).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        verify(outboxService).publish(eq(OutboxEventType.PAYMENT_COMPLETED), any());
+    }
+
+    @Test
+    void settleFromGateway_ShouldSkip_WhenQrWasRegenerated() {
+        UUID paymentId = UUID.randomUUID();
+        Payment payment = pendingPayment(paymentId, OrderStatus.PENDING);
+        payment.setMd5("bbbd6ba89e1045b3ba46fa8542555882");
+        when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(payment));
+
+        boolean settled = paymentService.settleFromGateway(paymentId,
+                new KhqrTransaction(md5, "ref-9", 12.50, "USD", "{}"));
+
+        assertFalse(settled);
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(outboxService, never()).publish(any(), any());
+    }
+
+    @Test
+    void expireIfPending_ShouldOnlyExpirePastDeadline() {
+        UUID paymentId = UUID.randomUUID();
+        Payment payment = pendingPayment(paymentId, OrderStatus.PENDING);
+        java.time.Instant now = java.time.Instant.now();
+        payment.setExpiresAt(now.plusSeconds(60));
+        when(paymentRepository.findByIdForUpdate(paymentId)).thenReturn(Optional.of(payment));
+
+        assertFalse(paymentService.expireIfPending(paymentId, now));
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+
+        assertTrue(paymentService.expireIfPending(paymentId, now.plusSeconds(61)));
+        assertEquals(PaymentStatus.EXPIRED, payment.getStatus());
+        verify(outboxService).publish(eq(OutboxEventType.PAYMENT_FAILED), any());
+    }
+
+    private Payment pendingPayment(UUID paymentId, OrderStatus orderStatus) {
+        Payment payment = new Payment();
+        payment.setId(paymentId);
+        payment.setMd5(md5);
+        payment.setAmount(new BigDecimal("12.50"));
+        payment.setCurrency("USD");
+        payment.setStatus(PaymentStatus.PENDING);
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        com.wing.ecommercebackendwing.model.entity.User user = new com.wing.ecommercebackendwing.model.entity.User();
+        user.setId(userId);
+        order.setUser(user);
+        order.setStatus(orderStatus);
+        payment.setOrder(order);
+        return payment;
     }
 }
@@ -0,0 +1,204 @@
+package com.wing.ecommercebackendwing.service;
+
+import com.wing.ecommercebackendwing.config.BakongConfig;
+import com.wing.ecommercebackendwing.dto.response.payment.PaymentVerificationResponse;
+import com.wing.ecommercebackendwing.model.entity.Order;
+import com.wing.ecommercebackendwing.model.entity.Payment;
+import com.wing.ecommercebackendwing.model.entity.User;
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.PaymentStatus;
+import com.wing.ecommercebackendwing.repository.OrderRepository;
+import com.wing.ecommercebackendwing.repository.PaymentRepository;
+import com.wing.ecommercebackendwing.service.outbox.OutboxService;
+import com.wing.ecommercebackendwing.service.payment.KhqrGatewayClient;
+import com.wing.ecommercebackendwing.service.payment.PaymentVerificationCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Many shoppers polling at once against a gateway that takes longer to answer than the
+ * connection pool is willing to make a caller wait.
+ *
+ * This models the pool rather than load-testing a real one: a semaphore of {@value #POOL_SIZE}
+ * permits with a {@value #CONNECTION_TIMEOUT_MS} ms checkout timeout sits behind a mocked
+ * transaction manager, and a mocked RestTemplate sleeps {@value #GATEWAY_LATENCY_MS} ms per call.
+ * If verification still held its connection across the gateway call, {@value #CLIENTS} concurrent
+ * clients would fill every permit and time out.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PaymentVerificationSimulatedPoolTest {
+
+    private static final int POOL_SIZE = 20;
+    private static final long CONNECTION_TIMEOUT_MS = 250;
+    private static final long GATEWAY_LATENCY_MS = 400;
+    private static final int CLIENTS = 60;
+    private static final int PAYMENTS = 240;
+
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private OrderRepository orderRepository;
+    @Mock private BakongConfig bakongConfig;
+    @Mock private RestTemplate restTemplate;
+    @Mock private OutboxService outboxService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final UUID userId = UUID.randomUUID();
+    private final Map<String, Payment> payments = new ConcurrentHashMap<>();
+    private final Semaphore pool = new Semaphore(POOL_SIZE);
+    private final ThreadLocal<Boolean> holdingConnection = ThreadLocal.withInitial(() -> false);
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peakInUse = new AtomicInteger();
+    private final AtomicInteger checkoutTimeouts = new AtomicInteger();
+    private final AtomicInteger permitsHeldInGatewayCalls = new AtomicInteger();
+    private final AtomicInteger peakPermitsHeldInGatewayCalls = new AtomicInteger();
+
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        User user = new User();
+        user.setId(userId);
+        for (int i = 0; i < PAYMENTS; i++) {
+            Order order = new Order();
+            order.setId(UUID.randomUUID());
+            order.setUser(user);
+            order.setStatus(OrderStatus.PENDING);
+            Payment payment = new Payment();
+            payment.setId(UUID.randomUUID());
+            payment.setMd5(String.format("%032x", i));
+            payment.setAmount(new BigDecimal("12.50"));
+            payment.setCurrency("USD");
+            payment.setStatus(PaymentStatus.PENDING);
+            payment.setOrder(order);
+            payments.put(payment.getMd5(), payment);
+        }
+
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            if (!pool.tryAcquire(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                checkoutTimeouts.incrementAndGet();
+                throw new CannotCreateTransactionException("Connection is not available, request timed out");
+            }
+            holdingConnection.set(true);
+            peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(inv -> releaseConnection()).when(transactionManager).commit(any());
+        doAnswer(inv -> releaseConnection()).when(transactionManager).rollback(any());
+
+        when(paymentRepository.findByMd5AndOrder_User_Id(anyString(), eq(userId)))
+                .thenAnswer(inv -> Optional.ofNullable(payments.get(inv.<String>getArgument(0))));
+        when(paymentRepository.findByMd5AndOrderUserIdForUpdate(anyString(), eq(userId)))
+                .thenAnswer(inv -> Optional.ofNullable(payments.get(inv.<String>getArgument(0))));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Slow gateway: every other md5 is paid.
+        when(bakongConfig.getApiBaseUrl()).thenReturn("http://localhost:8080/stub/bakong/");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenAnswer(inv -> {
+                    boolean holding = holdingConnection.get();
+                    if (holding) {
+                        peakPermitsHeldInGatewayCalls.accumulateAndGet(permitsHeldInGatewayCalls.incrementAndGet(), Math::max);
+                    }
+                    Thread.sleep(GATEWAY_LATENCY_MS);
+                    if (holding) {
+                        permitsHeldInGatewayCalls.decrementAndGet();
+                    }
+                    @SuppressWarnings("unchecked")
+                    String md5 = ((Map<String, String>) inv.<HttpEntity<?>>getArgument(2).getBody()).get("md5");
+                    return new ResponseEntity<>(gatewayBody(Integer.parseInt(md5, 16) % 2 == 0), HttpStatus.OK);
+                });
+
+        paymentService = new PaymentService(
+                paymentRepository,
+                orderRepository,
+                bakongConfig,
+                new KhqrGatewayClient(restTemplate, bakongConfig),
+                outboxService,
+                new TransactionTemplate(transactionManager),
+                new PaymentVerificationCoordinator(5, 600, 10_000)
+        );
+    }
+
+    @Test
+    void verifyPaymentByMd5_UnderSlowGateway_ShouldNotHoldConnectionsAcrossTheCall() throws Exception {
+        // Arrange
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PaymentVerificationResponse>> results = new ArrayList<>();
+
+        // Act
+        for (String md5 : payments.keySet()) {
+            results.add(clients.submit(() -> {
+                start.await();
+                return paymentService.verifyPaymentByMd5(md5, userId);
+            }));
+        }
+        start.countDown();
+        int paid = 0;
+        for (Future<PaymentVerificationResponse> result : results) {
+            if (result.get(30, TimeUnit.SECONDS).isPaid()) {
+                paid++;
+            }
+        }
+        clients.shutdown();
+
+        // Assert
+        assertEquals(0, checkoutTimeouts.get(), "connection checkouts timed out");
+        assertEquals(0, peakPermitsHeldInGatewayCalls.get(), "pool permits held across the gateway call");
+        assertEquals(0, inUse.get(), "connections leaked");
+        assertTrue(peakInUse.get() <= POOL_SIZE, "peak permits held: " + peakInUse.get());
+        assertEquals(PAYMENTS / 2, paid);
+        assertEquals(PAYMENTS / 2, payments.values().stream().filter(p -> p.getStatus() == PaymentStatus.COMPLETED).count());
+    }
+
+    private Object releaseConnection() {
+        if (holdingConnection.get()) {
+            holdingConnection.set(false);
+            inUse.decrementAndGet();
+            pool.release();
+        }
+        return null;
+    }
+
+    private Map<String, Object> gatewayBody(boolean paid) {
+        Map<String, Object> body = new HashMap<>();
+        if (paid) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("externalRef", "ext-" + UUID.randomUUID());
+            data.put("amount", "12.50");
+            data.put("currency", "USD");
+            body.put("responseCode", 0);
+            body.put("responseMessage", "Getting transaction successfully.");
+            body.put("data", data);
+        } else {
+            body.put("responseCode", 1);
+            body.put("responseMessage", "Transaction could not be found. Please check and try again.");
+        }
+        return body;
+    }
+}
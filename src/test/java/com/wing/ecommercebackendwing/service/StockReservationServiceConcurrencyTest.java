@@ -0,0 +1,256 @@
+package com.wing.ecommercebackendwing.service;
+
+import com.wing.ecommercebackendwing.exception.custom.InsufficientStockException;
+import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.model.entity.ProductVariant;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.repository.ProductVariantRepository;
+import com.wing.ecommercebackendwing.service.product.ProductCache;
+import com.wing.ecommercebackendwing.service.product.ProductCounters;
+import com.wing.ecommercebackendwing.service.product.ProductFacetIndex;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs many overlapping checkouts and cancellations against an in-memory stand-in for the
+ * products and product_variants tables.
+ *
+ * The stand-in takes a row lock for every id in the order it is handed, exactly like
+ * {@code SELECT ... ORDER BY id FOR UPDATE} does, and holds it until the simulated transaction
+ * ends. A lock wait longer than the timeout is counted as a deadlock.
+ */
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceConcurrencyTest {
+
+    private static final int PRODUCTS = 8;
+    private static final int INITIAL_STOCK = 40;
+    private static final int THREADS = 12;
+    private static final int CHECKOUTS_PER_THREAD = 150;
+    private static final long LOCK_TIMEOUT_MS = 2_000;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductVariantRepository productVariantRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    private StockReservationService stockReservationService;
+
+    private final List<UUID> productIds = new ArrayList<>();
+    private final Map<UUID, UUID> variantByProduct = new HashMap<>();
+    private final Map<UUID, UUID> productByVariant = new HashMap<>();
+    private final Map<UUID, AtomicInteger> stock = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicInteger> reserved = new ConcurrentHashMap<>();
+    private final Map<UUID, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<ReentrantLock>> heldLocks = ThreadLocal.withInitial(ArrayDeque::new);
+    private final AtomicInteger lockTimeouts = new AtomicInteger();
+    private final AtomicInteger unlockedWrites = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            UUID productId = UUID.randomUUID();
+            UUID variantId = UUID.randomUUID();
+            productIds.add(productId);
+            variantByProduct.put(productId, variantId);
+            productByVariant.put(variantId, productId);
+            for (UUID id : List.of(productId, variantId)) {
+                stock.put(id, new AtomicInteger(INITIAL_STOCK));
+                reserved.put(id, new AtomicInteger());
+                rowLocks.put(id, new ReentrantLock());
+            }
+        }
+
+        when(productRepository.findAllByIdInForUpdate(anyCollection())).thenAnswer(inv -> {
+            List<Product> rows = new ArrayList<>();
+            for (UUID id : inv.<Collection<UUID>>getArgument(0)) {
+                lockRow(id);
+                rows.add(productRow(id));
+            }
+            return rows;
+        });
+        when(productVariantRepository.findAllByIdInForUpdate(anyCollection())).thenAnswer(inv -> {
+            List<ProductVariant> rows = new ArrayList<>();
+            for (UUID id : inv.<Collection<UUID>>getArgument(0)) {
+                lockRow(id);
+                ProductVariant variant = new ProductVariant();
+                variant.setId(id);
+                variant.setProduct(productRow(productByVariant.get(id)));
+                variant.setStock(stock.get(id).get());
+                rows.add(variant);
+            }
+            return rows;
+        });
+        // Every lock reads fresh rows here, so nothing was loaded before it.
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(productRepository.decrementStockBatch(any(), any()))
+                .thenAnswer(inv -> applyBatch(inv.getArgument(0), inv.getArgument(1), -1));
+        when(productVariantRepository.decrementStockBatch(any(), any()))
+                .thenAnswer(inv -> applyBatch(inv.getArgument(0), inv.getArgument(1), -1));
+        when(productRepository.incrementStockBatch(any(), any()))
+                .thenAnswer(inv -> applyBatch(inv.getArgument(0), inv.getArgument(1), 1));
+        when(productVariantRepository.incrementStockBatch(any(), any()))
+                .thenAnswer(inv -> applyBatch(inv.getArgument(0), inv.getArgument(1), 1));
+
+        stockReservationService = new StockReservationService(productRepository, productVariantRepository,
+                new ProductCache(productRepository, 100, 60, 30), mock(ProductFacetIndex.class),
+                mock(ProductCounters.class), entityManager);
+    }
+
+    @Test
+    void overlappingCheckouts_ShouldNeitherDeadlockNorOversell() throws Exception {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            workers.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                    Map<UUID, Integer> productQty = new HashMap<>();
+                    Map<UUID, Integer> variantQty = new HashMap<>();
+                    randomCart(random, productQty, variantQty);
+                    try {
+                        checkout(productQty, variantQty);
+                        accepted.incrementAndGet();
+                        if (random.nextInt(5) == 0) {
+                            cancel(productQty, variantQty);
+                        }
+                    } catch (InsufficientStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        boolean finished = pool.awaitTermination(60, TimeUnit.SECONDS);
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        // Assert
+        assertTrue(finished, "checkout workers did not finish");
+        assertEquals(0, lockTimeouts.get(), "lock wait timed out; checkouts deadlocked");
+        assertEquals(0, unlockedWrites.get(), "stock was written without holding the row lock");
+        assertTrue(accepted.get() > 0);
+        assertTrue(rejected.get() > 0, "demand should exceed supply so the short path is exercised");
+        for (Map.Entry<UUID, AtomicInteger> entry : stock.entrySet()) {
+            int remaining = entry.getValue().get();
+            assertTrue(remaining >= 0, "oversold " + entry.getKey());
+            assertEquals(INITIAL_STOCK - reserved.get(entry.getKey()).get(), remaining);
+        }
+    }
+
+    private void randomCart(Random random, Map<UUID, Integer> productQty, Map<UUID, Integer> variantQty) {
+        // Shuffled so that carts reach the service in conflicting orders.
+        List<UUID> shuffled = new ArrayList<>(productIds);
+        Collections.shuffle(shuffled, random);
+        int lines = 1 + random.nextInt(4);
+        for (UUID productId : shuffled.subList(0, lines)) {
+            int quantity = 1 + random.nextInt(3);
+            if (random.nextBoolean()) {
+                variantQty.merge(variantByProduct.get(productId), quantity, Integer::sum);
+            } else {
+                productQty.merge(productId, quantity, Integer::sum);
+            }
+        }
+    }
+
+    private void checkout(Map<UUID, Integer> productQty, Map<UUID, Integer> variantQty) {
+        inTransaction(() -> {
+            // Mirrors OrderService: the parent product of every variant line is locked as well.
+            Set<UUID> lockedProductIds = new LinkedHashSet<>(productQty.keySet());
+            variantQty.keySet().forEach(variantId -> lockedProductIds.add(productByVariant.get(variantId)));
+
+            Map<UUID, Product> products = stockReservationService.lockProducts(lockedProductIds);
+            Map<UUID, ProductVariant> variants = stockReservationService.lockVariants(variantQty.keySet());
+            stockReservationService.reserve(products, productQty, variants, variantQty);
+            productQty.forEach((id, quantity) -> reserved.get(id).addAndGet(quantity));
+            variantQty.forEach((id, quantity) -> reserved.get(id).addAndGet(quantity));
+        });
+    }
+
+    private void cancel(Map<UUID, Integer> productQty, Map<UUID, Integer> variantQty) {
+        inTransaction(() -> {
+            stockReservationService.release(productQty, variantQty);
+            productQty.forEach((id, quantity) -> reserved.get(id).addAndGet(-quantity));
+            variantQty.forEach((id, quantity) -> reserved.get(id).addAndGet(-quantity));
+        });
+    }
+
+    private void inTransaction(Runnable work) {
+        Deque<ReentrantLock> held = heldLocks.get();
+        try {
+            work.run();
+        } finally {
+            while (!held.isEmpty()) {
+                held.pop().unlock();
+            }
+        }
+    }
+
+    private void lockRow(UUID id) throws InterruptedException {
+        ReentrantLock lock = rowLocks.get(id);
+        if (!lock.tryLock(LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            lockTimeouts.incrementAndGet();
+            throw new IllegalStateException("Timed out waiting for row lock on " + id);
+        }
+        heldLocks.get().push(lock);
+    }
+
+    private Product productRow(UUID id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setSku("SKU-" + id);
+        product.setStockQuantity(stock.get(id).get());
+        return product;
+    }
+
+    private int applyBatch(UUID[] ids, Integer[] quantities, int sign) {
+        int updated = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (!rowLocks.get(ids[i]).isHeldByCurrentThread()) {
+                unlockedWrites.incrementAndGet();
+            }
+            AtomicInteger row = stock.get(ids[i]);
+            int current = row.get();
+            if (sign < 0 && current < quantities[i]) {
+                continue;
+            }
+            row.set(current + sign * quantities[i]);
+            updated++;
+        }
+        return updated;
+    }
+}
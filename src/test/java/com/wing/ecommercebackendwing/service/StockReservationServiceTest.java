@@ -0,0 +1,110 @@
+package com.wing.ecommercebackendwing.service;
+
+import com.wing.ecommercebackendwing.exception.custom.InsufficientStockException;
+import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.repository.ProductVariantRepository;
+import com.wing.ecommercebackendwing.service.product.ProductCache;
+import com.wing.ecommercebackendwing.service.product.ProductCounters;
+import com.wing.ecommercebackendwing.service.product.ProductFacetIndex;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checkout where the product was loaded earlier in the transaction, before its row was locked,
+ * and another checkout sold stock in between.
+ *
+ * Like Hibernate, the lock query here hands back the instance already in the persistence context
+ * rather than the row it just locked; only a refresh reads the locked row.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockReservationServiceTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private ProductVariantRepository productVariantRepository;
+    @Mock private ProductFacetIndex productFacetIndex;
+    @Mock private EntityManager entityManager;
+    @Mock private Session session;
+
+    private StockReservationService stockReservationService;
+    private Product preloaded;
+    private int stockInRow;
+
+    @BeforeEach
+    void setUp() {
+        preloaded = new Product();
+        preloaded.setId(UUID.randomUUID());
+        preloaded.setName("Lamp");
+        preloaded.setSku("LAMP-1");
+        preloaded.setStockQuantity(5);
+        stockInRow = 1;
+
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getManagedEntities(Product.class)).thenReturn(List.of(preloaded));
+        when(productRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(preloaded));
+        doAnswer(invocation -> {
+            ((Product) invocation.getArgument(0)).setStockQuantity(stockInRow);
+            return null;
+        }).when(entityManager).refresh(any());
+        when(productRepository.decrementStockBatch(any(), any())).thenReturn(1);
+
+        stockReservationService = new StockReservationService(productRepository, productVariantRepository,
+                new ProductCache(productRepository, 100, 60, 30), productFacetIndex,
+                mock(ProductCounters.class), entityManager);
+    }
+
+    @Test
+    void reserve_ShouldReportShortage_WhenProductWasLoadedBeforeTheLock() {
+        // Arrange
+        Map<UUID, Product> locked = stockReservationService.lockProducts(List.of(preloaded.getId()));
+
+        // Act
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> stockReservationService.reserve(locked, Map.of(preloaded.getId(), 3), Map.of(), Map.of()));
+
+        // Assert
+        assertEquals(1, exception.getShortages().size());
+        assertEquals(1, exception.getShortages().get(0).available());
+        verify(productRepository, never()).decrementStockBatch(any(), any());
+    }
+
+    @Test
+    void reserve_ShouldPatchIndexesWithLockedStock_WhenProductWasLoadedBeforeTheLock() {
+        // Arrange
+        Map<UUID, Product> locked = stockReservationService.lockProducts(List.of(preloaded.getId()));
+
+        // Act
+        stockReservationService.reserve(locked, Map.of(preloaded.getId(), 1), Map.of(), Map.of());
+
+        // Assert
+        verify(productFacetIndex).patchStock(Map.of(preloaded.getId(), 0));
+    }
+
+    @Test
+    void lockProducts_ShouldNotRefresh_WhenNothingWasLoadedBeforeTheLock() {
+        // Arrange
+        when(session.getManagedEntities(Product.class)).thenReturn(List.of());
+
+        // Act
+        stockReservationService.lockProducts(List.of(preloaded.getId()));
+
+        // Assert
+        verify(entityManager, never()).refresh(any());
+    }
+}
@@ -0,0 +1,137 @@
+package com.wing.ecommercebackendwing.service.category;
+
+import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CategoryTreeTest {
+
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private ProductRepository productRepository;
+
+    private final UUID electronicsId = UUID.randomUUID();
+    private final UUID audioId = UUID.randomUUID();
+    private final UUID headphonesId = UUID.randomUUID();
+    private final UUID phonesId = UUID.randomUUID();
+    private final UUID clothingId = UUID.randomUUID();
+
+    private CategoryTree tree;
+
+    @BeforeEach
+    void setUp() {
+        when(categoryRepository.findTreeRows()).thenReturn(List.of(
+                row(headphonesId, audioId, "Headphones", null),
+                row(clothingId, null, "Clothing", 2),
+                row(phonesId, electronicsId, "Phones", 1),
+                row(audioId, electronicsId, "Audio", 2),
+                row(electronicsId, null, "Electronics", 1)));
+        when(productRepository.countActiveByCategory()).thenReturn(List.of(
+                new CategoryProductCount(electronicsId, 1L),
+                new CategoryProductCount(audioId, 2L),
+                new CategoryProductCount(headphonesId, 5L),
+                new CategoryProductCount(clothingId, 3L)));
+        tree = new CategoryTree(categoryRepository, productRepository);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        tree.shutdown();
+    }
+
+    @Test
+    void all_ShouldListParentsBeforeChildren_InSortOrder() {
+        // Act
+        List<CategoryNode> nodes = tree.all();
+
+        // Assert
+        assertEquals(List.of("Electronics", "Phones", "Audio", "Headphones", "Clothing"),
+                nodes.stream().map(CategoryNode::name).toList());
+        assertEquals(List.of(phonesId, audioId), nodes.get(0).childIds());
+    }
+
+    @Test
+    void bySlug_ShouldCarryMaterializedPathAndSubtreeCounts() {
+        // Act
+        CategoryNode headphones = tree.bySlug("headphones").orElseThrow();
+        CategoryNode electronics = tree.bySlug("electronics").orElseThrow();
+
+        // Assert
+        assertEquals(List.of(electronicsId, audioId, headphonesId), headphones.path());
+        assertEquals(List.of("electronics", "audio", "headphones"), headphones.slugPath());
+        assertEquals(2, headphones.depth());
+        assertEquals(audioId, headphones.parentId());
+        assertEquals(Set.of(electronicsId, phonesId, audioId, headphonesId), electronics.subtreeIds());
+        assertEquals(1, electronics.productCount());
+        assertEquals(8, electronics.subtreeProductCount());
+        assertEquals(0, tree.bySlug("phones").orElseThrow().subtreeProductCount());
+        assertTrue(tree.bySlug("missing").isEmpty());
+    }
+
+    @Test
+    void subtree_ShouldBeEmpty_UntilTreeIsBuilt() {
+        // Act & Assert
+        assertTrue(tree.subtree(audioId).isEmpty());
+        assertTrue(tree.rebuild());
+        assertEquals(Set.of(audioId, headphonesId), tree.subtree(audioId).orElseThrow());
+        assertTrue(tree.subtree(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldCutParentCycles_AndServeThemAsRoots() {
+        // Arrange
+        UUID loopA = UUID.randomUUID();
+        UUID loopB = UUID.randomUUID();
+        when(categoryRepository.findTreeRows()).thenReturn(List.of(
+                row(electronicsId, null, "Electronics", 1),
+                row(loopA, loopB, "Loop A", 1),
+                row(loopB, loopA, "Loop B", 2),
+                row(audioId, UUID.randomUUID(), "Audio", 3)));
+
+        // Act
+        boolean rebuilt = tree.rebuild();
+
+        // Assert
+        assertTrue(rebuilt);
+        assertEquals(4, tree.all().size());
+        CategoryNode cut = tree.byId(loopA).orElseThrow();
+        assertNull(cut.parentId());
+        assertEquals(List.of(loopB), cut.childIds());
+        assertEquals(List.of(loopA, loopB), tree.byId(loopB).orElseThrow().path());
+        assertEquals(0, tree.byId(audioId).orElseThrow().depth());
+    }
+
+    @Test
+    void rebuild_ShouldKeepCurrentTree_WhenLoadFails() {
+        // Arrange
+        tree.rebuild();
+        when(categoryRepository.findTreeRows()).thenThrow(new IllegalStateException("database down"));
+
+        // Act
+        boolean rebuilt = tree.rebuild();
+
+        // Assert
+        assertFalse(rebuilt);
+        assertEquals(5, tree.all().size());
+        assertEquals(Set.of(audioId, headphonesId), tree.subtree(audioId).orElseThrow());
+    }
+
+    private static CategoryRow row(UUID id, UUID parentId, String name, Integer sortOrder) {
+        return new CategoryRow(id, parentId, name, name.toLowerCase(), null, null, null, sortOrder, true);
+    }
+}
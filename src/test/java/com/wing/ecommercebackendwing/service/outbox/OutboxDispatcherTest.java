@@ -0,0 +1,154 @@
+package com.wing.ecommercebackendwing.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wing.ecommercebackendwing.config.OutboxProperties;
+import com.wing.ecommercebackendwing.model.entity.OutboxEvent;
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import com.wing.ecommercebackendwing.model.enums.OutboxEventType;
+import com.wing.ecommercebackendwing.model.enums.OutboxStatus;
+import com.wing.ecommercebackendwing.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxDispatcherTest {
+
+    @Mock private OutboxEventRepository outboxEventRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private OutboxEventHandler handler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OutboxProperties properties = new OutboxProperties();
+    private OutboxDispatcher dispatcher;
+    private OutboxEvent event;
+    private UUID eventId;
+    private OrderEventPayload payload;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoffMs(1000);
+        dispatcher = new OutboxDispatcher(outboxEventRepository, List.of(handler), jdbcTemplate,
+                transactionManager, objectMapper, properties);
+
+        eventId = UUID.randomUUID();
+        payload = new OrderEventPayload(UUID.randomUUID(), UUID.randomUUID(), "ORD-20260101-001",
+                OrderStatus.PENDING, OrderStatus.PAID);
+        event = new OutboxEvent();
+        event.setId(eventId);
+        event.setType(OutboxEventType.PAYMENT_COMPLETED);
+        event.setPayload(objectMapper.writeValueAsString(payload));
+        event.setCreatedAt(Instant.now());
+        event.setNextAttemptAt(Instant.now());
+
+        when(outboxEventRepository.findById(eventId)).thenReturn(Optional.of(event));
+        when(handler.name()).thenReturn("test-handler");
+        when(handler.supports(OutboxEventType.PAYMENT_COMPLETED)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void deliver_ShouldRunHandlerAndMarkProcessed() {
+        // Arrange
+        when(jdbcTemplate.update(anyString(), eq(eventId), eq("test-handler"))).thenReturn(1);
+
+        // Act
+        dispatcher.deliver(eventId);
+
+        // Assert
+        verify(handler).handle(eventId, OutboxEventType.PAYMENT_COMPLETED, payload);
+        assertEquals(OutboxStatus.PROCESSED, event.getStatus());
+        assertNotNull(event.getProcessedAt());
+    }
+
+    @Test
+    void deliver_WhenHandlerAlreadyAppliedEvent_ShouldNotApplyAgain() {
+        // Arrange: the idempotency marker already exists
+        when(jdbcTemplate.update(anyString(), eq(eventId), eq("test-handler"))).thenReturn(0);
+
+        // Act
+        dispatcher.deliver(eventId);
+
+        // Assert
+        verify(handler, never()).handle(any(), any(), any());
+        assertEquals(OutboxStatus.PROCESSED, event.getStatus());
+    }
+
+    @Test
+    void deliver_WhenHandlerFails_ShouldScheduleRetryWithBackoff() {
+        // Arrange
+        when(jdbcTemplate.update(anyString(), eq(eventId), eq("test-handler"))).thenReturn(1);
+        doThrow(new RuntimeException("notification down")).when(handler).handle(any(), any(), any());
+        Instant before = Instant.now();
+
+        // Act
+        dispatcher.deliver(eventId);
+
+        // Assert
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertTrue(event.getLastError().contains("notification down"));
+        assertFalse(event.getNextAttemptAt().isBefore(before.plusMillis(1000)));
+    }
+
+    @Test
+    void deliver_AfterMaxAttempts_ShouldParkEvent() {
+        // Arrange
+        event.setAttempts(2);
+        when(jdbcTemplate.update(anyString(), eq(eventId), eq("test-handler"))).thenReturn(1);
+        doThrow(new RuntimeException("still down")).when(handler).handle(any(), any(), any());
+
+        // Act
+        dispatcher.deliver(eventId);
+
+        // Assert
+        assertEquals(OutboxStatus.PARKED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+    }
+
+    @Test
+    void deliver_WhenEventAlreadyProcessed_ShouldDoNothing() {
+        // Arrange
+        event.setStatus(OutboxStatus.PROCESSED);
+
+        // Act
+        dispatcher.deliver(eventId);
+
+        // Assert
+        verify(handler, never()).handle(any(), any(), any());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void backoffMillis_ShouldDoubleAndCap() {
+        properties.setMaxBackoffMs(5000);
+
+        assertEquals(1000, dispatcher.backoffMillis(1));
+        assertEquals(2000, dispatcher.backoffMillis(2));
+        assertEquals(4000, dispatcher.backoffMillis(3));
+        assertEquals(5000, dispatcher.backoffMillis(4));
+    }
+}
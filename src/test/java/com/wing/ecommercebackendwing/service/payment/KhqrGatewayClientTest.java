@@ -0,0 +1,80 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+import com.wing.ecommercebackendwing.config.BakongConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KhqrGatewayClientTest {
+
+    @Mock private RestTemplate restTemplate;
+
+    private KhqrGatewayClient gatewayClient;
+
+    @BeforeEach
+    void setUp() {
+        BakongConfig bakongConfig = new BakongConfig();
+        bakongConfig.setApiBaseUrl("https://api.bakong.test");
+        bakongConfig.setApiToken("token");
+        gatewayClient = new KhqrGatewayClient(restTemplate, bakongConfig);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    void checkMd5List_ShouldReturnOnlySuccessfulEntries() {
+        // Arrange
+        Map<String, Object> paidData = new HashMap<>();
+        paidData.put("externalRef", "ext-1");
+        paidData.put("amount", 12.5);
+        paidData.put("currency", "USD");
+        Map<String, Object> paid = new HashMap<>();
+        paid.put("md5", "AAA");
+        paid.put("status", "SUCCESS");
+        paid.put("data", paidData);
+        Map<String, Object> unknown = new HashMap<>();
+        unknown.put("md5", "bbb");
+        unknown.put("status", "FAILED");
+        unknown.put("data", null);
+        Map<String, Object> body = new HashMap<>();
+        body.put("responseCode", 0);
+        body.put("data", List.of(paid, unknown));
+        when(restTemplate.exchange(eq("https://api.bakong.test/v1/check_transaction_by_md5_list"), eq(HttpMethod.POST),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn((ResponseEntity) new ResponseEntity<>(body, HttpStatus.OK));
+
+        // Act
+        Map<String, KhqrTransaction> result = gatewayClient.checkMd5List(List.of("aaa", "bbb"));
+
+        // Assert
+        assertEquals(1, result.size());
+        KhqrTransaction transaction = result.get("aaa");
+        assertEquals("ext-1", transaction.gatewayReference());
+        assertEquals(12.5, transaction.amount());
+        assertEquals("USD", transaction.currency());
+    }
+
+    @Test
+    void checkMd5List_ShouldRejectOversizedRequests() {
+        List<String> md5s = java.util.Collections.nCopies(KhqrGatewayClient.MAX_MD5_PER_REQUEST + 1, "aaa");
+
+        assertThrows(IllegalArgumentException.class, () -> gatewayClient.checkMd5List(md5s));
+        verifyNoInteractions(restTemplate);
+    }
+}
@@ -0,0 +1,141 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+import com.wing.ecommercebackendwing.config.PaymentReconcilerProperties;
+import com.wing.ecommercebackendwing.repository.PaymentRepository;
+import com.wing.ecommercebackendwing.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class KhqrPaymentReconcilerTest {
+
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private PaymentService paymentService;
+    @Mock private KhqrGatewayClient gatewayClient;
+    @Mock private PaymentVerificationCoordinator verificationCoordinator;
+
+    private final PaymentReconcilerProperties properties = new PaymentReconcilerProperties();
+    private KhqrPaymentReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        properties.setParallelism(2);
+        reconciler = new KhqrPaymentReconciler(paymentRepository, paymentService, gatewayClient, verificationCoordinator, properties);
+        when(paymentService.settleFromGateway(any(), any())).thenReturn(true);
+        when(paymentService.expireIfPending(any(), any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        reconciler.shutdown();
+    }
+
+    @Test
+    void reconcile_ShouldWalkKeysetPagesAndSettlePaidHashes() {
+        // Arrange
+        PendingKhqrPayment first = pending("aaa", 300);
+        PendingKhqrPayment second = pending("bbb", 300);
+        PendingKhqrPayment third = pending("ccc", 300);
+        when(paymentRepository.findPendingKhqrAfter(eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(paymentRepository.findPendingKhqrAfter(eq(second.id()), any(Pageable.class)))
+                .thenReturn(List.of(third));
+        KhqrTransaction paid = new KhqrTransaction("aaa", "ref-1", 10.0, "USD", "{}");
+        when(gatewayClient.checkMd5List(List.of("aaa", "bbb"))).thenReturn(Map.of("aaa", paid));
+        when(gatewayClient.checkMd5List(List.of("ccc"))).thenReturn(Map.of());
+
+        // Act
+        reconciler.reconcile();
+
+        // Assert
+        verify(paymentService).settleFromGateway(first.id(), paid);
+        verify(verificationCoordinator).invalidate("aaa", first.userId());
+        verify(verificationCoordinator).recordPending("bbb", second.userId());
+        verify(verificationCoordinator).recordPending("ccc", third.userId());
+        verify(paymentService, never()).expireIfPending(any(), any());
+        verify(paymentRepository, never()).findPendingKhqrAfter(eq(third.id()), any(Pageable.class));
+    }
+
+    @Test
+    void reconcile_ShouldExpireOnlyWhenFinalCheckFindsNothing() {
+        // Arrange
+        PendingKhqrPayment expiredUnpaid = pending("aaa", -5);
+        PendingKhqrPayment expiredButPaid = pending("bbb", -5);
+        when(paymentRepository.findPendingKhqrAfter(eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenReturn(List.of(expiredUnpaid, expiredButPaid));
+        KhqrTransaction paid = new KhqrTransaction("bbb", "ref-2", 10.0, "USD", "{}");
+        when(gatewayClient.checkMd5List(anyList())).thenReturn(Map.of("bbb", paid));
+
+        // Act
+        reconciler.reconcile();
+
+        // Assert
+        verify(paymentService).expireIfPending(eq(expiredUnpaid.id()), any(Instant.class));
+        verify(paymentService).settleFromGateway(expiredButPaid.id(), paid);
+        verify(paymentService, never()).expireIfPending(eq(expiredButPaid.id()), any());
+        verify(verificationCoordinator).invalidate("aaa", expiredUnpaid.userId());
+        verify(verificationCoordinator, never()).recordPending(anyString(), any());
+    }
+
+    @Test
+    void reconcile_ShouldLeavePaymentsUntouched_WhenGatewayIsDown() {
+        // Arrange
+        when(paymentRepository.findPendingKhqrAfter(eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenReturn(List.of(pending("aaa", -5)));
+        when(gatewayClient.checkMd5List(anyList())).thenThrow(new ResourceAccessException("connect timed out"));
+
+        // Act
+        reconciler.reconcile();
+
+        // Assert
+        verify(paymentService, never()).expireIfPending(any(), any());
+        verify(paymentService, never()).settleFromGateway(any(), any());
+        verifyNoInteractions(verificationCoordinator);
+    }
+
+    @Test
+    void reconcilePage_ShouldSplitIntoGatewaySizedChunks() {
+        // Arrange
+        List<PendingKhqrPayment> page = new ArrayList<>();
+        IntStream.range(0, 120).forEach(i -> page.add(pending("md5-" + i, 300)));
+        List<Integer> requestSizes = java.util.Collections.synchronizedList(new ArrayList<>());
+        when(gatewayClient.checkMd5List(anyList())).thenAnswer(inv -> {
+            requestSizes.add(inv.<List<String>>getArgument(0).size());
+            return Map.of();
+        });
+
+        // Act
+        KhqrPaymentReconciler.Outcome outcome = reconciler.reconcilePage(page, Instant.now());
+
+        // Assert
+        assertEquals(3, requestSizes.size());
+        assertTrue(requestSizes.stream().allMatch(size -> size <= KhqrGatewayClient.MAX_MD5_PER_REQUEST));
+        assertEquals(120, outcome.pending);
+        verify(verificationCoordinator, times(120)).recordPending(anyString(), any());
+    }
+
+    private PendingKhqrPayment pending(String md5, long expiresInSeconds) {
+        return new PendingKhqrPayment(UUID.randomUUID(), md5, Instant.now().plusSeconds(expiresInSeconds), UUID.randomUUID());
+    }
+}
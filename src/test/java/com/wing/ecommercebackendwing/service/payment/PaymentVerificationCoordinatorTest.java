@@ -0,0 +1,154 @@
+package com.wing.ecommercebackendwing.service.payment;
+
+import com.wing.ecommercebackendwing.dto.response.payment.PaymentVerificationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentVerificationCoordinatorTest {
+
+    private static final String MD5 = "aaad6ba89e1045b3ba46fa8542555882";
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final UUID owner = UUID.randomUUID();
+    private PaymentVerificationCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = new PaymentVerificationCoordinator(5, 600, 1_000, ticker::get);
+    }
+
+    @Test
+    void verify_ShouldCollapseConcurrentPollsIntoOneCheck() throws Exception {
+        // Arrange
+        int pollers = 16;
+        AtomicInteger checks = new AtomicInteger();
+        CountDownLatch checkStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(pollers);
+        List<Future<PaymentVerificationResponse>> results = new ArrayList<>();
+
+        // Act
+        results.add(pool.submit(() -> coordinator.verify(MD5, owner, () -> {
+            checks.incrementAndGet();
+            checkStarted.countDown();
+            await(release);
+            return paid();
+        })));
+        assertTrue(checkStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < pollers; i++) {
+            results.add(pool.submit(() -> coordinator.verify(MD5, owner, () -> {
+                checks.incrementAndGet();
+                return paid();
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        for (Future<PaymentVerificationResponse> result : results) {
+            PaymentVerificationResponse response = result.get(5, TimeUnit.SECONDS);
+            assertTrue(response.isPaid());
+            assertEquals(12.5, response.getPaidAmount());
+        }
+        assertEquals(1, checks.get());
+        pool.shutdown();
+    }
+
+    @Test
+    void verify_ShouldServePendingForCooldownThenCheckAgain() {
+        // Arrange
+        AtomicInteger checks = new AtomicInteger();
+
+        // Act
+        coordinator.verify(MD5, owner, () -> pending(checks));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        PaymentVerificationResponse insideCooldown = coordinator.verify(MD5, owner, () -> pending(checks));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        coordinator.verify(MD5, owner, () -> pending(checks));
+
+        // Assert
+        assertEquals("PENDING", insideCooldown.getMessage());
+        assertEquals(2, checks.get());
+    }
+
+    @Test
+    void verify_ShouldKeepPaidAnswerAsAlreadyCompleted() {
+        coordinator.verify(MD5, owner, this::paid);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        PaymentVerificationResponse later = coordinator.verify(MD5, owner, () -> fail("should be cached"));
+
+        assertTrue(later.isPaid());
+        assertEquals("Payment already completed", later.getMessage());
+    }
+
+    @Test
+    void verify_ShouldNotShareAnswersAcrossUsers() {
+        AtomicInteger checks = new AtomicInteger();
+
+        coordinator.verify(MD5, owner, this::paid);
+        PaymentVerificationResponse stranger = coordinator.verify(MD5, UUID.randomUUID(), () -> {
+            checks.incrementAndGet();
+            return PaymentVerificationResponse.builder().isPaid(false).message("Payment record not found").build();
+        });
+
+        assertFalse(stranger.isPaid());
+        assertEquals(1, checks.get());
+    }
+
+    @Test
+    void recordPending_ShouldNotOverrideFinalAnswer_AndInvalidateShouldForceCheck() {
+        AtomicInteger checks = new AtomicInteger();
+        coordinator.verify(MD5, owner, this::paid);
+
+        coordinator.recordPending(MD5, owner);
+        assertTrue(coordinator.verify(MD5, owner, () -> pending(checks)).isPaid());
+
+        coordinator.invalidate(MD5, owner);
+        assertFalse(coordinator.verify(MD5, owner, () -> pending(checks)).isPaid());
+        assertEquals(1, checks.get());
+    }
+
+    @Test
+    void verify_ShouldPropagateFailureWithoutCachingIt() {
+        assertThrows(IllegalStateException.class,
+                () -> coordinator.verify(MD5, owner, () -> { throw new IllegalStateException("boom"); }));
+
+        assertTrue(coordinator.verify(MD5, owner, this::paid).isPaid());
+    }
+
+    private PaymentVerificationResponse paid() {
+        return PaymentVerificationResponse.builder()
+                .isPaid(true)
+                .paidAmount(12.5)
+                .currency("USD")
+                .message("Success")
+                .build();
+    }
+
+    private PaymentVerificationResponse pending(AtomicInteger checks) {
+        checks.incrementAndGet();
+        return PaymentVerificationResponse.builder().isPaid(false).message("PENDING").build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.dto.response.product.ProductResponse;
+import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductCacheTest {
+
+    @Mock private ProductRepository productRepository;
+
+    private ProductCache productCache;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(productRepository, 100, 600, 30);
+        product = Product.builder()
+                .name("Yoga Mat Premium")
+                .slug("yoga-mat-premium")
+                .price(new BigDecimal("19.99"))
+                .stockQuantity(40)
+                .build();
+        product.setId(UUID.randomUUID());
+        when(productRepository.findBySlug("yoga-mat-premium")).thenReturn(Optional.of(product));
+        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getBySlug_ShouldLoadOnceAndServeCopies() {
+        // Act
+        ProductResponse first = productCache.getBySlug("yoga-mat-premium").orElseThrow();
+        first.setStock(0);
+        ProductResponse second = productCache.getBySlug("yoga-mat-premium").orElseThrow();
+
+        // Assert
+        verify(productRepository, times(1)).findBySlug("yoga-mat-premium");
+        verify(productRepository, never()).findById(any());
+        assertEquals(40, second.getStock());
+        ProductCacheStats stats = productCache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+    }
+
+    @Test
+    void getBySlug_ShouldRememberUnknownSlugs() {
+        // Arrange
+        when(productRepository.findBySlug("no-such-product")).thenReturn(Optional.empty());
+
+        // Act
+        Optional<ProductResponse> first = productCache.getBySlug("no-such-product");
+        Optional<ProductResponse> second = productCache.getBySlug("no-such-product");
+
+        // Assert
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        verify(productRepository, times(1)).findBySlug("no-such-product");
+        assertEquals(1, productCache.stats().negativeHits());
+    }
+
+    @Test
+    void evict_ShouldForgetUnknownSlugOnceProductIsCreated() {
+        // Arrange
+        when(productRepository.findBySlug("new-product")).thenReturn(Optional.empty());
+        productCache.getBySlug("new-product");
+        Product created = Product.builder().name("New Product").slug("new-product").stockQuantity(5).build();
+        created.setId(UUID.randomUUID());
+        when(productRepository.findBySlug("new-product")).thenReturn(Optional.of(created));
+
+        // Act
+        productCache.evict(created.getId(), "new-product");
+
+        // Assert
+        assertEquals(created.getId(), productCache.getBySlug("new-product").orElseThrow().getId());
+    }
+
+    @Test
+    void patchStock_ShouldUpdateEntryInPlace() {
+        // Arrange
+        productCache.getBySlug("yoga-mat-premium");
+
+        // Act
+        productCache.patchStock(Map.of(product.getId(), 37));
+
+        // Assert
+        assertEquals(37, productCache.getBySlug("yoga-mat-premium").orElseThrow().getStock());
+        verify(productRepository, times(1)).findBySlug("yoga-mat-premium");
+        verify(productRepository, never()).findById(any());
+        assertEquals(1, productCache.stats().stockPatches());
+    }
+
+    @Test
+    void patchStock_InsideTransaction_ShouldWaitForCommit() {
+        // Arrange
+        productCache.getBySlug("yoga-mat-premium");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        productCache.patchStock(Map.of(product.getId(), 37));
+        int beforeCommit = productCache.getBySlug("yoga-mat-premium").orElseThrow().getStock();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Assert
+        assertEquals(40, beforeCommit);
+        assertEquals(37, productCache.getBySlug("yoga-mat-premium").orElseThrow().getStock());
+    }
+
+    @Test
+    void patchStock_ShouldIgnoreProductsThatAreNotCached() {
+        // Act
+        productCache.patchStock(Map.of(UUID.randomUUID(), 3));
+
+        // Assert
+        assertEquals(0, productCache.stats().entries());
+        assertEquals(0, productCache.stats().stockPatches());
+    }
+}
@@ -0,0 +1,191 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductCountersTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private ProductCache productCache;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final UUID phone = new UUID(0L, 1L);
+    private final UUID lamp = new UUID(0L, 2L);
+    private final Map<UUID, long[]> persisted = new ConcurrentHashMap<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final Set<UUID> lockedRows = ConcurrentHashMap.newKeySet();
+
+    private ProductCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.addCounts(any(), any(), any())).thenAnswer(invocation -> {
+            UUID[] ids = invocation.getArgument(0);
+            Integer[] views = invocation.getArgument(1);
+            Integer[] sold = invocation.getArgument(2);
+            batchSizes.add(ids.length);
+            List<UUID> updated = new ArrayList<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (!lockedRows.contains(ids[i])) {
+                    long[] row = persisted.computeIfAbsent(ids[i], id -> new long[2]);
+                    row[0] += views[i];
+                    row[1] += sold[i];
+                    updated.add(ids[i]);
+                }
+            }
+            return updated;
+        });
+        counters = new ProductCounters(productRepository, productCache, transactionManager, 1000);
+    }
+
+    @Test
+    void flush_ShouldWriteSummedDeltas_InOneBatchedUpdate() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            counters.recordView(phone);
+        }
+        counters.recordView(lamp);
+        counters.recordSales(Map.of(phone, 2));
+        counters.recordSales(Map.of(phone, 1, lamp, 4));
+
+        // Act
+        int written = counters.flush();
+
+        // Assert
+        assertEquals(2, written);
+        assertEquals(List.of(2), batchSizes);
+        assertArrayEquals(new long[]{5, 3}, persisted.get(phone));
+        assertArrayEquals(new long[]{1, 4}, persisted.get(lamp));
+        verify(productCache).patchCounts(phone, 5, 3);
+        verify(productCache).patchCounts(lamp, 1, 4);
+        assertEquals(0, counters.flush());
+        assertEquals(List.of(2), batchSizes);
+    }
+
+    @Test
+    void views_ShouldMergeUnflushedCounts_WithPersistedValue() {
+        // Arrange
+        counters.recordView(phone);
+        counters.recordView(phone);
+        counters.recordSales(Map.of(phone, 3));
+
+        // Act & Assert
+        assertEquals(12, counters.views(phone, 10));
+        assertEquals(3, counters.sold(phone, null));
+        assertEquals(7, counters.views(lamp, 7));
+        counters.flush();
+        assertEquals(10, counters.views(phone, 10));
+    }
+
+    @Test
+    void flush_ShouldKeepDeltas_ForLockedRowsAndFailedBatches() {
+        // Arrange
+        counters.recordView(phone);
+        counters.recordView(lamp);
+        lockedRows.add(lamp);
+
+        // Act
+        int firstFlush = counters.flush();
+        int lampStillPending = counters.views(lamp, 0);
+        lockedRows.clear();
+        doThrow(new IllegalStateException("connection reset")).when(productRepository).addCounts(any(), any(), any());
+        counters.recordView(lamp);
+        int failedFlush = counters.flush();
+
+        // Assert
+        assertEquals(1, firstFlush);
+        assertEquals(1, lampStillPending);
+        assertEquals(0, failedFlush);
+        assertEquals(2, counters.views(lamp, 0));
+        verify(productCache, never()).patchCounts(eq(lamp), anyInt(), anyInt());
+    }
+
+    @Test
+    void shutdown_ShouldFlushPendingCounts() {
+        // Arrange
+        counters.recordView(phone);
+        counters.recordSales(Map.of(phone, 1));
+
+        // Act
+        counters.shutdown();
+
+        // Assert
+        assertArrayEquals(new long[]{1, 1}, persisted.get(phone));
+        assertEquals(0, counters.pendingProducts());
+    }
+
+    @Test
+    void flush_ShouldNotLoseIncrements_WhileWritersRunConcurrently() throws Exception {
+        // Arrange
+        int writers = 8;
+        int viewsPerWriter = 20_000;
+        List<UUID> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            products.add(UUID.randomUUID());
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        // Act
+        for (int w = 0; w < writers; w++) {
+            int seed = w;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < viewsPerWriter; i++) {
+                    // Writers move between products so some go idle and are dropped mid-run.
+                    counters.recordView(products.get((seed + i / 1000) % products.size()));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        Thread flusher = new Thread(() -> {
+            while (writing.get()) {
+                counters.flush();
+            }
+        });
+        flusher.start();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        writing.set(false);
+        flusher.join();
+        for (int i = 0; i < 3; i++) {
+            counters.flush();
+        }
+
+        // Assert
+        AtomicLong total = new AtomicLong();
+        persisted.values().forEach(row -> total.addAndGet(row[0]));
+        assertEquals((long) writers * viewsPerWriter, total.get());
+        assertEquals(0, counters.pendingProducts());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 1000), Arrays.toString(batchSizes.toArray()));
+    }
+}
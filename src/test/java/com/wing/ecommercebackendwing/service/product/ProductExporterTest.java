@@ -0,0 +1,138 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductExporterTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    @Mock private ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Ids ascending in listing order, as the keyset pages return them.
+    private final List<ProductSummary> products = List.of(product(1, "Phone", "199.00"), product(2, "Lamp", "45.50"), product(3, "Desk", "300.00"));
+
+    private ProductExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new ProductExporter(productRepository, objectMapper, PAGE_SIZE);
+        when(productRepository.findSummariesAfter(any(UUID.class), any(Pageable.class))).thenAnswer(invocation -> {
+            UUID afterId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return products.stream()
+                    .filter(product -> product.id().compareTo(afterId) > 0)
+                    .limit(pageable.getPageSize())
+                    .toList();
+        });
+    }
+
+    @Test
+    void export_ShouldWriteJsonArray_InListingShape() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = exporter.export(ProductExporter.Format.JSON, out);
+
+        // Assert
+        JsonNode array = objectMapper.readTree(out.toByteArray());
+        assertEquals(3, written);
+        assertTrue(array.isArray());
+        assertEquals(List.of("Phone", "Lamp", "Desk"), List.of(array.get(0).get("name").asText(), array.get(1).get("name").asText(), array.get(2).get("name").asText()));
+        assertEquals(45.5, array.get(1).get("price").asDouble());
+        assertEquals("lamp", array.get(1).get("slug").asText());
+        assertEquals(0.0, array.get(1).get("rating").asDouble());
+    }
+
+    @Test
+    void export_ShouldReadKeysetPages_EachAfterTheLastProductWritten() throws IOException {
+        // Act
+        exporter.export(ProductExporter.Format.NDJSON, new ByteArrayOutputStream());
+
+        // Assert
+        verify(productRepository).findSummariesAfter(new UUID(0L, 0L), PageRequest.of(0, PAGE_SIZE));
+        verify(productRepository).findSummariesAfter(products.get(1).id(), PageRequest.of(0, PAGE_SIZE));
+        verify(productRepository, times(2)).findSummariesAfter(any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    void export_ShouldWriteOneObjectPerLine_ForNdjson() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exporter.export(ProductExporter.Format.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("Phone", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals("Desk", objectMapper.readTree(lines[2]).get("name").asText());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("}\n"));
+    }
+
+    @Test
+    void export_ShouldWriteEmptyArray_WhenCatalogIsEmpty() throws IOException {
+        // Arrange
+        when(productRepository.findSummariesAfter(any(UUID.class), any(Pageable.class))).thenReturn(List.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = exporter.export(ProductExporter.Format.JSON, out);
+
+        // Assert
+        assertEquals(0, written);
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_ShouldRethrow_WhenClientDisconnects() {
+        // Arrange
+        OutputStream brokenPipe = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // Act & Assert
+        IOException error = assertThrows(IOException.class, () -> exporter.export(ProductExporter.Format.JSON, brokenPipe));
+        assertEquals("Broken pipe", error.getMessage());
+    }
+
+    private static ProductSummary product(long id, String name, String price) {
+        return new ProductSummary(new UUID(0L, id), null, name, name.toLowerCase(), new BigDecimal(price), null,
+                5, null, null, null, null, null);
+    }
+}
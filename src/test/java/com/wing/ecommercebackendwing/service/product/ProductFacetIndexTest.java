@@ -0,0 +1,190 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.config.FacetProperties;
+import com.wing.ecommercebackendwing.config.SearchProperties;
+import com.wing.ecommercebackendwing.dto.request.product.ProductFilterRequest;
+import com.wing.ecommercebackendwing.dto.response.product.ProductFacetsResponse;
+import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.repository.MerchantRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import com.wing.ecommercebackendwing.service.search.ProductSearchIndex;
+import com.wing.ecommercebackendwing.service.search.SearchHits;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductFacetIndexTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private MerchantRepository merchantRepository;
+    @Mock private ProductSearchIndex productSearchIndex;
+
+    private final UUID electronics = UUID.randomUUID();
+    private final UUID phones = UUID.randomUUID();
+    private final UUID laptops = UUID.randomUUID();
+    private final UUID home = UUID.randomUUID();
+    private final UUID acme = UUID.randomUUID();
+    private final UUID globex = UUID.randomUUID();
+
+    private final ProductFacetDocument phone = document(phones, acme, "5.00", "4.8", 10, true);
+    private final ProductFacetDocument cheapPhone = document(phones, globex, "30.00", "3.2", 0, false);
+    private final ProductFacetDocument laptop = document(laptops, acme, "900.00", "4.1", 3, false);
+    private final ProductFacetDocument lamp = document(home, globex, "45.00", "2.5", 7, true);
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        FacetProperties properties = new FacetProperties();
+        properties.setPriceBuckets(List.of(new BigDecimal("10"), new BigDecimal("50")));
+        index = new ProductFacetIndex(productRepository, categoryRepository, merchantRepository,
+                productSearchIndex, new SearchProperties(), properties);
+
+        when(categoryRepository.findFacetLabels()).thenReturn(List.of(
+                new FacetLabel(electronics, null, "Electronics"),
+                new FacetLabel(phones, electronics, "Phones"),
+                new FacetLabel(laptops, electronics, "Laptops"),
+                new FacetLabel(home, null, "Home")));
+        when(merchantRepository.findFacetLabels()).thenReturn(List.of(
+                new FacetLabel(acme, "Acme"), new FacetLabel(globex, "Globex")));
+        when(productRepository.findFacetDocumentsAfter(eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenReturn(List.of(phone, cheapPhone, laptop, lamp));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        index.shutdown();
+    }
+
+    @Test
+    void facets_ShouldBeEmpty_UntilFirstBuild() {
+        // Act & Assert
+        assertTrue(index.facets(new ProductFilterRequest()).isEmpty());
+        assertTrue(index.rebuild());
+        assertTrue(index.facets(new ProductFilterRequest()).isPresent());
+    }
+
+    @Test
+    void facets_ShouldCountWholeCatalog_WithoutFilters() {
+        // Arrange
+        index.rebuild();
+
+        // Act
+        ProductFacetsResponse facets = index.facets(new ProductFilterRequest()).orElseThrow();
+
+        // Assert
+        assertEquals(4, facets.getTotal());
+        assertEquals(3, facets.getInStock());
+        assertEquals(Map.of("Electronics", 3L, "Home", 1L), counts(facets.getCategories()));
+        assertEquals(Map.of("Acme", 2L, "Globex", 2L), counts(facets.getMerchants()));
+        assertEquals(List.of(1L, 2L, 1L), facets.getPriceRanges().stream().map(ProductFacetsResponse.PriceRangeCount::getCount).toList());
+        assertNull(facets.getPriceRanges().get(2).getMax());
+        assertEquals(List.of(4, 3, 2, 1), facets.getRatings().stream().map(ProductFacetsResponse.RatingCount::getMinRating).toList());
+        assertEquals(List.of(2L, 3L, 4L, 4L), facets.getRatings().stream().map(ProductFacetsResponse.RatingCount::getCount).toList());
+    }
+
+    @Test
+    void facets_ShouldCountEachFacetWithEveryFilterButItsOwn() {
+        // Arrange
+        index.rebuild();
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setCategoryId(electronics);
+        filter.setMinPrice(new BigDecimal("10"));
+        filter.setInStock(true);
+
+        // Act
+        ProductFacetsResponse facets = index.facets(filter).orElseThrow();
+
+        // Assert
+        // Only the laptop is in Electronics, at least 10 and in stock.
+        assertEquals(1, facets.getTotal());
+        // Lists the subcategories of the selected category.
+        assertEquals(Map.of("Laptops", 1L), counts(facets.getCategories()));
+        // Price ignores the price filter: the in-stock phone under 10 still counts.
+        assertEquals(List.of(1L, 0L, 1L), facets.getPriceRanges().stream().map(ProductFacetsResponse.PriceRangeCount::getCount).toList());
+        // In stock ignores the in-stock filter: the sold-out phone is in the base but not in stock.
+        assertEquals(1, facets.getInStock());
+        assertEquals(Map.of("Acme", 1L), counts(facets.getMerchants()));
+    }
+
+    @Test
+    void facets_ShouldFollowWritesMadeAfterTheBuild() {
+        // Arrange
+        index.rebuild();
+        ProductFacetDocument tablet = document(phones, globex, "60.00", "4.5", 2, false);
+
+        // Act
+        index.index(tablet);
+        index.patchStock(Map.of(phone.id(), 0));
+        index.remove(lamp.id());
+        index.index(new ProductFacetDocument(laptop.id(), home, acme, new BigDecimal("900.00"), new BigDecimal("4.1"), 3, false));
+        ProductFacetsResponse facets = index.facets(new ProductFilterRequest()).orElseThrow();
+
+        // Assert
+        assertEquals(4, facets.getTotal());
+        assertEquals(2, facets.getInStock());
+        assertEquals(Map.of("Electronics", 3L, "Home", 1L), counts(facets.getCategories()));
+        assertEquals(List.of(1L, 1L, 2L), facets.getPriceRanges().stream().map(ProductFacetsResponse.PriceRangeCount::getCount).toList());
+    }
+
+    @Test
+    void facets_ShouldMoveProductBetweenRatingBands_WhenRatingPatched() {
+        // Arrange
+        index.rebuild();
+
+        // Act
+        index.patchRating(Map.of(lamp.id(), new BigDecimal("4.6")));
+        ProductFacetsResponse facets = index.facets(new ProductFilterRequest()).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(3L, 4L, 4L, 4L), facets.getRatings().stream().map(ProductFacetsResponse.RatingCount::getCount).toList());
+    }
+
+    @Test
+    void facets_ShouldRestrictToSearchMatches_AndWaitForTheSearchIndex() {
+        // Arrange
+        index.rebuild();
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setSearchQuery("phone");
+        when(productSearchIndex.isReady()).thenReturn(false);
+
+        // Act
+        boolean beforeSearchIndex = index.facets(filter).isPresent();
+        when(productSearchIndex.isReady()).thenReturn(true);
+        when(productSearchIndex.search(eq("phone"), eq(0), anyInt()))
+                .thenReturn(new SearchHits(List.of(phone.id(), cheapPhone.id()), 2));
+        ProductFacetsResponse facets = index.facets(filter).orElseThrow();
+
+        // Assert
+        assertFalse(beforeSearchIndex);
+        assertEquals(2, facets.getTotal());
+        assertEquals(Map.of("Acme", 1L, "Globex", 1L), counts(facets.getMerchants()));
+    }
+
+    private static Map<String, Long> counts(List<ProductFacetsResponse.ValueCount> values) {
+        return values.stream().collect(Collectors.toMap(ProductFacetsResponse.ValueCount::getName, ProductFacetsResponse.ValueCount::getCount));
+    }
+
+    private static ProductFacetDocument document(UUID categoryId, UUID merchantId, String price, String rating, int stock, boolean featured) {
+        return new ProductFacetDocument(UUID.randomUUID(), categoryId, merchantId, new BigDecimal(price), new BigDecimal(rating), stock, featured);
+    }
+}
@@ -0,0 +1,233 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.config.SearchProperties;
+import com.wing.ecommercebackendwing.dto.request.product.ProductFilterRequest;
+import com.wing.ecommercebackendwing.exception.custom.BadRequestException;
+import com.wing.ecommercebackendwing.service.category.CategoryTree;
+import com.wing.ecommercebackendwing.service.search.ProductSearchIndex;
+import com.wing.ecommercebackendwing.service.search.SearchHits;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductQueryEngineTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ProductSearchIndex productSearchIndex;
+    @Mock private CategoryTree categoryTree;
+
+    private ProductQueryEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ProductQueryEngine(jdbcTemplate, productSearchIndex, new SearchProperties(), categoryTree);
+        when(productSearchIndex.isReady()).thenReturn(false);
+        when(categoryTree.subtree(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void build_ShouldCombineEveryFilterIntoOneStatement() {
+        // Arrange
+        ProductFilterRequest filter = new ProductFilterRequest();
+        UUID categoryId = UUID.randomUUID();
+        UUID merchantId = UUID.randomUUID();
+        filter.setCategoryId(categoryId);
+        filter.setMerchantId(merchantId);
+        filter.setMinPrice(new BigDecimal("10"));
+        filter.setMaxPrice(new BigDecimal("50"));
+        filter.setMinRating(new BigDecimal("4"));
+        filter.setInStock(true);
+        filter.setFeatured(true);
+        filter.setSearchQuery(" 50%_Off ");
+        filter.setSize(10);
+
+        // Act
+        ProductQueryEngine.ProductQuery query = engine.build(filter).orElseThrow();
+
+        // Assert
+        String sql = query.sql();
+        assertTrue(sql.startsWith("WITH RECURSIVE category_tree(id)"));
+        assertTrue(sql.contains("p.category_id IN (SELECT id FROM category_tree)"));
+        assertTrue(sql.contains("p.merchant_id = ?"));
+        assertTrue(sql.contains("p.price >= ?") && sql.contains("p.price <= ?"));
+        assertTrue(sql.contains("p.rating >= ?"));
+        assertTrue(sql.contains("p.stock > 0"));
+        assertTrue(sql.contains("p.is_featured = ?"));
+        assertTrue(sql.contains("LOWER(p.name) LIKE ?"));
+        assertTrue(sql.endsWith("ORDER BY k0 DESC, k1 DESC LIMIT ?"));
+        assertFalse(sql.contains("OFFSET"));
+        assertEquals(List.of(categoryId, merchantId, new BigDecimal("10"), new BigDecimal("50"), new BigDecimal("4"),
+                true, "%50\\%\\_off%", "%50\\%\\_off%", 11), query.args());
+    }
+
+    @Test
+    void build_ShouldMatchPrecomputedSubtree_WhenCategoryTreeKnowsTheCategory() {
+        // Arrange
+        ProductFilterRequest filter = new ProductFilterRequest();
+        UUID categoryId = UUID.randomUUID();
+        UUID childId = UUID.randomUUID();
+        filter.setCategoryId(categoryId);
+        filter.setMinPrice(new BigDecimal("10"));
+        when(categoryTree.subtree(categoryId)).thenReturn(Optional.of(new LinkedHashSet<>(List.of(categoryId, childId))));
+
+        // Act
+        ProductQueryEngine.ProductQuery query = engine.build(filter).orElseThrow();
+
+        // Assert
+        String sql = query.sql();
+        assertFalse(sql.contains("category_tree"));
+        assertTrue(sql.startsWith("SELECT "));
+        assertTrue(sql.contains("p.category_id = ANY(?)"));
+        assertArrayEquals(new UUID[]{categoryId, childId}, (UUID[]) query.args().get(0));
+        assertEquals(new BigDecimal("10"), query.args().get(1));
+    }
+
+    @Test
+    void build_ShouldSeekWithRowComparison_WhenAllKeysShareDirection() {
+        // Arrange
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setSort("price");
+        UUID lastId = UUID.randomUUID();
+        filter.setCursor(ProductCursor.encode("price", List.of("19.99", lastId.toString())));
+
+        // Act
+        ProductQueryEngine.ProductQuery query = engine.build(filter).orElseThrow();
+
+        // Assert
+        assertTrue(query.sql().contains("AND (p.price, p.id) > (?, ?)"));
+        assertEquals(List.of(new BigDecimal("19.99"), lastId, 21), query.args());
+    }
+
+    @Test
+    void build_ShouldExpandSeekPredicate_WhenDirectionsMix() {
+        // Arrange
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setSort("-rating, price");
+        UUID lastId = UUID.randomUUID();
+        filter.setCursor(ProductCursor.encode("-rating,price", List.of("4.50", "19.99", lastId.toString())));
+
+        // Act
+        ProductQueryEngine.ProductQuery query = engine.build(filter).orElseThrow();
+
+        // Assert
+        assertTrue(query.sql().contains("AND ((COALESCE(p.rating, 0) < ?)"
+                + " OR (COALESCE(p.rating, 0) = ? AND p.price > ?)"
+                + " OR (COALESCE(p.rating, 0) = ? AND p.price = ? AND p.id > ?))"));
+        assertTrue(query.sql().endsWith("ORDER BY k0 DESC, k1 ASC, k2 ASC LIMIT ?"));
+        BigDecimal rating = new BigDecimal("4.50");
+        BigDecimal price = new BigDecimal("19.99");
+        assertEquals(List.of(rating, rating, price, rating, price, lastId, 21), query.args());
+    }
+
+    @Test
+    void build_ShouldJoinRankedMatches_WhenSearchIndexIsReady() {
+        // Arrange
+        List<UUID> ranked = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(productSearchIndex.isReady()).thenReturn(true);
+        when(productSearchIndex.search(eq("phone"), eq(0), anyInt())).thenReturn(new SearchHits(ranked, 2));
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setSearchQuery("phone");
+        filter.setInStock(true);
+
+        // Act
+        ProductQueryEngine.ProductQuery query = engine.build(filter).orElseThrow();
+
+        // Assert
+        assertTrue(query.sql().startsWith("WITH RECURSIVE ranked(id, position) AS (SELECT * FROM unnest(?) WITH ORDINALITY)"));
+        assertTrue(query.sql().contains("JOIN ranked r ON r.id = p.id"));
+        assertFalse(query.sql().contains("LIKE"));
+        assertTrue(query.sql().endsWith("ORDER BY k0 ASC, k1 ASC LIMIT ?"));
+        assertEquals("relevance", query.sort().spec());
+        assertArrayEquals(ranked.toArray(), (Object[]) query.args().get(0));
+    }
+
+    @Test
+    void find_ShouldNotQuery_WhenSearchMatchesNothing() {
+        // Arrange
+        when(productSearchIndex.isReady()).thenReturn(true);
+        when(productSearchIndex.search(anyString(), anyInt(), anyInt())).thenReturn(SearchHits.empty());
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setSearchQuery("nothing");
+
+        // Act
+        ProductSlice slice = engine.find(filter);
+
+        // Assert
+        assertTrue(slice.productIds().isEmpty());
+        assertNull(slice.nextCursor());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void find_ShouldReturnCursorAfterLastRow_OnlyWhenAnotherPageExists() {
+        // Arrange
+        List<ProductQueryEngine.Row> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UUID id = UUID.randomUUID();
+            rows.add(new ProductQueryEngine.Row(id, List.of(Instant.parse("2025-01-0" + (3 - i) + "T00:00:00Z").toString(), id.toString())));
+        }
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenReturn(rows)
+                .thenReturn(rows.subList(2, 3));
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setSize(2);
+
+        // Act
+        ProductSlice first = engine.find(filter);
+        filter.setCursor(first.nextCursor());
+        ProductQueryEngine.ProductQuery next = engine.build(filter).orElseThrow();
+        ProductSlice last = engine.find(filter);
+
+        // Assert
+        assertEquals(List.of(rows.get(0).id(), rows.get(1).id()), first.productIds());
+        assertNotNull(first.nextCursor());
+        assertTrue(next.sql().contains("AND (p.created_at, p.id) < (?, ?)"));
+        assertEquals(Timestamp.from(Instant.parse("2025-01-02T00:00:00Z")), next.args().get(0));
+        assertEquals(rows.get(1).id(), next.args().get(1));
+        assertEquals(List.of(rows.get(2).id()), last.productIds());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void build_ShouldRejectBadSortsAndCursors() {
+        // Arrange
+        ProductFilterRequest unknownKey = new ProductFilterRequest();
+        unknownKey.setSort("price; DROP TABLE products");
+        ProductFilterRequest relevanceWithoutQuery = new ProductFilterRequest();
+        relevanceWithoutQuery.setSort("relevance");
+        ProductFilterRequest otherSort = new ProductFilterRequest();
+        otherSort.setSort("price");
+        otherSort.setCursor(ProductCursor.encode("-created", List.of(Instant.now().toString(), UUID.randomUUID().toString())));
+        ProductFilterRequest garbage = new ProductFilterRequest();
+        garbage.setCursor("not a cursor");
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> engine.build(unknownKey));
+        assertThrows(BadRequestException.class, () -> engine.build(relevanceWithoutQuery));
+        assertThrows(BadRequestException.class, () -> engine.build(otherSort));
+        assertThrows(BadRequestException.class, () -> engine.build(garbage));
+    }
+}
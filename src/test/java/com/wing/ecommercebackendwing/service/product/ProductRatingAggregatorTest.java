@@ -0,0 +1,162 @@
+package com.wing.ecommercebackendwing.service.product;
+
+import com.wing.ecommercebackendwing.model.entity.Product;
+import com.wing.ecommercebackendwing.repository.ProductRatingStatsRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductRatingAggregatorTest {
+
+    @Mock private ProductRatingStatsRepository ratingStatsRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private ProductCache productCache;
+    @Mock private ProductFacetIndex productFacetIndex;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final Product product = new Product();
+    private final List<List<Integer>> deltas = new ArrayList<>();
+
+    private ProductRatingAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        product.setId(UUID.randomUUID());
+        when(ratingStatsRepository.applyDelta(any(UUID.class), anyInt(), anyInt(), anyInt(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    deltas.add(List.of(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3),
+                            invocation.getArgument(4), invocation.getArgument(5)));
+                    return 1;
+                });
+        when(productRepository.findRatingById(any(UUID.class))).thenReturn(Optional.of(new BigDecimal("4.50")));
+        aggregator = new ProductRatingAggregator(ratingStatsRepository, productRepository, productCache,
+                productFacetIndex, transactionManager, 2);
+    }
+
+    @Test
+    void record_ShouldMoveOneStarCount_PerReviewWrite() {
+        // Act
+        aggregator.record(product, null, 4);
+        aggregator.record(product, 3, 5);
+        aggregator.record(product, 2, null);
+
+        // Assert
+        assertEquals(List.of(
+                List.of(0, 0, 0, 1, 0),
+                List.of(0, 0, -1, 0, 1),
+                List.of(0, -1, 0, 0, 0)), deltas);
+        verify(ratingStatsRepository, never()).rebuildFromReviews(any());
+        verify(productCache, times(3)).evict(eq(product.getId()), isNull());
+        verify(productFacetIndex, times(3)).patchRating(eq(Map.of(product.getId(), new BigDecimal("4.50"))));
+    }
+
+    @Test
+    void record_ShouldWriteNothing_WhenRatingUnchanged() {
+        // Act
+        aggregator.record(product, 4, 4);
+
+        // Assert
+        verifyNoInteractions(ratingStatsRepository);
+        verifyNoInteractions(productCache);
+        verifyNoInteractions(productFacetIndex);
+    }
+
+    @Test
+    void record_ShouldCreateRowAndRecountOnce_WhenProductPredatesStatsRows() {
+        // Arrange
+        when(ratingStatsRepository.createIfMissing(product.getId())).thenReturn(1).thenReturn(0);
+        when(ratingStatsRepository.rebuildFromReviews(any())).thenReturn(1);
+
+        // Act
+        aggregator.record(product, null, 5);
+        aggregator.record(product, null, 3);
+
+        // Assert
+        verify(ratingStatsRepository, times(1)).rebuildFromReviews(any());
+        assertEquals(List.of(List.of(0, 0, 1, 0, 0)), deltas);
+    }
+
+    @Test
+    void record_ShouldRecountFromReviews_WhenCountWouldGoNegative() {
+        // Arrange
+        when(ratingStatsRepository.applyDelta(any(UUID.class), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(0);
+        List<UUID[]> recounted = new ArrayList<>();
+        when(ratingStatsRepository.rebuildFromReviews(any())).thenAnswer(invocation -> {
+            recounted.add(invocation.getArgument(0));
+            return 1;
+        });
+
+        // Act
+        aggregator.record(product, null, 5);
+
+        // Assert
+        assertEquals(1, recounted.size());
+        assertArrayEquals(new UUID[]{product.getId()}, recounted.get(0));
+        verify(productCache).evict(eq(product.getId()), isNull());
+        verify(productFacetIndex).patchRating(anyMap());
+    }
+
+    @Test
+    void repairAll_ShouldRecountEveryBatch_AndRefreshFacetsOnlyWhenSomethingDrifted() {
+        // Arrange
+        UUID first = new UUID(0L, 1L);
+        UUID second = new UUID(0L, 2L);
+        UUID third = new UUID(0L, 3L);
+        when(productRepository.findIdsAfter(any(UUID.class), any(Pageable.class))).thenAnswer(invocation -> {
+            UUID after = invocation.getArgument(0);
+            return after.equals(new UUID(0L, 0L)) ? List.of(first, second) : after.equals(second) ? List.of(third) : List.of();
+        });
+        List<List<UUID>> batches = new ArrayList<>();
+        when(ratingStatsRepository.rebuildFromReviews(any())).thenAnswer(invocation -> {
+            UUID[] ids = invocation.getArgument(0);
+            batches.add(Arrays.asList(ids));
+            return ids.length == 1 ? 1 : 0;
+        });
+
+        // Act
+        int repaired = aggregator.repairAll();
+
+        // Assert
+        assertEquals(1, repaired);
+        assertEquals(List.of(List.of(first, second), List.of(third)), batches);
+        verify(productCache).evict(eq(third), isNull());
+        verify(productCache, never()).evict(eq(first), any());
+        verify(productFacetIndex).requestRebuild();
+    }
+
+    @Test
+    void repairAll_ShouldLeaveFacetsAlone_WhenNothingDrifted() {
+        // Arrange
+        when(productRepository.findIdsAfter(any(UUID.class), any(Pageable.class))).thenReturn(List.of(new UUID(0L, 1L)));
+        when(ratingStatsRepository.rebuildFromReviews(any())).thenReturn(0);
+
+        // Act
+        int repaired = aggregator.repairAll();
+
+        // Assert
+        assertEquals(0, repaired);
+        verify(productFacetIndex, never()).requestRebuild();
+        verifyNoInteractions(productCache);
+    }
+}
@@ -0,0 +1,152 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import com.wing.ecommercebackendwing.config.SearchProperties;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductSearchIndexTest {
+
+    @Mock private ProductRepository productRepository;
+
+    private final SearchProperties properties = new SearchProperties();
+    private final List<ProductSearchDocument> catalog = new ArrayList<>();
+    private ProductSearchIndex index;
+
+    private final ProductSearchDocument mugSet = document("Ceramic Coffee Mug Set", "Handcrafted ceramic mugs, set of 4", "Home & Living", 670, "4.8");
+    private final ProductSearchDocument coffeeBeans = document("Café Crème Beans", "Roasted coffee beans", "Grocery", 10, "4.0");
+    private final ProductSearchDocument premiumMat = document("Yoga Mat Premium", "Non-slip surface", "Sports & Fitness", 340, "4.6");
+    private final ProductSearchDocument basicMat = document("Yoga Mat Basic", "Non-slip surface", "Sports & Fitness", 3, "3.9");
+
+    @BeforeEach
+    void setUp() {
+        catalog.addAll(List.of(mugSet, coffeeBeans, premiumMat, basicMat));
+        when(productRepository.findSearchDocumentsAfter(eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenAnswer(inv -> List.copyOf(catalog));
+        index = new ProductSearchIndex(productRepository, properties);
+        assertTrue(index.rebuild());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        index.shutdown();
+    }
+
+    @Test
+    void tokenize_ShouldLowerCaseAndFoldAccents() {
+        assertEquals(List.of("cafe", "creme", "deja", "vu", "42"), SearchTokenizer.tokenize("Café Crème, déjà-vu 42!"));
+    }
+
+    @Test
+    void tokenize_ShouldKeepKhmerVowelsAndCoeng() {
+        // Arrange
+        String coffee = "\u1780\u17B6\u17A0\u17D2\u179C\u17C1";
+        String khmer = "\u1781\u17D2\u1798\u17C2\u179A";
+
+        // Act
+        List<String> tokens = SearchTokenizer.tokenize(coffee + " " + khmer + "!");
+
+        // Assert
+        assertEquals(List.of(coffee, khmer), tokens);
+        assertNotEquals(SearchTokenizer.tokenize("\u1780\u17B6"), SearchTokenizer.tokenize("\u1780"));
+    }
+
+    @Test
+    void search_ShouldMatchAccentedTextWithPlainQuery() {
+        // Act
+        SearchHits hits = index.search("creme", 0, 10);
+
+        // Assert
+        assertEquals(List.of(coffeeBeans.id()), hits.productIds());
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        SearchHits hits = index.search("coffee", 0, 10);
+
+        // Assert
+        assertEquals(List.of(mugSet.id(), coffeeBeans.id()), hits.productIds());
+        assertEquals(2, hits.total());
+    }
+
+    @Test
+    void search_ShouldRequireEveryWordAndTreatLastWordAsPrefix() {
+        // Act
+        SearchHits hits = index.search("yoga ma", 0, 10);
+        SearchHits none = index.search("yoga coffee", 0, 10);
+
+        // Assert
+        assertEquals(2, hits.total());
+        assertEquals(0, none.total());
+    }
+
+    @Test
+    void search_ShouldBreakTextTiesWithSalesAndRating() {
+        // Act
+        SearchHits firstPage = index.search("yoga mat", 0, 1);
+        SearchHits secondPage = index.search("yoga mat", 1, 1);
+
+        // Assert
+        assertEquals(List.of(premiumMat.id()), firstPage.productIds());
+        assertEquals(List.of(basicMat.id()), secondPage.productIds());
+        assertEquals(2, secondPage.total());
+    }
+
+    @Test
+    void index_ShouldReplaceAndRemoveProducts() {
+        // Act
+        index.index(new ProductSearchDocument(basicMat.id(), "Pilates Ring", "Toning ring", "Sports & Fitness", 3, null));
+        index.remove(mugSet.id());
+
+        // Assert
+        assertEquals(List.of(premiumMat.id()), index.search("mat", 0, 10).productIds());
+        assertEquals(List.of(basicMat.id()), index.search("pilat", 0, 10).productIds());
+        assertEquals(List.of(coffeeBeans.id()), index.search("coffee", 0, 10).productIds());
+        assertEquals(3, index.stats().products());
+    }
+
+    @Test
+    void rebuild_ShouldKeepWritesThatCommitWhileItIsReading() {
+        // Arrange
+        ProductSearchDocument added = document("Resistance Bands Set", "Five bands", "Sports & Fitness", 0, "0");
+        when(productRepository.findSearchDocumentsAfter(eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    List<ProductSearchDocument> snapshot = List.copyOf(catalog);
+                    // Committed after the snapshot was read
+                    index.index(added);
+                    index.remove(coffeeBeans.id());
+                    return snapshot;
+                });
+
+        // Act
+        assertTrue(index.rebuild());
+
+        // Assert
+        assertEquals(List.of(added.id()), index.search("bands", 0, 10).productIds());
+        assertEquals(List.of(mugSet.id()), index.search("coffee", 0, 10).productIds());
+    }
+
+    private static ProductSearchDocument document(String name, String description, String category, int sold, String rating) {
+        return new ProductSearchDocument(UUID.randomUUID(), name, description, category, sold, new BigDecimal(rating));
+    }
+}
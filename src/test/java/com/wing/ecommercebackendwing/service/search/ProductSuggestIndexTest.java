@@ -0,0 +1,160 @@
+package com.wing.ecommercebackendwing.service.search;
+
+import com.wing.ecommercebackendwing.config.SuggestProperties;
+import com.wing.ecommercebackendwing.model.entity.Category;
+import com.wing.ecommercebackendwing.repository.CategoryRepository;
+import com.wing.ecommercebackendwing.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductSuggestIndexTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private CategoryRepository categoryRepository;
+
+    private final SuggestProperties properties = new SuggestProperties();
+    private final UUID audioId = UUID.randomUUID();
+    private final ProductSuggestDocument headphones = document("Wireless Headphones", audioId, 900, 5000);
+    private final ProductSuggestDocument earbuds = document("Wired Earbuds", audioId, 40, 100);
+    private final ProductSuggestDocument mouse = document("Wireless Mouse", null, 300, 20000);
+    private final ProductSuggestDocument cafe = document("Café Crème Beans", null, 10, 10);
+
+    private ProductSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxPendingWrites(100);
+        Category audio = new Category();
+        audio.setId(audioId);
+        audio.setName("Wireless Audio");
+        audio.setSlug("wireless-audio");
+        when(productRepository.findSuggestDocumentsAfter(eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenReturn(List.of(headphones, earbuds, mouse, cafe));
+        when(categoryRepository.findByIsActiveTrue()).thenReturn(List.of(audio));
+        index = new ProductSuggestIndex(productRepository, categoryRepository, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        index.shutdown();
+    }
+
+    @Test
+    void suggest_ShouldBeEmpty_UntilFirstBuild() {
+        // Act & Assert
+        assertTrue(index.suggest("wire", 5).isEmpty());
+        assertTrue(index.rebuild());
+        assertFalse(index.suggest("wire", 5).isEmpty());
+        assertTrue(index.suggest("  -- ", 5).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldRankBySalesThenViews_AndCategoriesByTheirProducts() {
+        // Arrange
+        index.rebuild();
+
+        // Act
+        List<Suggestion> suggestions = index.suggest("Wire", 10);
+
+        // Assert
+        // The category sums its two products, so it outranks each of them.
+        assertEquals(List.of("Wireless Audio", "Wireless Headphones", "Wireless Mouse", "Wired Earbuds"), names(suggestions));
+        assertEquals(Suggestion.Type.CATEGORY, suggestions.get(0).type());
+        assertEquals("wireless-audio", suggestions.get(0).slug());
+        assertEquals(List.of("Wireless Audio", "Wireless Headphones"), names(index.suggest("wire", 2)));
+    }
+
+    @Test
+    void suggest_ShouldMatchAnyWordStart_IgnoringAccentsAndPunctuation() {
+        // Arrange
+        index.rebuild();
+
+        // Act & Assert
+        assertEquals(List.of("Wireless Headphones"), names(index.suggest("head", 10)));
+        assertEquals(List.of("Café Crème Beans"), names(index.suggest("CREME b", 10)));
+        assertEquals(List.of("Café Crème Beans"), names(index.suggest("café-crè", 10)));
+        assertTrue(index.suggest("ireless", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldFollowWrites_BeforeAndAfterCompaction() {
+        // Arrange
+        index.rebuild();
+        ProductSuggestDocument speaker = document("Wireless Speaker", audioId, 20000, 0);
+        ProductSuggestDocument renamedMouse = new ProductSuggestDocument(mouse.id(), "Gaming Mouse", "gaming-mouse", null, 300, 20000);
+
+        // Act
+        index.index(speaker);
+        index.index(renamedMouse);
+        index.remove(earbuds.id());
+        List<Suggestion> beforeCompaction = index.suggest("wire", 10);
+        properties.setMaxPendingWrites(3);
+        boolean compacted = index.compact();
+        List<Suggestion> afterCompaction = index.suggest("wire", 10);
+
+        // Assert
+        List<String> expected = List.of("Wireless Speaker", "Wireless Audio", "Wireless Headphones");
+        assertEquals(expected, names(beforeCompaction));
+        assertTrue(compacted);
+        assertEquals(expected, names(afterCompaction));
+        assertEquals(List.of("Gaming Mouse"), names(index.suggest("gam", 10)));
+        assertEquals(0, index.stats().pendingWrites());
+        assertEquals(5, index.stats().suggestions());
+    }
+
+    @Test
+    void top_ShouldMatchBruteForce_OnRandomCatalog() {
+        // Arrange
+        Random random = new Random(7);
+        String[] words = {"red", "real", "ready", "blue", "blur", "bluetooth", "lamp", "large", "laptop", "lap"};
+        List<Suggestion> catalog = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+            catalog.add(new Suggestion(Suggestion.Type.PRODUCT, UUID.randomUUID(), name, "p" + i, random.nextInt(500)));
+        }
+        PrefixIndex prefixIndex = PrefixIndex.build(catalog, 4);
+
+        for (String prefix : List.of("r", "re", "rea", "blu", "blue", "lap", "la", "laptop r", "1", "19", "zzz")) {
+            // Act
+            List<Suggestion> top = prefixIndex.top(prefix, 10, suggestion -> false);
+
+            // Assert
+            List<Double> expected = catalog.stream()
+                    .filter(suggestion -> PrefixIndex.matches(PrefixIndex.normalize(suggestion.name()), prefix, 4))
+                    .map(Suggestion::score)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .toList();
+            assertEquals(expected, top.stream().map(Suggestion::score).toList(), prefix);
+            assertTrue(top.stream().allMatch(suggestion -> PrefixIndex.matches(PrefixIndex.normalize(suggestion.name()), prefix, 4)), prefix);
+        }
+    }
+
+    private static List<String> names(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::name).toList();
+    }
+
+    private static ProductSuggestDocument document(String name, UUID categoryId, int sold, int views) {
+        return new ProductSuggestDocument(UUID.randomUUID(), name, name.toLowerCase().replace(' ', '-'), categoryId, sold, views);
+    }
+}
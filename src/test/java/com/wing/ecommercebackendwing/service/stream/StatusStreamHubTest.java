@@ -0,0 +1,186 @@
+package com.wing.ecommercebackendwing.service.stream;
+
+import com.wing.ecommercebackendwing.config.StatusStreamProperties;
+import com.wing.ecommercebackendwing.model.enums.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusStreamHubTest {
+
+    private final StatusStreamProperties properties = new StatusStreamProperties();
+    private final UUID userId = UUID.randomUUID();
+    private StatusStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxSubscribersPerUser(2);
+        properties.setMaxSubscribers(10);
+        properties.setReplaySize(3);
+        hub = new StatusStreamHub(properties, Runnable::run, RecordingEmitter::new);
+    }
+
+    @Test
+    void publish_ShouldDeliverEventsInOrderToTheUsersStreams() {
+        // Arrange
+        RecordingEmitter stream = (RecordingEmitter) hub.subscribe(userId, null);
+        RecordingEmitter otherUser = (RecordingEmitter) hub.subscribe(UUID.randomUUID(), null);
+
+        // Act
+        hub.publish(userId, event(StatusStreamEvent.PAYMENT_COMPLETED));
+        hub.publish(userId, event(StatusStreamEvent.ORDER_STATUS));
+
+        // Assert
+        assertEquals(List.of(StatusStreamEvent.PAYMENT_COMPLETED, StatusStreamEvent.ORDER_STATUS), stream.eventNames());
+        assertTrue(otherUser.eventNames().isEmpty());
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldReplayOnlyLaterEvents() {
+        // Arrange
+        RecordingEmitter first = (RecordingEmitter) hub.subscribe(userId, null);
+        hub.publish(userId, event(StatusStreamEvent.ORDER_PLACED));
+        hub.publish(userId, event(StatusStreamEvent.PAYMENT_COMPLETED));
+        String lastSeen = first.ids().get(0);
+
+        // Act
+        RecordingEmitter resumed = (RecordingEmitter) hub.subscribe(userId, lastSeen);
+
+        // Assert
+        assertEquals(List.of(StatusStreamEvent.PAYMENT_COMPLETED), resumed.eventNames());
+        assertEquals(first.ids().get(1), resumed.ids().get(0));
+    }
+
+    @Test
+    void subscribe_WhenEventsWereDropped_ShouldSendResync() {
+        // Arrange
+        RecordingEmitter first = (RecordingEmitter) hub.subscribe(userId, null);
+        hub.publish(userId, event(StatusStreamEvent.ORDER_PLACED));
+        String lastSeen = first.ids().get(0);
+        for (int i = 0; i < 5; i++) {
+            hub.publish(userId, event(StatusStreamEvent.ORDER_STATUS));
+        }
+
+        // Act
+        RecordingEmitter resumed = (RecordingEmitter) hub.subscribe(userId, lastSeen);
+
+        // Assert
+        assertEquals(List.of(StatusStreamHub.RESYNC), resumed.eventNames());
+        assertEquals(first.ids().get(first.ids().size() - 1), resumed.ids().get(0));
+    }
+
+    @Test
+    void subscribe_WithIdFromAnotherProcess_ShouldSendResync() {
+        // Act
+        RecordingEmitter resumed = (RecordingEmitter) hub.subscribe(userId, "previous-42");
+
+        // Assert
+        assertEquals(List.of(StatusStreamHub.RESYNC), resumed.eventNames());
+    }
+
+    @Test
+    void subscribe_OverPerUserLimit_ShouldCloseTheOldestStream() {
+        // Arrange
+        RecordingEmitter oldest = (RecordingEmitter) hub.subscribe(userId, null);
+        RecordingEmitter second = (RecordingEmitter) hub.subscribe(userId, null);
+
+        // Act
+        RecordingEmitter newest = (RecordingEmitter) hub.subscribe(userId, null);
+        hub.publish(userId, event(StatusStreamEvent.PAYMENT_EXPIRED));
+
+        // Assert
+        assertTrue(oldest.completed);
+        assertTrue(oldest.eventNames().isEmpty());
+        assertEquals(List.of(StatusStreamEvent.PAYMENT_EXPIRED), second.eventNames());
+        assertEquals(List.of(StatusStreamEvent.PAYMENT_EXPIRED), newest.eventNames());
+        assertEquals(2, hub.openStreams());
+    }
+
+    @Test
+    void subscribe_OverNodeLimit_ShouldAskClientToRetryLater() {
+        // Arrange
+        properties.setMaxSubscribers(1);
+        hub.subscribe(userId, null);
+
+        // Act
+        RecordingEmitter rejected = (RecordingEmitter) hub.subscribe(UUID.randomUUID(), null);
+
+        // Assert
+        assertEquals(List.of(StatusStreamHub.OVERLOADED), rejected.eventNames());
+        assertTrue(rejected.frames.get(0).contains("retry:" + properties.getRetryAfterMs()));
+        assertTrue(rejected.completed);
+        assertEquals(1, hub.openStreams());
+    }
+
+    @Test
+    void heartbeat_ShouldPingOpenStreams() {
+        // Arrange
+        RecordingEmitter stream = (RecordingEmitter) hub.subscribe(userId, null);
+        stream.frames.clear();
+
+        // Act
+        hub.heartbeat();
+
+        // Assert
+        assertEquals(1, stream.frames.size());
+        assertTrue(stream.frames.get(0).startsWith(":ping"));
+    }
+
+    private StatusStreamEvent event(String type) {
+        return new StatusStreamEvent(type, UUID.randomUUID(), "ORD-20260101-00001",
+                OrderStatus.PENDING, OrderStatus.PAID, Instant.now());
+    }
+
+    /** Captures what would be written to the client. */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> frames = new ArrayList<>();
+        private boolean completed;
+
+        RecordingEmitter(Long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder frame = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                frame.append(part.getData());
+            }
+            frames.add(frame.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> eventNames() {
+            return fields("event:");
+        }
+
+        List<String> ids() {
+            return fields("id:");
+        }
+
+        private List<String> fields(String prefix) {
+            List<String> values = new ArrayList<>();
+            for (String frame : frames) {
+                for (String line : frame.split("\n")) {
+                    if (line.startsWith(prefix)) {
+                        values.add(line.substring(prefix.length()));
+                    }
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.wing.ecommercebackendwing.util;
+
+import com.wing.ecommercebackendwing.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * As many checkouts as the connection pool has connections, all crossing block boundaries at once.
+ *
+ * This models the pool rather than load-testing a real one: a semaphore of {@value #POOL_SIZE}
+ * permits with a {@value #CONNECTION_TIMEOUT_MS} ms checkout timeout sits behind a mocked
+ * transaction manager. Every checkout holds one permit, its own connection, while it asks for
+ * order numbers. If reserving a block needed a second connection, the thread reserving it would
+ * find the pool empty while the others waited on it, and the checkouts would time out.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderNumberGeneratorSimulatedPoolTest {
+
+    private static final int POOL_SIZE = 20;
+    private static final long CONNECTION_TIMEOUT_MS = 250;
+    private static final long NEXTVAL_LATENCY_MS = 2;
+    private static final int BLOCK_SIZE = 5;
+    private static final int ORDERS_PER_CHECKOUT = 12;
+
+    @Mock private OrderRepository orderRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final Semaphore pool = new Semaphore(POOL_SIZE);
+    private final AtomicLong sequence = new AtomicLong(1 + BLOCK_SIZE);
+    private final AtomicInteger checkoutTimeouts = new AtomicInteger();
+
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            if (!pool.tryAcquire(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                checkoutTimeouts.incrementAndGet();
+                throw new CannotCreateTransactionException("Connection is not available, request timed out");
+            }
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(inv -> {
+            pool.release();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(inv -> {
+            pool.release();
+            return null;
+        }).when(transactionManager).rollback(any());
+
+        // nextval on the caller's connection: no permit of its own.
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), anyString())).thenAnswer(inv -> {
+            Thread.sleep(NEXTVAL_LATENCY_MS);
+            return List.of(new long[]{sequence.getAndAdd(BLOCK_SIZE), BLOCK_SIZE});
+        });
+
+        orderNumberGenerator = new OrderNumberGenerator(orderRepository, jdbcTemplate, transactionManager, BLOCK_SIZE);
+        orderNumberGenerator.prepareSequences();
+    }
+
+    @Test
+    void generateOrderNumber_WithEveryConnectionHeldByACheckout_ShouldNotStallAtBlockBoundaries() throws Exception {
+        // Arrange
+        ExecutorService checkouts = Executors.newFixedThreadPool(POOL_SIZE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < POOL_SIZE; i++) {
+            results.add(checkouts.submit(() -> {
+                assertTrue(pool.tryAcquire(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+                start.await();
+                try {
+                    List<String> numbers = new ArrayList<>();
+                    for (int n = 0; n < ORDERS_PER_CHECKOUT; n++) {
+                        numbers.add(orderNumberGenerator.generateOrderNumber());
+                    }
+                    return numbers;
+                } finally {
+                    pool.release();
+                }
+            }));
+        }
+        start.countDown();
+        Set<String> numbers = new HashSet<>();
+        for (Future<List<String>> result : results) {
+            numbers.addAll(result.get(10, TimeUnit.SECONDS));
+        }
+        checkouts.shutdown();
+
+        // Assert
+        assertEquals(0, checkoutTimeouts.get(), "a block reservation waited for a second connection");
+        assertEquals(POOL_SIZE * ORDERS_PER_CHECKOUT, numbers.size(), "order numbers were handed out twice");
+        assertEquals(POOL_SIZE, pool.availablePermits(), "connections leaked");
+    }
+}
@@ -5,61 +5,85 @@ import com.wing.ecommercebackendwing.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.startsWith;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class OrderNumberGeneratorTest {
 
+    private static final int BLOCK_SIZE = 3;
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+    private static final String SEQUENCE = "order_number_seq_20260314";
+
     @Mock
     private OrderRepository orderRepository;
 
-    @InjectMocks
-    private OrderNumberGenerator orderNumberGenerator;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Clock clock;
 
-    private String datePrefix;
+    private OrderNumberGenerator orderNumberGenerator;
 
     @BeforeEach
     void setUp() {
-        datePrefix = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        lenient().when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        lenient().when(clock.instant()).thenReturn(startOf(DAY));
+        orderNumberGenerator = new OrderNumberGenerator(orderRepository, jdbcTemplate, transactionManager, BLOCK_SIZE, clock);
     }
 
     @Test
     void generateOrderNumber_WhenNoPreviousOrders_ShouldStartAt001() {
         // Arrange
-        when(orderRepository.findFirstByOrderNumberStartingWithOrderByOrderNumberDesc(startsWith("ORD-" + datePrefix)))
+        when(orderRepository.findFirstByOrderNumberStartingWithOrderByOrderNumberDesc("ORD-20260314-"))
                 .thenReturn(Optional.empty());
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SEQUENCE))).thenReturn(List.of(block(4, 3)));
 
         // Act
         String orderNumber = orderNumberGenerator.generateOrderNumber();
 
         // Assert
-        assertEquals("ORD-" + datePrefix + "-001", orderNumber);
+        assertEquals("ORD-20260314-001", orderNumber);
+        verify(jdbcTemplate).execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH 4 INCREMENT BY 3");
     }
 
     @Test
-    void generateOrderNumber_WhenPreviousOrdersExist_ShouldIncrementSequence() {
+    void generateOrderNumber_WhenPreviousOrdersExist_ShouldContinueAfterThem() {
         // Arrange
         Order lastOrder = new Order();
-        lastOrder.setOrderNumber("ORD-" + datePrefix + "-005");
-        
-        when(orderRepository.findFirstByOrderNumberStartingWithOrderByOrderNumberDesc(startsWith("ORD-" + datePrefix)))
+        lastOrder.setOrderNumber("ORD-20260314-005");
+        when(orderRepository.findFirstByOrderNumberStartingWithOrderByOrderNumberDesc("ORD-20260314-"))
                 .thenReturn(Optional.of(lastOrder));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SEQUENCE))).thenReturn(List.of(block(9, 3)));
 
         // Act
         String orderNumber = orderNumberGenerator.generateOrderNumber();
 
         // Assert
-        assertEquals("ORD-" + datePrefix + "-006", orderNumber);
+        assertEquals("ORD-20260314-006", orderNumber);
+        verify(jdbcTemplate).execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH 9 INCREMENT BY 3");
     }
 
     @Test
@@ -67,14 +91,102 @@ public class OrderNumberGeneratorTest {
         // Arrange
         Order lastOrder = new Order();
         lastOrder.setOrderNumber("INVALID-FORMAT");
-        
-        when(orderRepository.findFirstByOrderNumberStartingWithOrderByOrderNumberDesc(startsWith("ORD-" + datePrefix)))
+        when(orderRepository.findFirstByOrderNumberStartingWithOrderByOrderNumberDesc("ORD-20260314-"))
                 .thenReturn(Optional.of(lastOrder));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SEQUENCE))).thenReturn(List.of(block(4, 3)));
+
+        // Act
+        String orderNumber = orderNumberGenerator.generateOrderNumber();
+
+        // Assert
+        assertEquals("ORD-20260314-001", orderNumber);
+        verify(jdbcTemplate).execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH 4 INCREMENT BY 3");
+    }
+
+    @Test
+    void generateOrderNumber_ShouldServeBlockFromMemoryAndThenAdvance() {
+        // Arrange: another node already took 1..6, this node gets 7..9 and then 13..15
+        orderNumberGenerator.prepareSequences();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SEQUENCE)))
+                .thenReturn(List.of(block(10, 3)))
+                .thenReturn(List.of(block(16, 3)));
+
+        // Act
+        List<String> numbers = List.of(
+                orderNumberGenerator.generateOrderNumber(),
+                orderNumberGenerator.generateOrderNumber(),
+                orderNumberGenerator.generateOrderNumber(),
+                orderNumberGenerator.generateOrderNumber()
+        );
+
+        // Assert
+        assertEquals(List.of("ORD-20260314-007", "ORD-20260314-008", "ORD-20260314-009", "ORD-20260314-013"), numbers);
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), eq(SEQUENCE));
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    void generateOrderNumber_ShouldUseTheSequenceStep_WhenItDiffersFromTheConfiguredBlockSize() {
+        // Arrange: the day's sequence was created by a node with blocks of 5
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SEQUENCE))).thenReturn(List.of(block(11, 5)));
 
         // Act
         String orderNumber = orderNumberGenerator.generateOrderNumber();
 
         // Assert
-        assertEquals("ORD-" + datePrefix + "-001", orderNumber);
+        assertEquals("ORD-20260314-006", orderNumber);
+    }
+
+    @Test
+    void generateOrderNumber_AtDayRollover_ShouldDiscardOldBlockAndRestartSequence() {
+        // Arrange
+        LocalDate nextDay = DAY.plusDays(1);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), anyString())).thenReturn(List.of(block(4, 3)));
+        when(clock.instant())
+                .thenReturn(startOf(nextDay).minusMillis(1))
+                .thenReturn(startOf(nextDay));
+
+        // Act
+        String beforeMidnight = orderNumberGenerator.generateOrderNumber();
+        String afterMidnight = orderNumberGenerator.generateOrderNumber();
+
+        // Assert
+        assertEquals("ORD-20260314-001", beforeMidnight);
+        assertEquals("ORD-20260315-001", afterMidnight);
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(SEQUENCE));
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq("order_number_seq_20260315"));
+    }
+
+    @Test
+    void generateOrderNumber_WhenSequenceIsMissing_ShouldFailWithoutBreakingTheCallersTransaction() {
+        // Arrange
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SEQUENCE))).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> orderNumberGenerator.generateOrderNumber());
+    }
+
+    @Test
+    void prepareSequences_ShouldCreateTodayAndTomorrow_AndDropDaysBeforeYesterday() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "order_number_seq_20260312", "order_number_seq_20260313", SEQUENCE));
+
+        // Act
+        orderNumberGenerator.prepareSequences();
+
+        // Assert
+        verify(jdbcTemplate).execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH 4 INCREMENT BY 3");
+        verify(jdbcTemplate).execute("CREATE SEQUENCE IF NOT EXISTS order_number_seq_20260315 START WITH 4 INCREMENT BY 3");
+        verify(jdbcTemplate).execute("DROP SEQUENCE IF EXISTS order_number_seq_20260312");
+        verify(jdbcTemplate, never()).execute("DROP SEQUENCE IF EXISTS order_number_seq_20260313");
+    }
+
+    private static long[] block(long high, long size) {
+        return new long[]{high, size};
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneId.of("UTC")).toInstant();
     }
 }